@@ -1,5 +1,8 @@
 package com.mycompany.myapp.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -9,4 +12,173 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  * See {@link tech.jhipster.config.JHipsterProperties} for a good example.
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
-public class ApplicationProperties {}
+public class ApplicationProperties {
+
+    private final Database database = new Database();
+
+    public Database getDatabase() {
+        return database;
+    }
+
+    public static class Database {
+
+        /**
+         * Maximum number of rows written by a single batched statement.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Number of rows fetched per round trip when a whole table is streamed.
+         */
+        private int fetchSize = 500;
+
+        /**
+         * How long the results of an aggregation are cached, unless a write to the aggregated entity evicts them sooner.
+         */
+        private Duration aggregateCacheTtl = Duration.ofSeconds(10);
+
+        /**
+         * Maximum number of departments cached by id.
+         */
+        private int departmentCacheSize = 1000;
+
+        /**
+         * How long a cached department, or the list of all the departments, is kept, unless a write through the department
+         * service invalidates it sooner.
+         */
+        private Duration departmentCacheTtl = Duration.ofMinutes(5);
+
+        private final Replicas replicas = new Replicas();
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+
+        public Duration getAggregateCacheTtl() {
+            return aggregateCacheTtl;
+        }
+
+        public void setAggregateCacheTtl(Duration aggregateCacheTtl) {
+            this.aggregateCacheTtl = aggregateCacheTtl;
+        }
+
+        public int getDepartmentCacheSize() {
+            return departmentCacheSize;
+        }
+
+        public void setDepartmentCacheSize(int departmentCacheSize) {
+            this.departmentCacheSize = departmentCacheSize;
+        }
+
+        public Duration getDepartmentCacheTtl() {
+            return departmentCacheTtl;
+        }
+
+        public void setDepartmentCacheTtl(Duration departmentCacheTtl) {
+            this.departmentCacheTtl = departmentCacheTtl;
+        }
+
+        public Replicas getReplicas() {
+            return replicas;
+        }
+    }
+
+    /**
+     * The read replicas of the database, which serve the read-only transactions: see
+     * {@link ReplicaRoutingConnectionFactory}.
+     */
+    public static class Replicas {
+
+        /**
+         * R2DBC URLs of the replicas. When there is none, all the connections go to {@code spring.r2dbc.url}.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * Login username of the replicas, {@code spring.r2dbc.username} if not set.
+         */
+        private String username;
+
+        /**
+         * Login password of the replicas, {@code spring.r2dbc.password} if not set.
+         */
+        private String password;
+
+        /**
+         * How often each replica is checked. A check which takes longer fails.
+         */
+        private Duration checkInterval = Duration.ofSeconds(5);
+
+        /**
+         * Query run by the checks, whose first column is the replication lag of the replica in seconds, or null if the
+         * replication is stopped. When not set, the checks run {@code SELECT 1} and the lag isn't known.
+         */
+        private String lagQuery;
+
+        /**
+         * Maximum replication lag of a replica, beyond which the read-only transactions go to the other replicas, or to
+         * the primary.
+         */
+        private Duration maxLag = Duration.ofSeconds(10);
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Duration getCheckInterval() {
+            return checkInterval;
+        }
+
+        public void setCheckInterval(Duration checkInterval) {
+            this.checkInterval = checkInterval;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+    }
+}
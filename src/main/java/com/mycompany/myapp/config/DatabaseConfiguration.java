@@ -1,6 +1,13 @@
 package com.mycompany.myapp.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
 import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
@@ -11,10 +18,19 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -32,7 +48,9 @@ import org.springframework.data.r2dbc.query.UpdateMapper;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
 import org.springframework.data.relational.core.dialect.RenderContextFactory;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
 
@@ -124,6 +142,137 @@ public class DatabaseConfiguration {
         );
     }
 
+    /**
+     * Replaces the transaction manager of Spring Boot, to mark the read-only transactions before they acquire their
+     * connection, which decides if they go to a replica.
+     */
+    @Bean
+    public R2dbcTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+        return new ReplicaRoutingConnectionFactory.ReadOnlyAwareTransactionManager(connectionFactory);
+    }
+
+    /**
+     * Route the read-only transactions to the replicas listed by {@code application.database.replicas.urls}, if any: the
+     * connection factory configured by Spring Boot from {@code spring.r2dbc} is wrapped in a
+     * {@link ReplicaRoutingConnectionFactory}, as the one of the primary. The replicas are checked once the application
+     * is ready, and take no transaction before.
+     */
+    @Bean
+    public static ReplicaRoutingPostProcessor replicaRoutingPostProcessor(
+        ObjectProvider<ApplicationProperties> applicationProperties,
+        ObjectProvider<R2dbcProperties> r2dbcProperties,
+        ObjectProvider<MeterRegistry> meterRegistry
+    ) {
+        return new ReplicaRoutingPostProcessor(applicationProperties, r2dbcProperties, meterRegistry);
+    }
+
+    static class ReplicaRoutingPostProcessor implements BeanPostProcessor, ApplicationListener<ApplicationReadyEvent>, DisposableBean {
+
+        private final Logger log = LoggerFactory.getLogger(ReplicaRoutingPostProcessor.class);
+
+        private final ObjectProvider<ApplicationProperties> applicationProperties;
+
+        private final ObjectProvider<R2dbcProperties> r2dbcProperties;
+
+        private final ObjectProvider<MeterRegistry> meterRegistry;
+
+        private ReplicaRoutingConnectionFactory routingConnectionFactory;
+
+        ReplicaRoutingPostProcessor(
+            ObjectProvider<ApplicationProperties> applicationProperties,
+            ObjectProvider<R2dbcProperties> r2dbcProperties,
+            ObjectProvider<MeterRegistry> meterRegistry
+        ) {
+            this.applicationProperties = applicationProperties;
+            this.r2dbcProperties = r2dbcProperties;
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (routingConnectionFactory != null || !(bean instanceof ConnectionFactory)) {
+                return bean;
+            }
+            ApplicationProperties.Replicas replicas = applicationProperties.getObject().getDatabase().getReplicas();
+            if (replicas.getUrls() == null || replicas.getUrls().isEmpty()) {
+                return bean;
+            }
+            R2dbcProperties properties = r2dbcProperties.getObject();
+            MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+            Map<String, ConnectionFactory> replicaConnectionFactories = new LinkedHashMap<>();
+            for (String url : replicas.getUrls()) {
+                String name = "replica-" + replicaConnectionFactories.size();
+                ConnectionPool pool = replicaPool(name, url, replicas, properties);
+                new ConnectionPoolMetrics(pool, name, Tags.empty()).bindTo(registry);
+                replicaConnectionFactories.put(name, pool);
+            }
+            // The pool metrics of Spring Boot only find the pools exposed as beans
+            if (bean instanceof ConnectionPool) {
+                new ConnectionPoolMetrics((ConnectionPool) bean, beanName, Tags.empty()).bindTo(registry);
+            }
+            routingConnectionFactory =
+                new ReplicaRoutingConnectionFactory((ConnectionFactory) bean, replicaConnectionFactories, replicas, registry);
+            routingConnectionFactory.afterPropertiesSet();
+            log.info("Routing the read-only transactions to {} database replica(s)", replicaConnectionFactories.size());
+            return routingConnectionFactory;
+        }
+
+        /**
+         * A pool of connections to a replica, configured like the one of the primary by {@code spring.r2dbc.pool}.
+         */
+        private static ConnectionPool replicaPool(
+            String name,
+            String url,
+            ApplicationProperties.Replicas replicas,
+            R2dbcProperties properties
+        ) {
+            ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+            String username = replicas.getUsername() != null ? replicas.getUsername() : properties.getUsername();
+            if (StringUtils.hasText(username)) {
+                options.option(ConnectionFactoryOptions.USER, username);
+            }
+            String password = replicas.getPassword() != null ? replicas.getPassword() : properties.getPassword();
+            if (StringUtils.hasText(password)) {
+                options.option(ConnectionFactoryOptions.PASSWORD, password);
+            }
+            R2dbcProperties.Pool pool = properties.getPool();
+            ConnectionPoolConfiguration.Builder configuration = ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .name(name)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .validationDepth(pool.getValidationDepth());
+            if (pool.getMaxLifeTime() != null) {
+                configuration.maxLifeTime(pool.getMaxLifeTime());
+            }
+            if (pool.getMaxAcquireTime() != null) {
+                configuration.maxAcquireTime(pool.getMaxAcquireTime());
+            }
+            if (pool.getMaxCreateConnectionTime() != null) {
+                configuration.maxCreateConnectionTime(pool.getMaxCreateConnectionTime());
+            }
+            if (StringUtils.hasText(pool.getValidationQuery())) {
+                configuration.validationQuery(pool.getValidationQuery());
+            }
+            return new ConnectionPool(configuration.build());
+        }
+
+        @Override
+        public void onApplicationEvent(ApplicationReadyEvent event) {
+            if (routingConnectionFactory != null) {
+                routingConnectionFactory.start();
+            }
+        }
+
+        @Override
+        public void destroy() {
+            if (routingConnectionFactory != null) {
+                routingConnectionFactory.dispose();
+            }
+        }
+    }
+
     @Bean
     public R2dbcDialect dialect(ConnectionFactory connectionFactory) {
         return DialectResolver.getDialect(connectionFactory);
@@ -1,15 +1,55 @@
 package com.mycompany.myapp.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.util.List;
+import java.util.Map;
+import org.reactivestreams.Publisher;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.web.codec.CodecCustomizer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.lang.Nullable;
+import org.springframework.util.MimeType;
 import org.zalando.problem.ProblemModule;
 import org.zalando.problem.violations.ConstraintViolationProblemModule;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Configuration
 public class JacksonConfiguration {
 
+    /**
+     * The Smile media type, as a single value.
+     */
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    /**
+     * The Smile media type, as a stream of values.
+     */
+    public static final String APPLICATION_STREAM_SMILE_VALUE = "application/stream+x-jackson-smile";
+
+    /**
+     * The media types of the Smile codecs: built with an object mapper, they would default to the JSON ones.
+     */
+    private static final MimeType[] SMILE_MIME_TYPES = { APPLICATION_SMILE, new MimeType("application", "*+x-jackson-smile") };
+
     /**
      * Support for Java date and time API.
      * @return the corresponding Jackson module.
@@ -39,4 +79,68 @@ public class JacksonConfiguration {
     public ConstraintViolationProblemModule constraintViolationProblemModule() {
         return new ConstraintViolationProblemModule();
     }
+
+    /**
+     * Serializes all the properties of the DTOs supporting sparse fieldsets, unless the response selects some of them,
+     * see {@link com.mycompany.myapp.web.rest.util.FieldsUtil}.
+     * @return the customizer of the object mapper.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer fieldsetFilterCustomizer() {
+        return builder -> builder.filters(new SimpleFilterProvider().setFailOnUnknownId(false));
+    }
+
+    /**
+     * Registers the binary formats, CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile}),
+     * next to JSON, for the server and for the {@code WebClient}. Their object mappers are configured like the JSON one,
+     * with the same modules and the fieldset filter: Smile replaces the default codecs, which use a plain object mapper.
+     * @param builder the builder of the JSON object mapper.
+     * @return the customizer of the codecs.
+     */
+    @Bean
+    public CodecCustomizer binaryCodecsCustomizer(Jackson2ObjectMapperBuilder builder, ObjectMapper objectMapper) {
+        return configurer -> {
+            // The custom codecs come before the default ones: JSON stays the format of the messages which accept anything
+            configurer.customCodecs().register(new Jackson2JsonEncoder(objectMapper));
+            ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+            builder.configure(cborMapper);
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper, MediaType.APPLICATION_CBOR));
+            configurer.customCodecs().register(new CborEncoder(cborMapper));
+            ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+            builder.configure(smileMapper);
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileMapper, SMILE_MIME_TYPES));
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileMapper, SMILE_MIME_TYPES));
+        };
+    }
+
+    /**
+     * A {@link Jackson2CborEncoder} which also encodes the bodies of the server responses, which it's given as publishers:
+     * a single value as is, several values as an array. CBOR has no streaming format, so the values are collected, the
+     * streaming endpoints don't produce CBOR.
+     */
+    private static class CborEncoder extends Jackson2CborEncoder {
+
+        private CborEncoder(ObjectMapper mapper) {
+            super(mapper, MediaType.APPLICATION_CBOR);
+        }
+
+        @Override
+        public Flux<DataBuffer> encode(
+            Publisher<?> inputStream,
+            DataBufferFactory bufferFactory,
+            ResolvableType elementType,
+            @Nullable MimeType mimeType,
+            @Nullable Map<String, Object> hints
+        ) {
+            if (inputStream instanceof Mono) {
+                return Mono.from(inputStream).map(value -> encodeValue(value, bufferFactory, elementType, mimeType, hints)).flux();
+            }
+            ResolvableType listType = ResolvableType.forClassWithGenerics(List.class, elementType);
+            return Flux
+                .from(inputStream)
+                .collectList()
+                .map(values -> encodeValue(values, bufferFactory, listType, mimeType, hints))
+                .flux();
+        }
+    }
 }
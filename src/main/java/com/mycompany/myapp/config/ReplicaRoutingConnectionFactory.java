@@ -0,0 +1,301 @@
+package com.mycompany.myapp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.connection.lookup.AbstractRoutingConnectionFactory;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/**
+ * A {@link ConnectionFactory} which gives the connections of the read-only transactions to the read replicas of the
+ * database, and all the other connections to the primary.
+ * <p>
+ * The eligible replicas take the read-only transactions in turn. Once started, the replicas are checked in the
+ * background, with the lag query if there is one, else with {@code SELECT 1}: a replica is eligible while its last check
+ * succeeded in time and, with a lag query, reported a lag within the maximum. A read-only transaction falls back to the
+ * primary when no replica is eligible, e.g. before the first checks.
+ * <p>
+ * The route is decided when the transaction acquires its connection, so the transaction must be known to be read-only
+ * by then: the transaction manager must be a {@link ReadOnlyAwareTransactionManager}. The connections acquired outside
+ * of a transaction go to the primary, and so do the read-only transactions of a read which has to see the last writes,
+ * see {@link #onPrimary(Mono)}.
+ * <p>
+ * The meters are tagged with the {@code route} of the connections, {@code primary} or the name of a replica:
+ * {@code r2dbc.routing.connections}, which counts the connections acquired, also tagged with {@code read.only}, and the
+ * {@code r2dbc.routing.replica.eligible} and {@code r2dbc.routing.replica.lag} gauges, which report the last check of
+ * each replica.
+ */
+public class ReplicaRoutingConnectionFactory extends AbstractRoutingConnectionFactory implements Disposable {
+
+    static final String PRIMARY = "primary";
+
+    /**
+     * The key of the Reactor context which sends the read-only transactions to the primary.
+     */
+    private static final String PRIMARY_CONTEXT_KEY = ReplicaRoutingConnectionFactory.class.getName() + ".PRIMARY";
+
+    private static final String METRIC_PREFIX = "r2dbc.routing";
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingConnectionFactory.class);
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final Duration checkInterval;
+
+    private final String checkQuery;
+
+    private final boolean lagAware;
+
+    private final double maxLagSeconds;
+
+    private final Counter primaryReadWrites;
+
+    private final Counter primaryReadOnly;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private volatile Disposable checks;
+
+    private volatile boolean disposed;
+
+    /**
+     * @param primary the connection factory of the primary.
+     * @param replicas the connection factories of the replicas by name, which are disposed along with this one.
+     * @param properties the configuration of the replicas.
+     * @param meterRegistry the registry of the meters.
+     */
+    public ReplicaRoutingConnectionFactory(
+        ConnectionFactory primary,
+        Map<String, ConnectionFactory> replicas,
+        ApplicationProperties.Replicas properties,
+        MeterRegistry meterRegistry
+    ) {
+        this.checkInterval = properties.getCheckInterval();
+        this.lagAware = StringUtils.hasText(properties.getLagQuery());
+        this.checkQuery = lagAware ? properties.getLagQuery() : "SELECT 1";
+        this.maxLagSeconds = properties.getMaxLag().toMillis() / 1000.0;
+
+        Map<String, ConnectionFactory> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetConnectionFactories(targets);
+        setDefaultTargetConnectionFactory(primary);
+
+        primaryReadWrites = routed(PRIMARY, false, meterRegistry);
+        primaryReadOnly = routed(PRIMARY, true, meterRegistry);
+        replicas.forEach((name, connectionFactory) -> this.replicas.add(new Replica(name, connectionFactory, meterRegistry)));
+    }
+
+    private static Counter routed(String route, boolean readOnly, MeterRegistry meterRegistry) {
+        return Counter
+            .builder(METRIC_PREFIX + ".connections")
+            .tag("route", route)
+            .tag("read.only", String.valueOf(readOnly))
+            .description("The number of connections acquired")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Starts checking the replicas, the first time right away.
+     */
+    public void start() {
+        checks =
+            Flux
+                .interval(Duration.ZERO, checkInterval)
+                .onBackpressureDrop()
+                .concatMap(tick -> checkReplicas(), 1)
+                .subscribe(null, e -> log.error("The checks of the database replicas stopped", e));
+    }
+
+    /**
+     * Stops the checks and disposes the connection factories of the replicas.
+     */
+    @Override
+    public void dispose() {
+        disposed = true;
+        Disposable checks = this.checks;
+        if (checks != null) {
+            checks.dispose();
+        }
+        for (Replica replica : replicas) {
+            if (replica.connectionFactory instanceof Disposable) {
+                ((Disposable) replica.connectionFactory).dispose();
+            }
+        }
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return disposed;
+    }
+
+    /**
+     * Sends the read-only transactions of a read to the primary, for a read which has to see the writes the replicas may
+     * not have replicated yet. Without replicas, the read is unchanged.
+     * @param <T> the type of the result.
+     * @param read the read.
+     * @return the read.
+     */
+    public static <T> Mono<T> onPrimary(Mono<T> read) {
+        return read.contextWrite(Context.of(PRIMARY_CONTEXT_KEY, Boolean.TRUE));
+    }
+
+    @Override
+    protected Mono<Object> determineCurrentLookupKey() {
+        return Mono.deferContextual(
+            context ->
+                TransactionSynchronizationManager
+                    .forCurrentTransaction()
+                    .map(TransactionSynchronizationManager::isCurrentTransactionReadOnly)
+                    .onErrorResume(NoTransactionException.class, e -> Mono.just(false))
+                    .map(readOnly -> route(readOnly, context.hasKey(PRIMARY_CONTEXT_KEY)))
+        );
+    }
+
+    private String route(boolean readOnly, boolean onPrimary) {
+        if (!readOnly) {
+            primaryReadWrites.increment();
+            return PRIMARY;
+        }
+        if (onPrimary) {
+            primaryReadOnly.increment();
+            return PRIMARY;
+        }
+        int size = replicas.size();
+        int first = size > 0 ? Math.floorMod(nextReplica.getAndIncrement(), size) : 0;
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((first + i) % size);
+            if (replica.eligible) {
+                replica.routed.increment();
+                return replica.name;
+            }
+        }
+        primaryReadOnly.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Checks all the replicas once, concurrently.
+     */
+    Mono<Void> checkReplicas() {
+        return Flux.fromIterable(replicas).flatMap(this::check).then();
+    }
+
+    private Mono<Void> check(Replica replica) {
+        return Mono
+            .usingWhen(replica.connectionFactory.create(), this::queryLag, Connection::close)
+            .timeout(checkInterval)
+            .defaultIfEmpty(Double.NaN)
+            .doOnNext(lag -> replica.checked(lagAware ? lag : Double.NaN, !lagAware || lag <= maxLagSeconds))
+            .doOnError(replica::failed)
+            .onErrorResume(e -> Mono.empty())
+            .then();
+    }
+
+    private Mono<Double> queryLag(Connection connection) {
+        return Flux
+            .from(connection.createStatement(checkQuery).execute())
+            .concatMap(result -> result.map((row, metadata) -> lag(row)))
+            .next();
+    }
+
+    /**
+     * The lag in seconds read by the check, NaN if the replication is stopped.
+     */
+    private static double lag(Row row) {
+        Object lag = row.get(0);
+        return lag instanceof Number ? ((Number) lag).doubleValue() : Double.NaN;
+    }
+
+    private final class Replica {
+
+        private final String name;
+
+        private final ConnectionFactory connectionFactory;
+
+        private final Counter routed;
+
+        private volatile boolean eligible;
+
+        private volatile double lag = Double.NaN;
+
+        private Replica(String name, ConnectionFactory connectionFactory, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.connectionFactory = connectionFactory;
+            this.routed = routed(name, true, meterRegistry);
+            Gauge
+                .builder(METRIC_PREFIX + ".replica.eligible", this, replica -> replica.eligible ? 1 : 0)
+                .tag("route", name)
+                .description("Whether the replica takes the read-only transactions, after its last check")
+                .register(meterRegistry);
+            Gauge
+                .builder(METRIC_PREFIX + ".replica.lag", this, replica -> replica.lag)
+                .tag("route", name)
+                .description("The replication lag reported by the last check of the replica")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+
+        private void checked(double lag, boolean eligible) {
+            this.lag = lag;
+            if (eligible != this.eligible) {
+                if (eligible) {
+                    log.info("Routing the read-only transactions to the database replica {}", name);
+                } else {
+                    log.warn("Not routing to the database replica {} any more, its replication lag is {}s", name, lag);
+                }
+            }
+            this.eligible = eligible;
+        }
+
+        private void failed(Throwable e) {
+            lag = Double.NaN;
+            if (eligible) {
+                log.warn("Not routing to the database replica {} any more, its check failed: {}", name, e.toString());
+            } else {
+                log.debug("The check of the database replica {} failed: {}", name, e.toString());
+            }
+            eligible = false;
+        }
+    }
+
+    /**
+     * An {@link R2dbcTransactionManager} which marks a transaction as read-only before it acquires its connection, so
+     * that a {@link ReplicaRoutingConnectionFactory} can route it: the base class only does it once the transaction has
+     * begun.
+     */
+    public static class ReadOnlyAwareTransactionManager extends R2dbcTransactionManager {
+
+        public ReadOnlyAwareTransactionManager(ConnectionFactory connectionFactory) {
+            super(connectionFactory);
+        }
+
+        @Override
+        protected Mono<Void> doBegin(
+            TransactionSynchronizationManager synchronizationManager,
+            Object transaction,
+            TransactionDefinition definition
+        ) {
+            synchronizationManager.setCurrentTransactionReadOnly(definition.isReadOnly());
+            return super.doBegin(synchronizationManager, transaction, definition);
+        }
+    }
+}
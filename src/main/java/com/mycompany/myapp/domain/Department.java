@@ -7,6 +7,7 @@ import java.util.Set;
 import javax.validation.constraints.*;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -32,6 +33,10 @@ public class Department implements Serializable {
     @JsonIgnoreProperties(value = { "jobs", "department" }, allowSetters = true)
     private Set<Employee> employees = new HashSet<>();
 
+    @Version
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -90,6 +95,19 @@ public class Department implements Serializable {
         this.employees = employees;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Department version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -114,6 +132,7 @@ public class Department implements Serializable {
     public String toString() {
         return "Department{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", departmentName='" + getDepartmentName() + "'" +
             "}";
     }
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import java.io.Serializable;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.Transient;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -34,6 +35,10 @@ public class Job implements Serializable {
     @Column("employee_id")
     private Long employeeId;
 
+    @Version
+    @Column("version")
+    private Long version;
+
     // jhipster-needle-entity-add-field - JHipster will add fields here
     public Long getId() {
         return id;
@@ -110,6 +115,19 @@ public class Job implements Serializable {
         this.employeeId = employee;
     }
 
+    public Long getVersion() {
+        return this.version;
+    }
+
+    public Job version(Long version) {
+        this.version = version;
+        return this;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     // jhipster-needle-entity-add-getters-setters - JHipster will add getters and setters here
 
     @Override
@@ -134,6 +152,7 @@ public class Job implements Serializable {
     public String toString() {
         return "Job{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", jobTitle='" + getJobTitle() + "'" +
             ", jobDescription='" + getJobDescription() + "'" +
             ", jobHours=" + getJobHours() +
@@ -0,0 +1,52 @@
+package com.mycompany.myapp.management;
+
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.ColumnConverter.Conversion;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Endpoint listing the column conversions resolved by the {@link ColumnConverter}, with the number of values each one
+ * converted, at {@code /management/columnconversions}.
+ * <p>
+ * A {@code GENERIC} conversion which keeps counting points to a column the driver decodes to another type than the entity
+ * property, e.g. a {@code BIGINT UNSIGNED} decoded as a {@code BigInteger} and read as a {@code Long}.
+ */
+@Component
+@Endpoint(id = "columnconversions")
+public class ColumnConversionsEndpoint {
+
+    private final ColumnConverter columnConverter;
+
+    public ColumnConversionsEndpoint(ColumnConverter columnConverter) {
+        this.columnConverter = columnConverter;
+    }
+
+    /**
+     * @return the conversions, the most used first.
+     */
+    @ReadOperation
+    public List<Map<String, Object>> conversions() {
+        return columnConverter
+            .getConversions()
+            .stream()
+            .sorted(Comparator.comparingLong(Conversion::getCount).reversed())
+            .map(ColumnConversionsEndpoint::toMap)
+            .collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> toMap(Conversion conversion) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("source", conversion.getSourceType().getName());
+        map.put("target", conversion.getTargetType().getName());
+        map.put("kind", conversion.getKind());
+        map.put("count", conversion.getCount());
+        return map;
+    }
+}
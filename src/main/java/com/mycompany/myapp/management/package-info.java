@@ -0,0 +1,4 @@
+/**
+ * Spring Boot Actuator endpoints.
+ */
+package com.mycompany.myapp.management;
@@ -1,7 +1,12 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.query.Criteria;
@@ -24,17 +29,36 @@ public interface DepartmentRepository extends R2dbcRepository<Department, Long>,
     @Override
     Mono<Department> findById(Long id);
 
+    @Override
+    Flux<Department> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Department> Mono<S> save(S entity);
+
+    @Override
+    <S extends Department> Flux<S> saveAll(Iterable<S> entities);
 }
 
 interface DepartmentRepositoryInternal {
     <S extends Department> Mono<S> insert(S entity);
     <S extends Department> Mono<S> save(S entity);
+    <S extends Department> Flux<S> saveAll(Iterable<S> entities);
     Mono<Integer> update(Department entity);
+    Mono<Department> updateNonNull(Department patch);
+    Mono<List<Integer>> updateAllNonNull(List<Department> patches);
+    Flux<Long> deleteAllById(Collection<Long> ids);
 
     Flux<Department> findAll();
     Mono<Department> findById(Long id);
+    Flux<Department> findAllById(Iterable<Long> ids);
     Flux<Department> findAllBy(Pageable pageable);
     Flux<Department> findAllBy(Pageable pageable, Criteria criteria);
+    Flux<Department> streamAll();
+    Mono<Department> findTreeById(Long id);
+
+    Flux<DepartmentDTO> findAllDtoBy(Pageable pageable, Criteria criteria);
+    Mono<Page<DepartmentDTO>> findDtoPage(Pageable pageable, Criteria criteria);
+    Mono<Slice<DepartmentDTO>> findDtoSlice(Pageable pageable, Criteria criteria);
+    Flux<DepartmentDTO> findAllDtoAfter(Pageable pageable, KeysetCursor after);
+    Flux<DepartmentDTO> streamAllDto();
 }
@@ -4,23 +4,36 @@ import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
 import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.repository.rowmapper.DepartmentDTORowMapper;
 import com.mycompany.myapp.repository.rowmapper.DepartmentRowMapper;
+import com.mycompany.myapp.repository.rowmapper.EmployeeRowMapper;
+import com.mycompany.myapp.repository.rowmapper.JobRowMapper;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.TreeMap;
 import java.util.function.BiFunction;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
 import org.springframework.r2dbc.core.RowsFetchSpec;
@@ -38,18 +51,29 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
     private final EntityManager entityManager;
 
     private final DepartmentRowMapper departmentMapper;
+    private final EmployeeRowMapper employeeMapper;
+    private final JobRowMapper jobMapper;
+    private final DepartmentDTORowMapper departmentDtoMapper;
 
     private static final Table entityTable = Table.aliased("department", EntityManager.ENTITY_ALIAS);
+    private static final Table employeeTable = Table.aliased("employee", "employee");
+    private static final Table jobTable = Table.aliased("job", "job");
 
     public DepartmentRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
-        DepartmentRowMapper departmentMapper
+        DepartmentRowMapper departmentMapper,
+        EmployeeRowMapper employeeMapper,
+        JobRowMapper jobMapper,
+        DepartmentDTORowMapper departmentDtoMapper
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.departmentMapper = departmentMapper;
+        this.employeeMapper = employeeMapper;
+        this.jobMapper = jobMapper;
+        this.departmentDtoMapper = departmentDtoMapper;
     }
 
     @Override
@@ -62,27 +86,49 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<Department> streamAll() {
+        return entityManager
+            .createStreamingSelect(this::createSelectFrom, Department.class, null, Sort.unsorted(), null)
+            .map(this::process)
+            .all();
+    }
+
+    @Override
+    public Flux<DepartmentDTO> findAllDtoBy(Pageable pageable, Criteria criteria) {
+        return entityManager.createSelect(this::createSelectFrom, Department.class, null, pageable, criteria).map(this::processDto).all();
+    }
+
+    @Override
+    public Mono<Page<DepartmentDTO>> findDtoPage(Pageable pageable, Criteria criteria) {
+        return entityManager.findPage(this::createSelectFrom, Department.class, null, pageable, criteria, this::processDto);
+    }
+
+    @Override
+    public Mono<Slice<DepartmentDTO>> findDtoSlice(Pageable pageable, Criteria criteria) {
+        return entityManager.findSlice(this::createSelectFrom, Department.class, null, pageable, criteria, this::processDto);
+    }
+
+    @Override
+    public Flux<DepartmentDTO> findAllDtoAfter(Pageable pageable, KeysetCursor after) {
+        return entityManager.createKeysetSelect(createSelectFrom(), Department.class, pageable, after).map(this::processDto).all();
+    }
+
+    @Override
+    public Flux<DepartmentDTO> streamAllDto() {
+        return entityManager
+            .createStreamingSelect(this::createSelectFrom, Department.class, null, Sort.unsorted(), null)
+            .map(this::processDto)
+            .all();
+    }
+
     RowsFetchSpec<Department> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createSelect(this::createSelectFrom, Department.class, null, pageable, criteria).map(this::process);
+    }
+
+    private SelectFromAndJoin createSelectFrom() {
         List<Expression> columns = DepartmentSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
-        SelectFromAndJoin selectFrom = Select.builder().select(columns).from(entityTable);
-
-        String select = entityManager.createSelect(selectFrom, Department.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -95,11 +141,57 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
         return createQuery(null, where("id").is(id)).one();
     }
 
+    @Override
+    public Mono<Department> findTreeById(Long id) {
+        return entityManager
+            .createSelect(this::createTreeSelectFrom, Department.class, "employee,job", null, where("id").is(id))
+            .map(this::processTree)
+            .all()
+            .collect(DepartmentTree::new, DepartmentTree::add)
+            .flatMap(tree -> Mono.justOrEmpty(tree.build()));
+    }
+
+    /**
+     * The department joined to its employees, and to their jobs: one row per job, or per employee without job.
+     */
+    private SelectFromAndJoinCondition createTreeSelectFrom() {
+        List<Expression> columns = DepartmentSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        columns.addAll(EmployeeSqlHelper.getColumns(employeeTable, "employee"));
+        columns.addAll(JobSqlHelper.getColumns(jobTable, "job"));
+        return Select
+            .builder()
+            .select(columns)
+            .from(entityTable)
+            .leftOuterJoin(employeeTable)
+            .on(Column.create("department_id", employeeTable))
+            .equals(Column.create("id", entityTable))
+            .leftOuterJoin(jobTable)
+            .on(Column.create("employee_id", jobTable))
+            .equals(Column.create("id", employeeTable));
+    }
+
+    private Department processTree(Row row, RowMetadata metadata) {
+        Department entity = departmentMapper.apply(row, metadata, "e");
+        Employee employee = employeeMapper.apply(row, metadata, "employee");
+        if (employee.getId() != null) {
+            Job job = jobMapper.apply(row, metadata, "job");
+            if (job.getId() != null) {
+                employee.addJob(job);
+            }
+            entity.addEmployee(employee);
+        }
+        return entity;
+    }
+
     private Department process(Row row, RowMetadata metadata) {
-        Department entity = departmentMapper.apply(row, "e");
+        Department entity = departmentMapper.apply(row, metadata, "e");
         return entity;
     }
 
+    private DepartmentDTO processDto(Row row, RowMetadata metadata) {
+        return departmentDtoMapper.apply(row, metadata, "e");
+    }
+
     @Override
     public <S extends Department> Mono<S> insert(S entity) {
         return entityManager.insert(entity);
@@ -110,22 +202,70 @@ class DepartmentRepositoryInternalImpl implements DepartmentRepositoryInternal {
         if (entity.getId() == null) {
             return insert(entity);
         } else {
-            return update(entity)
-                .map(
-                    numberOfUpdates -> {
-                        if (numberOfUpdates.intValue() <= 0) {
-                            throw new IllegalStateException("Unable to update Department with id = " + entity.getId());
-                        }
-                        return entity;
-                    }
-                );
+            return entityManager.update(entity);
         }
     }
 
+    @Override
+    public <S extends Department> Flux<S> saveAll(Iterable<S> entities) {
+        return entityManager.saveAll(entities);
+    }
+
     @Override
     public Mono<Integer> update(Department entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity).map(updated -> 1).defaultIfEmpty(0);
+    }
+
+    @Override
+    public Mono<Department> updateNonNull(Department patch) {
+        return entityManager.updateNonNull(patch);
+    }
+
+    @Override
+    public Flux<Department> findAllById(Iterable<Long> ids) {
+        return entityManager.findAllById(ids, batch -> findAllBy(null, where("id").in(batch)));
+    }
+
+    @Override
+    public Mono<List<Integer>> updateAllNonNull(List<Department> patches) {
+        return entityManager.updateAllNonNull(patches);
+    }
+
+    @Override
+    public Flux<Long> deleteAllById(Collection<Long> ids) {
+        return entityManager.deleteAllById(Department.class, ids);
+    }
+}
+
+/**
+ * Merges the rows of a department tree, each one holding at most one employee and one job, ordered by id.
+ */
+class DepartmentTree {
+
+    private Department department;
+    private final Map<Long, Employee> employees = new TreeMap<>();
+    private final Map<Long, Map<Long, Job>> jobs = new HashMap<>();
+
+    void add(Department row) {
+        if (department == null) {
+            department = row;
+        }
+        for (Employee employee : row.getEmployees()) {
+            employees.putIfAbsent(employee.getId(), employee);
+            Map<Long, Job> employeeJobs = jobs.computeIfAbsent(employee.getId(), id -> new TreeMap<>());
+            employee.getJobs().forEach(job -> employeeJobs.put(job.getId(), job));
+        }
+    }
+
+    Department build() {
+        if (department == null) {
+            return null;
+        }
+        for (Employee employee : employees.values()) {
+            employee.setJobs(new LinkedHashSet<>(jobs.get(employee.getId()).values()));
+        }
+        department.setEmployees(new LinkedHashSet<>(employees.values()));
+        return department;
     }
 }
 
@@ -136,6 +276,7 @@ class DepartmentSqlHelper {
         columns.add(Column.aliased("id", table, columnPrefix + "_id"));
         columns.add(Column.aliased("department_name", table, columnPrefix + "_department_name"));
 
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
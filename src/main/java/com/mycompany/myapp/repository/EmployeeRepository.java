@@ -1,11 +1,15 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.query.Criteria;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
@@ -18,22 +22,6 @@ import reactor.core.publisher.Mono;
 public interface EmployeeRepository extends R2dbcRepository<Employee, Long>, EmployeeRepositoryInternal {
     Flux<Employee> findAllBy(Pageable pageable);
 
-    @Query("SELECT * FROM employee entity WHERE entity.department_id = :id")
-    Flux<Employee> findByDepartment(Long id);
-
-    @Query("SELECT * FROM employee entity WHERE entity.department_id IS NULL")
-    Flux<Employee> findAllWhereDepartmentIsNull();
-
-    @Query(
-        "SELECT * FROM employee WHERE LOWER(first_name) like LOWER(CONCAT('%',$1,'%'))" +
-        "OR LOWER(last_name) like LOWER(CONCAT('%',$1,'%'))" +
-        "OR email like LOWER(CONCAT('%',$1,'%'))"
-    )
-    Flux<Employee> searchString(String search);
-
-    @Query("SELECT * FROM employee WHERE salary > :psalary ORDER BY salary")
-    Flux<Employee> salaryGreaterThan(Long psalary);
-
     // just to avoid having unambigous methods
     @Override
     Flux<Employee> findAll();
@@ -41,8 +29,14 @@ public interface EmployeeRepository extends R2dbcRepository<Employee, Long>, Emp
     @Override
     Mono<Employee> findById(Long id);
 
+    @Override
+    Flux<Employee> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Employee> Mono<S> save(S entity);
+
+    @Override
+    <S extends Employee> Flux<S> saveAll(Iterable<S> entities);
 }
 
 interface EmployeeRepositoryInternal {
@@ -50,13 +44,34 @@ interface EmployeeRepositoryInternal {
 
     <S extends Employee> Mono<S> save(S entity);
 
+    <S extends Employee> Flux<S> saveAll(Iterable<S> entities);
+
     Mono<Integer> update(Employee entity);
+    Mono<Employee> updateNonNull(Employee patch);
+    Mono<List<Integer>> updateAllNonNull(List<Employee> patches);
+    Flux<Long> deleteAllById(Collection<Long> ids);
 
     Flux<Employee> findAll();
 
     Mono<Employee> findById(Long id);
 
+    Flux<Employee> findAllById(Iterable<Long> ids);
+
     Flux<Employee> findAllBy(Pageable pageable);
 
     Flux<Employee> findAllBy(Pageable pageable, Criteria criteria);
+
+    Flux<Employee> streamAll();
+
+    Flux<Employee> streamAllBy(Sort sort, Criteria criteria);
+
+    Flux<EmployeeDTO> findAllDtoBy(Pageable pageable, Criteria criteria);
+
+    Mono<Page<EmployeeDTO>> findDtoPage(Pageable pageable, Criteria criteria, Fieldset fields);
+
+    Mono<Slice<EmployeeDTO>> findDtoSlice(Pageable pageable, Criteria criteria, Fieldset fields);
+
+    Flux<EmployeeDTO> findAllDtoAfter(Pageable pageable, KeysetCursor after, Fieldset fields);
+
+    Flux<EmployeeDTO> streamAllDtoBy(Sort sort, Criteria criteria);
 }
@@ -3,24 +3,32 @@ package com.mycompany.myapp.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import com.mycompany.myapp.domain.Department;
 import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.repository.rowmapper.DepartmentRowMapper;
+import com.mycompany.myapp.repository.rowmapper.EmployeeDTORowMapper;
 import com.mycompany.myapp.repository.rowmapper.EmployeeRowMapper;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiFunction;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
@@ -40,21 +48,29 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
 
     private final DepartmentRowMapper departmentMapper;
     private final EmployeeRowMapper employeeMapper;
+    private final EmployeeDTORowMapper employeeDtoMapper;
 
     private static final Table entityTable = Table.aliased("employee", EntityManager.ENTITY_ALIAS);
     private static final Table departmentTable = Table.aliased("department", "department");
 
+    /**
+     * The properties of the nested fields which are read from a column of the employee.
+     */
+    private static final Map<String, String> FIELD_PROPERTIES = Map.of("department.id", "departmentId");
+
     public EmployeeRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         DepartmentRowMapper departmentMapper,
-        EmployeeRowMapper employeeMapper
+        EmployeeRowMapper employeeMapper,
+        EmployeeDTORowMapper employeeDtoMapper
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.departmentMapper = departmentMapper;
         this.employeeMapper = employeeMapper;
+        this.employeeDtoMapper = employeeDtoMapper;
     }
 
     @Override
@@ -67,34 +83,106 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<Employee> streamAll() {
+        return streamAllBy(Sort.unsorted(), null);
+    }
+
+    @Override
+    public Flux<Employee> streamAllBy(Sort sort, Criteria criteria) {
+        return entityManager
+            .createStreamingSelect(this::createSelectFrom, Employee.class, "department", sort, criteria)
+            .map(this::process)
+            .all();
+    }
+
+    @Override
+    public Flux<EmployeeDTO> findAllDtoBy(Pageable pageable, Criteria criteria) {
+        return entityManager.createSelect(this::createDtoSelectFrom, Employee.class, null, pageable, criteria).map(this::processDto).all();
+    }
+
+    @Override
+    public Mono<Page<EmployeeDTO>> findDtoPage(Pageable pageable, Criteria criteria, Fieldset fields) {
+        if (fields == null) {
+            return entityManager.findPage(this::createDtoSelectFrom, Employee.class, null, pageable, criteria, this::processDto);
+        }
+        Set<String> properties = fields.getSelectedProperties(FIELD_PROPERTIES, pageable.getSort());
+        return entityManager.findPage(
+            () -> createSelectFrom(properties),
+            Employee.class,
+            EntityManager.selectedProperties(properties),
+            pageable,
+            criteria,
+            (row, metadata) -> processDto(row, metadata, fields)
+        );
+    }
+
+    @Override
+    public Mono<Slice<EmployeeDTO>> findDtoSlice(Pageable pageable, Criteria criteria, Fieldset fields) {
+        if (fields == null) {
+            return entityManager.findSlice(this::createDtoSelectFrom, Employee.class, null, pageable, criteria, this::processDto);
+        }
+        Set<String> properties = fields.getSelectedProperties(FIELD_PROPERTIES, pageable.getSort());
+        return entityManager.findSlice(
+            () -> createSelectFrom(properties),
+            Employee.class,
+            EntityManager.selectedProperties(properties),
+            pageable,
+            criteria,
+            (row, metadata) -> processDto(row, metadata, fields)
+        );
+    }
+
+    @Override
+    public Flux<EmployeeDTO> findAllDtoAfter(Pageable pageable, KeysetCursor after, Fieldset fields) {
+        if (fields == null) {
+            return entityManager.createKeysetSelect(createDtoSelectFrom(), Employee.class, pageable, after).map(this::processDto).all();
+        }
+        Set<String> properties = fields.getSelectedProperties(FIELD_PROPERTIES, pageable.getSort());
+        return entityManager
+            .createKeysetSelect(createSelectFrom(properties), Employee.class, pageable, after)
+            .map((row, metadata) -> processDto(row, metadata, fields))
+            .all();
+    }
+
+    @Override
+    public Flux<EmployeeDTO> streamAllDtoBy(Sort sort, Criteria criteria) {
+        return entityManager
+            .createStreamingSelect(this::createDtoSelectFrom, Employee.class, null, sort, criteria)
+            .map(this::processDto)
+            .all();
+    }
+
     RowsFetchSpec<Employee> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createSelect(this::createSelectFrom, Employee.class, "department", pageable, criteria).map(this::process);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = EmployeeSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(DepartmentSqlHelper.getColumns(departmentTable, "department"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(departmentTable)
             .on(Column.create("department_id", entityTable))
             .equals(Column.create("id", departmentTable));
+    }
+
+    /**
+     * Selects the columns of a sparse fieldset, without joining the department: its id is read from the foreign key.
+     */
+    private SelectFromAndJoin createSelectFrom(Set<String> properties) {
+        List<Expression> columns = entityManager.getColumns(Employee.class, entityTable, EntityManager.ENTITY_ALIAS, properties);
+        return Select.builder().select(columns).from(entityTable);
+    }
 
-        String select = entityManager.createSelect(selectFrom, Employee.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+    /**
+     * Selects all the columns of the employee, without joining the department: the DTOs only reference it by its id.
+     */
+    private SelectFromAndJoin createDtoSelectFrom() {
+        List<Expression> columns = EmployeeSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -108,11 +196,23 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
     }
 
     private Employee process(Row row, RowMetadata metadata) {
-        Employee entity = employeeMapper.apply(row, "e");
-        entity.setDepartment(departmentMapper.apply(row, "department"));
+        Employee entity = employeeMapper.apply(row, metadata, "e");
+        entity.setDepartment(departmentMapper.apply(row, metadata, "department"));
         return entity;
     }
 
+    private EmployeeDTO processDto(Row row, RowMetadata metadata) {
+        return employeeDtoMapper.apply(row, metadata, "e");
+    }
+
+    private EmployeeDTO processDto(Row row, RowMetadata metadata, Fieldset fields) {
+        EmployeeDTO dto = employeeDtoMapper.apply(row, metadata, "e");
+        if (!fields.contains("department.id")) {
+            dto.setDepartment(null);
+        }
+        return dto;
+    }
+
     @Override
     public <S extends Employee> Mono<S> insert(S entity) {
         return entityManager.insert(entity);
@@ -123,22 +223,46 @@ class EmployeeRepositoryInternalImpl implements EmployeeRepositoryInternal {
         if (entity.getId() == null) {
             return insert(entity);
         } else {
-            return update(entity)
-                .map(
-                    numberOfUpdates -> {
-                        if (numberOfUpdates.intValue() <= 0) {
-                            throw new IllegalStateException("Unable to update Employee with id = " + entity.getId());
-                        }
-                        return entity;
-                    }
-                );
+            return entityManager.update(entity);
         }
     }
 
+    @Override
+    public <S extends Employee> Flux<S> saveAll(Iterable<S> entities) {
+        return entityManager.saveAll(entities);
+    }
+
     @Override
     public Mono<Integer> update(Employee entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity).map(updated -> 1).defaultIfEmpty(0);
+    }
+
+    @Override
+    public Mono<Employee> updateNonNull(Employee patch) {
+        return entityManager
+            .updateNonNull(patch)
+            .doOnNext(
+                entity -> {
+                    if (entity.getDepartmentId() != null) {
+                        entity.setDepartment(new Department().id(entity.getDepartmentId()));
+                    }
+                }
+            );
+    }
+
+    @Override
+    public Flux<Employee> findAllById(Iterable<Long> ids) {
+        return entityManager.findAllById(ids, batch -> findAllBy(null, where("id").in(batch)));
+    }
+
+    @Override
+    public Mono<List<Integer>> updateAllNonNull(List<Employee> patches) {
+        return entityManager.updateAllNonNull(patches);
+    }
+
+    @Override
+    public Flux<Long> deleteAllById(Collection<Long> ids) {
+        return entityManager.deleteAllById(Employee.class, ids);
     }
 }
 
@@ -154,6 +278,7 @@ class EmployeeSqlHelper {
         columns.add(Column.aliased("salary", table, columnPrefix + "_salary"));
 
         columns.add(Column.aliased("department_id", table, columnPrefix + "_department_id"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
@@ -0,0 +1,95 @@
+package com.mycompany.myapp.repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.Assert;
+
+/**
+ * The properties of an entity requested by a sparse fieldset, e.g. {@code ?fields=id,jobTitle,employee.id}; nested
+ * properties are written with a dot.
+ * <p>
+ * The repositories only select the columns of the requested properties, and skip the joins none of them needs. The DTOs
+ * supporting sparse fieldsets are annotated with the {@link #FILTER} Jackson filter, so only the requested properties are
+ * serialized.
+ */
+public final class Fieldset {
+
+    /**
+     * The id of the Jackson filter which selects the serialized properties of a DTO.
+     */
+    public static final String FILTER = "fieldset";
+
+    private final Set<String> paths;
+
+    private Fieldset(Set<String> paths) {
+        this.paths = Collections.unmodifiableSet(paths);
+    }
+
+    /**
+     * @param paths the requested properties, the id is always requested.
+     * @return the fieldset.
+     */
+    public static Fieldset of(Collection<String> paths) {
+        Assert.notNull(paths, "paths is null");
+        Set<String> requested = new LinkedHashSet<>();
+        requested.add("id");
+        requested.addAll(paths);
+        return new Fieldset(requested);
+    }
+
+    /**
+     * @return the requested properties, in the order of the request.
+     */
+    public Set<String> getPaths() {
+        return paths;
+    }
+
+    /**
+     * The properties to select: the id, the requested properties, and the sort properties, which the pagination needs.
+     * @param nestedProperties the properties of the entity holding nested fields, e.g. {@code employeeId} for
+     *                         {@code employee.id}, so the nested entity doesn't need to be joined.
+     * @param sort the sort of the select.
+     * @return the properties of the entity to select.
+     */
+    public Set<String> getSelectedProperties(Map<String, String> nestedProperties, Sort sort) {
+        Set<String> properties = new LinkedHashSet<>();
+        for (String path : paths) {
+            properties.add(nestedProperties.getOrDefault(path, path));
+        }
+        sort.forEach(order -> properties.add(order.getProperty()));
+        return properties;
+    }
+
+    /**
+     * @param path a property.
+     * @return whether the property is requested.
+     */
+    public boolean contains(String path) {
+        return paths.contains(path);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Fieldset)) {
+            return false;
+        }
+        return paths.equals(((Fieldset) o).paths);
+    }
+
+    @Override
+    public int hashCode() {
+        return paths.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.join(",", paths);
+    }
+}
@@ -1,7 +1,13 @@
 package com.mycompany.myapp.repository;
 
 import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.service.dto.JobDTO;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.r2dbc.repository.R2dbcRepository;
 import org.springframework.data.relational.core.query.Criteria;
@@ -30,17 +36,37 @@ public interface JobRepository extends R2dbcRepository<Job, Long>, JobRepository
     @Override
     Mono<Job> findById(Long id);
 
+    @Override
+    Flux<Job> findAllById(Iterable<Long> ids);
+
     @Override
     <S extends Job> Mono<S> save(S entity);
+
+    @Override
+    <S extends Job> Flux<S> saveAll(Iterable<S> entities);
 }
 
 interface JobRepositoryInternal {
     <S extends Job> Mono<S> insert(S entity);
     <S extends Job> Mono<S> save(S entity);
+    <S extends Job> Flux<S> saveAll(Iterable<S> entities);
     Mono<Integer> update(Job entity);
+    Mono<Job> updateNonNull(Job patch);
+    Mono<List<Integer>> updateAllNonNull(List<Job> patches);
+    Flux<Long> deleteAllById(Collection<Long> ids);
 
     Flux<Job> findAll();
     Mono<Job> findById(Long id);
+    Flux<Job> findAllById(Iterable<Long> ids);
     Flux<Job> findAllBy(Pageable pageable);
     Flux<Job> findAllBy(Pageable pageable, Criteria criteria);
+
+    Flux<Job> streamAll();
+    Flux<Job> streamAllBy(Sort sort, Criteria criteria);
+
+    Flux<JobDTO> findAllDtoBy(Pageable pageable, Criteria criteria);
+    Mono<Page<JobDTO>> findDtoPage(Pageable pageable, Criteria criteria, Fieldset fields);
+    Mono<Slice<JobDTO>> findDtoSlice(Pageable pageable, Criteria criteria, Fieldset fields);
+    Flux<JobDTO> findAllDtoAfter(Pageable pageable, KeysetCursor after, Fieldset fields);
+    Flux<JobDTO> streamAllDtoBy(Sort sort, Criteria criteria);
 }
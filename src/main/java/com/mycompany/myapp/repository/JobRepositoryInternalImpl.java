@@ -3,24 +3,32 @@ package com.mycompany.myapp.repository;
 import static org.springframework.data.relational.core.query.Criteria.where;
 import static org.springframework.data.relational.core.query.Query.query;
 
+import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.repository.rowmapper.EmployeeRowMapper;
+import com.mycompany.myapp.repository.rowmapper.JobDTORowMapper;
 import com.mycompany.myapp.repository.rowmapper.JobRowMapper;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.dto.JobDTO;
 import io.r2dbc.spi.Row;
 import io.r2dbc.spi.RowMetadata;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiFunction;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.data.relational.core.sql.Column;
 import org.springframework.data.relational.core.sql.Expression;
 import org.springframework.data.relational.core.sql.Select;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.r2dbc.core.DatabaseClient;
@@ -40,21 +48,29 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
 
     private final EmployeeRowMapper employeeMapper;
     private final JobRowMapper jobMapper;
+    private final JobDTORowMapper jobDtoMapper;
 
     private static final Table entityTable = Table.aliased("job", EntityManager.ENTITY_ALIAS);
     private static final Table employeeTable = Table.aliased("employee", "employee");
 
+    /**
+     * The properties of the nested fields which are read from a column of the job.
+     */
+    private static final Map<String, String> FIELD_PROPERTIES = Map.of("employee.id", "employeeId");
+
     public JobRepositoryInternalImpl(
         R2dbcEntityTemplate template,
         EntityManager entityManager,
         EmployeeRowMapper employeeMapper,
-        JobRowMapper jobMapper
+        JobRowMapper jobMapper,
+        JobDTORowMapper jobDtoMapper
     ) {
         this.db = template.getDatabaseClient();
         this.r2dbcEntityTemplate = template;
         this.entityManager = entityManager;
         this.employeeMapper = employeeMapper;
         this.jobMapper = jobMapper;
+        this.jobDtoMapper = jobDtoMapper;
     }
 
     @Override
@@ -67,34 +83,100 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
         return createQuery(pageable, criteria).all();
     }
 
+    @Override
+    public Flux<Job> streamAll() {
+        return streamAllBy(Sort.unsorted(), null);
+    }
+
+    @Override
+    public Flux<Job> streamAllBy(Sort sort, Criteria criteria) {
+        return entityManager.createStreamingSelect(this::createSelectFrom, Job.class, "employee", sort, criteria).map(this::process).all();
+    }
+
+    @Override
+    public Flux<JobDTO> findAllDtoBy(Pageable pageable, Criteria criteria) {
+        return entityManager.createSelect(this::createDtoSelectFrom, Job.class, null, pageable, criteria).map(this::processDto).all();
+    }
+
+    @Override
+    public Mono<Page<JobDTO>> findDtoPage(Pageable pageable, Criteria criteria, Fieldset fields) {
+        if (fields == null) {
+            return entityManager.findPage(this::createDtoSelectFrom, Job.class, null, pageable, criteria, this::processDto);
+        }
+        Set<String> properties = fields.getSelectedProperties(FIELD_PROPERTIES, pageable.getSort());
+        return entityManager.findPage(
+            () -> createSelectFrom(properties),
+            Job.class,
+            EntityManager.selectedProperties(properties),
+            pageable,
+            criteria,
+            (row, metadata) -> processDto(row, metadata, fields)
+        );
+    }
+
+    @Override
+    public Mono<Slice<JobDTO>> findDtoSlice(Pageable pageable, Criteria criteria, Fieldset fields) {
+        if (fields == null) {
+            return entityManager.findSlice(this::createDtoSelectFrom, Job.class, null, pageable, criteria, this::processDto);
+        }
+        Set<String> properties = fields.getSelectedProperties(FIELD_PROPERTIES, pageable.getSort());
+        return entityManager.findSlice(
+            () -> createSelectFrom(properties),
+            Job.class,
+            EntityManager.selectedProperties(properties),
+            pageable,
+            criteria,
+            (row, metadata) -> processDto(row, metadata, fields)
+        );
+    }
+
+    @Override
+    public Flux<JobDTO> findAllDtoAfter(Pageable pageable, KeysetCursor after, Fieldset fields) {
+        if (fields == null) {
+            return entityManager.createKeysetSelect(createDtoSelectFrom(), Job.class, pageable, after).map(this::processDto).all();
+        }
+        Set<String> properties = fields.getSelectedProperties(FIELD_PROPERTIES, pageable.getSort());
+        return entityManager
+            .createKeysetSelect(createSelectFrom(properties), Job.class, pageable, after)
+            .map((row, metadata) -> processDto(row, metadata, fields))
+            .all();
+    }
+
+    @Override
+    public Flux<JobDTO> streamAllDtoBy(Sort sort, Criteria criteria) {
+        return entityManager.createStreamingSelect(this::createDtoSelectFrom, Job.class, null, sort, criteria).map(this::processDto).all();
+    }
+
     RowsFetchSpec<Job> createQuery(Pageable pageable, Criteria criteria) {
+        return entityManager.createSelect(this::createSelectFrom, Job.class, "employee", pageable, criteria).map(this::process);
+    }
+
+    private SelectFromAndJoinCondition createSelectFrom() {
         List<Expression> columns = JobSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
         columns.addAll(EmployeeSqlHelper.getColumns(employeeTable, "employee"));
-        SelectFromAndJoinCondition selectFrom = Select
+        return Select
             .builder()
             .select(columns)
             .from(entityTable)
             .leftOuterJoin(employeeTable)
             .on(Column.create("employee_id", entityTable))
             .equals(Column.create("id", employeeTable));
+    }
+
+    /**
+     * Selects the columns of a sparse fieldset, without joining the employee: its id is read from the foreign key.
+     */
+    private SelectFromAndJoin createSelectFrom(Set<String> properties) {
+        List<Expression> columns = entityManager.getColumns(Job.class, entityTable, EntityManager.ENTITY_ALIAS, properties);
+        return Select.builder().select(columns).from(entityTable);
+    }
 
-        String select = entityManager.createSelect(selectFrom, Job.class, pageable, criteria);
-        String alias = entityTable.getReferenceName().getReference();
-        String selectWhere = Optional
-            .ofNullable(criteria)
-            .map(
-                crit ->
-                    new StringBuilder(select)
-                        .append(" ")
-                        .append("WHERE")
-                        .append(" ")
-                        .append(alias)
-                        .append(".")
-                        .append(crit.toString())
-                        .toString()
-            )
-            .orElse(select); // TODO remove once https://github.com/spring-projects/spring-data-jdbc/issues/907 will be fixed
-        return db.sql(selectWhere).map(this::process);
+    /**
+     * Selects all the columns of the job, without joining the employee: the DTOs only reference it by its id.
+     */
+    private SelectFromAndJoin createDtoSelectFrom() {
+        List<Expression> columns = JobSqlHelper.getColumns(entityTable, EntityManager.ENTITY_ALIAS);
+        return Select.builder().select(columns).from(entityTable);
     }
 
     @Override
@@ -108,11 +190,23 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
     }
 
     private Job process(Row row, RowMetadata metadata) {
-        Job entity = jobMapper.apply(row, "e");
-        entity.setEmployee(employeeMapper.apply(row, "employee"));
+        Job entity = jobMapper.apply(row, metadata, "e");
+        entity.setEmployee(employeeMapper.apply(row, metadata, "employee"));
         return entity;
     }
 
+    private JobDTO processDto(Row row, RowMetadata metadata) {
+        return jobDtoMapper.apply(row, metadata, "e");
+    }
+
+    private JobDTO processDto(Row row, RowMetadata metadata, Fieldset fields) {
+        JobDTO dto = jobDtoMapper.apply(row, metadata, "e");
+        if (!fields.contains("employee.id")) {
+            dto.setEmployee(null);
+        }
+        return dto;
+    }
+
     @Override
     public <S extends Job> Mono<S> insert(S entity) {
         return entityManager.insert(entity);
@@ -123,22 +217,46 @@ class JobRepositoryInternalImpl implements JobRepositoryInternal {
         if (entity.getId() == null) {
             return insert(entity);
         } else {
-            return update(entity)
-                .map(
-                    numberOfUpdates -> {
-                        if (numberOfUpdates.intValue() <= 0) {
-                            throw new IllegalStateException("Unable to update Job with id = " + entity.getId());
-                        }
-                        return entity;
-                    }
-                );
+            return entityManager.update(entity);
         }
     }
 
+    @Override
+    public <S extends Job> Flux<S> saveAll(Iterable<S> entities) {
+        return entityManager.saveAll(entities);
+    }
+
     @Override
     public Mono<Integer> update(Job entity) {
-        //fixme is this the proper way?
-        return r2dbcEntityTemplate.update(entity).thenReturn(1);
+        return entityManager.update(entity).map(updated -> 1).defaultIfEmpty(0);
+    }
+
+    @Override
+    public Mono<Job> updateNonNull(Job patch) {
+        return entityManager
+            .updateNonNull(patch)
+            .doOnNext(
+                entity -> {
+                    if (entity.getEmployeeId() != null) {
+                        entity.setEmployee(new Employee().id(entity.getEmployeeId()));
+                    }
+                }
+            );
+    }
+
+    @Override
+    public Flux<Job> findAllById(Iterable<Long> ids) {
+        return entityManager.findAllById(ids, batch -> findAllBy(null, where("id").in(batch)));
+    }
+
+    @Override
+    public Mono<List<Integer>> updateAllNonNull(List<Job> patches) {
+        return entityManager.updateAllNonNull(patches);
+    }
+
+    @Override
+    public Flux<Long> deleteAllById(Collection<Long> ids) {
+        return entityManager.deleteAllById(Job.class, ids);
     }
 }
 
@@ -152,6 +270,7 @@ class JobSqlHelper {
         columns.add(Column.aliased("job_hours", table, columnPrefix + "_job_hours"));
 
         columns.add(Column.aliased("employee_id", table, columnPrefix + "_employee_id"));
+        columns.add(Column.aliased("version", table, columnPrefix + "_version"));
         return columns;
     }
 }
@@ -0,0 +1,168 @@
+package com.mycompany.myapp.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.lang.Nullable;
+import org.springframework.util.Assert;
+
+/**
+ * Opaque position in a keyset (seek) pagination: the sort key and the id of the last row of the previous page, and the
+ * sort of that page, which the next one has to use.
+ * <p>
+ * The next page is selected by a condition on the sort key and the id instead of an {@code OFFSET}, so every page costs
+ * the same as the first one. The condition is expanded rather than a row value comparison, and follows the databases in
+ * sorting the NULL sort keys as the lowest: ascending, it is {@code sort > :value OR (sort = :value AND id > :id)}, or
+ * {@code (sort IS NULL AND id > :id) OR sort IS NOT NULL} after a NULL key; descending, it is
+ * {@code sort < :value OR (sort = :value AND id < :id) OR sort IS NULL}, or {@code sort IS NULL AND id < :id} after a
+ * NULL key. Sorted by the id alone, it is {@code id > :id}, or {@code id < :id}. See
+ * {@link com.mycompany.myapp.service.EntityManager#createKeysetSelect}.
+ */
+public final class KeysetCursor {
+
+    private static final String SEPARATOR = ":";
+
+    private static final String ID_PROPERTY = "id";
+
+    private final String property;
+
+    private final Sort.Direction direction;
+
+    private final Long id;
+
+    private final String value;
+
+    public KeysetCursor(Sort.Order order, Long id, @Nullable String value) {
+        Assert.notNull(order, "order is null");
+        Assert.notNull(id, "id is null");
+        this.property = order.getProperty();
+        this.direction = order.getDirection();
+        this.id = id;
+        this.value = value;
+    }
+
+    /**
+     * @param sort the sort of a keyset page, with at most one property.
+     * @return the order of the rows of the page: the sort property, or the id when the page isn't sorted.
+     */
+    public static Sort.Order orderOf(Sort sort) {
+        return sort.stream().findFirst().orElse(Sort.Order.asc(ID_PROPERTY));
+    }
+
+    /**
+     * Creates the cursor pointing after the given element, reading the first sort property and the id through their getters.
+     * @param element the last element of the current page, an entity or a DTO.
+     * @param sort the sort used to fetch the page.
+     * @return the cursor for the next page.
+     * @throws IllegalArgumentException if the element doesn't expose the sort property or the id.
+     */
+    public static KeysetCursor of(Object element, Sort sort) {
+        Assert.notNull(element, "element is null");
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(element);
+        Sort.Order order = orderOf(sort);
+        try {
+            Long id = (Long) wrapper.getPropertyValue(ID_PROPERTY);
+            if (sort.isUnsorted()) {
+                return new KeysetCursor(order, id, null);
+            }
+            Object value = wrapper.getPropertyValue(order.getProperty());
+            return new KeysetCursor(order, id, value != null ? value.toString() : null);
+        } catch (BeansException | ClassCastException e) {
+            throw new IllegalArgumentException("Unable to create a cursor for " + element.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     * @param cursor the encoded cursor.
+     * @return the decoded cursor, or {@code null} if the parameter is empty, which means the first page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    @Nullable
+    public static KeysetCursor decode(@Nullable String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        // property:direction:id[:value], the value last as it may contain the separator
+        String[] parts = decoded.split(SEPARATOR, 4);
+        if (parts.length < 3 || parts[0].isEmpty()) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            Sort.Order order = new Sort.Order(Sort.Direction.fromString(parts[1]), parts[0]);
+            return new KeysetCursor(order, Long.valueOf(parts[2]), parts.length == 4 ? parts[3] : null);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * @return the URL safe representation of this cursor.
+     */
+    public String encode() {
+        String raw = property + SEPARATOR + direction + SEPARATOR + id;
+        if (value != null) {
+            raw += SEPARATOR + value;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the order of the page the cursor was created from.
+     */
+    public Sort.Order getOrder() {
+        return new Sort.Order(direction, property);
+    }
+
+    /**
+     * @param order the order of the requested page.
+     * @return whether the cursor can be used for the requested page, i.e. it was created from a page with the same order.
+     */
+    public boolean matches(Sort.Order order) {
+        return property.equals(order.getProperty()) && direction == order.getDirection();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    @Nullable
+    public String getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof KeysetCursor)) {
+            return false;
+        }
+        KeysetCursor that = (KeysetCursor) o;
+        return (
+            property.equals(that.property) && direction == that.direction && id.equals(that.id) && Objects.equals(value, that.value)
+        );
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(property, direction, id, value);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "KeysetCursor{" +
+            "property='" + property + "'" +
+            ", direction=" + direction +
+            ", id=" + id +
+            ", value='" + value + "'" +
+            "}";
+    }
+}
@@ -5,11 +5,13 @@ import static org.springframework.data.relational.core.query.Query.query;
 
 import com.mycompany.myapp.domain.Authority;
 import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.service.EntityManager;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.beanutils.BeanComparator;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
@@ -38,6 +40,11 @@ public interface UserRepository extends R2dbcRepository<User, Long>, UserReposit
 
     Mono<User> findOneByResetKey(String resetKey);
 
+    /**
+     * The emails are saved in lower case, so comparing with the lowercased email can use the unique index, unlike the
+     * derived {@code UPPER(email) = UPPER(:email)}.
+     */
+    @Query("SELECT * FROM jhi_user WHERE email = LOWER(:email)")
     Mono<User> findOneByEmailIgnoreCase(String email);
 
     Mono<User> findOneByLogin(String login);
@@ -68,18 +75,33 @@ interface UserRepositoryInternal extends DeleteExtended<User> {
     Mono<User> findOneWithAuthoritiesByEmailIgnoreCase(String email);
 
     Flux<User> findAllWithAuthorities(Pageable pageable);
+
+    Mono<Void> saveUserAuthorities(Long userId, Stream<String> authorities);
 }
 
 class UserRepositoryInternalImpl implements UserRepositoryInternal {
 
+    private static final EntityManager.LinkTable userAuthorityLink = new EntityManager.LinkTable(
+        "jhi_user_authority",
+        "user_id",
+        "authority_name"
+    );
+
     private final DatabaseClient db;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final R2dbcConverter r2dbcConverter;
-
-    public UserRepositoryInternalImpl(DatabaseClient db, R2dbcEntityTemplate r2dbcEntityTemplate, R2dbcConverter r2dbcConverter) {
+    private final EntityManager entityManager;
+
+    public UserRepositoryInternalImpl(
+        DatabaseClient db,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcConverter r2dbcConverter,
+        EntityManager entityManager
+    ) {
         this.db = db;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.r2dbcConverter = r2dbcConverter;
+        this.entityManager = entityManager;
     }
 
     @Override
@@ -117,6 +139,11 @@ class UserRepositoryInternalImpl implements UserRepositoryInternal {
             .take(size);
     }
 
+    @Override
+    public Mono<Void> saveUserAuthorities(Long userId, Stream<String> authorities) {
+        return entityManager.insertIntoLinkTable(userAuthorityLink, userId, authorities).then();
+    }
+
     @Override
     public Mono<Void> delete(User user) {
         return db
@@ -0,0 +1,49 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Converter between {@link Row} to {@link DepartmentDTO}, for the reads which don't need the entity.
+ */
+@Service
+public class DepartmentDTORowMapper implements BiFunction<Row, String, DepartmentDTO> {
+
+    private final ColumnConverter converter;
+
+    private final Map<String, RowColumns> columns = new ConcurrentHashMap<>();
+
+    public DepartmentDTORowMapper(ColumnConverter converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields, reading the columns by name.
+     * @return the {@link DepartmentDTO} stored in the database.
+     */
+    @Override
+    public DepartmentDTO apply(Row row, String prefix) {
+        return apply(row, null, prefix);
+    }
+
+    /**
+     * Take a {@link Row}, the metadata of its result and a column prefix, and extract all the fields, reading the
+     * columns by index.
+     * @return the {@link DepartmentDTO} stored in the database.
+     */
+    public DepartmentDTO apply(Row row, @Nullable RowMetadata metadata, String prefix) {
+        RowColumns.Layout layout = RowColumns.forPrefix(columns, converter, prefix, DepartmentRowMapper.COLUMNS).layout(metadata);
+        DepartmentDTO dto = new DepartmentDTO();
+        dto.setId(layout.get(row, 0));
+        dto.setDepartmentName(layout.get(row, 1));
+        dto.setVersion(layout.get(row, 2));
+        return dto;
+    }
+}
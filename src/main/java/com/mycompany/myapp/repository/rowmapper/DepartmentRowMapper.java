@@ -1,9 +1,16 @@
 package com.mycompany.myapp.repository.rowmapper;
 
+import static com.mycompany.myapp.repository.rowmapper.RowColumns.column;
+
 import com.mycompany.myapp.domain.Department;
 import com.mycompany.myapp.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 /**
@@ -12,21 +19,43 @@ import org.springframework.stereotype.Service;
 @Service
 public class DepartmentRowMapper implements BiFunction<Row, String, Department> {
 
+    /**
+     * The columns of the department, also read by {@link DepartmentDTORowMapper}.
+     */
+    static final List<RowColumns.Column> COLUMNS = List.of(
+        column("id", Long.class),
+        column("department_name", String.class),
+        column("version", Long.class)
+    );
+
     private final ColumnConverter converter;
 
+    private final Map<String, RowColumns> columns = new ConcurrentHashMap<>();
+
     public DepartmentRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
 
     /**
-     * Take a {@link Row} and a column prefix, and extract all the fields.
+     * Take a {@link Row} and a column prefix, and extract all the fields, reading the columns by name.
      * @return the {@link Department} stored in the database.
      */
     @Override
     public Department apply(Row row, String prefix) {
+        return apply(row, null, prefix);
+    }
+
+    /**
+     * Take a {@link Row}, the metadata of its result and a column prefix, and extract all the fields, reading the
+     * columns by index.
+     * @return the {@link Department} stored in the database.
+     */
+    public Department apply(Row row, @Nullable RowMetadata metadata, String prefix) {
+        RowColumns.Layout layout = RowColumns.forPrefix(columns, converter, prefix, COLUMNS).layout(metadata);
         Department entity = new Department();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setDepartmentName(converter.fromRow(row, prefix + "_department_name", String.class));
+        entity.setId(layout.get(row, 0));
+        entity.setDepartmentName(layout.get(row, 1));
+        entity.setVersion(layout.get(row, 2));
         return entity;
     }
 }
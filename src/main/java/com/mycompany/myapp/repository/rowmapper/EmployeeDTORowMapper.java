@@ -0,0 +1,61 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Converter between {@link Row} to {@link EmployeeDTO}, for the reads which don't need the entity: the department is
+ * only referenced by its id, read from the foreign key, so it doesn't have to be joined.
+ */
+@Service
+public class EmployeeDTORowMapper implements BiFunction<Row, String, EmployeeDTO> {
+
+    private final ColumnConverter converter;
+
+    private final Map<String, RowColumns> columns = new ConcurrentHashMap<>();
+
+    public EmployeeDTORowMapper(ColumnConverter converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields, reading the columns by name.
+     * @return the {@link EmployeeDTO} stored in the database.
+     */
+    @Override
+    public EmployeeDTO apply(Row row, String prefix) {
+        return apply(row, null, prefix);
+    }
+
+    /**
+     * Take a {@link Row}, the metadata of its result and a column prefix, and extract all the fields, reading the
+     * columns by index.
+     * @return the {@link EmployeeDTO} stored in the database.
+     */
+    public EmployeeDTO apply(Row row, @Nullable RowMetadata metadata, String prefix) {
+        RowColumns.Layout layout = RowColumns.forPrefix(columns, converter, prefix, EmployeeRowMapper.COLUMNS).layout(metadata);
+        EmployeeDTO dto = new EmployeeDTO();
+        dto.setId(layout.get(row, 0));
+        dto.setFirstName(layout.get(row, 1));
+        dto.setLastName(layout.get(row, 2));
+        dto.setEmail(layout.get(row, 3));
+        dto.setPhoneNumber(layout.get(row, 4));
+        dto.setSalary(layout.get(row, 5));
+        Long departmentId = layout.get(row, 6);
+        if (departmentId != null) {
+            DepartmentDTO department = new DepartmentDTO();
+            department.setId(departmentId);
+            dto.setDepartment(department);
+        }
+        dto.setVersion(layout.get(row, 7));
+        return dto;
+    }
+}
@@ -1,9 +1,16 @@
 package com.mycompany.myapp.repository.rowmapper;
 
+import static com.mycompany.myapp.repository.rowmapper.RowColumns.column;
+
 import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 /**
@@ -12,26 +19,53 @@ import org.springframework.stereotype.Service;
 @Service
 public class EmployeeRowMapper implements BiFunction<Row, String, Employee> {
 
+    /**
+     * The columns of the employee, also read by {@link EmployeeDTORowMapper}.
+     */
+    static final List<RowColumns.Column> COLUMNS = List.of(
+        column("id", Long.class),
+        column("first_name", String.class),
+        column("last_name", String.class),
+        column("email", String.class),
+        column("phone_number", String.class),
+        column("salary", Long.class),
+        column("department_id", Long.class),
+        column("version", Long.class)
+    );
+
     private final ColumnConverter converter;
 
+    private final Map<String, RowColumns> columns = new ConcurrentHashMap<>();
+
     public EmployeeRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
 
     /**
-     * Take a {@link Row} and a column prefix, and extract all the fields.
+     * Take a {@link Row} and a column prefix, and extract all the fields, reading the columns by name.
      * @return the {@link Employee} stored in the database.
      */
     @Override
     public Employee apply(Row row, String prefix) {
+        return apply(row, null, prefix);
+    }
+
+    /**
+     * Take a {@link Row}, the metadata of its result and a column prefix, and extract all the fields, reading the
+     * columns by index.
+     * @return the {@link Employee} stored in the database.
+     */
+    public Employee apply(Row row, @Nullable RowMetadata metadata, String prefix) {
+        RowColumns.Layout layout = RowColumns.forPrefix(columns, converter, prefix, COLUMNS).layout(metadata);
         Employee entity = new Employee();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setPhoneNumber(converter.fromRow(row, prefix + "_phone_number", String.class));
-        entity.setSalary(converter.fromRow(row, prefix + "_salary", Long.class));
-        entity.setDepartmentId(converter.fromRow(row, prefix + "_department_id", Long.class));
+        entity.setId(layout.get(row, 0));
+        entity.setFirstName(layout.get(row, 1));
+        entity.setLastName(layout.get(row, 2));
+        entity.setEmail(layout.get(row, 3));
+        entity.setPhoneNumber(layout.get(row, 4));
+        entity.setSalary(layout.get(row, 5));
+        entity.setDepartmentId(layout.get(row, 6));
+        entity.setVersion(layout.get(row, 7));
         return entity;
     }
 }
@@ -0,0 +1,59 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import com.mycompany.myapp.service.dto.JobDTO;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Converter between {@link Row} to {@link JobDTO}, for the reads which don't need the entity: the employee is only
+ * referenced by its id, read from the foreign key, so it doesn't have to be joined.
+ */
+@Service
+public class JobDTORowMapper implements BiFunction<Row, String, JobDTO> {
+
+    private final ColumnConverter converter;
+
+    private final Map<String, RowColumns> columns = new ConcurrentHashMap<>();
+
+    public JobDTORowMapper(ColumnConverter converter) {
+        this.converter = converter;
+    }
+
+    /**
+     * Take a {@link Row} and a column prefix, and extract all the fields, reading the columns by name.
+     * @return the {@link JobDTO} stored in the database.
+     */
+    @Override
+    public JobDTO apply(Row row, String prefix) {
+        return apply(row, null, prefix);
+    }
+
+    /**
+     * Take a {@link Row}, the metadata of its result and a column prefix, and extract all the fields, reading the
+     * columns by index.
+     * @return the {@link JobDTO} stored in the database.
+     */
+    public JobDTO apply(Row row, @Nullable RowMetadata metadata, String prefix) {
+        RowColumns.Layout layout = RowColumns.forPrefix(columns, converter, prefix, JobRowMapper.COLUMNS).layout(metadata);
+        JobDTO dto = new JobDTO();
+        dto.setId(layout.get(row, 0));
+        dto.setJobTitle(layout.get(row, 1));
+        dto.setJobDescription(layout.get(row, 2));
+        dto.setJobHours(layout.get(row, 3));
+        Long employeeId = layout.get(row, 4);
+        if (employeeId != null) {
+            EmployeeDTO employee = new EmployeeDTO();
+            employee.setId(employeeId);
+            dto.setEmployee(employee);
+        }
+        dto.setVersion(layout.get(row, 5));
+        return dto;
+    }
+}
@@ -1,9 +1,16 @@
 package com.mycompany.myapp.repository.rowmapper;
 
+import static com.mycompany.myapp.repository.rowmapper.RowColumns.column;
+
 import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 /**
@@ -12,24 +19,49 @@ import org.springframework.stereotype.Service;
 @Service
 public class JobRowMapper implements BiFunction<Row, String, Job> {
 
+    /**
+     * The columns of the job, also read by {@link JobDTORowMapper}.
+     */
+    static final List<RowColumns.Column> COLUMNS = List.of(
+        column("id", Long.class),
+        column("job_title", String.class),
+        column("job_description", String.class),
+        column("job_hours", Long.class),
+        column("employee_id", Long.class),
+        column("version", Long.class)
+    );
+
     private final ColumnConverter converter;
 
+    private final Map<String, RowColumns> columns = new ConcurrentHashMap<>();
+
     public JobRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
 
     /**
-     * Take a {@link Row} and a column prefix, and extract all the fields.
+     * Take a {@link Row} and a column prefix, and extract all the fields, reading the columns by name.
      * @return the {@link Job} stored in the database.
      */
     @Override
     public Job apply(Row row, String prefix) {
+        return apply(row, null, prefix);
+    }
+
+    /**
+     * Take a {@link Row}, the metadata of its result and a column prefix, and extract all the fields, reading the
+     * columns by index.
+     * @return the {@link Job} stored in the database.
+     */
+    public Job apply(Row row, @Nullable RowMetadata metadata, String prefix) {
+        RowColumns.Layout layout = RowColumns.forPrefix(columns, converter, prefix, COLUMNS).layout(metadata);
         Job entity = new Job();
-        entity.setId(converter.fromRow(row, prefix + "_id", Long.class));
-        entity.setJobTitle(converter.fromRow(row, prefix + "_job_title", String.class));
-        entity.setJobDescription(converter.fromRow(row, prefix + "_job_description", String.class));
-        entity.setJobHours(converter.fromRow(row, prefix + "_job_hours", Long.class));
-        entity.setEmployeeId(converter.fromRow(row, prefix + "_employee_id", Long.class));
+        entity.setId(layout.get(row, 0));
+        entity.setJobTitle(layout.get(row, 1));
+        entity.setJobDescription(layout.get(row, 2));
+        entity.setJobHours(layout.get(row, 3));
+        entity.setEmployeeId(layout.get(row, 4));
+        entity.setVersion(layout.get(row, 5));
         return entity;
     }
 }
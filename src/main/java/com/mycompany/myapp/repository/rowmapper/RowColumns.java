@@ -0,0 +1,234 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.ColumnConverter.Conversion;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.springframework.lang.Nullable;
+import org.springframework.util.ClassUtils;
+
+/**
+ * The columns a row mapper reads under a given prefix, e.g. {@code employee_first_name} for the prefix {@code employee}.
+ * <p>
+ * The column names are concatenated once per prefix, instead of once per row. The position of each column, and how its
+ * value is converted, are resolved once per result from its {@link RowMetadata}, which the drivers share between the rows
+ * of a result. The layouts of the last few results are kept, so the results of different selects read concurrently under
+ * the same prefix, e.g. a sparse fieldset and a full row, don't resolve them again for each other's rows. The values are
+ * then read by index, either straight from the driver when it already decodes the column to the target type, or through
+ * the conversion the {@link ColumnConverter} resolved for the column when it doesn't, e.g. a {@code LocalDateTime} read
+ * as an {@code Instant}. No exception is thrown to find out which one applies.
+ */
+public final class RowColumns {
+
+    /**
+     * The number of layouts kept, which bounds the results read concurrently under a prefix without resolving the layout
+     * of their rows again.
+     */
+    private static final int LAYOUTS = 8;
+
+    private final ColumnConverter converter;
+
+    private final String[] names;
+
+    private final Class<?>[] types;
+
+    /**
+     * The layouts of the last results, looked up by the identity of their metadata.
+     */
+    private final AtomicReferenceArray<Layout> layouts = new AtomicReferenceArray<>(LAYOUTS);
+
+    private final AtomicInteger nextLayout = new AtomicInteger();
+
+    /**
+     * The layout of the last row, checked first: the rows of a result usually follow each other.
+     */
+    @Nullable
+    private volatile Layout lastLayout;
+
+    private final Layout byName;
+
+    private RowColumns(ColumnConverter converter, String prefix, List<Column> columns) {
+        this.converter = converter;
+        this.names = new String[columns.size()];
+        this.types = new Class<?>[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            names[i] = prefix + "_" + columns.get(i).name;
+            types[i] = columns.get(i).type;
+        }
+        this.byName = new Layout(null);
+    }
+
+    /**
+     * @param converter converts the values the driver can't decode to the target type.
+     * @param prefix the prefix of the columns in the select.
+     * @param columns the columns, without prefix.
+     * @return the columns read under the prefix.
+     */
+    public static RowColumns of(ColumnConverter converter, String prefix, List<Column> columns) {
+        return new RowColumns(converter, prefix, columns);
+    }
+
+    /**
+     * Looks up the columns read under a prefix, creating them on the first read of the prefix. The map is read before
+     * calling {@code computeIfAbsent}, whose capturing lambda would otherwise be allocated for every row.
+     * @param columnsByPrefix the columns of a row mapper, by prefix.
+     * @param converter converts the values the driver can't decode to the target type.
+     * @param prefix the prefix of the columns in the select.
+     * @param columns the columns, without prefix.
+     * @return the columns read under the prefix.
+     */
+    public static RowColumns forPrefix(
+        Map<String, RowColumns> columnsByPrefix,
+        ColumnConverter converter,
+        String prefix,
+        List<Column> columns
+    ) {
+        RowColumns rowColumns = columnsByPrefix.get(prefix);
+        if (rowColumns == null) {
+            rowColumns = columnsByPrefix.computeIfAbsent(prefix, key -> of(converter, key, columns));
+        }
+        return rowColumns;
+    }
+
+    /**
+     * @param name the name of the column, without prefix.
+     * @param type the type the column is read as.
+     * @return the column definition.
+     */
+    public static Column column(String name, Class<?> type) {
+        return new Column(name, type);
+    }
+
+    /**
+     * Resolves the position and the conversion of the columns in the rows of a result. The layouts of the last results
+     * are kept, so only the first row of a result resolves it.
+     * @param metadata the metadata of the rows, or null to read the columns by name.
+     * @return the layout, to read the columns of the rows.
+     */
+    public Layout layout(@Nullable RowMetadata metadata) {
+        if (metadata == null) {
+            return byName;
+        }
+        Layout last = lastLayout;
+        if (last != null && last.metadata == metadata) {
+            return last;
+        }
+        last = findLayout(metadata);
+        lastLayout = last;
+        return last;
+    }
+
+    private Layout findLayout(RowMetadata metadata) {
+        for (int i = 0; i < LAYOUTS; i++) {
+            Layout layout = layouts.get(i);
+            if (layout != null && layout.metadata == metadata) {
+                return layout;
+            }
+        }
+        Layout layout = new Layout(metadata);
+        layouts.set(Math.floorMod(nextLayout.getAndIncrement(), LAYOUTS), layout);
+        return layout;
+    }
+
+    /**
+     * A column read by a row mapper.
+     */
+    public static final class Column {
+
+        private final String name;
+        private final Class<?> type;
+
+        private Column(String name, Class<?> type) {
+            this.name = name;
+            this.type = type;
+        }
+    }
+
+    /**
+     * The position and the conversion of the columns in the rows of one result.
+     */
+    public final class Layout {
+
+        private static final int NOT_SELECTED = -1;
+
+        @Nullable
+        private final RowMetadata metadata;
+
+        @Nullable
+        private final int[] indexes;
+
+        private final boolean[] decoded;
+
+        /**
+         * The conversion of the columns the driver doesn't decode to the target type, when their type is known.
+         */
+        private final Conversion[] conversions;
+
+        private Layout(@Nullable RowMetadata metadata) {
+            this.metadata = metadata;
+            this.decoded = new boolean[names.length];
+            this.conversions = new Conversion[names.length];
+            if (metadata == null) {
+                this.indexes = null;
+                return;
+            }
+            Map<String, Integer> positions = new HashMap<>();
+            Map<String, Class<?>> javaTypes = new HashMap<>();
+            int position = 0;
+            for (ColumnMetadata column : metadata.getColumnMetadatas()) {
+                String key = column.getName().toLowerCase(Locale.ROOT);
+                positions.putIfAbsent(key, position++);
+                javaTypes.putIfAbsent(key, column.getJavaType());
+            }
+            this.indexes = new int[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String key = names[i].toLowerCase(Locale.ROOT);
+                Integer index = positions.get(key);
+                if (index == null) {
+                    indexes[i] = NOT_SELECTED;
+                    continue;
+                }
+                indexes[i] = index;
+                Class<?> javaType = javaTypes.get(key);
+                decoded[i] = javaType != null && ClassUtils.isAssignable(types[i], javaType);
+                if (javaType != null && !decoded[i]) {
+                    conversions[i] = converter.conversionFor(javaType, types[i]);
+                }
+            }
+        }
+
+        /**
+         * Reads a column of a row.
+         * @param row the row, from the result the layout was resolved for.
+         * @param column the position of the column in the columns of the row mapper.
+         * @param <T> the type the column is read as.
+         * @return the value of the column, or null if it isn't selected, e.g. when it's left out of a sparse fieldset.
+         */
+        @SuppressWarnings("unchecked")
+        public <T> T get(Row row, int column) {
+            Class<T> type = (Class<T>) types[column];
+            if (indexes == null) {
+                return converter.convert(row.get(names[column]), type);
+            }
+            if (indexes[column] == NOT_SELECTED) {
+                return null;
+            }
+            if (decoded[column]) {
+                return row.get(indexes[column], type);
+            }
+            Object value = row.get(indexes[column]);
+            Conversion conversion = conversions[column];
+            if (value == null || conversion == null || value.getClass() != conversion.getSourceType()) {
+                return converter.convert(value, type);
+            }
+            return (T) conversion.apply(value);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.mycompany.myapp.repository.rowmapper;
 
+import static com.mycompany.myapp.repository.rowmapper.RowColumns.column;
+
 import com.mycompany.myapp.domain.User;
 import com.mycompany.myapp.service.ColumnConverter;
 import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
 import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.BiFunction;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 /**
@@ -13,31 +20,58 @@ import org.springframework.stereotype.Service;
 @Service
 public class UserRowMapper implements BiFunction<Row, String, User> {
 
+    private static final List<RowColumns.Column> COLUMNS = List.of(
+        column("id", Long.class),
+        column("login", String.class),
+        column("password", String.class),
+        column("first_name", String.class),
+        column("last_name", String.class),
+        column("email", String.class),
+        column("activated", Boolean.class),
+        column("lang_key", String.class),
+        column("image_url", String.class),
+        column("activation_key", String.class),
+        column("reset_key", String.class),
+        column("reset_date", Instant.class)
+    );
+
     private final ColumnConverter converter;
 
+    private final Map<String, RowColumns> columns = new ConcurrentHashMap<>();
+
     public UserRowMapper(ColumnConverter converter) {
         this.converter = converter;
     }
 
     /**
-     * Take a {@link Row} and a column prefix, and extract all the fields.
+     * Take a {@link Row} and a column prefix, and extract all the fields, reading the columns by name.
      * @return the {@link User} stored in the database.
      */
     @Override
     public User apply(Row row, String prefix) {
+        return apply(row, null, prefix);
+    }
+
+    /**
+     * Take a {@link Row}, the metadata of its result and a column prefix, and extract all the fields, reading the
+     * columns by index.
+     * @return the {@link User} stored in the database.
+     */
+    public User apply(Row row, @Nullable RowMetadata metadata, String prefix) {
+        RowColumns.Layout layout = RowColumns.forPrefix(columns, converter, prefix, COLUMNS).layout(metadata);
         User entity = new User();
-        entity.setId(row.get(prefix + "_id", Long.class));
-        entity.setLogin(converter.fromRow(row, prefix + "_login", String.class));
-        entity.setPassword(converter.fromRow(row, prefix + "_password", String.class));
-        entity.setFirstName(converter.fromRow(row, prefix + "_first_name", String.class));
-        entity.setLastName(converter.fromRow(row, prefix + "_last_name", String.class));
-        entity.setEmail(converter.fromRow(row, prefix + "_email", String.class));
-        entity.setActivated(Boolean.TRUE.equals(converter.fromRow(row, prefix + "_activated", Boolean.class)));
-        entity.setLangKey(converter.fromRow(row, prefix + "_lang_key", String.class));
-        entity.setImageUrl(converter.fromRow(row, prefix + "_image_url", String.class));
-        entity.setActivationKey(converter.fromRow(row, prefix + "_activation_key", String.class));
-        entity.setResetKey(converter.fromRow(row, prefix + "_reset_key", String.class));
-        entity.setResetDate(converter.fromRow(row, prefix + "_reset_date", Instant.class));
+        entity.setId(layout.get(row, 0));
+        entity.setLogin(layout.get(row, 1));
+        entity.setPassword(layout.get(row, 2));
+        entity.setFirstName(layout.get(row, 3));
+        entity.setLastName(layout.get(row, 4));
+        entity.setEmail(layout.get(row, 5));
+        entity.setActivated(Boolean.TRUE.equals(layout.get(row, 6)));
+        entity.setLangKey(layout.get(row, 7));
+        entity.setImageUrl(layout.get(row, 8));
+        entity.setActivationKey(layout.get(row, 9));
+        entity.setResetKey(layout.get(row, 10));
+        entity.setResetDate(layout.get(row, 11));
         return entity;
     }
 }
@@ -0,0 +1,163 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.EntityManager.Aggregate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service for aggregating the rows of an entity in the database, see {@link EntityManager#aggregate(Class, String, List)}.
+ * <p>
+ * The results are cached for {@code application.database.aggregate-cache-ttl}, and evicted as soon as the aggregated
+ * entity is written through its service.
+ */
+@Service
+public class AggregationService {
+
+    private final Logger log = LoggerFactory.getLogger(AggregationService.class);
+
+    private final EntityManager entityManager;
+
+    private final long ttlNanos;
+
+    private final Map<AggregationKey, CachedResult> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Incremented on each write of an entity, a result read before a write isn't cached after it.
+     */
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public AggregationService(EntityManager entityManager, ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.ttlNanos = applicationProperties.getDatabase().getAggregateCacheTtl().toNanos();
+    }
+
+    /**
+     * Aggregates the rows of an entity by one of its properties.
+     * @param entityType the aggregated entity.
+     * @param groupName the name of the group in the result rows.
+     * @param groupBy the property grouping the rows.
+     * @param aggregates the values computed for each group, the count is always computed.
+     * @return one row per group: the group value under {@code groupName}, the {@code count}, then the other values
+     *         under their function and property, e.g. {@code "sum": {"jobHours": 40}}. The rows are shared with the cache,
+     *         so the list and its maps are unmodifiable.
+     */
+    public Mono<List<Map<String, Object>>> aggregate(Class<?> entityType, String groupName, String groupBy, List<Aggregate> aggregates) {
+        AggregationKey key = new AggregationKey(entityType, groupName, groupBy, aggregates);
+        long now = System.nanoTime();
+        CachedResult cached = cache.get(key);
+        if (cached != null && now - cached.readAt < ttlNanos) {
+            return Mono.just(cached.rows);
+        }
+        long generation = generation(entityType).get();
+        List<Aggregate> selected = new ArrayList<>(aggregates.size() + 1);
+        selected.add(Aggregate.count());
+        selected.addAll(aggregates);
+        return entityManager
+            .aggregate(entityType, groupBy, selected)
+            .map(values -> toRow(groupName, selected, values))
+            .collectList()
+            .map(List::copyOf)
+            .doOnNext(
+                rows -> {
+                    if (generation == generation(entityType).get()) {
+                        cache.put(key, new CachedResult(now, rows));
+                    }
+                }
+            );
+    }
+
+    /**
+     * Evicts the cached aggregations of an entity, called after each write.
+     * @param entityType the written entity.
+     */
+    public void evict(Class<?> entityType) {
+        generation(entityType).incrementAndGet();
+        if (cache.keySet().removeIf(key -> key.entityType == entityType)) {
+            log.debug("Evicted the cached aggregations of {}", entityType.getSimpleName());
+        }
+    }
+
+    private AtomicLong generation(Class<?> entityType) {
+        return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> toRow(String groupName, List<Aggregate> aggregates, Object[] values) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put(groupName, values[0]);
+        for (int i = 0; i < aggregates.size(); i++) {
+            Aggregate aggregate = aggregates.get(i);
+            String function = aggregate.getFunction().name().toLowerCase(Locale.ROOT);
+            if (aggregate.getProperty() == null) {
+                row.put(function, values[i + 1]);
+            } else {
+                ((Map<String, Object>) row.computeIfAbsent(function, name -> new LinkedHashMap<String, Object>())).put(
+                        aggregate.getProperty(),
+                        values[i + 1]
+                    );
+            }
+        }
+        row.replaceAll((name, value) -> value instanceof Map ? Collections.unmodifiableMap((Map<String, Object>) value) : value);
+        return Collections.unmodifiableMap(row);
+    }
+
+    private static final class AggregationKey {
+
+        final Class<?> entityType;
+        final String groupName;
+        final String groupBy;
+        final List<Aggregate> aggregates;
+
+        AggregationKey(Class<?> entityType, String groupName, String groupBy, List<Aggregate> aggregates) {
+            this.entityType = entityType;
+            this.groupName = groupName;
+            this.groupBy = groupBy;
+            this.aggregates = List.copyOf(aggregates);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof AggregationKey)) {
+                return false;
+            }
+            AggregationKey other = (AggregationKey) o;
+            return (
+                entityType == other.entityType &&
+                groupName.equals(other.groupName) &&
+                groupBy.equals(other.groupBy) &&
+                aggregates.equals(other.aggregates)
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, groupName, groupBy, aggregates);
+        }
+    }
+
+    private static final class CachedResult {
+
+        final long readAt;
+        final List<Map<String, Object>> rows;
+
+        CachedResult(long readAt, List<Map<String, Object>> rows) {
+            this.readAt = readAt;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.config.ReplicaRoutingConnectionFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts the writes of each entity through its service, so that the version of a whole collection can be known
+ * without reading it, e.g. for the ETag of a list: the list can't have changed while the counters of its entities
+ * haven't.
+ * <p>
+ * The counters are kept in memory, like the caches of the services, so they don't see the writes of the other
+ * instances, nor the writes made directly in the database. They start from a random epoch, so that the versions of two
+ * instances, or of two runs of the same instance, never collide.
+ * <p>
+ * With read replicas, a version can count writes a replica hasn't replicated yet: the reads tagged with a version are
+ * sent to the primary for as long as a replica may lag behind the last count, see {@link #readLatest(Mono, Class[])}.
+ */
+@Service
+public class ChangeCounters {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, Character.MAX_RADIX);
+
+    private final Map<Class<?>, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * How long a replica may still serve the rows as they were before a write, once counted: its maximum lag, plus the
+     * interval during which it can drift from its last check.
+     */
+    private final long replicaStalenessNanos;
+
+    public ChangeCounters(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Replicas replicas = applicationProperties.getDatabase().getReplicas();
+        this.replicaStalenessNanos = replicas.getMaxLag().plus(replicas.getCheckInterval()).toNanos();
+    }
+
+    /**
+     * Counts a write of an entity, once its transaction has completed, see {@link TransactionUtil#afterCompletion(Runnable)}:
+     * counting before the commit would let a concurrent read tag the rows as they were before the write with the new
+     * version.
+     * @param entityType the written entity.
+     */
+    public void count(Class<?> entityType) {
+        counter(entityType).count();
+    }
+
+    /**
+     * Reads the version of the collections of some entities, to be read before the collection itself.
+     * @param entityTypes the entities of the collection, e.g. the departments and their employees.
+     * @return the version, e.g. {@code k3x9b2-12-40}, which changes with each write of one of the entities.
+     */
+    public String version(Class<?>... entityTypes) {
+        StringBuilder version = new StringBuilder(epoch);
+        for (Class<?> entityType : entityTypes) {
+            version.append('-').append(counter(entityType).count.get());
+        }
+        return version.toString();
+    }
+
+    /**
+     * Makes a read of the collections of some entities see at least the writes counted by their version, read before
+     * it: if one of the entities was written more recently than a replica may lag behind, the read-only transactions of
+     * the read go to the primary. Otherwise a replica could return the rows as they were before the write, tagged with
+     * the new version, and the clients would keep them until the next write.
+     * @param <T> the type of the result.
+     * @param read the read of the collection.
+     * @param entityTypes the entities of the collection.
+     * @return the read.
+     */
+    public <T> Mono<T> readLatest(Mono<T> read, Class<?>... entityTypes) {
+        long now = System.nanoTime();
+        for (Class<?> entityType : entityTypes) {
+            Counter counter = counter(entityType);
+            if (counter.count.get() > 0 && now - counter.countedAt < replicaStalenessNanos) {
+                return ReplicaRoutingConnectionFactory.onPrimary(read);
+            }
+        }
+        return read;
+    }
+
+    private Counter counter(Class<?> entityType) {
+        return counters.computeIfAbsent(entityType, type -> new Counter());
+    }
+
+    private static final class Counter {
+
+        private final AtomicLong count = new AtomicLong();
+
+        private volatile long countedAt;
+
+        private void count() {
+            countedAt = System.nanoTime();
+            count.incrementAndGet();
+        }
+    }
+}
@@ -1,7 +1,24 @@
 package com.mycompany.myapp.service;
 
 import io.r2dbc.spi.Row;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.GenericTypeResolver;
 import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.core.convert.converter.ConverterFactory;
+import org.springframework.core.convert.converter.ConverterRegistry;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.core.convert.converter.GenericConverter.ConvertiblePair;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.lang.Nullable;
@@ -10,16 +27,24 @@ import org.springframework.util.ClassUtils;
 
 /**
  * This service provides helper function dealing with the low level {@link Row} and Spring's {@link R2dbcCustomConversions}, so type conversions can be applied.
+ * <p>
+ * The conversion of each (source class, target class) pair is resolved once, and kept in a table: converting a value then
+ * costs one lookup and a direct call. The table is warmed at startup with the reading converters of the
+ * {@link R2dbcCustomConversions}, and is exposed by the {@code columnconversions} management endpoint.
  */
 @Service
 public class ColumnConverter {
 
+    private final Logger log = LoggerFactory.getLogger(ColumnConverter.class);
+
     private final ConversionService conversionService;
     private final R2dbcCustomConversions conversions;
+    private final Map<ConvertiblePair, Conversion> conversionTable = new ConcurrentHashMap<>();
 
     public ColumnConverter(R2dbcCustomConversions conversions, R2dbcConverter r2dbcConverter) {
         this.conversionService = r2dbcConverter.getConversionService();
         this.conversions = conversions;
+        warm();
     }
 
     /**
@@ -31,23 +56,33 @@ public class ColumnConverter {
      */
     @SuppressWarnings("unchecked")
     public <T> T convert(@Nullable Object value, @Nullable Class<T> target) {
-        if (value == null || target == null || ClassUtils.isAssignableValue(target, value)) {
+        if (value == null || target == null) {
             return (T) value;
         }
+        return (T) conversionFor(value.getClass(), target).apply(value);
+    }
 
-        if (conversions.hasCustomReadTarget(value.getClass(), target)) {
-            return conversionService.convert(value, target);
-        }
-
-        if (Enum.class.isAssignableFrom(target)) {
-            return (T) Enum.valueOf((Class<Enum>) target, value.toString());
-        }
+    /**
+     * Resolves the conversion of the values of a class to another one, once per pair of classes.
+     * @param source the class of the values.
+     * @param target the class to convert them to.
+     * @return the conversion, to apply to the non null values of the source class.
+     */
+    public Conversion conversionFor(Class<?> source, Class<?> target) {
+        return conversionTable.computeIfAbsent(new ConvertiblePair(source, target), pair -> resolve(pair, null));
+    }
 
-        return conversionService.convert(value, target);
+    /**
+     * @return the resolved conversions, with the number of values each one converted.
+     */
+    public Collection<Conversion> getConversions() {
+        return conversionTable.values();
     }
 
     /**
      * Convert a value from the {@link Row} to a type - throws an exception, it it's impossible.
+     * <p>
+     * The row mappers read the columns by index instead, see {@link com.mycompany.myapp.repository.rowmapper.RowColumns}.
      * @param row which contains the column values.
      * @param target class.
      * @param columnName the name of the column which to convert.
@@ -55,12 +90,157 @@ public class ColumnConverter {
      * @return the value which can be constructed from the input.
      */
     public <T> T fromRow(Row row, String columnName, Class<T> target) {
-        try {
-            // try, directly the driver
-            return row.get(columnName, target);
-        } catch (Exception e) {
-            Object obj = row.get(columnName);
-            return convert(obj, target);
+        return convert(row.get(columnName), target);
+    }
+
+    private void warm() {
+        ReadingConverters readingConverters = new ReadingConverters();
+        conversions.registerConvertersIn(readingConverters);
+        readingConverters.converters.forEach(
+            (pair, converter) -> {
+                if (conversions.hasCustomReadTarget(pair.getSourceType(), pair.getTargetType())) {
+                    conversionTable.computeIfAbsent(pair, key -> resolve(key, converter));
+                }
+            }
+        );
+        log.debug("Warmed {} column conversions", conversionTable.size());
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private Conversion resolve(ConvertiblePair pair, @Nullable Converter<Object, Object> converter) {
+        Class<?> source = pair.getSourceType();
+        Class<?> target = pair.getTargetType();
+        if (ClassUtils.isAssignable(target, source)) {
+            return new Conversion(pair, Conversion.Kind.ASSIGNABLE, Function.identity());
+        }
+        TypeDescriptor sourceType = TypeDescriptor.valueOf(source);
+        TypeDescriptor targetType = TypeDescriptor.valueOf(target);
+        if (conversions.hasCustomReadTarget(source, target)) {
+            if (converter != null) {
+                return new Conversion(pair, Conversion.Kind.CUSTOM, converter::convert);
+            }
+            return new Conversion(pair, Conversion.Kind.CUSTOM, value -> conversionService.convert(value, sourceType, targetType));
+        }
+        if (Enum.class.isAssignableFrom(target)) {
+            return new Conversion(pair, Conversion.Kind.ENUM, value -> Enum.valueOf((Class<Enum>) target, value.toString()));
+        }
+        log.debug("Resolved the generic conversion of {} to {}", source.getName(), target.getName());
+        return new Conversion(pair, Conversion.Kind.GENERIC, value -> conversionService.convert(value, sourceType, targetType));
+    }
+
+    /**
+     * The resolved conversion of the values of a class to another one.
+     */
+    public static final class Conversion {
+
+        /**
+         * How the values are converted.
+         */
+        public enum Kind {
+            /**
+             * The values are already instances of the target class.
+             */
+            ASSIGNABLE,
+            /**
+             * A custom converter of the {@link R2dbcCustomConversions}, e.g. {@code LocalDateTime} to {@code Instant}.
+             */
+            CUSTOM,
+            /**
+             * The name of an enum constant.
+             */
+            ENUM,
+            /**
+             * A default conversion of the {@link ConversionService}, e.g. {@code BigInteger} to {@code Long}: the driver
+             * decodes the column to another type than the entity property.
+             */
+            GENERIC,
+        }
+
+        private final ConvertiblePair pair;
+        private final Kind kind;
+        private final Function<Object, Object> function;
+        private final LongAdder count = new LongAdder();
+
+        private Conversion(ConvertiblePair pair, Kind kind, Function<Object, Object> function) {
+            this.pair = pair;
+            this.kind = kind;
+            this.function = function;
+        }
+
+        /**
+         * Converts a value.
+         * @param value a non null value of the source class.
+         * @return the value converted to the target class.
+         */
+        public Object apply(Object value) {
+            count.increment();
+            return function.apply(value);
+        }
+
+        public Class<?> getSourceType() {
+            return pair.getSourceType();
+        }
+
+        public Class<?> getTargetType() {
+            return pair.getTargetType();
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the number of values converted.
+         */
+        public long getCount() {
+            return count.sum();
+        }
+    }
+
+    /**
+     * Records the converters the {@link R2dbcCustomConversions} register, by the pair of classes they convert. As in the
+     * {@link ConversionService}, the last converter registered for a pair wins: the user converters are registered last.
+     */
+    private static final class ReadingConverters implements ConverterRegistry {
+
+        private final Map<ConvertiblePair, Converter<Object, Object>> converters = new HashMap<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public void addConverter(Converter<?, ?> converter) {
+            Class<?>[] types = GenericTypeResolver.resolveTypeArguments(converter.getClass(), Converter.class);
+            if (types != null) {
+                addConverter((Class<Object>) types[0], (Class<Object>) types[1], (Converter<Object, Object>) converter);
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <S, T> void addConverter(Class<S> sourceType, Class<T> targetType, Converter<? super S, ? extends T> converter) {
+            converters.put(new ConvertiblePair(sourceType, targetType), (Converter<Object, Object>) converter);
+        }
+
+        @Override
+        public void addConverter(GenericConverter converter) {
+            Set<ConvertiblePair> pairs = converter.getConvertibleTypes();
+            if (pairs == null) {
+                return;
+            }
+            for (ConvertiblePair pair : new ArrayList<>(pairs)) {
+                TypeDescriptor sourceType = TypeDescriptor.valueOf(pair.getSourceType());
+                TypeDescriptor targetType = TypeDescriptor.valueOf(pair.getTargetType());
+                converters.put(pair, value -> converter.convert(value, sourceType, targetType));
+            }
+        }
+
+        @Override
+        public void addConverterFactory(ConverterFactory<?, ?> factory) {
+            // the targets of a factory are only known when converting, they are resolved on first use
+        }
+
+        @Override
+        public void removeConvertible(Class<?> sourceType, Class<?> targetType) {
+            converters.remove(new ConvertiblePair(sourceType, targetType));
         }
     }
 }
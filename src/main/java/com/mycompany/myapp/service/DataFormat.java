@@ -0,0 +1,45 @@
+package com.mycompany.myapp.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.lang.Nullable;
+
+/**
+ * The formats of the bulk imports and exports: one JSON object per line, or a CSV file whose first line holds the property
+ * names. Nested properties are written with a dot, e.g. {@code department.id}. Quoted CSV values can't contain a line break.
+ */
+public enum DataFormat {
+    NDJSON,
+    CSV;
+
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType(TEXT_CSV_VALUE);
+
+    /**
+     * @param contentType the content type of a request body.
+     * @return the format of the body, NDJSON unless the body is CSV.
+     */
+    public static DataFormat of(@Nullable MediaType contentType) {
+        return contentType != null && contentType.isCompatibleWith(TEXT_CSV) ? CSV : NDJSON;
+    }
+
+    /**
+     * @param acceptableTypes the acceptable media types of a request, the {@code Accept} header.
+     * @return the preferred format, NDJSON unless CSV is explicitly preferred.
+     */
+    public static DataFormat of(List<MediaType> acceptableTypes) {
+        List<MediaType> sorted = new ArrayList<>(acceptableTypes);
+        MediaType.sortBySpecificityAndQuality(sorted);
+        for (MediaType acceptable : sorted) {
+            if (acceptable.isCompatibleWith(TEXT_CSV) && !acceptable.isWildcardType()) {
+                return CSV;
+            }
+            if (acceptable.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                return NDJSON;
+            }
+        }
+        return NDJSON;
+    }
+}
@@ -1,7 +1,12 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.DepartmentDTO;
+import java.util.List;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -25,6 +30,15 @@ public interface DepartmentService {
      */
     Mono<DepartmentDTO> partialUpdate(DepartmentDTO departmentDTO);
 
+    /**
+     * Partially updates the given departments in a single transaction, with a batched update for the departments whose given fields
+     * are the same.
+     *
+     * @param departmentDTOs the entities to update partially, with distinct ids.
+     * @return the outcome of each update, in the same order.
+     */
+    Flux<BulkItemDTO<DepartmentDTO>> partialUpdateAll(List<DepartmentDTO> departmentDTOs);
+
     /**
      * Get all the departments.
      *
@@ -41,6 +55,38 @@ public interface DepartmentService {
      */
     Flux<DepartmentDTO> findAll(Pageable pageable);
 
+    /**
+     * Get a page of departments and the total number of departments, read with a single query.
+     *
+     * @param pageable the pagination information.
+     * @return the page of entities.
+     */
+    Mono<Page<DepartmentDTO>> findPage(Pageable pageable);
+
+    /**
+     * Get a page of departments, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of entities, which tells if there is a next page.
+     */
+    Mono<Slice<DepartmentDTO>> findSlice(Pageable pageable);
+
+    /**
+     * Get a page of departments after the given cursor, without an offset.
+     *
+     * @param pageable the pagination information, only its size and sort are used.
+     * @param after the position of the last entity of the previous page, or {@code null} for the first page.
+     * @return the list of entities.
+     */
+    Flux<DepartmentDTO> findAll(Pageable pageable, KeysetCursor after);
+
+    /**
+     * Get all the departments as a stream, read from the database as they are consumed.
+     *
+     * @return the list of entities.
+     */
+    Flux<DepartmentDTO> streamAll();
+
     /**
      * Returns the number of departments available.
      * @return the number of entities in the database.
@@ -56,6 +102,30 @@ public interface DepartmentService {
      */
     Mono<DepartmentDTO> findOne(Long id);
 
+    /**
+     * Get the departments with the given ids, with a select for a batch of ids.
+     *
+     * @param ids the distinct ids of the entities.
+     * @return the outcome of each read, in the order of the ids.
+     */
+    Flux<BulkItemDTO<DepartmentDTO>> findAllById(List<Long> ids);
+
+    /**
+     * Get the "id" department with its employees and their jobs, read with a single query.
+     *
+     * @param id the id of the entity.
+     * @return the entity, with its employees and their jobs.
+     */
+    Mono<DepartmentDTO> findTree(Long id);
+
+    /**
+     * Load the employees of the given departments with a single query, whatever the number of departments.
+     *
+     * @param departments the departments, whose employees are set.
+     * @return the same departments.
+     */
+    Mono<List<DepartmentDTO>> fetchEmployees(List<DepartmentDTO> departments);
+
     /**
      * Delete the "id" department.
      *
@@ -63,4 +133,12 @@ public interface DepartmentService {
      * @return a Mono to signal the deletion
      */
     Mono<Void> delete(Long id);
+
+    /**
+     * Delete the departments with the given ids in a single transaction, with a delete for a batch of ids.
+     *
+     * @param ids the distinct ids of the entities.
+     * @return the outcome of each delete, in the order of the ids.
+     */
+    Flux<BulkItemDTO<DepartmentDTO>> deleteAll(List<Long> ids);
 }
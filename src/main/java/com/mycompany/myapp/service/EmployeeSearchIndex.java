@@ -0,0 +1,423 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * In-memory trigram index over the first name, last name and email of the employees, so the employee search doesn't
+ * scan the table.
+ * <p>
+ * Each field is lowercased and split in trigrams, its substrings of 3 characters, and each trigram maps to the sorted ids
+ * of the employees containing it. A search intersects the postings of the trigrams of the searched string, starting with
+ * the shortest one, then checks that the candidates really contain it, like {@code LIKE '%search%'} does. The strings
+ * shorter than a trigram aren't searched, they would have to check every employee.
+ * <p>
+ * The searches run on the bounded elastic scheduler, off the event loop, and so should the writes, which wait for the
+ * running searches.
+ * <p>
+ * The index is built from the table when the application is ready, and kept up to date by the writes of
+ * {@link com.mycompany.myapp.service.impl.EmployeeServiceImpl}. Writes which bypass the service are only seen after
+ * a {@link #rebuild()}, so the callers re-check the rows they read with {@link #matches(Employee, String)}.
+ */
+@Service
+public class EmployeeSearchIndex {
+
+    static final String METRIC_PREFIX = "employee.search.index";
+
+    private static final int FIRST_NAME = 0;
+    private static final int LAST_NAME = 1;
+    private static final int EMAIL = 2;
+
+    /**
+     * The length of the shortest searched string, that of a trigram.
+     */
+    public static final int MIN_SEARCH_LENGTH = 3;
+
+    private final Logger log = LoggerFactory.getLogger(EmployeeSearchIndex.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    private final Timer rebuildTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private Index index = new Index();
+
+    /**
+     * The writes received while a rebuild reads the table, replayed on the new index; {@code null} when not rebuilding.
+     */
+    @Nullable
+    private List<Consumer<Index>> pendingWrites;
+
+    private volatile boolean ready;
+
+    public EmployeeSearchIndex(EmployeeRepository employeeRepository, MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.rebuildTimer =
+            Timer
+                .builder(METRIC_PREFIX + ".rebuild")
+                .description("The time taken to build the index from the table")
+                .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + ".documents", this, searchIndex -> searchIndex.read(Index::documentCount))
+            .description("The number of indexed employees")
+            .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + ".trigrams", this, searchIndex -> searchIndex.read(Index::trigramCount))
+            .description("The number of distinct trigrams")
+            .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + ".memory", this, searchIndex -> searchIndex.read(Index::estimateMemory))
+            .description("The estimated memory used by the index")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild().subscribe(null, e -> log.error("Could not build the employee search index", e));
+    }
+
+    /**
+     * @return whether the index was built, the searches have to be answered by the database until then.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds a new index from the employee table, and replaces the current one once done. The writes made meanwhile are
+     * applied to both.
+     * @return a Mono completing once the new index is in use.
+     */
+    public Mono<Void> rebuild() {
+        return Mono.defer(
+            () -> {
+                long generation = rebuilds.incrementAndGet();
+                long start = System.nanoTime();
+                List<Consumer<Index>> writes = new ArrayList<>();
+                write(() -> pendingWrites = writes);
+                Index rebuilt = new Index();
+                return employeeRepository
+                    .streamAll()
+                    .doOnNext(rebuilt::add)
+                    .then(
+                        Mono
+                            .fromRunnable(
+                                () ->
+                                    write(
+                                        () -> {
+                                            if (generation == rebuilds.get()) {
+                                                writes.forEach(pending -> pending.accept(rebuilt));
+                                                index = rebuilt;
+                                                pendingWrites = null;
+                                                ready = true;
+                                            }
+                                        }
+                                    )
+                            )
+                            .subscribeOn(Schedulers.boundedElastic())
+                    )
+                    .doOnError(
+                        e ->
+                            write(
+                                () -> {
+                                    if (generation == rebuilds.get()) {
+                                        pendingWrites = null;
+                                    }
+                                }
+                            )
+                    )
+                    .doOnSuccess(
+                        done -> {
+                            long duration = System.nanoTime() - start;
+                            rebuildTimer.record(duration, TimeUnit.NANOSECONDS);
+                            log.info("Built the employee search index in {} ms", TimeUnit.NANOSECONDS.toMillis(duration));
+                        }
+                    )
+                    .then();
+            }
+        );
+    }
+
+    /**
+     * Adds or replaces an employee in the index.
+     * @param employee the saved employee.
+     */
+    public void index(Employee employee) {
+        if (employee.getId() != null) {
+            applyWrite(index -> index.add(employee));
+        }
+    }
+
+    /**
+     * Removes an employee from the index.
+     * @param id the id of the deleted employee.
+     */
+    public void remove(Long id) {
+        applyWrite(index -> index.remove(id));
+    }
+
+    /**
+     * Finds the best employees whose first name, last name or email contains the given string, ignoring the case.
+     * @param search the searched string, of at least {@link #MIN_SEARCH_LENGTH} characters: nothing is found otherwise.
+     * @param limit the maximum number of employees found.
+     * @return the ids of the matching employees, the best matches first: the whole field, then its start, and the names
+     * before the email.
+     */
+    public Mono<long[]> search(String search, int limit) {
+        return Mono.fromCallable(() -> read(index -> index.search(normalize(search), limit))).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * @param employee an employee read from the database.
+     * @param search the searched string.
+     * @return whether the employee matches the search.
+     */
+    public static boolean matches(Employee employee, String search) {
+        return score(toFields(employee), normalize(search)) > 0;
+    }
+
+    private void applyWrite(Consumer<Index> write) {
+        write(
+            () -> {
+                write.accept(index);
+                if (pendingWrites != null) {
+                    pendingWrites.add(write);
+                }
+            }
+        );
+    }
+
+    private void write(Runnable write) {
+        lock.writeLock().lock();
+        try {
+            write.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<Index, T> read) {
+        lock.readLock().lock();
+        try {
+            return read.apply(index);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static String normalize(@Nullable String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String[] toFields(Employee employee) {
+        String[] fields = new String[3];
+        fields[FIRST_NAME] = normalize(employee.getFirstName());
+        fields[LAST_NAME] = normalize(employee.getLastName());
+        fields[EMAIL] = normalize(employee.getEmail());
+        return fields;
+    }
+
+    /**
+     * @return 0 if no field contains the search, and a higher score for the better matches.
+     */
+    static int score(String[] fields, String search) {
+        int score = 0;
+        for (int i = 0; i < fields.length; i++) {
+            String field = fields[i];
+            int position = field != null ? field.indexOf(search) : -1;
+            if (position < 0) {
+                continue;
+            }
+            int match = position > 0 ? 1 : field.length() == search.length() ? 3 : 2;
+            score += i == EMAIL ? match : 2 * match;
+        }
+        return score;
+    }
+
+    /**
+     * Packs the 3 characters starting at the given position in a long, as the key of their posting list.
+     */
+    static long trigram(String value, int position) {
+        return ((long) value.charAt(position) << 32) | ((long) value.charAt(position + 1) << 16) | value.charAt(position + 2);
+    }
+
+    /**
+     * The postings and the indexed fields, only accessed under the lock of the enclosing index.
+     */
+    static final class Index {
+
+        /**
+         * The best matches first: the highest score, then the lowest id.
+         */
+        private static final Comparator<long[]> RANKING = (a, b) -> a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[0], b[0]);
+
+        private final Map<Long, PostingList> postings = new HashMap<>();
+        private final Map<Long, String[]> documents = new HashMap<>();
+
+        void add(Employee employee) {
+            long id = employee.getId();
+            remove(id);
+            String[] fields = toFields(employee);
+            documents.put(id, fields);
+            for (long trigram : trigrams(fields)) {
+                postings.computeIfAbsent(trigram, key -> new PostingList()).add(id);
+            }
+        }
+
+        void remove(long id) {
+            String[] fields = documents.remove(id);
+            if (fields == null) {
+                return;
+            }
+            for (long trigram : trigrams(fields)) {
+                PostingList posting = postings.get(trigram);
+                if (posting != null && posting.remove(id) && posting.size == 0) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+
+        /**
+         * Keeps the best {@code limit} matches in a heap whose root is the worst of them, then sorts them.
+         */
+        long[] search(String search, int limit) {
+            if (search.length() < MIN_SEARCH_LENGTH || limit <= 0) {
+                return new long[0];
+            }
+            PostingList[] lists = new PostingList[search.length() - 2];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(trigram(search, i));
+                if (lists[i] == null) {
+                    return new long[0];
+                }
+            }
+            Arrays.sort(lists, (a, b) -> Integer.compare(a.size, b.size));
+            PriorityQueue<long[]> best = new PriorityQueue<>(Math.min(limit, lists[0].size) + 1, RANKING.reversed());
+            for (int i = 0; i < lists[0].size; i++) {
+                long id = lists[0].ids[i];
+                int score = containsAll(lists, id) ? score(documents.get(id), search) : 0;
+                if (score > 0) {
+                    best.add(new long[] { id, score });
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                }
+            }
+            long[][] ranked = best.toArray(new long[0][]);
+            Arrays.sort(ranked, RANKING);
+            return Arrays.stream(ranked).mapToLong(idWithScore -> idWithScore[0]).toArray();
+        }
+
+        private static boolean containsAll(PostingList[] lists, long id) {
+            for (int i = 1; i < lists.length; i++) {
+                if (!lists[i].contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static Set<Long> trigrams(String[] fields) {
+            Set<Long> trigrams = new HashSet<>();
+            for (String field : fields) {
+                for (int i = 0; field != null && i + 3 <= field.length(); i++) {
+                    trigrams.add(trigram(field, i));
+                }
+            }
+            return trigrams;
+        }
+
+        int documentCount() {
+            return documents.size();
+        }
+
+        int trigramCount() {
+            return postings.size();
+        }
+
+        /**
+         * A rough estimate, counting the map entries, the boxed keys, the posting arrays and the field strings.
+         */
+        long estimateMemory() {
+            long bytes = 0;
+            for (PostingList posting : postings.values()) {
+                bytes += 32 + 16 + 24 + 16 + 8L * posting.ids.length;
+            }
+            for (String[] fields : documents.values()) {
+                bytes += 32 + 16 + 16 + 4L * fields.length;
+                for (String field : fields) {
+                    bytes += field != null ? 40 + field.length() : 0;
+                }
+            }
+            return bytes;
+        }
+    }
+
+    /**
+     * A sorted set of ids, backed by a primitive array.
+     */
+    static final class PostingList {
+
+        long[] ids = new long[4];
+        int size;
+
+        boolean contains(long id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        void add(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            position = -position - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            System.arraycopy(ids, position, ids, position + 1, size - position);
+            ids[position] = id;
+            size++;
+        }
+
+        boolean remove(long id) {
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(ids, position + 1, ids, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.repository.Fieldset;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.EmployeeDTO;
+import java.util.List;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -17,6 +23,14 @@ public interface EmployeeService {
      */
     Mono<EmployeeDTO> save(EmployeeDTO employeeDTO);
 
+    /**
+     * Save new employees in a single transaction, with batched inserts.
+     *
+     * @param employeeDTOs the entities to save.
+     * @return the persisted entities.
+     */
+    Flux<EmployeeDTO> saveAll(List<EmployeeDTO> employeeDTOs);
+
     /**
      * Partially updates a employee.
      *
@@ -25,6 +39,15 @@ public interface EmployeeService {
      */
     Mono<EmployeeDTO> partialUpdate(EmployeeDTO employeeDTO);
 
+    /**
+     * Partially updates the given employees in a single transaction, with a batched update for the employees whose given fields
+     * are the same.
+     *
+     * @param employeeDTOs the entities to update partially, with distinct ids.
+     * @return the outcome of each update, in the same order.
+     */
+    Flux<BulkItemDTO<EmployeeDTO>> partialUpdateAll(List<EmployeeDTO> employeeDTOs);
+
     /**
      * Get all the employees.
      *
@@ -33,6 +56,41 @@ public interface EmployeeService {
      */
     Flux<EmployeeDTO> findAll(Pageable pageable);
 
+    /**
+     * Get a page of employees and the total number of employees, read with a single query.
+     *
+     * @param pageable the pagination information.
+     * @param fields the requested properties, or {@code null} for all of them.
+     * @return the page of entities.
+     */
+    Mono<Page<EmployeeDTO>> findPage(Pageable pageable, Fieldset fields);
+
+    /**
+     * Get a page of employees, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @param fields the requested properties, or {@code null} for all of them.
+     * @return the slice of entities, which tells if there is a next page.
+     */
+    Mono<Slice<EmployeeDTO>> findSlice(Pageable pageable, Fieldset fields);
+
+    /**
+     * Get a page of employees after the given cursor, without an offset.
+     *
+     * @param pageable the pagination information, only its size and sort are used.
+     * @param after the position of the last entity of the previous page, or {@code null} for the first page.
+     * @param fields the requested properties, or {@code null} for all of them.
+     * @return the list of entities.
+     */
+    Flux<EmployeeDTO> findAll(Pageable pageable, KeysetCursor after, Fieldset fields);
+
+    /**
+     * Get all the employees as a stream, read from the database as they are consumed.
+     *
+     * @return the list of entities.
+     */
+    Flux<EmployeeDTO> streamAll();
+
     /**
      * Returns the number of employees available.
      * @return the number of entities in the database.
@@ -48,6 +106,22 @@ public interface EmployeeService {
      */
     Mono<EmployeeDTO> findOne(Long id);
 
+    /**
+     * Get the employees with the given ids, with a select for a batch of ids.
+     *
+     * @param ids the distinct ids of the entities.
+     * @return the outcome of each read, in the order of the ids.
+     */
+    Flux<BulkItemDTO<EmployeeDTO>> findAllById(List<Long> ids);
+
+    /**
+     * Load the jobs of the given employees with a single query, whatever the number of employees.
+     *
+     * @param employees the employees, whose jobs are set.
+     * @return the same employees.
+     */
+    Mono<List<EmployeeDTO>> fetchJobs(List<EmployeeDTO> employees);
+
     /**
      * Delete the "id" employee.
      *
@@ -56,35 +130,46 @@ public interface EmployeeService {
      */
     Mono<Void> delete(Long id);
 
+    /**
+     * Delete the employees with the given ids in a single transaction, with a delete for a batch of ids.
+     *
+     * @param ids the distinct ids of the entities.
+     * @return the outcome of each delete, in the order of the ids.
+     */
+    Flux<BulkItemDTO<EmployeeDTO>> deleteAll(List<Long> ids);
+
     /**
      * Get all the employees by Department.
      *
      * @param id the id of the Department.
+     * @param pageable the pagination information, {@link Pageable#unpaged()} to stream all of them.
      * @return the list of entities.
      */
-    Flux<EmployeeDTO> findAllByDepartment(Long id);
+    Flux<EmployeeDTO> findAllByDepartment(Long id, Pageable pageable);
 
     /**
      * Get the employees that contain the String to search.
      *
-     * @param string to search.
+     * @param search the string to search in the names and the email.
+     * @param pageable the pagination information, {@link Pageable#unpaged()} to stream all of them.
      * @return the list of entities.
      */
-    Flux<EmployeeDTO> searchString(String search);
+    Flux<EmployeeDTO> searchString(String search, Pageable pageable);
 
     /**
      * Get the Employee without Department.
      *
-     *
+     * @param pageable the pagination information, {@link Pageable#unpaged()} to stream all of them.
      * @return the list of entities.
      */
-    Flux<EmployeeDTO> findAllWhereDepartmentIsNull();
+    Flux<EmployeeDTO> findAllWhereDepartmentIsNull(Pageable pageable);
 
     /**
-     * Get the employees that contain the String to search.
+     * Get the employees whose salary is greater than the given one, by default ordered by salary.
      *
-     * @param salary to search.
+     * @param salary the exclusive lower bound of the salary.
+     * @param pageable the pagination information, {@link Pageable#unpaged()} to stream all of them.
      * @return the list of entities.
      */
-    Flux<EmployeeDTO> salaryGreaterThan(Long salary);
+    Flux<EmployeeDTO> salaryGreaterThan(Long salary, Pageable pageable);
 }
@@ -0,0 +1,485 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.service.dto.EmployeeSuggestionDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * In-memory dictionary of the employee names, suggesting the employees whose name or email starts with a typed prefix.
+ * <p>
+ * The terms of an employee are its lowercased first name, last name, full name and email. They are kept in a
+ * {@link Snapshot}: every term sorted and packed in a single char array, so a prefix is found with a binary search and
+ * its matches are the terms which follow it. The snapshot is immutable; the writes made since it was built go to a small
+ * sorted delta, and the snapshot terms of the written employees are skipped. Once the delta grows past
+ * {@link #COMPACTION_THRESHOLD} terms, a new snapshot is built on the bounded elastic scheduler, off the event loop.
+ * <p>
+ * The dictionary is built from the table when the application is ready, and kept up to date by the writes of
+ * {@link com.mycompany.myapp.service.impl.EmployeeServiceImpl}. Writes which bypass the service are only seen after a
+ * {@link #rebuild()}.
+ */
+@Service
+public class EmployeeSuggester {
+
+    static final String METRIC_PREFIX = "employee.suggest";
+
+    static final int COMPACTION_THRESHOLD = 1024;
+
+    private final Logger log = LoggerFactory.getLogger(EmployeeSuggester.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    private final Timer rebuildTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong builds = new AtomicLong();
+
+    private Map<Long, EmployeeSuggestionDTO> employees = new HashMap<>();
+
+    private Snapshot snapshot = Snapshot.build(Collections.emptyList());
+
+    private NavigableSet<Term> delta = new TreeSet<>();
+
+    /**
+     * The employees written since the snapshot was built, whose snapshot terms are outdated.
+     */
+    private Set<Long> stale = new HashSet<>();
+
+    /**
+     * The employees written while a new snapshot is built, re-applied on it; {@code null} when not building.
+     */
+    @Nullable
+    private Set<Long> changedDuringBuild;
+
+    private volatile boolean ready;
+
+    public EmployeeSuggester(EmployeeRepository employeeRepository, MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.rebuildTimer =
+            Timer
+                .builder(METRIC_PREFIX + ".rebuild")
+                .description("The time taken to build the suggestions from the table")
+                .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + ".terms", this, suggester -> suggester.read(() -> suggester.snapshot.size() + suggester.delta.size()))
+            .description("The number of suggested terms")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild().subscribe(null, e -> log.error("Could not build the employee suggestions", e));
+    }
+
+    /**
+     * @return whether the dictionary was built, nothing is suggested until then.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds a new dictionary from the employee table, and replaces the current one once done. The writes made meanwhile
+     * are applied to both.
+     * @return a Mono completing once the new dictionary is in use.
+     */
+    public Mono<Void> rebuild() {
+        return Mono.defer(
+            () -> {
+                long start = System.nanoTime();
+                long generation = startBuild();
+                return employeeRepository
+                    .streamAll()
+                    .collectMap(Employee::getId, EmployeeSuggester::toSuggestion, HashMap::new)
+                    .flatMap(documents -> finishBuild(generation, documents))
+                    .doOnSuccess(
+                        done -> {
+                            long duration = System.nanoTime() - start;
+                            rebuildTimer.record(duration, TimeUnit.NANOSECONDS);
+                            log.info("Built the employee suggestions in {} ms", TimeUnit.NANOSECONDS.toMillis(duration));
+                        }
+                    );
+            }
+        );
+    }
+
+    /**
+     * Adds or replaces an employee in the dictionary.
+     * @param employee the saved employee.
+     */
+    public void index(Employee employee) {
+        if (employee.getId() != null) {
+            applyWrite(employee.getId(), toSuggestion(employee));
+        }
+    }
+
+    /**
+     * Removes an employee from the dictionary.
+     * @param id the id of the deleted employee.
+     */
+    public void remove(Long id) {
+        applyWrite(id, null);
+    }
+
+    /**
+     * Suggests the employees whose first name, last name, full name or email starts with the given prefix, ignoring the
+     * case.
+     * @param prefix the typed prefix.
+     * @param limit the maximum number of suggestions.
+     * @return the suggested employees, in the alphabetical order of their matching term.
+     */
+    public List<EmployeeSuggestionDTO> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized == null || normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return read(() -> collect(normalized, limit));
+    }
+
+    private List<EmployeeSuggestionDTO> collect(String prefix, int limit) {
+        Map<Long, EmployeeSuggestionDTO> suggestions = new LinkedHashMap<>();
+        int position = snapshot.lowerBound(prefix);
+        Iterator<Term> fromDelta = delta.tailSet(new Term(prefix, Long.MIN_VALUE), true).iterator();
+        Term next = nextMatch(fromDelta, prefix);
+        while (suggestions.size() < limit) {
+            while (position < snapshot.size() && snapshot.startsWith(position, prefix) && stale.contains(snapshot.ids[position])) {
+                position++;
+            }
+            boolean snapshotMatches = position < snapshot.size() && snapshot.startsWith(position, prefix);
+            long id;
+            if (snapshotMatches && (next == null || snapshot.compareTo(position, next) < 0)) {
+                id = snapshot.ids[position++];
+            } else if (next != null) {
+                id = next.id;
+                next = nextMatch(fromDelta, prefix);
+            } else {
+                break;
+            }
+            EmployeeSuggestionDTO employee = employees.get(id);
+            if (employee != null) {
+                suggestions.putIfAbsent(id, employee);
+            }
+        }
+        return new ArrayList<>(suggestions.values());
+    }
+
+    @Nullable
+    private static Term nextMatch(Iterator<Term> terms, String prefix) {
+        if (terms.hasNext()) {
+            Term term = terms.next();
+            return term.value.startsWith(prefix) ? term : null;
+        }
+        return null;
+    }
+
+    private void applyWrite(Long id, @Nullable EmployeeSuggestionDTO employee) {
+        boolean compact = write(
+            () -> {
+                EmployeeSuggestionDTO previous = employee != null ? employees.put(id, employee) : employees.remove(id);
+                if (previous != null) {
+                    for (String term : terms(previous)) {
+                        delta.remove(new Term(term, id));
+                    }
+                }
+                if (employee != null) {
+                    addTerms(delta, employee);
+                }
+                stale.add(id);
+                if (changedDuringBuild != null) {
+                    changedDuringBuild.add(id);
+                    return false;
+                }
+                return delta.size() > COMPACTION_THRESHOLD;
+            }
+        );
+        if (compact) {
+            compact();
+        }
+    }
+
+    /**
+     * Merges the delta in a new snapshot, built from the current employees.
+     */
+    private void compact() {
+        write(
+            () -> {
+                if (changedDuringBuild != null) {
+                    return null;
+                }
+                long generation = startBuild();
+                finishBuild(generation, new HashMap<>(employees))
+                    .subscribe(null, e -> log.error("Could not compact the employee suggestions", e));
+                return null;
+            }
+        );
+    }
+
+    private long startBuild() {
+        return write(
+            () -> {
+                changedDuringBuild = new HashSet<>();
+                return builds.incrementAndGet();
+            }
+        );
+    }
+
+    /**
+     * Builds the snapshot of the given employees off the event loop, then uses it with the employees written meanwhile
+     * as its delta, unless another build started since.
+     */
+    private Mono<Void> finishBuild(long generation, Map<Long, EmployeeSuggestionDTO> documents) {
+        return Mono
+            .fromCallable(() -> Snapshot.build(documents.values()))
+            .subscribeOn(Schedulers.boundedElastic())
+            .doOnNext(
+                built ->
+                    write(
+                        () -> {
+                            if (generation != builds.get()) {
+                                return null;
+                            }
+                            NavigableSet<Term> newDelta = new TreeSet<>();
+                            for (Long id : changedDuringBuild) {
+                                EmployeeSuggestionDTO employee = employees.get(id);
+                                if (employee != null) {
+                                    documents.put(id, employee);
+                                    addTerms(newDelta, employee);
+                                } else {
+                                    documents.remove(id);
+                                }
+                            }
+                            employees = documents;
+                            snapshot = built;
+                            delta = newDelta;
+                            stale = changedDuringBuild;
+                            changedDuringBuild = null;
+                            ready = true;
+                            return null;
+                        }
+                    )
+            )
+            .doOnError(
+                e ->
+                    write(
+                        () -> {
+                            if (generation == builds.get()) {
+                                changedDuringBuild = null;
+                            }
+                            return null;
+                        }
+                    )
+            )
+            .then();
+    }
+
+    private <T> T write(Supplier<T> write) {
+        lock.writeLock().lock();
+        try {
+            return write.get();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> read) {
+        lock.readLock().lock();
+        try {
+            return read.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static EmployeeSuggestionDTO toSuggestion(Employee employee) {
+        return new EmployeeSuggestionDTO(employee.getId(), employee.getFirstName(), employee.getLastName(), employee.getEmail());
+    }
+
+    @Nullable
+    private static String normalize(@Nullable String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static void addTerms(Collection<Term> terms, EmployeeSuggestionDTO employee) {
+        for (String term : terms(employee)) {
+            terms.add(new Term(term, employee.getId()));
+        }
+    }
+
+    /**
+     * @return the distinct terms under which an employee is suggested.
+     */
+    static Set<String> terms(EmployeeSuggestionDTO employee) {
+        Set<String> terms = new HashSet<>(4);
+        String firstName = normalize(employee.getFirstName());
+        String lastName = normalize(employee.getLastName());
+        String email = normalize(employee.getEmail());
+        for (String term : new String[] { firstName, lastName, email }) {
+            if (term != null && !term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        if (firstName != null && !firstName.isEmpty() && lastName != null && !lastName.isEmpty()) {
+            terms.add(firstName + " " + lastName);
+        }
+        return terms;
+    }
+
+    /**
+     * A term and the employee suggested for it, ordered by term then by id.
+     */
+    static final class Term implements Comparable<Term> {
+
+        final String value;
+        final long id;
+
+        Term(String value, long id) {
+            this.value = value;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(Term other) {
+            int compare = value.compareTo(other.value);
+            return compare != 0 ? compare : Long.compare(id, other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Term)) {
+                return false;
+            }
+            Term other = (Term) o;
+            return id == other.id && value.equals(other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(value, id);
+        }
+    }
+
+    /**
+     * The sorted terms, packed one after the other in {@link #chars}: term {@code i} spans from {@code offsets[i]} to
+     * {@code offsets[i + 1]}, and suggests the employee {@code ids[i]}. Two arrays of primitives and one of chars, instead
+     * of an object per term.
+     */
+    static final class Snapshot {
+
+        final char[] chars;
+        final int[] offsets;
+        final long[] ids;
+
+        private Snapshot(char[] chars, int[] offsets, long[] ids) {
+            this.chars = chars;
+            this.offsets = offsets;
+            this.ids = ids;
+        }
+
+        static Snapshot build(Collection<EmployeeSuggestionDTO> employees) {
+            List<Term> terms = new ArrayList<>(employees.size() * 4);
+            for (EmployeeSuggestionDTO employee : employees) {
+                addTerms(terms, employee);
+            }
+            Collections.sort(terms);
+            int length = 0;
+            for (Term term : terms) {
+                length += term.value.length();
+            }
+            char[] chars = new char[length];
+            int[] offsets = new int[terms.size() + 1];
+            long[] ids = new long[terms.size()];
+            for (int i = 0; i < terms.size(); i++) {
+                String value = terms.get(i).value;
+                value.getChars(0, value.length(), chars, offsets[i]);
+                offsets[i + 1] = offsets[i] + value.length();
+                ids[i] = terms.get(i).id;
+            }
+            return new Snapshot(chars, offsets, ids);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        /**
+         * @return the position of the first term which isn't lower than the given prefix.
+         */
+        int lowerBound(String prefix) {
+            int low = 0;
+            int high = size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (compareTo(middle, prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        boolean startsWith(int position, String prefix) {
+            int start = offsets[position];
+            if (offsets[position + 1] - start < prefix.length()) {
+                return false;
+            }
+            for (int i = 0; i < prefix.length(); i++) {
+                if (chars[start + i] != prefix.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        int compareTo(int position, Term term) {
+            int compare = compareTo(position, term.value);
+            return compare != 0 ? compare : Long.compare(ids[position], term.id);
+        }
+
+        private int compareTo(int position, String value) {
+            int start = offsets[position];
+            int length = offsets[position + 1] - start;
+            int common = Math.min(length, value.length());
+            for (int i = 0; i < common; i++) {
+                char c = chars[start + i];
+                if (c != value.charAt(i)) {
+                    return c - value.charAt(i);
+                }
+            }
+            return length - value.length();
+        }
+    }
+}
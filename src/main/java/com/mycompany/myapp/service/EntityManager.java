@@ -1,34 +1,92 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.repository.KeysetCursor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import io.r2dbc.spi.Statement;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.r2dbc.convert.R2dbcConverter;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.data.r2dbc.core.ReactiveDataAccessStrategy;
 import org.springframework.data.r2dbc.core.StatementMapper;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+import org.springframework.data.r2dbc.dialect.R2dbcDialect;
 import org.springframework.data.r2dbc.mapping.OutboundRow;
+import org.springframework.data.r2dbc.query.BoundCondition;
 import org.springframework.data.r2dbc.query.UpdateMapper;
+import org.springframework.data.relational.core.dialect.LimitClause;
 import org.springframework.data.relational.core.mapping.RelationalPersistentEntity;
+import org.springframework.data.relational.core.mapping.RelationalPersistentProperty;
 import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.data.relational.core.query.CriteriaDefinition;
+import org.springframework.data.relational.core.query.Query;
+import org.springframework.data.relational.core.query.Update;
+import org.springframework.data.relational.core.sql.Column;
+import org.springframework.data.relational.core.sql.Condition;
 import org.springframework.data.relational.core.sql.Conditions;
+import org.springframework.data.relational.core.sql.Expression;
+import org.springframework.data.relational.core.sql.Expressions;
+import org.springframework.data.relational.core.sql.IdentifierProcessing;
 import org.springframework.data.relational.core.sql.OrderByField;
+import org.springframework.data.relational.core.sql.SQL;
 import org.springframework.data.relational.core.sql.Select;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoin;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectFromAndJoinCondition;
 import org.springframework.data.relational.core.sql.SelectBuilder.SelectOrdered;
+import org.springframework.data.relational.core.sql.SelectBuilder.SelectWhere;
+import org.springframework.data.relational.core.sql.SimpleFunction;
 import org.springframework.data.relational.core.sql.SqlIdentifier;
 import org.springframework.data.relational.core.sql.Table;
 import org.springframework.data.relational.core.sql.render.SqlRenderer;
+import org.springframework.lang.Nullable;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
 import org.springframework.r2dbc.core.Parameter;
+import org.springframework.r2dbc.core.PreparedOperation;
+import org.springframework.r2dbc.core.binding.BindMarker;
+import org.springframework.r2dbc.core.binding.BindMarkers;
+import org.springframework.r2dbc.core.binding.BindTarget;
+import org.springframework.r2dbc.core.binding.Bindings;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
 /**
  * Helper class to create SQL selects based on the entity, paging parameters and criteria.
@@ -40,6 +98,24 @@ public class EntityManager {
     public static final String ENTITY_ALIAS = "e";
     public static final String ALIAS_PREFIX = "e_";
 
+    private static final String KEYSET_ID = "keysetId";
+    private static final String KEYSET_VALUE = "keysetValue";
+
+    /**
+     * Maximum number of rendered selects kept in memory, there are only a handful of shapes per entity in practice.
+     */
+    static final int SELECT_CACHE_SIZE = 256;
+    static final String SELECT_CACHE_NAME = "entityManager.select";
+
+    private static final String LIMIT_SENTINEL = String.valueOf(Long.MAX_VALUE);
+    private static final String OFFSET_SENTINEL = String.valueOf(Long.MAX_VALUE - 1);
+
+    private static final String SELECT = "SELECT ";
+    private static final String TOTAL_COUNT_ALIAS = "total_count";
+    private static final String TOTAL_COUNT_COLUMN = "COUNT(*) OVER () AS " + TOTAL_COUNT_ALIAS;
+    private static final String GROUP_ALIAS = "group_value";
+    private static final String AGGREGATE_ALIAS = "aggregate_";
+
     public static class LinkTable {
 
         final String tableName;
@@ -56,96 +132,717 @@ public class EntityManager {
         }
     }
 
+    /**
+     * A value computed over the rows of a group, see {@link #aggregate(Class, String, List)}.
+     */
+    public static final class Aggregate {
+
+        public enum Function {
+            COUNT,
+            SUM,
+            AVG,
+            MIN,
+            MAX,
+        }
+
+        private final Function function;
+
+        @Nullable
+        private final String property;
+
+        private Aggregate(Function function, @Nullable String property) {
+            this.function = function;
+            this.property = property;
+        }
+
+        /**
+         * @return the number of rows of the group.
+         */
+        public static Aggregate count() {
+            return new Aggregate(Function.COUNT, null);
+        }
+
+        /**
+         * @param function the aggregate function.
+         * @param property the numeric property of the entity the function is applied to.
+         * @return the function applied to the property over the rows of the group.
+         */
+        public static Aggregate of(Function function, String property) {
+            Assert.isTrue(function != Function.COUNT, "Use Aggregate.count()");
+            Assert.notNull(property, "property is null");
+            return new Aggregate(function, property);
+        }
+
+        public Function getFunction() {
+            return function;
+        }
+
+        @Nullable
+        public String getProperty() {
+            return property;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Aggregate)) {
+                return false;
+            }
+            Aggregate other = (Aggregate) o;
+            return function == other.function && Objects.equals(property, other.property);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(function, property);
+        }
+
+        @Override
+        public String toString() {
+            return function.name().toLowerCase(Locale.ROOT) + "(" + (property != null ? property : "*") + ")";
+        }
+    }
+
+    /**
+     * How the rows of a select are limited.
+     */
+    enum Paging {
+        /** All the rows. */
+        NONE,
+        /** The rows of the page. */
+        PAGE,
+        /** The rows of the page, each one with the total number of matching rows. */
+        PAGE_WITH_TOTAL,
+        /** The rows of the page and the first row of the next one, if any. */
+        PAGE_WITH_NEXT
+    }
+
+    /**
+     * The shape of a select: everything which changes the rendered SQL, but not the bound values.
+     */
+    static final class SelectKey {
+
+        private final Class<?> entityType;
+        private final String join;
+        private final Sort sort;
+        private final Paging paging;
+        private final String criteriaShape;
+
+        SelectKey(Class<?> entityType, @Nullable String join, Sort sort, Paging paging, @Nullable String criteriaShape) {
+            this.entityType = entityType;
+            this.join = join;
+            this.sort = sort;
+            this.paging = paging;
+            this.criteriaShape = criteriaShape;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SelectKey)) {
+                return false;
+            }
+            SelectKey that = (SelectKey) o;
+            return (
+                paging == that.paging &&
+                entityType.equals(that.entityType) &&
+                Objects.equals(join, that.join) &&
+                sort.equals(that.sort) &&
+                Objects.equals(criteriaShape, that.criteriaShape)
+            );
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, join, sort, paging, criteriaShape);
+        }
+    }
+
+    /**
+     * A statement with the values of the current call.
+     */
+    private static final class BoundStatement implements PreparedOperation<String> {
+
+        private final String sql;
+        private final Consumer<BindTarget> binder;
+
+        BoundStatement(String sql, Consumer<BindTarget> binder) {
+            this.sql = sql;
+            this.binder = binder;
+        }
+
+        @Override
+        public String getSource() {
+            return sql;
+        }
+
+        @Override
+        public String toQuery() {
+            return sql;
+        }
+
+        @Override
+        public void bindTo(BindTarget target) {
+            binder.accept(target);
+        }
+    }
+
+    /**
+     * Binds the values to an R2DBC statement, so several rows can be added to the same statement.
+     */
+    private static final class StatementBindTarget implements BindTarget {
+
+        private final Statement statement;
+
+        StatementBindTarget(Statement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public void bind(String identifier, Object value) {
+            statement.bind(identifier, value);
+        }
+
+        @Override
+        public void bind(int index, Object value) {
+            statement.bind(index, value);
+        }
+
+        @Override
+        public void bindNull(String identifier, Class<?> type) {
+            statement.bindNull(identifier, type);
+        }
+
+        @Override
+        public void bindNull(int index, Class<?> type) {
+            statement.bindNull(index, type);
+        }
+    }
+
     private final SqlRenderer sqlRenderer;
     private final UpdateMapper updateMapper;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
     private final StatementMapper statementMapper;
+    private final ConversionService conversionService;
+    private final R2dbcDialect dialect;
+    private final int batchSize;
+    private final int fetchSize;
+    private final String limitClause;
+    private final boolean limitBeforeOffset;
+    private final boolean returnsUpdatedRows;
+
+    private final Map<SelectKey, String> selectCache = Collections.synchronizedMap(
+        new LinkedHashMap<SelectKey, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SelectKey, String> eldest) {
+                if (size() > SELECT_CACHE_SIZE) {
+                    selectCacheEvictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        }
+    );
+    private final LongAdder selectCacheHits = new LongAdder();
+    private final LongAdder selectCacheMisses = new LongAdder();
+    private final LongAdder selectCacheEvictions = new LongAdder();
 
-    public EntityManager(SqlRenderer sqlRenderer, UpdateMapper updateMapper, R2dbcEntityTemplate r2dbcEntityTemplate) {
+    public EntityManager(
+        SqlRenderer sqlRenderer,
+        UpdateMapper updateMapper,
+        R2dbcEntityTemplate r2dbcEntityTemplate,
+        R2dbcDialect dialect,
+        MeterRegistry meterRegistry,
+        ApplicationProperties applicationProperties
+    ) {
         this.sqlRenderer = sqlRenderer;
         this.updateMapper = updateMapper;
         this.r2dbcEntityTemplate = r2dbcEntityTemplate;
         this.statementMapper = r2dbcEntityTemplate.getDataAccessStrategy().getStatementMapper();
+        this.conversionService = r2dbcEntityTemplate.getConverter().getConversionService();
+        this.dialect = dialect;
+        this.batchSize = applicationProperties.getDatabase().getBatchSize();
+        this.fetchSize = applicationProperties.getDatabase().getFetchSize();
+        Assert.isTrue(batchSize > 0, "application.database.batch-size must be positive");
+        Assert.state(
+            dialect.limit().getClausePosition() == LimitClause.Position.AFTER_ORDER_BY,
+            "The LIMIT clause of " + dialect.getClass().getSimpleName() + " isn't supported"
+        );
+        this.limitClause = dialect.limit().getLimitOffset(Long.MAX_VALUE, Long.MAX_VALUE - 1);
+        this.limitBeforeOffset = limitClause.indexOf(LIMIT_SENTINEL) < limitClause.indexOf(OFFSET_SENTINEL);
+        // The H2 and PostgreSQL drivers return the requested columns of the updated rows, MySQL only the last insert id
+        this.returnsUpdatedRows = dialect instanceof H2Dialect || dialect instanceof PostgresDialect;
+        bindSelectCacheMetrics(meterRegistry);
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
-     * @param selectFrom a representation of a select statement.
+     * Registers the select cache meters, with the names used by Micrometer for the other caches, so the hit rate is
+     * {@code cache.gets{result="hit"} / cache.gets}.
+     */
+    private void bindSelectCacheMetrics(MeterRegistry meterRegistry) {
+        Tags tags = Tags.of("cache", SELECT_CACHE_NAME);
+        FunctionCounter
+            .builder("cache.gets", selectCacheHits, LongAdder::doubleValue)
+            .tags(tags)
+            .tag("result", "hit")
+            .description("The number of times a select was rendered from the cache")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("cache.gets", selectCacheMisses, LongAdder::doubleValue)
+            .tags(tags)
+            .tag("result", "miss")
+            .description("The number of times a select had to be rendered")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("cache.evictions", selectCacheEvictions, LongAdder::doubleValue)
+            .tags(tags)
+            .description("The number of selects evicted from the cache")
+            .register(meterRegistry);
+        Gauge.builder("cache.size", selectCache, Map::size).tags(tags).description("The number of cached selects").register(meterRegistry);
+    }
+
+    /**
+     * Creates a parameterized SQL select from the given fragment, pagination parameters and criteria.
+     * <p>
+     * The criteria values, the limit and the offset are bound as parameters, so the generated SQL only depends on the shape of
+     * the query, and can be reused by the driver as a prepared statement. The SQL is rendered once per shape, and kept in a
+     * bounded cache, see {@link SelectKey}.
+     * @param selectFrom supplies the columns and the joins of the select, only called when the SQL isn't cached yet.
      * @param entityType the entity type which holds the table name.
-     * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
-     */
-    public String createSelect(SelectFromAndJoin selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+     * @param join the tables joined by {@code selectFrom}, and its columns when it doesn't select them all, or null; used to
+     *             tell the queries of the entity apart.
+     * @param pageable page parameter, or null or unpaged, if everything needs to be returned
+     * @param criteria the where clause, or null.
+     * @return sql select statement, with the parameters bound.
+     */
+    public GenericExecuteSpec createSelect(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        @Nullable String join,
+        @Nullable Pageable pageable,
+        @Nullable Criteria criteria
+    ) {
+        if (pageable == null || pageable.isUnpaged()) {
+            Sort sort = pageable != null ? pageable.getSort() : Sort.unsorted();
+            return createSelect(selectFrom, entityType, join, sort, null, Paging.NONE, criteria);
+        }
+        return createSelect(selectFrom, entityType, join, pageable.getSort(), pageable, Paging.PAGE, criteria);
+    }
+
+    /**
+     * Reads a page of entities and the total number of matching rows with a single select, the total being computed by
+     * the database with a {@code COUNT(*) OVER ()} window column. A separate count query is only run when the page is
+     * empty while not being the first one, so the total can't be read from a row.
+     * @param selectFrom supplies the columns and the joins of the select, only called when the SQL isn't cached yet.
+     * @param entityType the entity type which holds the table name.
+     * @param join the tables joined by {@code selectFrom}, and its columns when it doesn't select them all, or null; used to
+     *             tell the queries of the entity apart.
+     * @param pageable page parameter.
+     * @param criteria the where clause, or null.
+     * @param mapper maps a row to an entity.
+     * @param <T> the type of the entity.
+     * @return the page.
+     */
+    public <T> Mono<Page<T>> findPage(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        @Nullable String join,
+        Pageable pageable,
+        @Nullable Criteria criteria,
+        BiFunction<Row, RowMetadata, T> mapper
+    ) {
+        Assert.isTrue(pageable.isPaged(), "The page request must be paged");
+        return createSelect(selectFrom, entityType, join, pageable.getSort(), pageable, Paging.PAGE_WITH_TOTAL, criteria)
+            .map((row, metadata) -> Tuples.of(mapper.apply(row, metadata), row.get(TOTAL_COUNT_ALIAS, Long.class)))
+            .all()
+            .collectList()
+            .flatMap(
+                rows -> {
+                    if (rows.isEmpty() && pageable.getOffset() > 0) {
+                        Query query = criteria != null ? Query.query(criteria) : Query.empty();
+                        return r2dbcEntityTemplate
+                            .count(query, entityType)
+                            .map(total -> new PageImpl<T>(Collections.emptyList(), pageable, total));
+                    }
+                    List<T> content = rows.stream().map(Tuple2::getT1).collect(Collectors.toList());
+                    long total = rows.isEmpty() ? 0 : rows.get(0).getT2();
+                    return Mono.just(new PageImpl<>(content, pageable, total));
+                }
+            );
+    }
+
+    /**
+     * Reads a page of entities without counting them: one more row is read, to tell if there is a next page.
+     * @param selectFrom supplies the columns and the joins of the select, only called when the SQL isn't cached yet.
+     * @param entityType the entity type which holds the table name.
+     * @param join the tables joined by {@code selectFrom}, and its columns when it doesn't select them all, or null; used to
+     *             tell the queries of the entity apart.
+     * @param pageable page parameter.
+     * @param criteria the where clause, or null.
+     * @param mapper maps a row to an entity.
+     * @param <T> the type of the entity.
+     * @return the slice.
+     */
+    public <T> Mono<Slice<T>> findSlice(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        @Nullable String join,
+        Pageable pageable,
+        @Nullable Criteria criteria,
+        BiFunction<Row, RowMetadata, T> mapper
+    ) {
+        Assert.isTrue(pageable.isPaged(), "The page request must be paged");
+        return createSelect(selectFrom, entityType, join, pageable.getSort(), pageable, Paging.PAGE_WITH_NEXT, criteria)
+            .map(mapper)
+            .all()
+            .collectList()
+            .map(
+                rows -> {
+                    boolean hasNext = rows.size() > pageable.getPageSize();
+                    return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+                }
+            );
+    }
+
+    private GenericExecuteSpec createSelect(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        @Nullable String join,
+        Sort sort,
+        @Nullable Pageable pageable,
+        Paging paging,
+        @Nullable Criteria criteria
+    ) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "Unknown entity " + entityType);
+        if (criteria != null && criteria.isEmpty()) {
+            criteria = null;
+        }
+        SelectKey key = new SelectKey(entityType, join, sort, paging, createCriteriaShape(criteria));
+
+        // The markers have to be requested in the same order on every call, so they match the cached SQL.
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+        BoundCondition condition = criteria != null ? updateMapper.getMappedObject(bindMarkers, criteria, table, entity) : null;
+        BindMarker first = pageable != null ? bindMarkers.next() : null;
+        BindMarker second = pageable != null ? bindMarkers.next() : null;
+        BindMarker limitMarker = limitBeforeOffset ? first : second;
+        BindMarker offsetMarker = limitBeforeOffset ? second : first;
+
+        String sql = selectCache.get(key);
+        if (sql == null) {
+            selectCacheMisses.increment();
+            sql = createSelectImpl(selectFrom.get(), condition, entity, sort);
+            if (paging == Paging.PAGE_WITH_TOTAL) {
+                Assert.state(sql.startsWith(SELECT), "Unexpected select " + sql);
+                sql = SELECT + TOTAL_COUNT_COLUMN + ", " + sql.substring(SELECT.length());
             }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            if (pageable != null) {
+                String limit = limitClause.replace(LIMIT_SENTINEL, limitMarker.getPlaceholder());
+                sql += " " + limit.replace(OFFSET_SENTINEL, offsetMarker.getPlaceholder());
             }
+            selectCache.put(key, sql);
+        } else {
+            selectCacheHits.increment();
         }
+        Bindings bindings = condition != null ? condition.getBindings() : Bindings.empty();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(
+                new BoundStatement(
+                    sql,
+                    target -> {
+                        bindings.apply(target);
+                        if (pageable != null) {
+                            int limit = paging == Paging.PAGE_WITH_NEXT ? pageable.getPageSize() + 1 : pageable.getPageSize();
+                            limitMarker.bind(target, limit);
+                            offsetMarker.bind(target, pageable.getOffset());
+                        }
+                    }
+                )
+            );
     }
 
     /**
-     * Creates an SQL select statement from the given fragment and pagination parameters.
+     * Creates a parameterized SQL select of all the rows matching the criteria, to be consumed as a stream: the driver
+     * fetches {@code application.database.fetch-size} rows per round trip, as the subscriber requests them.
+     * @param selectFrom supplies the columns and the joins of the select, only called when the SQL isn't cached yet.
+     * @param entityType the entity type which holds the table name.
+     * @param join the tables joined by {@code selectFrom}, and its columns when it doesn't select them all, or null; used to
+     *             tell the queries of the entity apart.
+     * @param sort the order of the rows.
+     * @param criteria the where clause, or null.
+     * @return sql select statement, with the parameters bound.
+     */
+    public GenericExecuteSpec createStreamingSelect(
+        Supplier<? extends SelectWhere> selectFrom,
+        Class<?> entityType,
+        @Nullable String join,
+        Sort sort,
+        @Nullable Criteria criteria
+    ) {
+        return createSelect(selectFrom, entityType, join, sort, null, Paging.NONE, criteria)
+            .filter(statement -> statement.fetchSize(fetchSize));
+    }
+
+    /**
+     * Creates an SQL select statement which seeks past the given cursor instead of skipping rows with an offset.
+     * The rows are ordered by the first sort property of the {@link Pageable} (if any) and then by id, so the
+     * resulting page doesn't depend on the page number, and doesn't get slower as the client goes deeper.
      * @param selectFrom a representation of a select statement.
      * @param entityType the entity type which holds the table name.
-     * @param pageable page parameter, or null, if everything needs to be returned
-     * @return sql select statement
-     */
-    public String createSelect(SelectFromAndJoinCondition selectFrom, Class<?> entityType, Pageable pageable, Criteria criteria) {
-        if (pageable != null) {
-            if (criteria != null) {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()).where(Conditions.just(criteria.toString())),
-                    entityType,
-                    pageable.getSort()
-                );
-            } else {
-                return createSelectImpl(
-                    selectFrom.limitOffset(pageable.getPageSize(), pageable.getOffset()),
-                    entityType,
-                    pageable.getSort()
-                );
+     * @param pageable page parameter, only its size and sort are used.
+     * @param after the position of the last row of the previous page, or null for the first page.
+     * @return sql select statement, with the cursor values bound.
+     */
+    public GenericExecuteSpec createKeysetSelect(
+        SelectFromAndJoin selectFrom,
+        Class<?> entityType,
+        Pageable pageable,
+        @Nullable KeysetCursor after
+    ) {
+        return createKeysetSelectImpl(selectFrom.limit(pageable.getPageSize()), entityType, pageable.getSort(), after);
+    }
+
+    /**
+     * Creates an SQL select statement which seeks past the given cursor instead of skipping rows with an offset.
+     * The rows are ordered by the first sort property of the {@link Pageable} (if any) and then by id, so the
+     * resulting page doesn't depend on the page number, and doesn't get slower as the client goes deeper.
+     * @param selectFrom a representation of a select statement.
+     * @param entityType the entity type which holds the table name.
+     * @param pageable page parameter, only its size and sort are used.
+     * @param after the position of the last row of the previous page, or null for the first page.
+     * @return sql select statement, with the cursor values bound.
+     */
+    public GenericExecuteSpec createKeysetSelect(
+        SelectFromAndJoinCondition selectFrom,
+        Class<?> entityType,
+        Pageable pageable,
+        @Nullable KeysetCursor after
+    ) {
+        return createKeysetSelectImpl(selectFrom.limit(pageable.getPageSize()), entityType, pageable.getSort(), after);
+    }
+
+    private GenericExecuteSpec createKeysetSelectImpl(
+        SelectFromAndJoin selectFrom,
+        Class<?> entityType,
+        Sort sortParameter,
+        @Nullable KeysetCursor after
+    ) {
+        RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
+        Assert.notNull(entity, "Unknown entity " + entityType);
+        Assert.isTrue(sortParameter.stream().count() <= 1, "Keyset pagination supports a single sort property");
+
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+        RelationalPersistentProperty idProperty = entity.getRequiredIdProperty();
+        Sort.Order order = sortParameter.stream().findFirst().orElse(Sort.Order.asc(idProperty.getName()));
+        RelationalPersistentProperty sortProperty = entity.getRequiredPersistentProperty(order.getProperty());
+        Assert.isTrue(after == null || after.matches(order), "The cursor was created for another sort");
+
+        Column idColumn = table.column(idProperty.getColumnName());
+        Column sortColumn = table.column(sortProperty.getColumnName());
+        List<OrderByField> orderBy = new ArrayList<>();
+        orderBy.add(createKeysetOrderByField(table, sortProperty, order));
+        if (!sortProperty.isIdProperty()) {
+            orderBy.add(createKeysetOrderByField(table, idProperty, order));
+        }
+
+        Object value = null;
+        SelectOrdered select = selectFrom;
+        if (after != null) {
+            Condition afterId = order.isAscending()
+                ? Conditions.isGreater(idColumn, SQL.bindMarker(":" + KEYSET_ID))
+                : Conditions.isLess(idColumn, SQL.bindMarker(":" + KEYSET_ID));
+            if (!sortProperty.isIdProperty()) {
+                value = after.getValue() != null ? conversionService.convert(after.getValue(), sortProperty.getType()) : null;
+                afterId = createKeysetCondition(sortColumn, order.isAscending(), value != null, afterId);
             }
-        } else {
-            if (criteria != null) {
-                return createSelectImpl(selectFrom.where(Conditions.just(criteria.toString())), entityType, null);
-            } else {
-                return createSelectImpl(selectFrom, entityType, null);
+            select = selectFrom.where(afterId);
+        }
+
+        GenericExecuteSpec spec = r2dbcEntityTemplate.getDatabaseClient().sql(createSelect(select.orderBy(orderBy).build()));
+        if (after != null) {
+            spec = spec.bind(KEYSET_ID, after.getId());
+            if (value != null) {
+                spec = spec.bind(KEYSET_VALUE, value);
             }
         }
+        return spec;
     }
 
-    private String createSelectImpl(SelectOrdered selectFrom, Class<?> entityType, Sort sortParameter) {
-        if (sortParameter != null && sortParameter.isSorted()) {
-            RelationalPersistentEntity<?> entity = getPersistentEntity(entityType);
-            if (entity != null) {
-                Sort sort = updateMapper.getMappedObject(sortParameter, entity);
-                selectFrom =
-                    selectFrom.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
+    /**
+     * Both MySQL and H2 sort NULL values as the lowest ones, the seek condition has to follow that ordering.
+     */
+    private static Condition createKeysetCondition(Column sortColumn, boolean ascending, boolean hasValue, Condition afterId) {
+        Expression value = SQL.bindMarker(":" + KEYSET_VALUE);
+        if (ascending) {
+            if (hasValue) {
+                // sort > :value OR (sort = :value AND id > :id)
+                return Conditions.isGreater(sortColumn, value).or(Conditions.nest(Conditions.isEqual(sortColumn, value).and(afterId)));
             }
+            // (sort IS NULL AND id > :id) OR sort IS NOT NULL
+            return Conditions.nest(Conditions.isNull(sortColumn).and(afterId)).or(Conditions.isNull(sortColumn).not());
+        }
+        if (hasValue) {
+            // sort < :value OR (sort = :value AND id < :id) OR sort IS NULL
+            return Conditions
+                .isLess(sortColumn, value)
+                .or(Conditions.nest(Conditions.isEqual(sortColumn, value).and(afterId)))
+                .or(Conditions.isNull(sortColumn));
+        }
+        // sort IS NULL AND id < :id
+        return Conditions.isNull(sortColumn).and(afterId);
+    }
+
+    private static OrderByField createKeysetOrderByField(Table table, RelationalPersistentProperty property, Sort.Order order) {
+        String columnName = property.getColumnName().getReference();
+        OrderByField orderByField = OrderByField.from(table.column(columnName).as(EntityManager.ALIAS_PREFIX + columnName));
+        return order.isAscending() ? orderByField.asc() : orderByField.desc();
+    }
+
+    private String createSelectImpl(
+        SelectWhere selectFrom,
+        @Nullable BoundCondition condition,
+        RelationalPersistentEntity<?> entity,
+        Sort sortParameter
+    ) {
+        SelectOrdered select = condition != null ? selectFrom.where(condition.getCondition()) : selectFrom;
+        if (sortParameter.isSorted()) {
+            Sort sort = updateMapper.getMappedObject(sortParameter, entity);
+            select = select.orderBy(createOrderByFields(Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS), sort));
+        }
+        return createSelect(select.build());
+    }
+
+    /**
+     * The {@code join} parameter of the selects of an entity which only select some of its columns, without join.
+     * @param properties the selected properties.
+     * @return the value telling the select apart from the other ones of the entity.
+     */
+    public static String selectedProperties(Collection<String> properties) {
+        return "properties:" + String.join(",", properties);
+    }
+
+    /**
+     * Creates the columns of some properties of an entity, aliased like the repositories alias them, e.g.
+     * {@code e_job_title} for the {@code jobTitle} property and the {@code e} prefix. The properties are resolved through
+     * the mapping of the entity, an unknown property is rejected instead of being written to the SQL.
+     * @param entityType the entity type which holds the properties.
+     * @param table the table of the entity in the select.
+     * @param columnPrefix the prefix of the column aliases.
+     * @param properties the selected properties.
+     * @return the columns, in the order of the properties.
+     * @throws org.springframework.data.mapping.MappingException if a property isn't mapped.
+     */
+    public List<Expression> getColumns(Class<?> entityType, Table table, String columnPrefix, Collection<String> properties) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        List<Expression> columns = new ArrayList<>(properties.size());
+        for (String property : properties) {
+            String columnName = entity.getRequiredPersistentProperty(property).getColumnName().getReference();
+            columns.add(Column.aliased(columnName, table, columnPrefix + "_" + columnName));
+        }
+        return columns;
+    }
+
+    /**
+     * Aggregates the rows of an entity by one of its properties with a single {@code GROUP BY} select, so only the
+     * aggregated rows are read. The properties are resolved through the mapping of the entity, an unknown property is
+     * rejected instead of being written to the SQL.
+     * @param entityType the entity type which holds the table name.
+     * @param groupBy the property grouping the rows.
+     * @param aggregates the values computed for each group.
+     * @return one array per group, ordered by group: the value of the grouping property, then the aggregated values, a
+     *         {@code Long} for a count, a sum, a minimum or a maximum, and a {@code Double} for an average.
+     * @throws org.springframework.data.mapping.MappingException if a property isn't mapped.
+     */
+    public Flux<Object[]> aggregate(Class<?> entityType, String groupBy, List<Aggregate> aggregates) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        Table table = Table.create(entity.getTableName()).as(EntityManager.ENTITY_ALIAS);
+        SqlIdentifier groupColumn = entity.getRequiredPersistentProperty(groupBy).getColumnName();
+        List<Expression> expressions = new ArrayList<>(aggregates.size() + 1);
+        expressions.add(table.column(groupColumn).as(GROUP_ALIAS));
+        for (int i = 0; i < aggregates.size(); i++) {
+            Aggregate aggregate = aggregates.get(i);
+            Expression argument = aggregate.property != null
+                ? table.column(entity.getRequiredPersistentProperty(aggregate.property).getColumnName())
+                : Expressions.asterisk();
+            expressions.add(SimpleFunction.create(aggregate.function.name(), List.of(argument)).as(AGGREGATE_ALIAS + i));
+        }
+        String group = EntityManager.ENTITY_ALIAS + "." + groupColumn.toSql(dialect.getIdentifierProcessing());
+        String sql = createSelect(Select.builder().select(expressions).from(table).build()) + " GROUP BY " + group + " ORDER BY " + group;
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .sql(sql)
+            .map(
+                row -> {
+                    Object[] values = new Object[aggregates.size() + 1];
+                    values[0] = row.get(GROUP_ALIAS);
+                    for (int i = 0; i < aggregates.size(); i++) {
+                        Number value = (Number) row.get(AGGREGATE_ALIAS + i);
+                        if (value != null) {
+                            values[i + 1] = aggregates.get(i).function == Aggregate.Function.AVG ? value.doubleValue() : value.longValue();
+                        }
+                    }
+                    return values;
+                }
+            )
+            .all();
+    }
+
+    /**
+     * The shape of the criteria, i.e. the criteria without their values: two criteria with the same shape are rendered
+     * to the same SQL, with the same bind markers.
+     */
+    @Nullable
+    static String createCriteriaShape(@Nullable CriteriaDefinition criteria) {
+        if (criteria == null) {
+            return null;
+        }
+        StringBuilder shape = new StringBuilder();
+        appendCriteriaShape(shape, criteria);
+        return shape.toString();
+    }
+
+    private static void appendCriteriaShape(StringBuilder shape, CriteriaDefinition criteria) {
+        if (criteria.hasPrevious()) {
+            appendCriteriaShape(shape, criteria.getPrevious());
+            shape.append(' ').append(criteria.getCombinator()).append(' ');
+        }
+        if (criteria.isGroup()) {
+            shape.append('(');
+            for (CriteriaDefinition part : criteria.getGroup()) {
+                shape.append(part.getCombinator()).append(' ');
+                appendCriteriaShape(shape, part);
+                shape.append(';');
+            }
+            shape.append(')');
+            return;
+        }
+        if (criteria.isEmpty()) {
+            return;
+        }
+        shape.append(criteria.getColumn()).append(' ').append(criteria.getComparator());
+        if (criteria.isIgnoreCase()) {
+            shape.append(" ignoreCase");
+        }
+        if (criteria.getValue() instanceof Collection) {
+            // every element of an IN clause gets its own bind marker
+            shape.append(" [").append(((Collection<?>) criteria.getValue()).size()).append(']');
         }
-        return createSelect(selectFrom.build());
     }
 
     private RelationalPersistentEntity<?> getPersistentEntity(Class<?> entityType) {
         return r2dbcEntityTemplate.getConverter().getMappingContext().getPersistentEntity(entityType);
     }
 
+    private RelationalPersistentEntity<?> getRequiredPersistentEntity(Class<?> entityType) {
+        return r2dbcEntityTemplate.getConverter().getMappingContext().getRequiredPersistentEntity(entityType);
+    }
+
     /**
      * Delete all the entity with the given type, and return the number of deletions.
      * @param entityType the entity type which holds the table name.
@@ -165,6 +862,51 @@ public class EntityManager {
         return r2dbcEntityTemplate.getDatabaseClient().sql(statementMapper.getMappedObject(delete)).fetch().rowsUpdated();
     }
 
+    /**
+     * Reads the entities with the given ids, with an {@code IN} condition of at most
+     * {@code application.database.batch-size} ids per select, which keeps the number of distinct selects bounded.
+     * @param <ID> the type of the ids.
+     * @param <T> the type of the entities.
+     * @param ids the ids, the duplicates being ignored.
+     * @param finder reads the entities whose id is in a batch of ids.
+     * @return the entities which exist, in no particular order.
+     */
+    public <ID, T> Flux<T> findAllById(Iterable<ID> ids, Function<List<ID>, Flux<T>> finder) {
+        return Flux.fromIterable(ids).distinct().buffer(batchSize).concatMap(finder);
+    }
+
+    /**
+     * Deletes the entities with the given ids, with a single {@code DELETE ... WHERE id IN (...)} for every
+     * {@code application.database.batch-size} ids, preceded by a select of the ids which exist.
+     * @param <ID> the type of the ids.
+     * @param entityType the entity type which holds the table name.
+     * @param ids the ids, the duplicates being ignored.
+     * @return the ids of the deleted entities.
+     */
+    @SuppressWarnings("unchecked")
+    public <ID> Flux<ID> deleteAllById(Class<?> entityType, Collection<ID> ids) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entityType);
+        String idProperty = entity.getRequiredIdProperty().getName();
+        return Flux
+            .fromIterable(ids)
+            .distinct()
+            .buffer(batchSize)
+            .concatMap(
+                batch ->
+                    r2dbcEntityTemplate
+                        .select(Query.query(Criteria.where(idProperty).in(batch)).columns(idProperty), entityType)
+                        .map(found -> (ID) entity.getIdentifierAccessor(found).getRequiredIdentifier())
+                        .collectList()
+                        .filter(existing -> !existing.isEmpty())
+                        .flatMapMany(
+                            existing ->
+                                r2dbcEntityTemplate
+                                    .delete(Query.query(Criteria.where(idProperty).in(existing)), entityType)
+                                    .thenMany(Flux.fromIterable(existing))
+                        )
+            );
+    }
+
     /**
      * Generate an actual SQL from the given {@link Select}.
      * @param select a representation of a select statement.
@@ -184,6 +926,406 @@ public class EntityManager {
         return r2dbcEntityTemplate.insert(entity);
     }
 
+    /**
+     * Inserts the given entities into the database, and sets their ids. The entities are written in batches of
+     * {@code application.database.batch-size} rows, each batch being a single statement with one binding per entity.
+     * @param <S> the type of the persisted entities.
+     * @param entities the new entities, of the same type, without id.
+     * @return the persisted entities, in the same order.
+     */
+    public <S> Flux<S> insertAll(Collection<S> entities) {
+        return Flux.fromIterable(entities).buffer(batchSize).concatMap(this::insertBatch);
+    }
+
+    /**
+     * Updates the given entities in the database, in batches of {@code application.database.batch-size} rows. The version
+     * is handled as in {@link #update}, the entities getting their new version.
+     * @param <S> the type of the entities.
+     * @param entities the existing entities, of the same type.
+     * @return the number of updated rows; an {@link OptimisticLockingFailureException} if a row has another version, a
+     *         {@link TransientDataAccessResourceException} if there is no entity with the id of one of them.
+     */
+    public <S> Mono<Integer> updateAll(Collection<S> entities) {
+        List<S> objects = new ArrayList<>(entities);
+        List<RowUpdate<S>> updates = new ArrayList<>(objects.size());
+        for (S object : objects) {
+            Assert.isTrue(object.getClass() == objects.get(0).getClass(), "The entities must have the same type");
+            updates.add(createRowUpdate(object, false, true));
+        }
+        return executeBatched(updates)
+            .concatMap(counted -> checkUpdated(objects.get(counted.getT2()), updates.get(counted.getT2()), counted.getT1()))
+            .reduce(0, Integer::sum);
+    }
+
+    /**
+     * Checks an update of {@link #updateAll} applied, and sets the new version of the entity.
+     */
+    private <S> Mono<Integer> checkUpdated(S entity, RowUpdate<S> update, int count) {
+        if (count == 0) {
+            String message = "Failed to update table [" + update.entity.getTableName() + "]. Row with " + update.byId + " does not exist.";
+            return notUpdated(update).then(Mono.error(new TransientDataAccessResourceException(message)));
+        }
+        RelationalPersistentProperty versionProperty = update.entity.getVersionProperty();
+        if (versionProperty == null) {
+            return Mono.just(count);
+        }
+        if (update.version != null) {
+            setVersion(entity, update.version + 1);
+            return Mono.just(count);
+        }
+        // The version of the row is only known once updated
+        return r2dbcEntityTemplate
+            .selectOne(Query.query(update.byId), update.type)
+            .map(
+                updated -> {
+                    update.entity.getPropertyAccessor(entity).setProperty(versionProperty, getVersion(updated));
+                    return count;
+                }
+            );
+    }
+
+    /**
+     * Updates all the columns of the given entity with a single {@code UPDATE ... WHERE id = ?}. The version of an entity
+     * with a {@link Version} property is incremented, and the update only applies if the row still has the version of
+     * the entity; a null version updates the row whatever its version.
+     * @param <S> the type of the entity.
+     * @param entity the entity to update.
+     * @return the entity, with its new version; empty if there is no entity with the id, an
+     *         {@link OptimisticLockingFailureException} if the row has another version.
+     */
+    public <S> Mono<S> update(S entity) {
+        RowUpdate<S> update = createRowUpdate(entity, false, true);
+        RelationalPersistentProperty versionProperty = update.entity.getVersionProperty();
+        if (versionProperty == null || update.version != null) {
+            return r2dbcEntityTemplate
+                .getDatabaseClient()
+                .sql(update.operation)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(
+                    count -> {
+                        if (count == 0) {
+                            return notUpdated(update);
+                        }
+                        if (versionProperty != null) {
+                            setVersion(entity, update.version + 1);
+                        }
+                        return Mono.just(entity);
+                    }
+                );
+        }
+        // The version of the row is only known once updated
+        return readUpdatedRow(update)
+            .map(
+                updated -> {
+                    update.entity.getPropertyAccessor(entity).setProperty(versionProperty, getVersion(updated));
+                    return entity;
+                }
+            );
+    }
+
+    /**
+     * Updates the columns of the non-null properties of the given entity with a single {@code UPDATE ... WHERE id = ?},
+     * the other columns keeping their values. The version is handled as in {@link #update}. When the driver returns the
+     * columns of the updated row, i.e. for H2 and PostgreSQL, the row is read by the same statement; otherwise it's
+     * selected after the update.
+     * @param <S> the type of the entity.
+     * @param patch the id of the entity and its new values, the null properties being left unchanged.
+     * @return the updated entity, without its relationships; empty if there is no entity with the id, an
+     *         {@link OptimisticLockingFailureException} if the row has another version.
+     */
+    public <S> Mono<S> updateNonNull(S patch) {
+        RowUpdate<S> update = createRowUpdate(patch, true, true);
+        if (update.operation == null) {
+            return r2dbcEntityTemplate.selectOne(Query.query(update.byId), update.type);
+        }
+        return readUpdatedRow(update);
+    }
+
+    /**
+     * Updates the columns of the non-null properties of each of the given entities, the version being handled as in
+     * {@link #update}. The updates which write the same columns are run as a single batched statement, in batches of
+     * {@code application.database.batch-size} rows, instead of one statement per entity.
+     * @param <S> the type of the entities.
+     * @param patches the ids of the entities and their new values, the null properties being left unchanged.
+     * @return the number of rows updated for each entity, in the same order: 0 if there is no entity with its id, or if
+     *         the row has another version.
+     */
+    public <S> Mono<List<Integer>> updateAllNonNull(List<S> patches) {
+        List<RowUpdate<S>> updates = new ArrayList<>(patches.size());
+        for (S patch : patches) {
+            updates.add(createRowUpdate(patch, true, true));
+        }
+        return executeBatched(updates)
+            .collectMap(Tuple2::getT2, Tuple2::getT1)
+            .map(
+                counts -> {
+                    List<Integer> rowsUpdated = new ArrayList<>(updates.size());
+                    for (int i = 0; i < updates.size(); i++) {
+                        rowsUpdated.add(counts.getOrDefault(i, 0));
+                    }
+                    return rowsUpdated;
+                }
+            );
+    }
+
+    /**
+     * Runs the updates which write the same columns, and check the same version or none, as a single batched statement,
+     * in batches of {@code application.database.batch-size} rows.
+     * @return the number of rows updated by each update, with its index; the updates without operation are skipped.
+     */
+    private <S> Flux<Tuple2<Integer, Integer>> executeBatched(List<RowUpdate<S>> updates) {
+        Map<String, List<Integer>> updatesBySql = new LinkedHashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            PreparedOperation<?> operation = updates.get(i).operation;
+            if (operation != null) {
+                updatesBySql.computeIfAbsent(operation.toQuery(), sql -> new ArrayList<>()).add(i);
+            }
+        }
+        return Flux
+            .fromIterable(updatesBySql.values())
+            .concatMap(indexes -> Flux.fromIterable(indexes).buffer(batchSize))
+            .concatMap(
+                batch -> {
+                    List<PreparedOperation<?>> operations = batch.stream().map(i -> updates.get(i).operation).collect(Collectors.toList());
+                    return r2dbcEntityTemplate
+                        .getDatabaseClient()
+                        .inConnectionMany(
+                            connection -> Flux.from(createBatchStatement(connection, operations).execute()).concatMap(Result::getRowsUpdated)
+                        )
+                        .zipWithIterable(batch);
+                }
+            );
+    }
+
+    /**
+     * An update of a single row, by id.
+     */
+    private static final class RowUpdate<S> {
+
+        private final Class<S> type;
+        private final RelationalPersistentEntity<?> entity;
+        private final Criteria byId;
+        private final Long version;
+        private final PreparedOperation<?> operation;
+
+        RowUpdate(
+            Class<S> type,
+            RelationalPersistentEntity<?> entity,
+            Criteria byId,
+            @Nullable Long version,
+            @Nullable PreparedOperation<?> operation
+        ) {
+            this.type = type;
+            this.entity = entity;
+            this.byId = byId;
+            this.version = version;
+            this.operation = operation;
+        }
+    }
+
+    /**
+     * Creates the {@code UPDATE} of the given entity, which increments the version column, if any.
+     * @param nonNullOnly whether to only update the columns of the non-null properties.
+     * @param checkVersion whether to only update the row if it has the version of the entity, when not null.
+     * @return the update, without operation if there is no column to update.
+     */
+    @SuppressWarnings("unchecked")
+    private <S> RowUpdate<S> createRowUpdate(S object, boolean nonNullOnly, boolean checkVersion) {
+        Class<S> type = (Class<S>) object.getClass();
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(type);
+        ReactiveDataAccessStrategy dataAccessStrategy = r2dbcEntityTemplate.getDataAccessStrategy();
+        IdentifierProcessing identifierProcessing = dialect.getIdentifierProcessing();
+        SqlIdentifier idColumn = entity.getRequiredIdProperty().getColumnName();
+        RelationalPersistentProperty versionProperty = entity.getVersionProperty();
+
+        OutboundRow row = dataAccessStrategy.getOutboundRow(object);
+        Parameter id = row.remove(idColumn);
+        Assert.isTrue(id != null && id.hasValue(), "Only existing entities can be updated: " + object);
+        Criteria byId = Criteria.where(dataAccessStrategy.toSql(idColumn)).is(id.getValue());
+        Long version = null;
+        if (versionProperty != null) {
+            Parameter versionValue = row.remove(versionProperty.getColumnName());
+            version = checkVersion && versionValue.hasValue() ? ((Number) versionValue.getValue()).longValue() : null;
+        }
+
+        BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+        List<BindMarker> markers = new ArrayList<>();
+        List<Parameter> values = new ArrayList<>();
+        StringJoiner assignments = new StringJoiner(", ");
+        for (Entry<SqlIdentifier, Parameter> column : row.entrySet()) {
+            if (!nonNullOnly || column.getValue().hasValue()) {
+                BindMarker marker = bindMarkers.next();
+                assignments.add(column.getKey().toSql(identifierProcessing) + " = " + marker.getPlaceholder());
+                markers.add(marker);
+                values.add(dataAccessStrategy.getBindValue(column.getValue()));
+            }
+        }
+        if (versionProperty != null) {
+            String versionColumn = versionProperty.getColumnName().toSql(identifierProcessing);
+            assignments.add(versionColumn + " = " + versionColumn + " + 1");
+        }
+        if (assignments.length() == 0) {
+            return new RowUpdate<>(type, entity, byId, null, null);
+        }
+
+        BindMarker idMarker = bindMarkers.next();
+        markers.add(idMarker);
+        values.add(id);
+        String where = idColumn.toSql(identifierProcessing) + " = " + idMarker.getPlaceholder();
+        if (version != null) {
+            BindMarker versionMarker = bindMarkers.next();
+            markers.add(versionMarker);
+            values.add(Parameter.from(version));
+            where += " AND " + versionProperty.getColumnName().toSql(identifierProcessing) + " = " + versionMarker.getPlaceholder();
+        }
+        String sql = "UPDATE " + entity.getTableName().toSql(identifierProcessing) + " SET " + assignments + " WHERE " + where;
+        BoundStatement operation = new BoundStatement(
+            sql,
+            target -> {
+                for (int i = 0; i < markers.size(); i++) {
+                    Parameter value = values.get(i);
+                    if (value.hasValue()) {
+                        markers.get(i).bind(target, value.getValue());
+                    } else {
+                        markers.get(i).bindNull(target, value.getType());
+                    }
+                }
+            }
+        );
+        return new RowUpdate<>(type, entity, byId, version, operation);
+    }
+
+    /**
+     * Runs the update and reads the updated row: with the same statement when the driver returns the columns of the
+     * updated rows, otherwise with a select by id.
+     */
+    private <S> Mono<S> readUpdatedRow(RowUpdate<S> update) {
+        if (!returnsUpdatedRows) {
+            return r2dbcEntityTemplate
+                .getDatabaseClient()
+                .sql(update.operation)
+                .fetch()
+                .rowsUpdated()
+                .flatMap(count -> count == 0 ? notUpdated(update) : r2dbcEntityTemplate.selectOne(Query.query(update.byId), update.type));
+        }
+
+        String[] returnedColumns = StreamSupport
+            .stream(update.entity.spliterator(), false)
+            .map(property -> r2dbcEntityTemplate.getDataAccessStrategy().toSql(property.getColumnName()))
+            .toArray(String[]::new);
+        R2dbcConverter converter = r2dbcEntityTemplate.getConverter();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnection(
+                connection -> {
+                    Statement statement = connection.createStatement(update.operation.toQuery()).returnGeneratedValues(returnedColumns);
+                    update.operation.bindTo(new StatementBindTarget(statement));
+                    return Flux
+                        .from(statement.execute())
+                        .concatMap(result -> result.map((updated, metadata) -> converter.read(update.type, updated, metadata)))
+                        .next();
+                }
+            )
+            .switchIfEmpty(Mono.defer(() -> notUpdated(update)));
+    }
+
+    /**
+     * Tells apart the two reasons why an update didn't apply, only running a query when a version was expected.
+     * @return empty if there is no entity with the id, an {@link OptimisticLockingFailureException} if the row has
+     *         another version.
+     */
+    private <S> Mono<S> notUpdated(RowUpdate<S> update) {
+        if (update.version == null) {
+            return Mono.empty();
+        }
+        String message = "The " + update.entity.getTableName() + " row with " + update.byId + " doesn't have the version " + update.version;
+        return r2dbcEntityTemplate
+            .exists(Query.query(update.byId), update.type)
+            .flatMap(exists -> exists ? Mono.error(new OptimisticLockingFailureException(message)) : Mono.empty());
+    }
+
+    private Long getVersion(Object object) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(object.getClass());
+        return conversionService.convert(entity.getPropertyAccessor(object).getProperty(entity.getRequiredVersionProperty()), Long.class);
+    }
+
+    private void setVersion(Object object, long version) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(object.getClass());
+        RelationalPersistentProperty versionProperty = entity.getRequiredVersionProperty();
+        entity.getPropertyAccessor(object).setProperty(versionProperty, conversionService.convert(version, versionProperty.getType()));
+    }
+
+    /**
+     * Inserts the new entities and updates the existing ones, with {@link #insertAll} and {@link #updateAll}.
+     * @param <S> the type of the entities.
+     * @param entities the entities to save, of the same type.
+     * @return the saved entities, in the same order, with their new version; an error if one of the existing entities
+     *         wasn't updated, see {@link #updateAll}.
+     */
+    public <S> Flux<S> saveAll(Iterable<S> entities) {
+        List<S> newEntities = new ArrayList<>();
+        List<S> existingEntities = new ArrayList<>();
+        List<S> all = new ArrayList<>();
+        for (S entity : entities) {
+            (hasId(entity) ? existingEntities : newEntities).add(entity);
+            all.add(entity);
+        }
+        return insertAll(newEntities).then(updateAll(existingEntities)).thenMany(Flux.fromIterable(all));
+    }
+
+    private <S> Flux<S> insertBatch(List<S> entities) {
+        RelationalPersistentEntity<?> entity = getRequiredPersistentEntity(entities.get(0).getClass());
+        SqlIdentifier idColumn = entity.getRequiredIdProperty().getColumnName();
+        List<PreparedOperation<?>> inserts = new ArrayList<>(entities.size());
+        for (S object : entities) {
+            Assert.isTrue(object.getClass() == entity.getType(), "The entities must have the same type");
+            Assert.isTrue(!hasId(object), "Only new entities can be inserted: " + object);
+            if (entity.hasVersionProperty() && getVersion(object) == null) {
+                setVersion(object, 0);
+            }
+            OutboundRow row = r2dbcEntityTemplate.getDataAccessStrategy().getOutboundRow(object);
+            row.remove(idColumn);
+            StatementMapper.InsertSpec insert = statementMapper.createInsert(entity.getTableName());
+            for (Entry<SqlIdentifier, Parameter> column : row.entrySet()) {
+                insert = insert.withColumn(column.getKey(), r2dbcEntityTemplate.getDataAccessStrategy().getBindValue(column.getValue()));
+            }
+            inserts.add(statementMapper.getMappedObject(insert));
+        }
+        R2dbcConverter converter = r2dbcEntityTemplate.getConverter();
+        return r2dbcEntityTemplate
+            .getDatabaseClient()
+            .inConnectionMany(
+                connection -> {
+                    Statement statement = createBatchStatement(connection, inserts)
+                        .returnGeneratedValues(r2dbcEntityTemplate.getDataAccessStrategy().toSql(idColumn));
+                    return Flux
+                        .from(statement.execute())
+                        .zipWithIterable(entities)
+                        .concatMap(result -> result.getT1().map(converter.populateIdIfNecessary(result.getT2())));
+                }
+            );
+    }
+
+    private boolean hasId(Object object) {
+        return getRequiredPersistentEntity(object.getClass()).getIdentifierAccessor(object).getIdentifier() != null;
+    }
+
+    /**
+     * Creates a single statement from operations which only differ by their values, adding a binding for each of them.
+     */
+    private static Statement createBatchStatement(Connection connection, List<PreparedOperation<?>> operations) {
+        Statement statement = connection.createStatement(operations.get(0).toQuery());
+        StatementBindTarget target = new StatementBindTarget(statement);
+        for (int i = 0; i < operations.size(); i++) {
+            if (i > 0) {
+                statement.add();
+            }
+            operations.get(i).bindTo(target);
+        }
+        return statement;
+    }
+
     /**
      * Updates the table, which links the entity with the referred entities.
      * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
@@ -191,30 +1333,57 @@ public class EntityManager {
      * @param referencedIds the id of the referred entities.
      * @return the number of inserted rows.
      */
-    public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<Long> referencedIds) {
-        return deleteFromLinkTable(table, entityId)
-            .then(
-                Flux
-                    .fromStream(referencedIds)
-                    .flatMap(
-                        (Long referenceId) -> {
-                            StatementMapper.InsertSpec insert = r2dbcEntityTemplate
-                                .getDataAccessStrategy()
-                                .getStatementMapper()
-                                .createInsert(table.tableName)
-                                .withColumn(table.idColumn, Parameter.from(entityId))
-                                .withColumn(table.referenceColumn, Parameter.from(referenceId));
-
-                            return r2dbcEntityTemplate
-                                .getDatabaseClient()
-                                .sql(statementMapper.getMappedObject(insert))
-                                .fetch()
-                                .rowsUpdated();
-                        }
-                    )
-                    .collectList()
-                    .map((List<Integer> updates) -> updates.stream().reduce(Integer::sum).orElse(0))
-            );
+    public Mono<Integer> updateLinkTable(LinkTable table, Long entityId, Stream<?> referencedIds) {
+        return deleteFromLinkTable(table, entityId).then(insertIntoLinkTable(table, entityId, referencedIds));
+    }
+
+    /**
+     * Inserts the links between the entity and the referred entities, with a multi-row insert for every
+     * {@code application.database.batch-size} links.
+     * @param table describes the link table, it contains a table name, the column name for the id, and for the referred entity id.
+     * @param entityId the id of the entity, for which the links are created.
+     * @param referencedIds the id of the referred entities.
+     * @return the number of inserted rows.
+     */
+    public Mono<Integer> insertIntoLinkTable(LinkTable table, Long entityId, Stream<?> referencedIds) {
+        Assert.notNull(entityId, "entityId is null");
+        return Flux
+            .fromStream(referencedIds)
+            .buffer(batchSize)
+            .concatMap(
+                (List<?> batch) -> {
+                    BindMarkers bindMarkers = dialect.getBindMarkersFactory().create();
+                    List<BindMarker> markers = new ArrayList<>(batch.size() * 2);
+                    List<Object> values = new ArrayList<>(batch.size() * 2);
+                    StringJoiner rows = new StringJoiner(", ");
+                    for (Object referenceId : batch) {
+                        BindMarker idMarker = bindMarkers.next();
+                        BindMarker referenceMarker = bindMarkers.next();
+                        rows.add("(" + idMarker.getPlaceholder() + ", " + referenceMarker.getPlaceholder() + ")");
+                        markers.add(idMarker);
+                        values.add(entityId);
+                        markers.add(referenceMarker);
+                        values.add(referenceId);
+                    }
+                    String sql =
+                        "INSERT INTO " + table.tableName + " (" + table.idColumn + ", " + table.referenceColumn + ") VALUES " + rows;
+                    return r2dbcEntityTemplate
+                        .getDatabaseClient()
+                        .sql(
+                            new BoundStatement(
+                                sql,
+                                target -> {
+                                    for (int i = 0; i < markers.size(); i++) {
+                                        markers.get(i).bind(target, values.get(i));
+                                    }
+                                }
+                            )
+                        )
+                        .fetch()
+                        .rowsUpdated();
+                }
+            )
+            .reduce(0, Integer::sum);
     }
 
     public Mono<Void> deleteFromLinkTable(LinkTable table, Long entityId) {
@@ -0,0 +1,158 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.NullValueInNestedPathException;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service for exporting entities as a streamed NDJSON or CSV body, see {@link DataFormat}.
+ * <p>
+ * The rows are encoded as they are read from the database, {@code application.database.fetch-size} rows per buffer, so the
+ * memory used doesn't depend on the size of the table, and the database is only read as fast as the client consumes.
+ */
+@Service
+public class ExportService {
+
+    private static final byte NEW_LINE = '\n';
+
+    private final ObjectWriter objectWriter;
+
+    private final int chunkSize;
+
+    public ExportService(ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.objectWriter = objectMapper.writer();
+        this.chunkSize = applicationProperties.getDatabase().getFetchSize();
+    }
+
+    /**
+     * Encodes the given rows.
+     * @param rows the rows to export.
+     * @param format the format of the export.
+     * @param csvColumns the properties written as CSV columns, nested properties are written with a dot.
+     * @param bufferFactory the factory of the response buffers.
+     * @param <D> the type of the rows.
+     * @return the encoded rows.
+     */
+    public <D> Flux<DataBuffer> exportAll(Flux<D> rows, DataFormat format, List<String> csvColumns, DataBufferFactory bufferFactory) {
+        if (format == DataFormat.NDJSON) {
+            return rows.buffer(chunkSize).map(chunk -> writeJson(chunk, bufferFactory));
+        }
+        String header = formatCsvLine(csvColumns);
+        return Flux.concat(
+            Mono.fromSupplier(() -> bufferFactory.wrap(header.getBytes(StandardCharsets.UTF_8))),
+            rows.buffer(chunkSize).map(chunk -> writeCsv(chunk, csvColumns, bufferFactory))
+        );
+    }
+
+    /**
+     * Encodes the given rows as a JSON array, written as the rows are read instead of once they are all in memory,
+     * which is what the default JSON encoder does.
+     * @param rows the rows to write.
+     * @param bufferFactory the factory of the response buffers.
+     * @param <D> the type of the rows.
+     * @return the encoded array.
+     */
+    public <D> Flux<DataBuffer> exportJsonArray(Flux<D> rows, DataBufferFactory bufferFactory) {
+        return Flux.concat(
+            Mono.fromSupplier(() -> bufferFactory.wrap(new byte[] { '[' })),
+            rows.buffer(chunkSize).index().map(chunk -> writeJsonArray(chunk.getT2(), chunk.getT1() == 0, bufferFactory)),
+            Mono.fromSupplier(() -> bufferFactory.wrap(new byte[] { ']' }))
+        );
+    }
+
+    private <D> DataBuffer writeJsonArray(List<D> chunk, boolean firstChunk, DataBufferFactory bufferFactory) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                if (i > 0 || !firstChunk) {
+                    out.write(',');
+                }
+                out.write(objectWriter.writeValueAsBytes(chunk.get(i)));
+            }
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+        return bufferFactory.wrap(out.toByteArray());
+    }
+
+    private <D> DataBuffer writeJson(List<D> chunk, DataBufferFactory bufferFactory) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            for (D row : chunk) {
+                out.write(objectWriter.writeValueAsBytes(row));
+                out.write(NEW_LINE);
+            }
+        } catch (IOException e) {
+            throw Exceptions.propagate(e);
+        }
+        return bufferFactory.wrap(out.toByteArray());
+    }
+
+    private <D> DataBuffer writeCsv(List<D> chunk, List<String> csvColumns, DataBufferFactory bufferFactory) {
+        StringBuilder out = new StringBuilder();
+        List<Object> values = new ArrayList<>(csvColumns.size());
+        for (D row : chunk) {
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(row);
+            values.clear();
+            for (String column : csvColumns) {
+                values.add(getPropertyValue(wrapper, column));
+            }
+            out.append(formatCsvLine(values));
+        }
+        return bufferFactory.wrap(out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Object getPropertyValue(BeanWrapper wrapper, String path) {
+        try {
+            return wrapper.getPropertyValue(path);
+        } catch (NullValueInNestedPathException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Formats the values of a CSV line, quoting them if needed, see {@link ImportService#parseCsvLine(String)}. A quoted
+     * value keeps its line breaks, so the record spans lines: the import joins them back, reading a {@code \r\n} as
+     * {@code \n}.
+     * @return the line, with its line break.
+     */
+    static String formatCsvLine(List<?> values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            Object value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            String text = value.toString();
+            boolean quoted =
+                text.indexOf(',') >= 0 ||
+                text.indexOf('"') >= 0 ||
+                text.indexOf('\n') >= 0 ||
+                text.indexOf('\r') >= 0 ||
+                !text.equals(text.trim());
+            if (quoted) {
+                line.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(text);
+            }
+        }
+        return line.append('\n').toString();
+    }
+}
@@ -0,0 +1,297 @@
+package com.mycompany.myapp.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.ImportChunkDTO;
+import com.mycompany.myapp.service.dto.ImportRejectDTO;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.StringDecoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Service for importing entities from a streamed NDJSON or CSV body, see {@link DataFormat}.
+ * <p>
+ * The body is split in lines as it arrives, and the rows are saved in chunks of {@code application.database.batch-size},
+ * one transaction per chunk. The next chunk is only read once the previous one is saved, so the memory used doesn't
+ * depend on the size of the upload. A CSV record can span lines when a quoted value holds line breaks, as written by
+ * {@link ExportService}, up to {@value #MAX_CSV_RECORD_LINES} lines.
+ */
+@Service
+public class ImportService {
+
+    private static final ResolvableType STRING_TYPE = ResolvableType.forClass(String.class);
+
+    static final int MAX_CSV_RECORD_LINES = 100;
+
+    private final Logger log = LoggerFactory.getLogger(ImportService.class);
+
+    private final ObjectMapper objectMapper;
+
+    private final Validator validator;
+
+    private final int batchSize;
+
+    public ImportService(ObjectMapper objectMapper, Validator validator, ApplicationProperties applicationProperties) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchSize = applicationProperties.getDatabase().getBatchSize();
+    }
+
+    /**
+     * Imports new entities from the given body.
+     * @param body the streamed request body.
+     * @param format the format of the body.
+     * @param dtoType the type of the rows.
+     * @param saveAll saves a chunk of valid rows, in a single transaction.
+     * @param <D> the type of the rows.
+     * @return the progress of the import, one element per chunk.
+     */
+    public <D> Flux<ImportChunkDTO> importAll(
+        Publisher<DataBuffer> body,
+        DataFormat format,
+        Class<D> dtoType,
+        Function<List<D>, Flux<D>> saveAll
+    ) {
+        AtomicLong totalImported = new AtomicLong();
+        AtomicLong totalRejected = new AtomicLong();
+        Flux<ImportRow<D>> rows = StringDecoder
+            .allMimeTypes()
+            .decode(body, STRING_TYPE, null, Collections.emptyMap())
+            .index((index, line) -> new ImportRow<D>(index + 1, line));
+        if (format == DataFormat.CSV) {
+            rows = joinCsvRecords(rows);
+        }
+        rows = rows.filter(row -> !row.line.trim().isEmpty());
+        ObjectReader reader = objectMapper.readerFor(dtoType);
+        rows = format == DataFormat.CSV ? readCsv(rows, dtoType) : rows.map(row -> readJson(row, reader));
+        return rows
+            .buffer(batchSize)
+            .index()
+            .concatMap(
+                chunk ->
+                    importChunk(chunk.getT1() + 1, chunk.getT2(), saveAll)
+                        .doOnNext(
+                            result -> {
+                                result.setTotalImported(totalImported.addAndGet(result.getImported()));
+                                result.setTotalRejected(totalRejected.addAndGet(result.getRejects().size()));
+                            }
+                        ),
+                1
+            );
+    }
+
+    private <D> Mono<ImportChunkDTO> importChunk(long chunk, List<ImportRow<D>> rows, Function<List<D>, Flux<D>> saveAll) {
+        ImportChunkDTO result = new ImportChunkDTO();
+        result.setChunk(chunk);
+        result.setFirstLine(rows.get(0).number);
+        result.setLastLine(rows.get(rows.size() - 1).number);
+        List<ImportRow<D>> valid = new ArrayList<>(rows.size());
+        for (ImportRow<D> row : rows) {
+            if (row.error == null) {
+                row.error = validate(row.dto);
+            }
+            if (row.error == null) {
+                valid.add(row);
+            } else {
+                result.getRejects().add(new ImportRejectDTO(row.number, row.error));
+            }
+        }
+        if (valid.isEmpty()) {
+            return Mono.just(result);
+        }
+        return saveAll
+            .apply(valid.stream().map(row -> row.dto).collect(Collectors.toList()))
+            .count()
+            .map(
+                count -> {
+                    result.setImported(count);
+                    return result;
+                }
+            )
+            .onErrorResume(
+                e -> {
+                    log.warn("Import chunk {} rolled back: {}", chunk, e.getMessage());
+                    for (ImportRow<D> row : valid) {
+                        result.getRejects().add(new ImportRejectDTO(row.number, "The chunk could not be saved"));
+                    }
+                    return Mono.just(result);
+                }
+            );
+    }
+
+    @Nullable
+    private String validate(Object dto) {
+        if (PropertyAccessorFactory.forBeanPropertyAccess(dto).getPropertyValue("id") != null) {
+            return "A new entity cannot already have an ID";
+        }
+        Set<ConstraintViolation<Object>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(v -> v.getPropertyPath() + " " + v.getMessage()).collect(Collectors.joining(", "));
+    }
+
+    private <D> ImportRow<D> readJson(ImportRow<D> row, ObjectReader reader) {
+        try {
+            row.dto = reader.readValue(row.line);
+            if (row.dto == null) {
+                // a null literal
+                row.error = "Empty row";
+            }
+        } catch (JsonProcessingException e) {
+            row.error = e.getOriginalMessage();
+        }
+        return row;
+    }
+
+    private <D> Flux<ImportRow<D>> readCsv(Flux<ImportRow<D>> rows, Class<D> dtoType) {
+        return rows.switchOnFirst(
+            (first, all) -> {
+                if (!first.hasValue()) {
+                    return all;
+                }
+                List<String> header = parseCsvLine(first.get().line);
+                return all.skip(1).map(row -> readCsvRow(row, header, dtoType));
+            }
+        );
+    }
+
+    /**
+     * Joins the lines of the CSV records whose quoted values hold line breaks, read as {@code \n}: a record ends on the
+     * line closing its quotes, or after {@value #MAX_CSV_RECORD_LINES} lines, so that a stray quote doesn't make the rest
+     * of the body a single record. A record is numbered by its first line.
+     */
+    private static <D> Flux<ImportRow<D>> joinCsvRecords(Flux<ImportRow<D>> lines) {
+        return Flux.defer(
+            () -> {
+                AtomicLong quotes = new AtomicLong();
+                AtomicLong recordLines = new AtomicLong();
+                return lines
+                    .bufferUntil(
+                        row -> {
+                            long count = quotes.addAndGet(row.line.chars().filter(c -> c == '"').count());
+                            if (count % 2 == 0 || recordLines.incrementAndGet() >= MAX_CSV_RECORD_LINES) {
+                                quotes.set(0);
+                                recordLines.set(0);
+                                return true;
+                            }
+                            return false;
+                        }
+                    )
+                    .map(
+                        record ->
+                            record.size() == 1
+                                ? record.get(0)
+                                : new ImportRow<D>(
+                                    record.get(0).number,
+                                    record.stream().map(row -> row.line).collect(Collectors.joining("\n"))
+                                )
+                    );
+            }
+        );
+    }
+
+    private <D> ImportRow<D> readCsvRow(ImportRow<D> row, List<String> header, Class<D> dtoType) {
+        List<String> values = parseCsvLine(row.line);
+        if (values.size() != header.size()) {
+            row.error = "Expected " + header.size() + " values but found " + values.size();
+            return row;
+        }
+        Map<String, Object> properties = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            if (!values.get(i).isEmpty()) {
+                putProperty(properties, header.get(i), values.get(i));
+            }
+        }
+        try {
+            row.dto = objectMapper.convertValue(properties, dtoType);
+        } catch (IllegalArgumentException e) {
+            row.error = e.getCause() instanceof JsonProcessingException
+                ? ((JsonProcessingException) e.getCause()).getOriginalMessage()
+                : e.getMessage();
+        }
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void putProperty(Map<String, Object> properties, String path, String value) {
+        int dot = path.indexOf('.');
+        if (dot < 0) {
+            properties.put(path, value);
+            return;
+        }
+        Object nested = properties.computeIfAbsent(path.substring(0, dot), key -> new LinkedHashMap<String, Object>());
+        if (nested instanceof Map) {
+            putProperty((Map<String, Object>) nested, path.substring(dot + 1), value);
+        }
+    }
+
+    /**
+     * Splits a CSV line in its values: they are separated by commas, and can be quoted with double quotes, a double
+     * quote inside a quoted value being written twice.
+     */
+    static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                values.add(wasQuoted ? value.toString() : value.toString().trim());
+                value.setLength(0);
+                wasQuoted = false;
+            } else if (!wasQuoted) {
+                value.append(c);
+            }
+        }
+        values.add(wasQuoted ? value.toString() : value.toString().trim());
+        return values;
+    }
+
+    private static final class ImportRow<D> {
+
+        final long number;
+        final String line;
+        D dto;
+        String error;
+
+        ImportRow(long number, String line) {
+            this.number = number;
+            this.line = line;
+        }
+    }
+}
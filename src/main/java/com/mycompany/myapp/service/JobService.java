@@ -1,7 +1,13 @@
 package com.mycompany.myapp.service;
 
+import com.mycompany.myapp.repository.Fieldset;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.JobDTO;
+import java.util.List;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -17,6 +23,14 @@ public interface JobService {
      */
     Mono<JobDTO> save(JobDTO jobDTO);
 
+    /**
+     * Save new jobs in a single transaction, with batched inserts.
+     *
+     * @param jobDTOs the entities to save.
+     * @return the persisted entities.
+     */
+    Flux<JobDTO> saveAll(List<JobDTO> jobDTOs);
+
     /**
      * Partially updates a job.
      *
@@ -25,6 +39,15 @@ public interface JobService {
      */
     Mono<JobDTO> partialUpdate(JobDTO jobDTO);
 
+    /**
+     * Partially updates the given jobs in a single transaction, with a batched update for the jobs whose given fields
+     * are the same.
+     *
+     * @param jobDTOs the entities to update partially, with distinct ids.
+     * @return the outcome of each update, in the same order.
+     */
+    Flux<BulkItemDTO<JobDTO>> partialUpdateAll(List<JobDTO> jobDTOs);
+
     /**
      * Get all the jobs.
      *
@@ -33,6 +56,41 @@ public interface JobService {
      */
     Flux<JobDTO> findAll(Pageable pageable);
 
+    /**
+     * Get a page of jobs and the total number of jobs, read with a single query.
+     *
+     * @param pageable the pagination information.
+     * @param fields the requested properties, or {@code null} for all of them.
+     * @return the page of entities.
+     */
+    Mono<Page<JobDTO>> findPage(Pageable pageable, Fieldset fields);
+
+    /**
+     * Get a page of jobs, without counting them.
+     *
+     * @param pageable the pagination information.
+     * @param fields the requested properties, or {@code null} for all of them.
+     * @return the slice of entities, which tells if there is a next page.
+     */
+    Mono<Slice<JobDTO>> findSlice(Pageable pageable, Fieldset fields);
+
+    /**
+     * Get a page of jobs after the given cursor, without an offset.
+     *
+     * @param pageable the pagination information, only its size and sort are used.
+     * @param after the position of the last entity of the previous page, or {@code null} for the first page.
+     * @param fields the requested properties, or {@code null} for all of them.
+     * @return the list of entities.
+     */
+    Flux<JobDTO> findAll(Pageable pageable, KeysetCursor after, Fieldset fields);
+
+    /**
+     * Get all the jobs as a stream, read from the database as they are consumed.
+     *
+     * @return the list of entities.
+     */
+    Flux<JobDTO> streamAll();
+
     /**
      * Returns the number of jobs available.
      * @return the number of entities in the database.
@@ -48,6 +106,14 @@ public interface JobService {
      */
     Mono<JobDTO> findOne(Long id);
 
+    /**
+     * Get the jobs with the given ids, with a select for a batch of ids.
+     *
+     * @param ids the distinct ids of the entities.
+     * @return the outcome of each read, in the order of the ids.
+     */
+    Flux<BulkItemDTO<JobDTO>> findAllById(List<Long> ids);
+
     /**
      * Delete the "id" job.
      *
@@ -55,4 +121,12 @@ public interface JobService {
      * @return a Mono to signal the deletion
      */
     Mono<Void> delete(Long id);
+
+    /**
+     * Delete the jobs with the given ids in a single transaction, with a delete for a batch of ids.
+     *
+     * @param ids the distinct ids of the entities.
+     * @return the outcome of each delete, in the order of the ids.
+     */
+    Flux<BulkItemDTO<JobDTO>> deleteAll(List<Long> ids);
 }
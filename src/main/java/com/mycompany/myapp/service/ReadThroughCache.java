@@ -0,0 +1,192 @@
+package com.mycompany.myapp.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import org.springframework.util.Assert;
+import reactor.core.publisher.Mono;
+
+/**
+ * A bounded in-memory cache of values loaded asynchronously, e.g. from the database, on their first read.
+ * <p>
+ * The concurrent reads of a missing key share a single load. An entry expires after its time to live, counted from the
+ * start of its load, and the least recently read entries are evicted beyond the maximum size. An invalidation drops the
+ * entries, and the loads in flight aren't kept, since they may have read the rows before the write. The empty values
+ * and the failed loads aren't cached.
+ * <p>
+ * The meters have the names used by Micrometer for the other caches, tagged with the name of the cache:
+ * {@code cache.gets{result="hit"|"miss"}}, {@code cache.evictions}, {@code cache.size}, and the {@code cache.load}
+ * timer, whose {@code result} is {@code success} or {@code failure}.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class ReadThroughCache<K, V> {
+
+    private final long ttlNanos;
+
+    private final Function<K, Mono<V>> loader;
+
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * Incremented by each invalidation, a load started before it isn't kept.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final Timer loadSuccesses;
+    private final Timer loadFailures;
+
+    /**
+     * @param name the name of the cache, which tags its meters.
+     * @param maximumSize the maximum number of entries.
+     * @param ttl how long an entry is kept.
+     * @param loader loads the value of a key, empty if there is none.
+     * @param meterRegistry the registry of the meters.
+     */
+    public ReadThroughCache(String name, int maximumSize, Duration ttl, Function<K, Mono<V>> loader, MeterRegistry meterRegistry) {
+        Assert.isTrue(maximumSize > 0, "The maximum size of the " + name + " cache must be positive");
+        this.ttlNanos = ttl.toNanos();
+        this.loader = loader;
+        this.entries =
+            Collections.synchronizedMap(
+                new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                        if (size() > maximumSize) {
+                            evictions.increment();
+                            return true;
+                        }
+                        return false;
+                    }
+                }
+            );
+
+        Tags tags = Tags.of("cache", name);
+        FunctionCounter
+            .builder("cache.gets", hits, LongAdder::doubleValue)
+            .tags(tags)
+            .tag("result", "hit")
+            .description("The number of times a value was read from the cache")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("cache.gets", misses, LongAdder::doubleValue)
+            .tags(tags)
+            .tag("result", "miss")
+            .description("The number of times a value had to be loaded")
+            .register(meterRegistry);
+        FunctionCounter
+            .builder("cache.evictions", evictions, LongAdder::doubleValue)
+            .tags(tags)
+            .description("The number of entries evicted because the cache was full")
+            .register(meterRegistry);
+        Gauge.builder("cache.size", entries, Map::size).tags(tags).description("The number of cached entries").register(meterRegistry);
+        loadSuccesses =
+            Timer
+                .builder("cache.load")
+                .tags(tags)
+                .tag("result", "success")
+                .description("The time taken to load a value")
+                .register(meterRegistry);
+        loadFailures =
+            Timer
+                .builder("cache.load")
+                .tags(tags)
+                .tag("result", "failure")
+                .description("The time taken by a failed load")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads the value of a key, from the cache or else from the loader.
+     * @param key the key.
+     * @return the value, empty if there is none.
+     */
+    public Mono<V> get(K key) {
+        return Mono.defer(
+            () -> {
+                long now = System.nanoTime();
+                Entry<V> entry;
+                synchronized (entries) {
+                    entry = entries.get(key);
+                    if (entry == null || now - entry.loadStartedAt >= ttlNanos) {
+                        misses.increment();
+                        entry = new Entry<>(now);
+                        entry.value = load(key, entry);
+                        entries.put(key, entry);
+                    } else {
+                        hits.increment();
+                    }
+                }
+                return entry.value;
+            }
+        );
+    }
+
+    /**
+     * Drops the entry of a key, to be called once a write of its value is committed.
+     * @param key the key.
+     */
+    public void invalidate(K key) {
+        generation.incrementAndGet();
+        entries.remove(key);
+    }
+
+    /**
+     * Drops all the entries.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    private Mono<V> load(K key, Entry<V> entry) {
+        long loadGeneration = generation.get();
+        return Mono
+            .defer(
+                () -> {
+                    Timer.Sample sample = Timer.start();
+                    return loader
+                        .apply(key)
+                        .doOnSuccess(
+                            value -> {
+                                sample.stop(loadSuccesses);
+                                if (value == null || generation.get() != loadGeneration) {
+                                    entries.remove(key, entry);
+                                }
+                            }
+                        )
+                        .doOnError(
+                            e -> {
+                                sample.stop(loadFailures);
+                                entries.remove(key, entry);
+                            }
+                        );
+                }
+            )
+            .cache();
+    }
+
+    private static final class Entry<V> {
+
+        final long loadStartedAt;
+        Mono<V> value;
+
+        Entry(long loadStartedAt) {
+            this.loadStartedAt = loadStartedAt;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.mycompany.myapp.service;
+
+import java.util.Arrays;
+
+/**
+ * A mergeable quantile sketch of salaries, with a relative error of at most {@link #RELATIVE_ACCURACY}.
+ * <p>
+ * The salaries are counted in logarithmic buckets: bucket {@code i} holds the values between {@code gamma^(i-1)} and
+ * {@code gamma^i}, and any of them is estimated by the same value, within 1% of each. Unlike a t-digest, a bucket count
+ * can be decremented, so a salary can be removed as well as added, and two sketches are merged by adding their counts.
+ * A few hundred buckets cover every salary from 1 to a billion, the count and the sum are exact.
+ */
+public final class SalarySketch {
+
+    static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+
+    /**
+     * The number of salaries lower than 1, estimated as 0.
+     */
+    private long zeroCount;
+
+    /**
+     * The count of the bucket {@code offset + i} is {@code counts[i]}, the array grows as new buckets are used.
+     */
+    private long[] counts = new long[0];
+
+    private int offset;
+
+    private long count;
+
+    private long sum;
+
+    public SalarySketch() {}
+
+    private SalarySketch(SalarySketch other) {
+        this.zeroCount = other.zeroCount;
+        this.counts = other.counts.clone();
+        this.offset = other.offset;
+        this.count = other.count;
+        this.sum = other.sum;
+    }
+
+    public SalarySketch copy() {
+        return new SalarySketch(this);
+    }
+
+    public void add(long salary) {
+        update(salary, 1);
+    }
+
+    /**
+     * Removes a salary which was added before.
+     * @param salary the removed salary.
+     */
+    public void remove(long salary) {
+        update(salary, -1);
+    }
+
+    /**
+     * Adds the salaries of another sketch to this one.
+     * @param other the merged sketch.
+     */
+    public void merge(SalarySketch other) {
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                int index = ensureBucket(other.offset + i);
+                counts[index] += other.counts[i];
+            }
+        }
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+    }
+
+    private void update(long salary, int delta) {
+        if (salary < 1) {
+            zeroCount += delta;
+        } else {
+            int index = ensureBucket(bucket(salary));
+            counts[index] += delta;
+        }
+        count += delta;
+        sum += delta * salary;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count > 0 ? (double) sum / count : 0;
+    }
+
+    /**
+     * @param quantile the quantile, between 0 and 1.
+     * @return the estimated salary at that quantile, or 0 when the sketch is empty.
+     */
+    public long quantile(double quantile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) (quantile * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return bucketValue(offset + i);
+            }
+        }
+        return bucketValue(offset + counts.length - 1);
+    }
+
+    public long getMin() {
+        return quantile(0);
+    }
+
+    public long getMax() {
+        return quantile(1);
+    }
+
+    /**
+     * Splits the salaries in intervals of the same width, from the minimum to the maximum.
+     * @param bins the number of intervals.
+     * @return the estimated number of salaries in each interval.
+     */
+    public long[] histogram(int bins) {
+        long[] histogram = new long[bins];
+        if (count == 0) {
+            return histogram;
+        }
+        long min = getMin();
+        double width = histogramWidth(bins);
+        histogram[0] += zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                int bin = (int) ((bucketValue(offset + i) - min) / width);
+                histogram[Math.max(0, Math.min(bins - 1, bin))] += counts[i];
+            }
+        }
+        return histogram;
+    }
+
+    /**
+     * @return the width of the intervals of {@link #histogram(int)}.
+     */
+    public double histogramWidth(int bins) {
+        return Math.max(1, (double) (getMax() - getMin()) / bins);
+    }
+
+    /**
+     * @return the size of the bucket counts, in bytes.
+     */
+    long estimateMemory() {
+        return 8L * counts.length;
+    }
+
+    private int ensureBucket(int bucket) {
+        if (counts.length == 0) {
+            counts = new long[1];
+            offset = bucket;
+        } else if (bucket < offset) {
+            long[] grown = new long[counts.length + offset - bucket];
+            System.arraycopy(counts, 0, grown, offset - bucket, counts.length);
+            counts = grown;
+            offset = bucket;
+        } else if (bucket >= offset + counts.length) {
+            counts = Arrays.copyOf(counts, bucket - offset + 1);
+        }
+        return bucket - offset;
+    }
+
+    static int bucket(long salary) {
+        return (int) Math.ceil(Math.log(salary) / LOG_GAMMA);
+    }
+
+    /**
+     * @return the estimate of the salaries of a bucket, at the same relative distance of its bounds.
+     */
+    static long bucketValue(int bucket) {
+        return Math.round(2 * Math.pow(GAMMA, bucket) / (GAMMA + 1));
+    }
+}
@@ -0,0 +1,315 @@
+package com.mycompany.myapp.service;
+
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.service.dto.SalaryHistogramBucketDTO;
+import com.mycompany.myapp.service.dto.SalaryStatsDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory statistics of the employee salaries: a {@link SalarySketch} per department, merged for all the salaries.
+ * <p>
+ * The sketches are built from the table when the application is ready, and kept up to date by the writes of
+ * {@link com.mycompany.myapp.service.impl.EmployeeServiceImpl}, which reads the previous row of each written employee: an
+ * update removes the previous salary before adding the new one. Nothing is kept per employee, the sketches take a few KB
+ * whatever the size of the table, and since adding and removing commute, the writes can be applied in any order. Only a
+ * rebuild keeps the salary of each streamed employee, until the writes made meanwhile are reconciled. Until the sketches
+ * are built, there are no statistics, rather than a scan of the table on each request.
+ */
+@Service
+public class SalaryStatistics {
+
+    static final String METRIC_PREFIX = "employee.salary.statistics";
+
+    private final Logger log = LoggerFactory.getLogger(SalaryStatistics.class);
+
+    private final EmployeeRepository employeeRepository;
+
+    private final Timer rebuildTimer;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    private Sketches sketches = new Sketches();
+
+    /**
+     * The current salary of the employees written while a rebuild reads the table, {@code null} for the deleted ones,
+     * replayed on the new sketches; {@code null} when not rebuilding.
+     */
+    @Nullable
+    private Map<Long, Salary> pendingWrites;
+
+    private volatile boolean ready;
+
+    public SalaryStatistics(EmployeeRepository employeeRepository, MeterRegistry meterRegistry) {
+        this.employeeRepository = employeeRepository;
+        this.rebuildTimer =
+            Timer
+                .builder(METRIC_PREFIX + ".rebuild")
+                .description("The time taken to build the salary sketches from the table")
+                .register(meterRegistry);
+        Gauge
+            .builder(METRIC_PREFIX + ".memory", this, statistics -> statistics.read(Sketches::estimateMemory))
+            .description("The estimated memory used by the salary sketches")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild().subscribe(null, e -> log.error("Could not build the salary statistics", e));
+    }
+
+    /**
+     * @return whether the sketches were built.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Builds new sketches from the employee table, and replaces the current ones once done. The writes made meanwhile are
+     * applied to both: the salary streamed for each written employee is replaced by its current one.
+     * @return a Mono completing once the new sketches are in use.
+     */
+    public Mono<Void> rebuild() {
+        return Mono.defer(
+            () -> {
+                long generation = rebuilds.incrementAndGet();
+                long start = System.nanoTime();
+                Map<Long, Salary> writes = new HashMap<>();
+                write(() -> pendingWrites = writes);
+                Sketches rebuilt = new Sketches();
+                Map<Long, Salary> streamed = new HashMap<>();
+                return employeeRepository
+                    .streamAll()
+                    .doOnNext(
+                        employee -> {
+                            Salary salary = Salary.of(employee);
+                            if (salary != null) {
+                                streamed.put(employee.getId(), salary);
+                                rebuilt.add(salary);
+                            }
+                        }
+                    )
+                    .then(
+                        Mono.fromRunnable(
+                            () ->
+                                write(
+                                    () -> {
+                                        if (generation == rebuilds.get()) {
+                                            writes.forEach(
+                                                (id, salary) -> {
+                                                    rebuilt.remove(streamed.get(id));
+                                                    rebuilt.add(salary);
+                                                }
+                                            );
+                                            sketches = rebuilt;
+                                            pendingWrites = null;
+                                            ready = true;
+                                        }
+                                    }
+                                )
+                        )
+                    )
+                    .doOnError(
+                        e ->
+                            write(
+                                () -> {
+                                    if (generation == rebuilds.get()) {
+                                        pendingWrites = null;
+                                    }
+                                }
+                            )
+                    )
+                    .doOnSuccess(
+                        done -> {
+                            long duration = System.nanoTime() - start;
+                            rebuildTimer.record(duration, TimeUnit.NANOSECONDS);
+                            log.info("Built the salary statistics in {} ms", TimeUnit.NANOSECONDS.toMillis(duration));
+                        }
+                    )
+                    .then();
+            }
+        );
+    }
+
+    /**
+     * Adds or replaces the salary of an employee.
+     * @param previous the employee before the write, or null if it was created.
+     * @param employee the saved employee.
+     */
+    public void index(@Nullable Employee previous, Employee employee) {
+        if (employee.getId() != null) {
+            applyWrite(employee.getId(), Salary.of(previous), Salary.of(employee));
+        }
+    }
+
+    /**
+     * Removes the salary of an employee.
+     * @param previous the deleted employee, or null if there was none.
+     */
+    public void remove(@Nullable Employee previous) {
+        if (previous != null && previous.getId() != null) {
+            applyWrite(previous.getId(), Salary.of(previous), null);
+        }
+    }
+
+    /**
+     * Computes the distribution of the salaries.
+     * @param departmentId the department of the employees, or null for all the employees.
+     * @param percentiles the percentiles to estimate, between 0 and 100.
+     * @param bins the number of intervals of the histogram.
+     * @return the statistics, or empty if the sketches aren't built yet.
+     */
+    public Mono<SalaryStatsDTO> getStatistics(@Nullable Long departmentId, List<Double> percentiles, int bins) {
+        return Mono.fromSupplier(
+            () -> ready ? toStatistics(departmentId, read(sketches -> sketches.copy(departmentId)), percentiles, bins) : null
+        );
+    }
+
+    private static SalaryStatsDTO toStatistics(@Nullable Long departmentId, SalarySketch sketch, List<Double> percentiles, int bins) {
+        SalaryStatsDTO statistics = new SalaryStatsDTO();
+        statistics.setDepartmentId(departmentId);
+        statistics.setCount(sketch.getCount());
+        statistics.setMean(sketch.getMean());
+        statistics.setMin(sketch.getMin());
+        statistics.setMax(sketch.getMax());
+        for (Double percentile : percentiles) {
+            String key = "p" + BigDecimal.valueOf(percentile).stripTrailingZeros().toPlainString();
+            statistics.getPercentiles().put(key, sketch.quantile(percentile / 100));
+        }
+        if (sketch.getCount() > 0) {
+            long[] histogram = sketch.histogram(bins);
+            double width = sketch.histogramWidth(bins);
+            for (int i = 0; i < histogram.length; i++) {
+                long lower = sketch.getMin() + Math.round(i * width);
+                long upper = i == histogram.length - 1 ? sketch.getMax() : sketch.getMin() + Math.round((i + 1) * width);
+                statistics.getHistogram().add(new SalaryHistogramBucketDTO(lower, upper, histogram[i]));
+            }
+        }
+        return statistics;
+    }
+
+    private void applyWrite(Long id, @Nullable Salary previous, @Nullable Salary current) {
+        write(
+            () -> {
+                sketches.remove(previous);
+                sketches.add(current);
+                if (pendingWrites != null) {
+                    pendingWrites.put(id, current);
+                }
+            }
+        );
+    }
+
+    private void write(Runnable write) {
+        lock.writeLock().lock();
+        try {
+            write.run();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private <T> T read(Function<Sketches, T> read) {
+        lock.readLock().lock();
+        try {
+            return read.apply(sketches);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The sketch of the employees without a department and the sketch of each department, only accessed under the lock of
+     * the enclosing statistics.
+     */
+    static final class Sketches {
+
+        private final SalarySketch withoutDepartment = new SalarySketch();
+        private final Map<Long, SalarySketch> departments = new HashMap<>();
+
+        void add(@Nullable Salary salary) {
+            if (salary == null) {
+                return;
+            }
+            if (salary.departmentId != null) {
+                departments.computeIfAbsent(salary.departmentId, key -> new SalarySketch()).add(salary.value);
+            } else {
+                withoutDepartment.add(salary.value);
+            }
+        }
+
+        void remove(@Nullable Salary salary) {
+            if (salary == null) {
+                return;
+            }
+            if (salary.departmentId != null) {
+                SalarySketch department = departments.computeIfAbsent(salary.departmentId, key -> new SalarySketch());
+                department.remove(salary.value);
+                if (department.getCount() == 0) {
+                    departments.remove(salary.departmentId);
+                }
+            } else {
+                withoutDepartment.remove(salary.value);
+            }
+        }
+
+        /**
+         * @return a copy of the sketch of a department, or the sketches of all the departments merged when null.
+         */
+        SalarySketch copy(@Nullable Long departmentId) {
+            if (departmentId != null) {
+                SalarySketch department = departments.get(departmentId);
+                return department != null ? department.copy() : new SalarySketch();
+            }
+            SalarySketch all = withoutDepartment.copy();
+            departments.values().forEach(all::merge);
+            return all;
+        }
+
+        long estimateMemory() {
+            long bytes = withoutDepartment.estimateMemory();
+            for (SalarySketch department : departments.values()) {
+                bytes += 64 + department.estimateMemory();
+            }
+            return bytes;
+        }
+    }
+
+    private static final class Salary {
+
+        final Long departmentId;
+        final long value;
+
+        private Salary(Long departmentId, long value) {
+            this.departmentId = departmentId;
+            this.value = value;
+        }
+
+        @Nullable
+        static Salary of(@Nullable Employee employee) {
+            return employee != null && employee.getSalary() != null ? new Salary(employee.getDepartmentId(), employee.getSalary()) : null;
+        }
+    }
+}
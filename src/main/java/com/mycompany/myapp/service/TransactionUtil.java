@@ -0,0 +1,60 @@
+package com.mycompany.myapp.service;
+
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.reactive.TransactionSynchronization;
+import org.springframework.transaction.reactive.TransactionSynchronizationManager;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for the callbacks of the reactive transactions.
+ */
+public final class TransactionUtil {
+
+    private TransactionUtil() {}
+
+    /**
+     * Runs a callback after the completion of the current transaction, committed or rolled back, or right away without
+     * a transaction. An invalidation of what a write changes has to wait for the commit, otherwise a concurrent read
+     * could still see the rows as they were before the write, and cache them again.
+     * @param callback the callback.
+     * @return completes once the callback is registered, or has run.
+     */
+    public static Mono<Void> afterCompletion(Runnable callback) {
+        return register(Mono.fromRunnable(callback), false);
+    }
+
+    /**
+     * Subscribes to a callback after the commit of the current transaction, or right away without a transaction. Unlike
+     * {@link #afterCompletion(Runnable)}, nothing is done when the transaction rolls back: this is for the updates of
+     * what mirrors the committed rows, which must neither see a write before the other transactions can, nor keep it
+     * once rolled back.
+     * @param callback the callback, the transaction completes once it does.
+     * @return completes once the callback is registered, or has completed.
+     */
+    public static Mono<Void> afterCommit(Mono<Void> callback) {
+        return register(callback, true);
+    }
+
+    private static Mono<Void> register(Mono<Void> callback, boolean onCommitOnly) {
+        return TransactionSynchronizationManager
+            .forCurrentTransaction()
+            .map(
+                synchronizationManager -> {
+                    if (!synchronizationManager.isSynchronizationActive()) {
+                        return false;
+                    }
+                    synchronizationManager.registerSynchronization(
+                        new TransactionSynchronization() {
+                            @Override
+                            public Mono<Void> afterCompletion(int status) {
+                                return onCommitOnly && status != STATUS_COMMITTED ? Mono.empty() : callback;
+                            }
+                        }
+                    );
+                    return true;
+                }
+            )
+            .onErrorReturn(NoTransactionException.class, false)
+            .flatMap(registered -> registered ? Mono.<Void>empty() : callback);
+    }
+}
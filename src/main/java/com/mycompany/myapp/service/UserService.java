@@ -285,10 +285,9 @@ public class UserService {
                         .save(user)
                         .flatMap(
                             savedUser ->
-                                Flux
-                                    .fromIterable(user.getAuthorities())
-                                    .flatMap(authority -> userRepository.saveUserAuthority(savedUser.getId(), authority.getName()))
-                                    .then(Mono.just(savedUser))
+                                userRepository
+                                    .saveUserAuthorities(savedUser.getId(), user.getAuthorities().stream().map(Authority::getName))
+                                    .thenReturn(savedUser)
                         );
                 }
             );
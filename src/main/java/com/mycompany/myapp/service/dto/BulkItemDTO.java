@@ -0,0 +1,102 @@
+package com.mycompany.myapp.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+
+/**
+ * The outcome of a bulk read, update or delete for one of the requested ids.
+ *
+ * @param <T> the type of the entity.
+ */
+public class BulkItemDTO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Result {
+        FOUND,
+        UPDATED,
+        DELETED,
+        NOT_FOUND,
+        /**
+         * The entity was updated since the version of the update was read, the entity is the current one.
+         */
+        VERSION_CONFLICT,
+    }
+
+    private Long id;
+
+    private Result result;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private T entity;
+
+    public BulkItemDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BulkItemDTO(Long id, Result result, T entity) {
+        this.id = id;
+        this.result = result;
+        this.entity = entity;
+    }
+
+    /**
+     * @return the outcome of a read: {@link Result#FOUND} with the entity, or {@link Result#NOT_FOUND} if it's null.
+     */
+    public static <T> BulkItemDTO<T> found(Long id, T entity) {
+        return new BulkItemDTO<>(id, entity != null ? Result.FOUND : Result.NOT_FOUND, entity);
+    }
+
+    /**
+     * @param entity the entity read after the update, null if it doesn't exist.
+     * @param applied whether the update applied, i.e. whether it had the current version.
+     * @return the outcome of an update.
+     */
+    public static <T> BulkItemDTO<T> updated(Long id, T entity, boolean applied) {
+        if (entity == null) {
+            return new BulkItemDTO<>(id, Result.NOT_FOUND, null);
+        }
+        return new BulkItemDTO<>(id, applied ? Result.UPDATED : Result.VERSION_CONFLICT, entity);
+    }
+
+    /**
+     * @return the outcome of a delete: {@link Result#DELETED}, or {@link Result#NOT_FOUND}.
+     */
+    public static <T> BulkItemDTO<T> deleted(Long id, boolean deleted) {
+        return new BulkItemDTO<>(id, deleted ? Result.DELETED : Result.NOT_FOUND, null);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Result getResult() {
+        return result;
+    }
+
+    public void setResult(Result result) {
+        this.result = result;
+    }
+
+    public T getEntity() {
+        return entity;
+    }
+
+    public void setEntity(T entity) {
+        this.entity = entity;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkItemDTO{" +
+            "id=" + getId() +
+            ", result=" + getResult() +
+            ", entity=" + getEntity() +
+            "}";
+    }
+}
@@ -1,7 +1,9 @@
 package com.mycompany.myapp.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import io.swagger.annotations.ApiModelProperty;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 import javax.validation.constraints.*;
 
@@ -15,6 +17,17 @@ public class DepartmentDTO implements Serializable {
     @NotNull(message = "must not be null")
     private String departmentName;
 
+    /**
+     * The employees of the department, only loaded on request: {@code null} when not loaded.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<EmployeeDTO> employees;
+
+    /**
+     * The version of the entity, incremented by every update; an update only applies to the version it was read from.
+     */
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -31,6 +44,22 @@ public class DepartmentDTO implements Serializable {
         this.departmentName = departmentName;
     }
 
+    public List<EmployeeDTO> getEmployees() {
+        return employees;
+    }
+
+    public void setEmployees(List<EmployeeDTO> employees) {
+        this.employees = employees;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -57,6 +86,7 @@ public class DepartmentDTO implements Serializable {
     public String toString() {
         return "DepartmentDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", departmentName='" + getDepartmentName() + "'" +
             "}";
     }
@@ -1,14 +1,19 @@
 package com.mycompany.myapp.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mycompany.myapp.repository.Fieldset;
 import io.swagger.annotations.ApiModel;
 import io.swagger.annotations.ApiModelProperty;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Objects;
 
 /**
  * A DTO for the {@link com.mycompany.myapp.domain.Employee} entity.
  */
 @ApiModel(description = "The Employee entity.")
+@JsonFilter(Fieldset.FILTER)
 public class EmployeeDTO implements Serializable {
 
     private Long id;
@@ -29,6 +34,17 @@ public class EmployeeDTO implements Serializable {
 
     private DepartmentDTO department;
 
+    /**
+     * The jobs of the employee, only loaded on request: {@code null} when not loaded.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<JobDTO> jobs;
+
+    /**
+     * The version of the entity, incremented by every update; an update only applies to the version it was read from.
+     */
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -85,6 +101,22 @@ public class EmployeeDTO implements Serializable {
         this.department = department;
     }
 
+    public List<JobDTO> getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(List<JobDTO> jobs) {
+        this.jobs = jobs;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -111,6 +143,7 @@ public class EmployeeDTO implements Serializable {
     public String toString() {
         return "EmployeeDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", firstName='" + getFirstName() + "'" +
             ", lastName='" + getLastName() + "'" +
             ", email='" + getEmail() + "'" +
@@ -0,0 +1,73 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * An employee suggested for a typed prefix, with the fields shown by the type-ahead.
+ */
+public class EmployeeSuggestionDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String email;
+
+    public EmployeeSuggestionDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public EmployeeSuggestionDTO(Long id, String firstName, String lastName, String email) {
+        this.id = id;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.email = email;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public void setFirstName(String firstName) {
+        this.firstName = firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public void setLastName(String lastName) {
+        this.lastName = lastName;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "EmployeeSuggestionDTO{" +
+            "id=" + getId() +
+            ", firstName='" + getFirstName() + "'" +
+            ", lastName='" + getLastName() + "'" +
+            ", email='" + getEmail() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,97 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The progress of an import: the outcome of one chunk of rows, and the running totals.
+ */
+public class ImportChunkDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long chunk;
+
+    private long firstLine;
+
+    private long lastLine;
+
+    private long imported;
+
+    private List<ImportRejectDTO> rejects = new ArrayList<>();
+
+    private long totalImported;
+
+    private long totalRejected;
+
+    public long getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(long chunk) {
+        this.chunk = chunk;
+    }
+
+    public long getFirstLine() {
+        return firstLine;
+    }
+
+    public void setFirstLine(long firstLine) {
+        this.firstLine = firstLine;
+    }
+
+    public long getLastLine() {
+        return lastLine;
+    }
+
+    public void setLastLine(long lastLine) {
+        this.lastLine = lastLine;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public List<ImportRejectDTO> getRejects() {
+        return rejects;
+    }
+
+    public void setRejects(List<ImportRejectDTO> rejects) {
+        this.rejects = rejects;
+    }
+
+    public long getTotalImported() {
+        return totalImported;
+    }
+
+    public void setTotalImported(long totalImported) {
+        this.totalImported = totalImported;
+    }
+
+    public long getTotalRejected() {
+        return totalRejected;
+    }
+
+    public void setTotalRejected(long totalRejected) {
+        this.totalRejected = totalRejected;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportChunkDTO{" +
+            "chunk=" + getChunk() +
+            ", firstLine=" + getFirstLine() +
+            ", lastLine=" + getLastLine() +
+            ", imported=" + getImported() +
+            ", rejects=" + getRejects() +
+            ", totalImported=" + getTotalImported() +
+            ", totalRejected=" + getTotalRejected() +
+            "}";
+    }
+}
@@ -0,0 +1,49 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * A row of an import which wasn't saved, with the reason.
+ */
+public class ImportRejectDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long line;
+
+    private String message;
+
+    public ImportRejectDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public ImportRejectDTO(long line, String message) {
+        this.line = line;
+        this.message = message;
+    }
+
+    public long getLine() {
+        return line;
+    }
+
+    public void setLine(long line) {
+        this.line = line;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "ImportRejectDTO{" +
+            "line=" + getLine() +
+            ", message='" + getMessage() + "'" +
+            "}";
+    }
+}
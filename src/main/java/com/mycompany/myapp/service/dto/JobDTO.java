@@ -1,11 +1,14 @@
 package com.mycompany.myapp.service.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.mycompany.myapp.repository.Fieldset;
 import java.io.Serializable;
 import java.util.Objects;
 
 /**
  * A DTO for the {@link com.mycompany.myapp.domain.Job} entity.
  */
+@JsonFilter(Fieldset.FILTER)
 public class JobDTO implements Serializable {
 
     private Long id;
@@ -18,6 +21,11 @@ public class JobDTO implements Serializable {
 
     private EmployeeDTO employee;
 
+    /**
+     * The version of the entity, incremented by every update; an update only applies to the version it was read from.
+     */
+    private Long version;
+
     public Long getId() {
         return id;
     }
@@ -58,6 +66,14 @@ public class JobDTO implements Serializable {
         this.employee = employee;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -84,6 +100,7 @@ public class JobDTO implements Serializable {
     public String toString() {
         return "JobDTO{" +
             "id=" + getId() +
+            ", version=" + getVersion() +
             ", jobTitle='" + getJobTitle() + "'" +
             ", jobDescription='" + getJobDescription() + "'" +
             ", jobHours=" + getJobHours() +
@@ -0,0 +1,61 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+
+/**
+ * An interval of the salary histogram, and the estimated number of salaries in it.
+ */
+public class SalaryHistogramBucketDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private long lower;
+
+    private long upper;
+
+    private long count;
+
+    public SalaryHistogramBucketDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SalaryHistogramBucketDTO(long lower, long upper, long count) {
+        this.lower = lower;
+        this.upper = upper;
+        this.count = count;
+    }
+
+    public long getLower() {
+        return lower;
+    }
+
+    public void setLower(long lower) {
+        this.lower = lower;
+    }
+
+    public long getUpper() {
+        return upper;
+    }
+
+    public void setUpper(long upper) {
+        this.upper = upper;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SalaryHistogramBucketDTO{" +
+            "lower=" + getLower() +
+            ", upper=" + getUpper() +
+            ", count=" + getCount() +
+            "}";
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.myapp.service.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The distribution of the salaries of all the employees, or of the employees of a department. The count and the mean are
+ * exact, the other values are estimated within 1%.
+ */
+public class SalaryStatsDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long departmentId;
+
+    private long count;
+
+    private double mean;
+
+    private long min;
+
+    private long max;
+
+    private Map<String, Long> percentiles = new LinkedHashMap<>();
+
+    private List<SalaryHistogramBucketDTO> histogram = new ArrayList<>();
+
+    public Long getDepartmentId() {
+        return departmentId;
+    }
+
+    public void setDepartmentId(Long departmentId) {
+        this.departmentId = departmentId;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public void setMin(long min) {
+        this.min = min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void setMax(long max) {
+        this.max = max;
+    }
+
+    public Map<String, Long> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(Map<String, Long> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public List<SalaryHistogramBucketDTO> getHistogram() {
+        return histogram;
+    }
+
+    public void setHistogram(List<SalaryHistogramBucketDTO> histogram) {
+        this.histogram = histogram;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SalaryStatsDTO{" +
+            "departmentId=" + getDepartmentId() +
+            ", count=" + getCount() +
+            ", mean=" + getMean() +
+            ", min=" + getMin() +
+            ", max=" + getMax() +
+            ", percentiles=" + getPercentiles() +
+            "}";
+    }
+}
@@ -1,71 +1,202 @@
 package com.mycompany.myapp.service.impl;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.repository.DepartmentRepository;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.ChangeCounters;
 import com.mycompany.myapp.service.DepartmentService;
+import com.mycompany.myapp.service.ReadThroughCache;
+import com.mycompany.myapp.service.TransactionUtil;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.DepartmentDTO;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
 import com.mycompany.myapp.service.mapper.DepartmentMapper;
+import com.mycompany.myapp.service.mapper.EmployeeMapper;
+import com.mycompany.myapp.service.mapper.JobMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
  * Service Implementation for managing {@link Department}.
+ * <p>
+ * The departments are read far more often than written, e.g. by the employee forms, so a department and the list of
+ * all the departments are cached. The writes through this service invalidate them once their transaction completes.
  */
 @Service
 @Transactional
 public class DepartmentServiceImpl implements DepartmentService {
 
+    public static final String BY_ID_CACHE_NAME = "departments";
+
+    public static final String ALL_CACHE_NAME = "departments.all";
+
+    private static final Boolean ALL = Boolean.TRUE;
+
     private final Logger log = LoggerFactory.getLogger(DepartmentServiceImpl.class);
 
     private final DepartmentRepository departmentRepository;
 
     private final DepartmentMapper departmentMapper;
 
-    public DepartmentServiceImpl(DepartmentRepository departmentRepository, DepartmentMapper departmentMapper) {
+    private final EmployeeRepository employeeRepository;
+
+    private final EmployeeMapper employeeMapper;
+
+    private final JobMapper jobMapper;
+
+    private final ChangeCounters changeCounters;
+
+    /**
+     * The departments by id. The entities are cached rather than the DTOs, which are mutable.
+     */
+    private final ReadThroughCache<Long, Department> departmentsById;
+
+    /**
+     * The immutable list of all the departments, under the single key {@link #ALL}.
+     */
+    private final ReadThroughCache<Boolean, List<Department>> allDepartments;
+
+    public DepartmentServiceImpl(
+        DepartmentRepository departmentRepository,
+        DepartmentMapper departmentMapper,
+        EmployeeRepository employeeRepository,
+        EmployeeMapper employeeMapper,
+        JobMapper jobMapper,
+        ChangeCounters changeCounters,
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
         this.departmentRepository = departmentRepository;
         this.departmentMapper = departmentMapper;
+        this.employeeRepository = employeeRepository;
+        this.employeeMapper = employeeMapper;
+        this.jobMapper = jobMapper;
+        this.changeCounters = changeCounters;
+        ApplicationProperties.Database database = applicationProperties.getDatabase();
+        this.departmentsById =
+            new ReadThroughCache<>(
+                BY_ID_CACHE_NAME,
+                database.getDepartmentCacheSize(),
+                database.getDepartmentCacheTtl(),
+                departmentRepository::findById,
+                meterRegistry
+            );
+        this.allDepartments =
+            new ReadThroughCache<>(
+                ALL_CACHE_NAME,
+                1,
+                database.getDepartmentCacheTtl(),
+                all -> departmentRepository.findAll().collectList().map(List::copyOf),
+                meterRegistry
+            );
     }
 
     @Override
     public Mono<DepartmentDTO> save(DepartmentDTO departmentDTO) {
         log.debug("Request to save Department : {}", departmentDTO);
-        return departmentRepository.save(departmentMapper.toEntity(departmentDTO)).map(departmentMapper::toDto);
+        return invalidateAfterCompletion(departmentDTO.getId())
+            .then(departmentRepository.save(departmentMapper.toEntity(departmentDTO)))
+            .map(departmentMapper::toDto);
     }
 
     @Override
     public Mono<DepartmentDTO> partialUpdate(DepartmentDTO departmentDTO) {
         log.debug("Request to partially update Department : {}", departmentDTO);
 
-        return departmentRepository
-            .findById(departmentDTO.getId())
-            .map(
-                existingDepartment -> {
-                    departmentMapper.partialUpdate(existingDepartment, departmentDTO);
+        Department patch = new Department();
+        departmentMapper.partialUpdate(patch, departmentDTO);
+        return invalidateAfterCompletion(patch.getId()).then(departmentRepository.updateNonNull(patch)).map(departmentMapper::toDto);
+    }
 
-                    return existingDepartment;
-                }
-            )
-            .flatMap(departmentRepository::save)
-            .map(departmentMapper::toDto);
+    @Override
+    public Flux<BulkItemDTO<DepartmentDTO>> partialUpdateAll(List<DepartmentDTO> departmentDTOs) {
+        log.debug("Request to partially update {} Departments", departmentDTOs.size());
+        List<Department> patches = new ArrayList<>(departmentDTOs.size());
+        for (DepartmentDTO departmentDTO : departmentDTOs) {
+            Department patch = new Department();
+            departmentMapper.partialUpdate(patch, departmentDTO);
+            patches.add(patch);
+        }
+        List<Long> ids = patches.stream().map(Department::getId).collect(Collectors.toList());
+        return invalidateAllAfterCompletion()
+            .then(departmentRepository.updateAllNonNull(patches))
+            .flatMapMany(
+                rowsUpdated ->
+                    departmentRepository
+                        .findAllById(ids)
+                        .collectMap(Department::getId, departmentMapper::toDto)
+                        .flatMapIterable(
+                            departments -> {
+                                List<BulkItemDTO<DepartmentDTO>> items = new ArrayList<>(patches.size());
+                                for (int i = 0; i < patches.size(); i++) {
+                                    // Without a version, the update applies to any existing row
+                                    boolean applied = rowsUpdated.get(i) > 0 || patches.get(i).getVersion() == null;
+                                    items.add(BulkItemDTO.updated(ids.get(i), departments.get(ids.get(i)), applied));
+                                }
+                                return items;
+                            }
+                        )
+            );
     }
 
     @Override
     @Transactional(readOnly = true)
     public Flux<DepartmentDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Departments");
-        return departmentRepository.findAllBy(pageable).map(departmentMapper::toDto);
+        return departmentRepository.findAllDtoBy(pageable, null);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Flux<DepartmentDTO> findAllAll() {
         log.debug("Request to get all Departments");
-        return departmentRepository.findAll().map(departmentMapper::toDto);
+        return allDepartments.get(ALL).flatMapIterable(departments -> departments).map(departmentMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Page<DepartmentDTO>> findPage(Pageable pageable) {
+        log.debug("Request to get a page of Departments");
+        return departmentRepository.findDtoPage(pageable, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<DepartmentDTO>> findSlice(Pageable pageable) {
+        log.debug("Request to get a slice of Departments");
+        return departmentRepository.findDtoSlice(pageable, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<DepartmentDTO> findAll(Pageable pageable, KeysetCursor after) {
+        log.debug("Request to get all Departments after : {}", after);
+        return departmentRepository.findAllDtoAfter(pageable, after);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<DepartmentDTO> streamAll() {
+        log.debug("Request to stream all Departments");
+        return departmentRepository.streamAllDto();
     }
 
     public Mono<Long> countAll() {
@@ -73,15 +204,108 @@ public class DepartmentServiceImpl implements DepartmentService {
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Mono<DepartmentDTO> findOne(Long id) {
         log.debug("Request to get Department : {}", id);
-        return departmentRepository.findById(id).map(departmentMapper::toDto);
+        return departmentsById.get(id).map(departmentMapper::toDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<BulkItemDTO<DepartmentDTO>> findAllById(List<Long> ids) {
+        log.debug("Request to get {} Departments by id", ids.size());
+        return departmentRepository
+            .findAllById(ids)
+            .collectMap(Department::getId, departmentMapper::toDto)
+            .flatMapIterable(
+                departments -> ids.stream().map(id -> BulkItemDTO.found(id, departments.get(id))).collect(Collectors.toList())
+            );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<DepartmentDTO> findTree(Long id) {
+        log.debug("Request to get the tree of Department : {}", id);
+        return departmentRepository
+            .findTreeById(id)
+            .map(
+                department -> {
+                    DepartmentDTO departmentDTO = departmentMapper.toDto(department);
+                    List<EmployeeDTO> employees = new ArrayList<>(department.getEmployees().size());
+                    for (Employee employee : department.getEmployees()) {
+                        EmployeeDTO employeeDTO = employeeMapper.toDto(employee);
+                        employeeDTO.setJobs(employee.getJobs().stream().map(jobMapper::toDto).collect(Collectors.toList()));
+                        employees.add(employeeDTO);
+                    }
+                    departmentDTO.setEmployees(employees);
+                    return departmentDTO;
+                }
+            );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<List<DepartmentDTO>> fetchEmployees(List<DepartmentDTO> departments) {
+        List<Long> ids = departments.stream().map(DepartmentDTO::getId).distinct().collect(Collectors.toList());
+        log.debug("Request to get the Employees of {} Departments", ids.size());
+        if (ids.isEmpty()) {
+            return Mono.just(departments);
+        }
+        return employeeRepository
+            .streamAllDtoBy(Sort.by("id"), where("departmentId").in(ids))
+            .collectMultimap(employee -> employee.getDepartment().getId())
+            .map(
+                employees -> {
+                    departments.forEach(
+                        department -> department.setEmployees(new ArrayList<>(employees.getOrDefault(department.getId(), List.of())))
+                    );
+                    return departments;
+                }
+            );
     }
 
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Department : {}", id);
-        return departmentRepository.deleteById(id);
+        return invalidateAfterCompletion(id).then(departmentRepository.deleteById(id));
+    }
+
+    @Override
+    public Flux<BulkItemDTO<DepartmentDTO>> deleteAll(List<Long> ids) {
+        log.debug("Request to delete {} Departments", ids.size());
+        return invalidateAllAfterCompletion()
+            .thenMany(departmentRepository.deleteAllById(ids))
+            .collect(Collectors.toSet())
+            .flatMapIterable(
+                deleted -> ids.stream().map(id -> BulkItemDTO.<DepartmentDTO>deleted(id, deleted.contains(id))).collect(Collectors.toList())
+            );
+    }
+
+    /**
+     * Invalidates a cached department, and the list of all the departments, once the current transaction completes, so
+     * that a concurrent read can't cache the department as it was before the commit. The write is counted at the same
+     * time.
+     * @param id the id of the department, null for a new one.
+     */
+    private Mono<Void> invalidateAfterCompletion(Long id) {
+        return TransactionUtil.afterCompletion(
+            () -> {
+                if (id != null) {
+                    departmentsById.invalidate(id);
+                }
+                allDepartments.invalidateAll();
+                changeCounters.count(Department.class);
+            }
+        );
+    }
+
+    private Mono<Void> invalidateAllAfterCompletion() {
+        return TransactionUtil.afterCompletion(
+            () -> {
+                departmentsById.invalidateAll();
+                allDepartments.invalidateAll();
+                changeCounters.count(Department.class);
+            }
+        );
     }
 }
@@ -1,17 +1,46 @@
 package com.mycompany.myapp.service.impl;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.mycompany.myapp.config.ApplicationProperties;
 import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.Fieldset;
+import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.AggregationService;
+import com.mycompany.myapp.service.ChangeCounters;
+import com.mycompany.myapp.service.EmployeeSearchIndex;
 import com.mycompany.myapp.service.EmployeeService;
+import com.mycompany.myapp.service.EmployeeSuggester;
+import com.mycompany.myapp.service.SalaryStatistics;
+import com.mycompany.myapp.service.TransactionUtil;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.EmployeeDTO;
 import com.mycompany.myapp.service.mapper.EmployeeMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.relational.core.query.Criteria;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 /**
  * Service Implementation for managing {@link Employee}.
@@ -20,45 +49,178 @@ import reactor.core.publisher.Mono;
 @Transactional
 public class EmployeeServiceImpl implements EmployeeService {
 
+    private static final Sort DEFAULT_SORT = Sort.by("id");
+
+    private static final Sort SALARY_SORT = Sort.by("salary");
+
     private final Logger log = LoggerFactory.getLogger(EmployeeServiceImpl.class);
 
     private final EmployeeRepository employeeRepository;
 
     private final EmployeeMapper employeeMapper;
 
-    public EmployeeServiceImpl(EmployeeRepository employeeRepository, EmployeeMapper employeeMapper) {
+    private final JobRepository jobRepository;
+
+    private final EmployeeSearchIndex employeeSearchIndex;
+
+    private final EmployeeSuggester employeeSuggester;
+
+    private final SalaryStatistics salaryStatistics;
+
+    private final AggregationService aggregationService;
+
+    private final ChangeCounters changeCounters;
+
+    private final int batchSize;
+
+    public EmployeeServiceImpl(
+        EmployeeRepository employeeRepository,
+        EmployeeMapper employeeMapper,
+        JobRepository jobRepository,
+        EmployeeSearchIndex employeeSearchIndex,
+        EmployeeSuggester employeeSuggester,
+        SalaryStatistics salaryStatistics,
+        AggregationService aggregationService,
+        ChangeCounters changeCounters,
+        ApplicationProperties applicationProperties
+    ) {
         this.employeeRepository = employeeRepository;
         this.employeeMapper = employeeMapper;
+        this.jobRepository = jobRepository;
+        this.employeeSearchIndex = employeeSearchIndex;
+        this.employeeSuggester = employeeSuggester;
+        this.salaryStatistics = salaryStatistics;
+        this.aggregationService = aggregationService;
+        this.changeCounters = changeCounters;
+        this.batchSize = applicationProperties.getDatabase().getBatchSize();
     }
 
     @Override
     public Mono<EmployeeDTO> save(EmployeeDTO employeeDTO) {
         log.debug("Request to save Employee : {}", employeeDTO);
-        return employeeRepository.save(employeeMapper.toEntity(employeeDTO)).map(employeeMapper::toDto);
+        return afterWrite()
+            .then(findPrevious(Collections.singletonList(employeeDTO.getId())))
+            .flatMap(
+                previous ->
+                    employeeRepository
+                        .save(employeeMapper.toEntity(employeeDTO))
+                        .delayUntil(employee -> index(previous, List.of(employee)))
+            )
+            .map(employeeMapper::toDto);
+    }
+
+    @Override
+    public Flux<EmployeeDTO> saveAll(List<EmployeeDTO> employeeDTOs) {
+        log.debug("Request to save {} Employees", employeeDTOs.size());
+        return afterWrite()
+            .then(findPrevious(employeeDTOs.stream().map(EmployeeDTO::getId).collect(Collectors.toList())))
+            .flatMap(
+                previous ->
+                    employeeRepository
+                        .saveAll(employeeMapper.toEntity(employeeDTOs))
+                        .collectList()
+                        .delayUntil(employees -> index(previous, employees))
+            )
+            .flatMapIterable(employees -> employees)
+            .map(employeeMapper::toDto);
     }
 
     @Override
     public Mono<EmployeeDTO> partialUpdate(EmployeeDTO employeeDTO) {
         log.debug("Request to partially update Employee : {}", employeeDTO);
 
-        return employeeRepository
-            .findById(employeeDTO.getId())
-            .map(
-                existingEmployee -> {
-                    employeeMapper.partialUpdate(existingEmployee, employeeDTO);
+        Employee patch = new Employee();
+        employeeMapper.partialUpdate(patch, employeeDTO);
+        return afterWrite()
+            .then(findPrevious(Collections.singletonList(patch.getId())))
+            .flatMap(previous -> employeeRepository.updateNonNull(patch).delayUntil(employee -> index(previous, List.of(employee))))
+            .map(employeeMapper::toDto);
+    }
+
+    @Override
+    public Flux<BulkItemDTO<EmployeeDTO>> partialUpdateAll(List<EmployeeDTO> employeeDTOs) {
+        log.debug("Request to partially update {} Employees", employeeDTOs.size());
+        List<Employee> patches = new ArrayList<>(employeeDTOs.size());
+        for (EmployeeDTO employeeDTO : employeeDTOs) {
+            Employee patch = new Employee();
+            employeeMapper.partialUpdate(patch, employeeDTO);
+            patches.add(patch);
+        }
+        List<Long> ids = patches.stream().map(Employee::getId).collect(Collectors.toList());
+        return afterWrite()
+            .then(findPrevious(ids))
+            .flatMapMany(
+                previous ->
+                    employeeRepository
+                        .updateAllNonNull(patches)
+                        .flatMapMany(rowsUpdated -> readUpdated(patches, ids, rowsUpdated, previous))
+            );
+    }
 
-                    return existingEmployee;
+    /**
+     * Reads the patched employees back, and indexes the ones whose update applied.
+     */
+    private Flux<BulkItemDTO<EmployeeDTO>> readUpdated(
+        List<Employee> patches,
+        List<Long> ids,
+        List<Integer> rowsUpdated,
+        Map<Long, Employee> previous
+    ) {
+        return employeeRepository
+            .findAllById(ids)
+            .collectMap(Employee::getId)
+            .flatMapMany(
+                employees -> {
+                    List<BulkItemDTO<EmployeeDTO>> items = new ArrayList<>(patches.size());
+                    List<Employee> updated = new ArrayList<>(patches.size());
+                    for (int i = 0; i < patches.size(); i++) {
+                        Employee employee = employees.get(ids.get(i));
+                        // Without a version, the update applies to any existing row
+                        boolean applied = rowsUpdated.get(i) > 0 || patches.get(i).getVersion() == null;
+                        if (employee != null && applied) {
+                            updated.add(employee);
+                        }
+                        EmployeeDTO employeeDTO = employee != null ? employeeMapper.toDto(employee) : null;
+                        items.add(BulkItemDTO.updated(ids.get(i), employeeDTO, applied));
+                    }
+                    return index(previous, updated).thenMany(Flux.fromIterable(items));
                 }
-            )
-            .flatMap(employeeRepository::save)
-            .map(employeeMapper::toDto);
+            );
     }
 
     @Override
     @Transactional(readOnly = true)
     public Flux<EmployeeDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Employees");
-        return employeeRepository.findAllBy(pageable).map(employeeMapper::toDto);
+        return employeeRepository.findAllDtoBy(pageable, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Page<EmployeeDTO>> findPage(Pageable pageable, Fieldset fields) {
+        log.debug("Request to get a page of Employees");
+        return employeeRepository.findDtoPage(pageable, null, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<EmployeeDTO>> findSlice(Pageable pageable, Fieldset fields) {
+        log.debug("Request to get a slice of Employees");
+        return employeeRepository.findDtoSlice(pageable, null, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<EmployeeDTO> findAll(Pageable pageable, KeysetCursor after, Fieldset fields) {
+        log.debug("Request to get all Employees after : {}", after);
+        return employeeRepository.findAllDtoAfter(pageable, after, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<EmployeeDTO> streamAll() {
+        log.debug("Request to stream all Employees");
+        return employeeRepository.streamAllDtoBy(Sort.unsorted(), null);
     }
 
     public Mono<Long> countAll() {
@@ -69,40 +231,198 @@ public class EmployeeServiceImpl implements EmployeeService {
     @Transactional(readOnly = true)
     public Mono<EmployeeDTO> findOne(Long id) {
         log.debug("Request to get Employee : {}", id);
-        return employeeRepository.findById(id).map(employeeMapper::toDto);
+        return employeeRepository.findAllDtoBy(null, where("id").is(id)).singleOrEmpty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<BulkItemDTO<EmployeeDTO>> findAllById(List<Long> ids) {
+        log.debug("Request to get {} Employees by id", ids.size());
+        return employeeRepository
+            .findAllById(ids)
+            .collectMap(Employee::getId, employeeMapper::toDto)
+            .flatMapIterable(employees -> ids.stream().map(id -> BulkItemDTO.found(id, employees.get(id))).collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<List<EmployeeDTO>> fetchJobs(List<EmployeeDTO> employees) {
+        List<Long> ids = employees.stream().map(EmployeeDTO::getId).distinct().collect(Collectors.toList());
+        log.debug("Request to get the Jobs of {} Employees", ids.size());
+        if (ids.isEmpty()) {
+            return Mono.just(employees);
+        }
+        return jobRepository
+            .streamAllDtoBy(DEFAULT_SORT, where("employeeId").in(ids))
+            .collectMultimap(job -> job.getEmployee().getId())
+            .map(
+                jobs -> {
+                    employees.forEach(employee -> employee.setJobs(new ArrayList<>(jobs.getOrDefault(employee.getId(), List.of()))));
+                    return employees;
+                }
+            );
     }
 
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Employee : {}", id);
-        return employeeRepository.deleteById(id);
+        return afterWrite()
+            .then(findPrevious(List.of(id)))
+            .flatMap(previous -> employeeRepository.deleteById(id).then(unindex(previous, List.of(id))));
+    }
+
+    @Override
+    public Flux<BulkItemDTO<EmployeeDTO>> deleteAll(List<Long> ids) {
+        log.debug("Request to delete {} Employees", ids.size());
+        return afterWrite()
+            .then(findPrevious(ids))
+            .flatMap(
+                previous ->
+                    employeeRepository.deleteAllById(ids).collect(Collectors.toSet()).delayUntil(deleted -> unindex(previous, deleted))
+            )
+            .flatMapIterable(
+                deleted -> ids.stream().map(id -> BulkItemDTO.<EmployeeDTO>deleted(id, deleted.contains(id))).collect(Collectors.toList())
+            );
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Flux<EmployeeDTO> findAllByDepartment(Long Departmentid) {
-        log.debug("Request to get all Employees");
-        return employeeRepository.findByDepartment(Departmentid).map(employeeMapper::toDto);
+    public Flux<EmployeeDTO> findAllByDepartment(Long departmentId, Pageable pageable) {
+        log.debug("Request to get all Employees of the Department : {}", departmentId);
+        return findAllBy(pageable, where("departmentId").is(departmentId), DEFAULT_SORT);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Flux<EmployeeDTO> searchString(String search) {
+    public Flux<EmployeeDTO> searchString(String search, Pageable pageable) {
         log.debug("Request to search by String : {}", search);
-        return employeeRepository.searchString(search).map(employeeMapper::toDto);
+        if (employeeSearchIndex.isReady() && search.length() >= EmployeeSearchIndex.MIN_SEARCH_LENGTH && pageable.getSort().isUnsorted()) {
+            return searchIndexed(search, pageable);
+        }
+        // The sorted searches, and the strings too short for the index, are answered by the database
+        String pattern = "%" + search + "%";
+        Criteria criteria = where("firstName")
+            .like(pattern)
+            .ignoreCase(true)
+            .or(where("lastName").like(pattern).ignoreCase(true))
+            .or(where("email").like(pattern).ignoreCase(true));
+        return findAllBy(pageable, criteria, DEFAULT_SORT);
+    }
+
+    /**
+     * Pages the ranked ids found by the search index, and reads the employees by id, a batch at a time.
+     * The rows changed since they were indexed are left out if they don't match anymore: the index is asked for up to
+     * one more page of ids, read only to fill the page in that case.
+     */
+    private Flux<EmployeeDTO> searchIndexed(String search, Pageable pageable) {
+        int from = pageable.isPaged() ? (int) Math.min(pageable.getOffset(), Integer.MAX_VALUE) : 0;
+        int limit = pageable.isPaged() ? (int) Math.min(from + 2L * pageable.getPageSize(), Integer.MAX_VALUE) : Integer.MAX_VALUE;
+        int readSize = pageable.isPaged() ? Math.min(pageable.getPageSize(), batchSize) : batchSize;
+        Flux<Employee> found = employeeSearchIndex
+            .search(search, limit)
+            .flatMapMany(ids -> Flux.fromStream(Arrays.stream(ids, Math.min(from, ids.length), ids.length).boxed()))
+            .buffer(readSize)
+            .concatMap(
+                batch ->
+                    employeeRepository
+                        .findAllBy(null, where("id").in(batch))
+                        .collectMap(Employee::getId)
+                        .flatMapIterable(
+                            employees ->
+                                batch
+                                    .stream()
+                                    .map(employees::get)
+                                    .filter(employee -> employee != null && EmployeeSearchIndex.matches(employee, search))
+                                    .collect(Collectors.toList())
+                        )
+            );
+        return (pageable.isPaged() ? found.take(pageable.getPageSize()) : found).map(employeeMapper::toDto);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Flux<EmployeeDTO> findAllWhereDepartmentIsNull() {
+    public Flux<EmployeeDTO> findAllWhereDepartmentIsNull(Pageable pageable) {
         log.debug("Request to search Employee without Department");
-        return employeeRepository.findAllWhereDepartmentIsNull().map(employeeMapper::toDto);
+        return findAllBy(pageable, where("departmentId").isNull(), DEFAULT_SORT);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public Flux<EmployeeDTO> salaryGreaterThan(Long salary) {
-        log.debug("Request to search by String : {}", salary);
-        return employeeRepository.salaryGreaterThan(salary).map(employeeMapper::toDto);
+    public Flux<EmployeeDTO> salaryGreaterThan(Long salary, Pageable pageable) {
+        log.debug("Request to search by salary greater than : {}", salary);
+        return findAllBy(pageable, where("salary").greaterThan(salary), SALARY_SORT);
+    }
+
+    /**
+     * Reads one page of the matching employees, or streams all of them when unpaged.
+     * The default sort keeps the pages stable, and the id breaks the ties.
+     */
+    private Flux<EmployeeDTO> findAllBy(Pageable pageable, Criteria criteria, Sort defaultSort) {
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : defaultSort;
+        if (sort.getOrderFor("id") == null) {
+            sort = sort.and(DEFAULT_SORT);
+        }
+        return pageable.isPaged()
+            ? employeeRepository.findAllDtoBy(PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort), criteria)
+            : employeeRepository.streamAllDtoBy(sort, criteria);
+    }
+
+    /**
+     * Counts a write of the employees and evicts their cached aggregations, once the transaction of the write completes.
+     */
+    private Mono<Void> afterWrite() {
+        return TransactionUtil.afterCompletion(
+            () -> {
+                changeCounters.count(Employee.class);
+                aggregationService.evict(Employee.class);
+            }
+        );
+    }
+
+    /**
+     * Reads the employees about to be written, in the transaction of the write: the salary statistics replace their
+     * previous salary, rather than keeping the salary of each employee.
+     */
+    private Mono<Map<Long, Employee>> findPrevious(Collection<Long> ids) {
+        List<Long> existing = ids.stream().filter(Objects::nonNull).distinct().collect(Collectors.toList());
+        if (existing.isEmpty()) {
+            return Mono.just(Collections.emptyMap());
+        }
+        return employeeRepository.findAllById(existing).collectMap(Employee::getId);
+    }
+
+    /**
+     * Updates the search index, the suggestions and the salary statistics with the saved employees once their transaction
+     * commits, off the event loop: the indexes wait for the running searches. An employee saved twice is indexed once, in
+     * its last state.
+     */
+    private Mono<Void> index(Map<Long, Employee> previous, Collection<Employee> employees) {
+        return afterCommit(
+            () -> {
+                Map<Long, Employee> saved = new LinkedHashMap<>();
+                employees.forEach(employee -> saved.put(employee.getId(), employee));
+                for (Employee employee : saved.values()) {
+                    employeeSearchIndex.index(employee);
+                    employeeSuggester.index(employee);
+                    salaryStatistics.index(previous.get(employee.getId()), employee);
+                }
+            }
+        );
+    }
+
+    private Mono<Void> unindex(Map<Long, Employee> previous, Collection<Long> ids) {
+        return afterCommit(
+            () -> {
+                for (Long id : new LinkedHashSet<>(ids)) {
+                    employeeSearchIndex.remove(id);
+                    employeeSuggester.remove(id);
+                    salaryStatistics.remove(previous.get(id));
+                }
+            }
+        );
+    }
+
+    private static Mono<Void> afterCommit(Runnable indexUpdate) {
+        return TransactionUtil.afterCommit(Mono.<Void>fromRunnable(indexUpdate).subscribeOn(Schedulers.boundedElastic()));
     }
 }
@@ -1,13 +1,27 @@
 package com.mycompany.myapp.service.impl;
 
+import static org.springframework.data.relational.core.query.Criteria.where;
+
 import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.repository.Fieldset;
 import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.AggregationService;
+import com.mycompany.myapp.service.ChangeCounters;
 import com.mycompany.myapp.service.JobService;
+import com.mycompany.myapp.service.TransactionUtil;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.JobDTO;
 import com.mycompany.myapp.service.mapper.JobMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import reactor.core.publisher.Flux;
@@ -26,39 +40,107 @@ public class JobServiceImpl implements JobService {
 
     private final JobMapper jobMapper;
 
-    public JobServiceImpl(JobRepository jobRepository, JobMapper jobMapper) {
+    private final AggregationService aggregationService;
+
+    private final ChangeCounters changeCounters;
+
+    public JobServiceImpl(
+        JobRepository jobRepository,
+        JobMapper jobMapper,
+        AggregationService aggregationService,
+        ChangeCounters changeCounters
+    ) {
         this.jobRepository = jobRepository;
         this.jobMapper = jobMapper;
+        this.aggregationService = aggregationService;
+        this.changeCounters = changeCounters;
     }
 
     @Override
     public Mono<JobDTO> save(JobDTO jobDTO) {
         log.debug("Request to save Job : {}", jobDTO);
-        return jobRepository.save(jobMapper.toEntity(jobDTO)).map(jobMapper::toDto);
+        return afterWrite().then(jobRepository.save(jobMapper.toEntity(jobDTO))).map(jobMapper::toDto);
+    }
+
+    @Override
+    public Flux<JobDTO> saveAll(List<JobDTO> jobDTOs) {
+        log.debug("Request to save {} Jobs", jobDTOs.size());
+        return afterWrite().thenMany(jobRepository.saveAll(jobMapper.toEntity(jobDTOs))).map(jobMapper::toDto);
     }
 
     @Override
     public Mono<JobDTO> partialUpdate(JobDTO jobDTO) {
         log.debug("Request to partially update Job : {}", jobDTO);
 
-        return jobRepository
-            .findById(jobDTO.getId())
-            .map(
-                existingJob -> {
-                    jobMapper.partialUpdate(existingJob, jobDTO);
+        Job patch = new Job();
+        jobMapper.partialUpdate(patch, jobDTO);
+        return afterWrite().then(jobRepository.updateNonNull(patch)).map(jobMapper::toDto);
+    }
 
-                    return existingJob;
-                }
-            )
-            .flatMap(jobRepository::save)
-            .map(jobMapper::toDto);
+    @Override
+    public Flux<BulkItemDTO<JobDTO>> partialUpdateAll(List<JobDTO> jobDTOs) {
+        log.debug("Request to partially update {} Jobs", jobDTOs.size());
+        List<Job> patches = new ArrayList<>(jobDTOs.size());
+        for (JobDTO jobDTO : jobDTOs) {
+            Job patch = new Job();
+            jobMapper.partialUpdate(patch, jobDTO);
+            patches.add(patch);
+        }
+        List<Long> ids = patches.stream().map(Job::getId).collect(Collectors.toList());
+        return afterWrite()
+            .then(jobRepository.updateAllNonNull(patches))
+            .flatMapMany(
+                rowsUpdated ->
+                    jobRepository
+                        .findAllById(ids)
+                        .collectMap(Job::getId, jobMapper::toDto)
+                        .flatMapIterable(
+                            jobs -> {
+                                List<BulkItemDTO<JobDTO>> items = new ArrayList<>(patches.size());
+                                for (int i = 0; i < patches.size(); i++) {
+                                    // Without a version, the update applies to any existing row
+                                    boolean applied = rowsUpdated.get(i) > 0 || patches.get(i).getVersion() == null;
+                                    items.add(BulkItemDTO.updated(ids.get(i), jobs.get(ids.get(i)), applied));
+                                }
+                                return items;
+                            }
+                        )
+            );
     }
 
     @Override
     @Transactional(readOnly = true)
     public Flux<JobDTO> findAll(Pageable pageable) {
         log.debug("Request to get all Jobs");
-        return jobRepository.findAllBy(pageable).map(jobMapper::toDto);
+        return jobRepository.findAllDtoBy(pageable, null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Page<JobDTO>> findPage(Pageable pageable, Fieldset fields) {
+        log.debug("Request to get a page of Jobs");
+        return jobRepository.findDtoPage(pageable, null, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Mono<Slice<JobDTO>> findSlice(Pageable pageable, Fieldset fields) {
+        log.debug("Request to get a slice of Jobs");
+        return jobRepository.findDtoSlice(pageable, null, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<JobDTO> findAll(Pageable pageable, KeysetCursor after, Fieldset fields) {
+        log.debug("Request to get all Jobs after : {}", after);
+        return jobRepository.findAllDtoAfter(pageable, after, fields);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<JobDTO> streamAll() {
+        log.debug("Request to stream all Jobs");
+        return jobRepository.streamAllDtoBy(Sort.unsorted(), null);
     }
 
     public Mono<Long> countAll() {
@@ -69,12 +151,47 @@ public class JobServiceImpl implements JobService {
     @Transactional(readOnly = true)
     public Mono<JobDTO> findOne(Long id) {
         log.debug("Request to get Job : {}", id);
-        return jobRepository.findById(id).map(jobMapper::toDto);
+        return jobRepository.findAllDtoBy(null, where("id").is(id)).singleOrEmpty();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Flux<BulkItemDTO<JobDTO>> findAllById(List<Long> ids) {
+        log.debug("Request to get {} Jobs by id", ids.size());
+        return jobRepository
+            .findAllById(ids)
+            .collectMap(Job::getId, jobMapper::toDto)
+            .flatMapIterable(jobs -> ids.stream().map(id -> BulkItemDTO.found(id, jobs.get(id))).collect(Collectors.toList()));
     }
 
     @Override
     public Mono<Void> delete(Long id) {
         log.debug("Request to delete Job : {}", id);
-        return jobRepository.deleteById(id);
+        return afterWrite().then(jobRepository.deleteById(id));
+    }
+
+    @Override
+    public Flux<BulkItemDTO<JobDTO>> deleteAll(List<Long> ids) {
+        log.debug("Request to delete {} Jobs", ids.size());
+        return afterWrite()
+            .thenMany(jobRepository.deleteAllById(ids))
+            .collect(Collectors.toSet())
+            .flatMapIterable(
+                deleted -> ids.stream().map(id -> BulkItemDTO.<JobDTO>deleted(id, deleted.contains(id))).collect(Collectors.toList())
+            );
+    }
+
+    /**
+     * Counts a write of the jobs and evicts their cached aggregations once the current transaction completes, to be
+     * subscribed before the write: evicted before the commit, an aggregation read meanwhile could be cached as it was
+     * before the write.
+     */
+    private Mono<Void> afterWrite() {
+        return TransactionUtil.afterCompletion(
+            () -> {
+                changeCounters.count(Job.class);
+                aggregationService.evict(Job.class);
+            }
+        );
     }
 }
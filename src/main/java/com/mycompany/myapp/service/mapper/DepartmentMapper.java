@@ -9,6 +9,17 @@ import org.mapstruct.*;
  */
 @Mapper(componentModel = "spring", uses = {})
 public interface DepartmentMapper extends EntityMapper<DepartmentDTO, Department> {
+    @Mapping(target = "employees", ignore = true)
+    DepartmentDTO toDto(Department s);
+
+    @Mapping(target = "employees", ignore = true)
+    Department toEntity(DepartmentDTO departmentDTO);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "employees", ignore = true)
+    void partialUpdate(@MappingTarget Department entity, DepartmentDTO dto);
+
     @Named("id")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
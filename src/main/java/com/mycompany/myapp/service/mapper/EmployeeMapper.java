@@ -10,8 +10,17 @@ import org.mapstruct.*;
 @Mapper(componentModel = "spring", uses = { DepartmentMapper.class })
 public interface EmployeeMapper extends EntityMapper<EmployeeDTO, Employee> {
     @Mapping(target = "department", source = "department", qualifiedByName = "id")
+    @Mapping(target = "jobs", ignore = true)
     EmployeeDTO toDto(Employee s);
 
+    @Mapping(target = "jobs", ignore = true)
+    Employee toEntity(EmployeeDTO employeeDTO);
+
+    @Named("partialUpdate")
+    @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = "jobs", ignore = true)
+    void partialUpdate(@MappingTarget Employee entity, EmployeeDTO dto);
+
     @Named("id")
     @BeanMapping(ignoreByDefault = true)
     @Mapping(target = "id", source = "id")
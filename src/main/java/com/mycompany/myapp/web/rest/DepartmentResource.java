@@ -1,28 +1,44 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.config.JacksonConfiguration;
+import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
 import com.mycompany.myapp.repository.DepartmentRepository;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.ChangeCounters;
+import com.mycompany.myapp.service.DataFormat;
 import com.mycompany.myapp.service.DepartmentService;
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.DepartmentDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.BulkUtil;
+import com.mycompany.myapp.web.rest.util.ETagUtil;
+import com.mycompany.myapp.web.rest.util.IncludeUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -43,6 +59,10 @@ public class DepartmentResource {
 
     private static final String ENTITY_NAME = "department";
 
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "departmentName");
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "departmentName");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -50,9 +70,20 @@ public class DepartmentResource {
 
     private final DepartmentRepository departmentRepository;
 
-    public DepartmentResource(DepartmentService departmentService, DepartmentRepository departmentRepository) {
+    private final ExportService exportService;
+
+    private final ChangeCounters changeCounters;
+
+    public DepartmentResource(
+        DepartmentService departmentService,
+        DepartmentRepository departmentRepository,
+        ExportService exportService,
+        ChangeCounters changeCounters
+    ) {
         this.departmentService = departmentService;
         this.departmentRepository = departmentRepository;
+        this.exportService = exportService;
+        this.changeCounters = changeCounters;
     }
 
     /**
@@ -86,8 +117,13 @@ public class DepartmentResource {
 
     /**
      * {@code PUT  /departments/:id} : Updates an existing department.
+     * <p>
+     * The update only applies to the version given by the {@code If-Match} header, or else by the body, and the new
+     * version is returned as the ETag: a {@code 412 (Precondition Failed)} tells the department was updated since it was read,
+     * a {@code 404 (Not Found)} that it doesn't exist.
      *
      * @param id the id of the departmentDTO to save.
+     * @param ifMatch the ETag of the version to update, taking precedence over the version of the body; any version when absent.
      * @param departmentDTO the departmentDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated departmentDTO,
      * or with status {@code 400 (Bad Request)} if the departmentDTO is not valid,
@@ -97,6 +133,7 @@ public class DepartmentResource {
     @PutMapping("/departments/{id}")
     public Mono<ResponseEntity<DepartmentDTO>> updateDepartment(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody DepartmentDTO departmentDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Department : {}, {}", id, departmentDTO);
@@ -107,34 +144,34 @@ public class DepartmentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return departmentRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return departmentService
-                        .save(departmentDTO)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        Long version = ETagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            departmentDTO.setVersion(version);
+        }
+        return departmentService
+            .save(departmentDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(ETagUtil.eTag(result.getVersion()))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
      * {@code PATCH  /departments/:id} : Partial updates given fields of an existing department, field will ignore if it is null
+     * <p>
+     * The columns of the given fields are written with a single update, which also reads back the updated row when the
+     * database allows it.
+     * The update only applies to the version given by the {@code If-Match} header, or else by the body, and the new
+     * version is returned as the ETag: a {@code 412 (Precondition Failed)} tells the department was updated since it was read,
+     * a {@code 404 (Not Found)} that it doesn't exist.
      *
      * @param id the id of the departmentDTO to save.
+     * @param ifMatch the ETag of the version to update, taking precedence over the version of the body; any version when absent.
      * @param departmentDTO the departmentDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated departmentDTO,
      * or with status {@code 400 (Bad Request)} if the departmentDTO is not valid,
@@ -145,6 +182,7 @@ public class DepartmentResource {
     @PatchMapping(value = "/departments/{id}", consumes = "application/merge-patch+json")
     public Mono<ResponseEntity<DepartmentDTO>> partialUpdateDepartment(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @NotNull @RequestBody DepartmentDTO departmentDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Department partially : {}, {}", id, departmentDTO);
@@ -155,90 +193,204 @@ public class DepartmentResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return departmentRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<DepartmentDTO> result = departmentService.partialUpdate(departmentDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        Long version = ETagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            departmentDTO.setVersion(version);
+        }
+        return departmentService
+            .partialUpdate(departmentDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                res ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(ETagUtil.eTag(res.getVersion()))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                        .body(res)
             );
     }
 
     /**
      * {@code GET  /departments} : get all the departments.
+     * <p>
+     * The page and the total count are read with a single query. With {@code total=false}, the total isn't computed and
+     * only the links to the surrounding pages are returned, see {@link SlicePaginationUtil}.
+     * <p>
+     * The weak ETag changes with each write of a department, or of an employee with {@code include=employees}. A request whose
+     * {@code If-None-Match} header matches it is answered with {@code 304 (Not Modified)}, without reading the database.
      *
      * @param pageable the pagination information.
+     * @param after the cursor of the last department of the previous page, to switch to keyset pagination; empty for the first page.
+     * @param total whether to compute the total count, {@code false} for the clients which don't need it.
+     * @param include {@code employees} to load the employees of the page along, with a single query.
      * @param request a {@link ServerHttpRequest} request.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of departments in body.
      */
     @GetMapping("/departments")
-    public Mono<ResponseEntity<List<DepartmentDTO>>> getAllDepartments(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<List<DepartmentDTO>>> getAllDepartments(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = SlicePaginationUtil.TOTAL_PARAMETER, defaultValue = "true") boolean total,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get a page of Departments");
+        boolean includeEmployees = IncludeUtil.includes(include, "employees", ENTITY_NAME);
+        Class<?>[] versioned = includeEmployees
+            ? new Class<?>[] { Department.class, Employee.class }
+            : new Class<?>[] { Department.class };
+        String eTag = ETagUtil.weakETag(changeCounters.version(versioned));
+        Mono<ResponseEntity<List<DepartmentDTO>>> response;
+        if (after != null) {
+            response = getAllDepartmentsAfter(pageable, after, request);
+        } else if (!total) {
+            response =
+                departmentService
+                    .findSlice(pageable)
+                    .map(
+                        slice ->
+                            ResponseEntity
+                                .ok()
+                                .headers(SlicePaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), slice))
+                                .body(slice.getContent())
+                    );
+        } else {
+            response =
+                departmentService
+                    .findPage(pageable)
+                    .map(
+                        page ->
+                            ResponseEntity
+                                .ok()
+                                .headers(PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
+                                .body(page.getContent())
+                    );
+        }
+        if (includeEmployees) {
+            response = response.flatMap(entity -> departmentService.fetchEmployees(entity.getBody()).thenReturn(entity));
+        }
+        return ETagUtil.ifNoneMatch(request, eTag, changeCounters.readLatest(response, versioned));
+    }
+
+    /**
+     * {@code GET  /departments?after=} : get a page of departments after the given cursor, without computing the total count.
+     * The {@code next} link of the response points to the following page.
+     */
+    private Mono<ResponseEntity<List<DepartmentDTO>>> getAllDepartmentsAfter(Pageable pageable, String after, ServerHttpRequest request) {
+        KeysetCursor cursor = KeysetPaginationUtil.parseCursor(after, pageable, SORT_PROPERTIES, ENTITY_NAME);
         return departmentService
-            .countAll()
-            .zipWith(departmentService.findAll(pageable).collectList())
+            .findAll(pageable, cursor)
+            .collectList()
             .map(
-                countWithEntities -> {
-                    return ResponseEntity
+                entities ->
+                    ResponseEntity
                         .ok()
                         .headers(
-                            PaginationUtil.generatePaginationHttpHeaders(
+                            KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
                                 UriComponentsBuilder.fromHttpRequest(request),
-                                new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                                pageable,
+                                entities,
+                                ENTITY_NAME
                             )
                         )
-                        .body(countWithEntities.getT2());
-                }
+                        .body(entities)
             );
     }
 
     /**
      * {@code GET  /departments/all} : get all the departments.
+     * <p>
+     * The weak ETag changes with each write of a department. A request whose {@code If-None-Match} header matches it is
+     * answered with {@code 304 (Not Modified)}.
      *
-     *
-     *
+     * @param request a {@link ServerHttpRequest} request.
      * @return The status {@code 200 (OK)} and the list of departments in body.
      */
     @GetMapping("/departments/all")
-    public Mono<ResponseEntity<List<DepartmentDTO>>> getAllAllDepartments() {
-        return departmentService
-            .findAllAll()
-            .collectList()
-            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-            .map(
-                response ->
-                    ResponseEntity.ok().headers(HeaderUtil.createAlert(applicationName, applicationName, applicationName)).body(response)
-            );
+    public Mono<ResponseEntity<List<DepartmentDTO>>> getAllAllDepartments(ServerHttpRequest request) {
+        String eTag = ETagUtil.weakETag(changeCounters.version(Department.class));
+        return ETagUtil.ifNoneMatch(
+            request,
+            eTag,
+            changeCounters.readLatest(
+                departmentService
+                    .findAllAll()
+                    .collectList()
+                    .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+                    .map(
+                        response ->
+                            ResponseEntity
+                                .ok()
+                                .headers(HeaderUtil.createAlert(applicationName, applicationName, applicationName))
+                                .body(response)
+                    ),
+                Department.class
+            )
+        );
+    }
+
+    /**
+     * {@code GET  /departments/export} : export all the departments, as NDJSON or as CSV depending on the {@code Accept} header.
+     * <p>
+     * The rows are streamed from the database to the client as it reads them, without loading the whole table in memory.
+     *
+     * @param request  a {@link ServerHttpRequest} request.
+     * @param response the response, which provides the buffers.
+     * @return the departments, one per line.
+     */
+    @GetMapping(value = "/departments/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE })
+    public Flux<DataBuffer> exportDepartments(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Departments");
+        DataFormat format = DataFormat.of(request.getHeaders().getAccept());
+        if (format == DataFormat.CSV) {
+            response.getHeaders().setContentDisposition(ContentDisposition.attachment().filename("departments.csv").build());
+        }
+        return exportService.exportAll(departmentService.streamAll(), format, EXPORT_COLUMNS, response.bufferFactory());
     }
 
     /**
      * {@code GET  /departments/:id} : get the "id" department.
+     * <p>
+     * The version of the department is returned as the ETag, for the {@code If-Match} header of its updates. With
+     * {@code include=employees}, the ETag also changes with each write of an employee.
      *
      * @param id the id of the departmentDTO to retrieve.
+     * @param include {@code employees} to load the employees of the department along.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the departmentDTO, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/departments/{id}")
-    public Mono<ResponseEntity<DepartmentDTO>> getDepartment(@PathVariable Long id) {
+    public Mono<ResponseEntity<DepartmentDTO>> getDepartment(
+        @PathVariable Long id,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include
+    ) {
         log.debug("REST request to get Department : {}", id);
         Mono<DepartmentDTO> departmentDTO = departmentService.findOne(id);
+        String includedVersion = null;
+        if (IncludeUtil.includes(include, "employees", ENTITY_NAME)) {
+            includedVersion = changeCounters.version(Employee.class);
+            departmentDTO =
+                changeCounters.readLatest(
+                    departmentDTO.flatMap(department -> departmentService.fetchEmployees(List.of(department)).thenReturn(department)),
+                    Employee.class
+                );
+        }
+
+        return ETagUtil.wrapOrNotFound(departmentDTO, DepartmentDTO::getVersion, includedVersion);
+    }
 
-        return ResponseUtil.wrapOrNotFound(departmentDTO);
+    /**
+     * {@code GET  /departments/:id/tree} : get the "id" department with its employees and their jobs.
+     * <p>
+     * The whole tree is read with a single query, joining the department to its employees and their jobs.
+     *
+     * @param id the id of the department to retrieve.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the departmentDTO, its employees and
+     *         their jobs, or with status {@code 404 (Not Found)}.
+     */
+    @GetMapping("/departments/{id}/tree")
+    public Mono<ResponseEntity<DepartmentDTO>> getDepartmentTree(@PathVariable Long id) {
+        log.debug("REST request to get the tree of Department : {}", id);
+        return ResponseUtil.wrapOrNotFound(departmentService.findTree(id));
     }
 
     /**
@@ -261,4 +413,60 @@ public class DepartmentResource {
                         .build()
             );
     }
+
+    /**
+     * {@code GET  /departments?ids=} : get the departments with the given ids.
+     * <p>
+     * The departments are read with a select for a batch of ids, instead of a request per department.
+     *
+     * @param ids the ids of the departments, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome for each distinct id in body:
+     *         {@code FOUND} with the department, or {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if there are
+     *         too many ids.
+     */
+    @GetMapping(value = "/departments", params = BulkUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<BulkItemDTO<DepartmentDTO>>>> getDepartmentsById(@RequestParam(BulkUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get Departments : {}", ids);
+        return departmentService.findAllById(BulkUtil.parseIds(ids, ENTITY_NAME)).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code PATCH  /departments} : Partial updates given fields of existing departments, as {@code PATCH  /departments/:id}
+     * does for each of them.
+     * <p>
+     * The departments are updated in a single transaction, with a batched update for the departments whose given fields are the same.
+     * The update of a department only applies to its version, when given in the body.
+     *
+     * @param departmentDTOs the departmentDTOs to update, with distinct ids, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome of each update in body, in the
+     *         same order: {@code UPDATED} with the updated department, {@code VERSION_CONFLICT} with the current department, or
+     *         {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if an id is missing or repeated, or if there
+     *         are too many departments.
+     */
+    @PatchMapping(
+        value = "/departments",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfiguration.APPLICATION_SMILE_VALUE }
+    )
+    public Mono<ResponseEntity<List<BulkItemDTO<DepartmentDTO>>>> partialUpdateDepartments(
+        @RequestBody List<DepartmentDTO> departmentDTOs
+    ) {
+        log.debug("REST request to partial update {} Departments", departmentDTOs.size());
+        BulkUtil.checkEntities(departmentDTOs, DepartmentDTO::getId, ENTITY_NAME);
+        return departmentService.partialUpdateAll(departmentDTOs).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code DELETE  /departments?ids=} : delete the departments with the given ids.
+     * <p>
+     * The departments are deleted in a single transaction, with a delete for a batch of ids.
+     *
+     * @param ids the ids of the departments, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome for each distinct id in body:
+     *         {@code DELETED}, or {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @DeleteMapping(value = "/departments", params = BulkUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<BulkItemDTO<DepartmentDTO>>>> deleteDepartments(@RequestParam(BulkUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to delete Departments : {}", ids);
+        return departmentService.deleteAll(BulkUtil.parseIds(ids, ENTITY_NAME)).collectList().map(ResponseEntity::ok);
+    }
 }
@@ -1,28 +1,61 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.config.JacksonConfiguration;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.Fieldset;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.AggregationService;
+import com.mycompany.myapp.service.ChangeCounters;
+import com.mycompany.myapp.service.DataFormat;
 import com.mycompany.myapp.service.EmployeeService;
+import com.mycompany.myapp.service.EmployeeSuggester;
+import com.mycompany.myapp.service.EntityManager.Aggregate;
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.service.ImportService;
+import com.mycompany.myapp.service.SalaryStatistics;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
 import com.mycompany.myapp.service.dto.DepartmentDTO;
 import com.mycompany.myapp.service.dto.EmployeeDTO;
+import com.mycompany.myapp.service.dto.EmployeeSuggestionDTO;
+import com.mycompany.myapp.service.dto.ImportChunkDTO;
+import com.mycompany.myapp.service.dto.SalaryStatsDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.AggregationUtil;
+import com.mycompany.myapp.web.rest.util.BulkUtil;
+import com.mycompany.myapp.web.rest.util.CodecUtil;
+import com.mycompany.myapp.web.rest.util.ETagUtil;
+import com.mycompany.myapp.web.rest.util.FieldsUtil;
+import com.mycompany.myapp.web.rest.util.IncludeUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
 import io.micrometer.core.ipc.http.HttpSender.Response;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -30,7 +63,6 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Employee}.
@@ -43,6 +75,28 @@ public class EmployeeResource {
 
     private static final String ENTITY_NAME = "employee";
 
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final int MAX_HISTOGRAM_BINS = 100;
+
+    private static final Map<String, String> AGGREGATE_GROUPS = Map.of("department", "departmentId");
+
+    private static final Set<String> AGGREGATE_PROPERTIES = Set.of("salary");
+
+    private static final Set<String> FIELDS = Set.of("id", "firstName", "lastName", "email", "phoneNumber", "salary", "department.id");
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "firstName", "lastName", "email", "phoneNumber", "salary");
+
+    private static final List<String> EXPORT_COLUMNS = List.of(
+        "id",
+        "firstName",
+        "lastName",
+        "email",
+        "phoneNumber",
+        "salary",
+        "department.id"
+    );
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -50,9 +104,40 @@ public class EmployeeResource {
 
     private final EmployeeRepository employeeRepository;
 
-    public EmployeeResource(EmployeeService employeeService, EmployeeRepository employeeRepository) {
+    private final ImportService importService;
+
+    private final ExportService exportService;
+
+    private final EmployeeSuggester employeeSuggester;
+
+    private final SalaryStatistics salaryStatistics;
+
+    private final AggregationService aggregationService;
+
+    private final ChangeCounters changeCounters;
+
+    private final ServerCodecConfigurer codecConfigurer;
+
+    public EmployeeResource(
+        EmployeeService employeeService,
+        EmployeeRepository employeeRepository,
+        ImportService importService,
+        ExportService exportService,
+        EmployeeSuggester employeeSuggester,
+        SalaryStatistics salaryStatistics,
+        AggregationService aggregationService,
+        ChangeCounters changeCounters,
+        ServerCodecConfigurer codecConfigurer
+    ) {
         this.employeeService = employeeService;
         this.employeeRepository = employeeRepository;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.employeeSuggester = employeeSuggester;
+        this.salaryStatistics = salaryStatistics;
+        this.aggregationService = aggregationService;
+        this.changeCounters = changeCounters;
+        this.codecConfigurer = codecConfigurer;
     }
 
     /**
@@ -86,10 +171,34 @@ public class EmployeeResource {
             );
     }
 
+    /**
+     * {@code POST  /employees/import} : Create new employees from a streamed NDJSON or CSV body.
+     * <p>
+     * The rows are saved in chunks, each chunk in its own transaction, and the progress is streamed back as the chunks are saved.
+     *
+     * @param request the request, with an {@code application/x-ndjson} or {@code text/csv} body.
+     * @return the outcome of each chunk, with the rejected rows.
+     */
+    @PostMapping(
+        value = "/employees/import",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public Flux<ImportChunkDTO> importEmployees(ServerHttpRequest request) {
+        log.debug("REST request to import Employees");
+        DataFormat format = DataFormat.of(request.getHeaders().getContentType());
+        return importService.importAll(request.getBody(), format, EmployeeDTO.class, employeeService::saveAll);
+    }
+
     /**
      * {@code PUT  /employees/:id} : Updates an existing employee.
+     * <p>
+     * The update only applies to the version given by the {@code If-Match} header, or else by the body, and the new
+     * version is returned as the ETag: a {@code 412 (Precondition Failed)} tells the employee was updated since it was read,
+     * a {@code 404 (Not Found)} that it doesn't exist.
      *
      * @param id          the id of the employeeDTO to save.
+     * @param ifMatch the ETag of the version to update, taking precedence over the version of the body; any version when absent.
      * @param employeeDTO the employeeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
      *         the updated employeeDTO, or with status {@code 400 (Bad Request)} if
@@ -101,6 +210,7 @@ public class EmployeeResource {
     @PutMapping("/employees/{id}")
     public Mono<ResponseEntity<EmployeeDTO>> updateEmployee(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody EmployeeDTO employeeDTO
     ) throws URISyntaxException {
         log.debug("REST request to update Employee : {}, {}", id, employeeDTO);
@@ -111,35 +221,35 @@ public class EmployeeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return employeeRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return employeeService
-                        .save(employeeDTO)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        Long version = ETagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            employeeDTO.setVersion(version);
+        }
+        return employeeService
+            .save(employeeDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(ETagUtil.eTag(result.getVersion()))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
      * {@code PATCH  /employees/:id} : Partial updates given fields of an existing
      * employee, field will ignore if it is null
+     * <p>
+     * The columns of the given fields are written with a single update, which also reads back the updated row when the
+     * database allows it.
+     * The update only applies to the version given by the {@code If-Match} header, or else by the body, and the new
+     * version is returned as the ETag: a {@code 412 (Precondition Failed)} tells the employee was updated since it was read,
+     * a {@code 404 (Not Found)} that it doesn't exist.
      *
      * @param id          the id of the employeeDTO to save.
+     * @param ifMatch the ETag of the version to update, taking precedence over the version of the body; any version when absent.
      * @param employeeDTO the employeeDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
      *         the updated employeeDTO, or with status {@code 400 (Bad Request)} if
@@ -152,6 +262,7 @@ public class EmployeeResource {
     @PatchMapping(value = "/employees/{id}", consumes = "application/merge-patch+json")
     public Mono<ResponseEntity<EmployeeDTO>> partialUpdateEmployee(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody EmployeeDTO employeeDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Employee partially : {}, {}", id, employeeDTO);
@@ -162,72 +273,181 @@ public class EmployeeResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return employeeRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<EmployeeDTO> result = employeeService.partialUpdate(employeeDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        Long version = ETagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            employeeDTO.setVersion(version);
+        }
+        return employeeService
+            .partialUpdate(employeeDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                res ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(ETagUtil.eTag(res.getVersion()))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                        .body(res)
             );
     }
 
     /**
      * {@code GET  /employees} : get all the employees.
+     * <p>
+     * The page and the total count are read with a single query. With {@code total=false}, the total isn't computed and
+     * only the links to the surrounding pages are returned, see {@link SlicePaginationUtil}. With {@code fields}, e.g.
+     * {@code ?fields=lastName,department.id}, only the columns of the requested properties are read, without joining the
+     * department, and only those properties and the id are returned.
+     * <p>
+     * The weak ETag changes with each write of an employee, or of a job with {@code include=jobs}. A request whose
+     * {@code If-None-Match} header matches it is answered with {@code 304 (Not Modified)}, without reading the database.
      *
      * @param pageable the pagination information.
-     * @param request  a {@link ServerHttpRequest} request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list
-     *         of employees in body.
+     * @param after the cursor of the last employee of the previous page, to switch to keyset pagination; empty for the first page.
+     * @param total whether to compute the total count, {@code false} for the clients which don't need it.
+     * @param include {@code jobs} to load the jobs of the page along, with a single query.
+     * @param fields the properties to return, among {@code id}, {@code firstName}, {@code lastName}, {@code email},
+     *               {@code phoneNumber}, {@code salary} and {@code department.id}; all of them when absent.
+     * @param request a {@link ServerHttpRequest} request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of employees in body, or with status
+     *         {@code 400 (Bad Request)} if a requested property is invalid.
      */
     @GetMapping("/employees")
-    public Mono<ResponseEntity<List<EmployeeDTO>>> getAllEmployees(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<MappingJacksonValue>> getAllEmployees(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = SlicePaginationUtil.TOTAL_PARAMETER, defaultValue = "true") boolean total,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include,
+        @RequestParam(value = FieldsUtil.FIELDS_PARAMETER, required = false) List<String> fields,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get a page of Employees");
+        boolean includeJobs = IncludeUtil.includes(include, "jobs", ENTITY_NAME);
+        Fieldset fieldset = FieldsUtil.parseFields(fields, FIELDS, ENTITY_NAME);
+        Class<?>[] versioned = includeJobs ? new Class<?>[] { Employee.class, Job.class } : new Class<?>[] { Employee.class };
+        String eTag = ETagUtil.weakETag(changeCounters.version(versioned));
+        Mono<ResponseEntity<List<EmployeeDTO>>> response;
+        if (after != null) {
+            response = getAllEmployeesAfter(pageable, after, fieldset, request);
+        } else if (!total) {
+            response =
+                employeeService
+                    .findSlice(pageable, fieldset)
+                    .map(
+                        slice ->
+                            ResponseEntity
+                                .ok()
+                                .headers(SlicePaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), slice))
+                                .body(slice.getContent())
+                    );
+        } else {
+            response =
+                employeeService
+                    .findPage(pageable, fieldset)
+                    .map(
+                        page ->
+                            ResponseEntity
+                                .ok()
+                                .headers(PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
+                                .body(page.getContent())
+                    );
+        }
+        if (includeJobs) {
+            response = response.flatMap(entity -> employeeService.fetchJobs(entity.getBody()).thenReturn(entity));
+        }
+        String[] included = includeJobs ? new String[] { "jobs" } : new String[0];
+        return ETagUtil.ifNoneMatch(
+            request,
+            eTag,
+            changeCounters
+                .readLatest(response, versioned)
+                .map(
+                    entity ->
+                        new ResponseEntity<>(
+                            FieldsUtil.body(entity.getBody(), fieldset, included),
+                            entity.getHeaders(),
+                            entity.getStatusCode()
+                        )
+                )
+        );
+    }
+
+    /**
+     * {@code GET  /employees?after=} : get a page of employees after the given cursor, without computing the total count.
+     * The {@code next} link of the response points to the following page.
+     */
+    private Mono<ResponseEntity<List<EmployeeDTO>>> getAllEmployeesAfter(
+        Pageable pageable,
+        String after,
+        Fieldset fieldset,
+        ServerHttpRequest request
+    ) {
+        KeysetCursor cursor = KeysetPaginationUtil.parseCursor(after, pageable, SORT_PROPERTIES, ENTITY_NAME);
         return employeeService
-            .countAll()
-            .zipWith(employeeService.findAll(pageable).collectList())
+            .findAll(pageable, cursor, fieldset)
+            .collectList()
             .map(
-                countWithEntities -> {
-                    return ResponseEntity
+                entities ->
+                    ResponseEntity
                         .ok()
                         .headers(
-                            PaginationUtil.generatePaginationHttpHeaders(
+                            KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
                                 UriComponentsBuilder.fromHttpRequest(request),
-                                new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                                pageable,
+                                entities,
+                                ENTITY_NAME
                             )
                         )
-                        .body(countWithEntities.getT2());
-                }
+                        .body(entities)
             );
     }
 
+    /**
+     * {@code GET  /employees/export} : export all the employees, as NDJSON or as CSV depending on the {@code Accept} header.
+     * <p>
+     * The rows are streamed from the database to the client as it reads them, without loading the whole table in memory.
+     *
+     * @param request  a {@link ServerHttpRequest} request.
+     * @param response the response, which provides the buffers.
+     * @return the employees, one per line.
+     */
+    @GetMapping(value = "/employees/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE })
+    public Flux<DataBuffer> exportEmployees(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Employees");
+        DataFormat format = DataFormat.of(request.getHeaders().getAccept());
+        if (format == DataFormat.CSV) {
+            response.getHeaders().setContentDisposition(ContentDisposition.attachment().filename("employees.csv").build());
+        }
+        return exportService.exportAll(employeeService.streamAll(), format, EXPORT_COLUMNS, response.bufferFactory());
+    }
+
     /**
      * {@code GET  /employees/:id} : get the "id" employee.
+     * <p>
+     * The version of the employee is returned as the ETag, for the {@code If-Match} header of its updates. With
+     * {@code include=jobs}, the ETag also changes with each write of a job.
      *
      * @param id the id of the employeeDTO to retrieve.
+     * @param include {@code jobs} to load the jobs of the employee along.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
      *         the employeeDTO, or with status {@code 404 (Not Found)}.
      */
     @GetMapping("/employees/{id}")
-    public Mono<ResponseEntity<EmployeeDTO>> getEmployee(@PathVariable Long id) {
+    public Mono<ResponseEntity<EmployeeDTO>> getEmployee(
+        @PathVariable Long id,
+        @RequestParam(value = IncludeUtil.INCLUDE_PARAMETER, required = false) List<String> include
+    ) {
         log.debug("REST request to get Employee : {}", id);
         Mono<EmployeeDTO> employeeDTO = employeeService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(employeeDTO);
+        String includedVersion = null;
+        if (IncludeUtil.includes(include, "jobs", ENTITY_NAME)) {
+            includedVersion = changeCounters.version(Job.class);
+            employeeDTO =
+                changeCounters.readLatest(
+                    employeeDTO.flatMap(employee -> employeeService.fetchJobs(List.of(employee)).thenReturn(employee)),
+                    Job.class
+                );
+        }
+        return ETagUtil.wrapOrNotFound(employeeDTO, EmployeeDTO::getVersion, includedVersion);
     }
 
     /**
@@ -252,44 +472,158 @@ public class EmployeeResource {
     }
 
     /**
-     * {@code GET  /employees/report} : get all the employees.
+     * {@code GET  /employees?ids=} : get the employees with the given ids.
+     * <p>
+     * The employees are read with a select for a batch of ids, instead of a request per employee.
      *
+     * @param ids the ids of the employees, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome for each distinct id in body:
+     *         {@code FOUND} with the employee, or {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if there are
+     *         too many ids.
+     */
+    @GetMapping(value = "/employees", params = BulkUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<BulkItemDTO<EmployeeDTO>>>> getEmployeesById(@RequestParam(BulkUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get Employees : {}", ids);
+        return employeeService.findAllById(BulkUtil.parseIds(ids, ENTITY_NAME)).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code PATCH  /employees} : Partial updates given fields of existing employees, as {@code PATCH  /employees/:id} does for each of
+     * them.
+     * <p>
+     * The employees are updated in a single transaction, with a batched update for the employees whose given fields are the same.
+     * The update of an employee only applies to its version, when given in the body.
+     *
+     * @param employeeDTOs the employeeDTOs to update, with distinct ids, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome of each update in body, in the
+     *         same order: {@code UPDATED} with the updated employee, {@code VERSION_CONFLICT} with the current employee, or
+     *         {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if an id is missing or repeated, or if there
+     *         are too many employees.
+     */
+    @PatchMapping(
+        value = "/employees",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfiguration.APPLICATION_SMILE_VALUE }
+    )
+    public Mono<ResponseEntity<List<BulkItemDTO<EmployeeDTO>>>> partialUpdateEmployees(@RequestBody List<EmployeeDTO> employeeDTOs) {
+        log.debug("REST request to partial update {} Employees", employeeDTOs.size());
+        BulkUtil.checkEntities(employeeDTOs, EmployeeDTO::getId, ENTITY_NAME);
+        return employeeService.partialUpdateAll(employeeDTOs).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code DELETE  /employees?ids=} : delete the employees with the given ids.
+     * <p>
+     * The employees are deleted in a single transaction, with a delete for a batch of ids.
+     *
+     * @param ids the ids of the employees, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome for each distinct id in body:
+     *         {@code DELETED}, or {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @DeleteMapping(value = "/employees", params = BulkUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<BulkItemDTO<EmployeeDTO>>>> deleteEmployees(@RequestParam(BulkUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to delete Employees : {}", ids);
+        return employeeService.deleteAll(BulkUtil.parseIds(ids, ENTITY_NAME)).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code GET  /employees/report/:id} : get all the employees of a department.
      *
      * @param id of the Departament.
-     * @return status {@code 200 (OK)} and the list of employees in body.
+     * @param pageable the pagination information, only applied when the {@code page} or {@code size} parameter is given.
+     * @param request  a {@link ServerHttpRequest} request.
+     * @param response the response, which provides the buffers.
+     * @return status {@code 200 (OK)} and the list of employees in body, streamed as a JSON array, as NDJSON or as Smile values.
      */
-    @GetMapping("/employees/report/{id}")
-    public Mono<ResponseEntity<List<EmployeeDTO>>> getAllEmployeesByDepartment(@PathVariable Long id) {
+    @GetMapping(
+        value = "/employees/report/{id}",
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, JacksonConfiguration.APPLICATION_STREAM_SMILE_VALUE }
+    )
+    public Flux<DataBuffer> getAllEmployeesByDepartment(
+        @PathVariable Long id,
+        Pageable pageable,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
         log.debug("REST request to get the Employees of a Department");
-
-        return employeeService
-            .findAllByDepartment(id)
-            .collectList()
-            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-            .map(
-                response ->
-                    ResponseEntity.ok().headers(HeaderUtil.createAlert(applicationName, ENTITY_NAME, applicationName)).body(response)
-            );
+        Flux<EmployeeDTO> employees = employeeService.findAllByDepartment(id, getPageable(pageable, request));
+        return streamEmployees(employees, request, response, applicationName);
     }
 
     /**
-     * {@code GET  /employees/} : .
+     * {@code GET  /employees/salarygreaterthan/:salary} : get the employees whose salary is greater than the given one.
      *
+     * @param salary the exclusive lower bound of the salary.
+     * @param pageable the pagination information, only applied when the {@code page} or {@code size} parameter is given.
+     * @param request  a {@link ServerHttpRequest} request.
+     * @param response the response, which provides the buffers.
+     * @return status {@code 200 (OK)} and the list of employees in body, streamed as a JSON array, as NDJSON or as Smile values.
+     */
+    @GetMapping(
+        value = "/employees/salarygreaterthan/{salary}",
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, JacksonConfiguration.APPLICATION_STREAM_SMILE_VALUE }
+    )
+    public Flux<DataBuffer> getEmployeesSalaryGreaterThan(
+        @PathVariable Long salary,
+        Pageable pageable,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
+        log.debug("REST request to get the Employees with a salary greater than : {}", salary);
+        Flux<EmployeeDTO> employees = employeeService.salaryGreaterThan(salary, getPageable(pageable, request));
+        return streamEmployees(employees, request, response, applicationName);
+    }
+
+    /**
+     * {@code GET /employees/aggregate} : aggregate the employees by department, e.g.
+     * {@code ?groupBy=department&sum=salary} for the headcount and the payroll of each department.
+     * <p>
+     * The aggregation is computed by the database, only one row per group is read.
      *
-     * @param Salary.
-     * @return status {@code 200 (OK)} and the list of employees in body.
+     * @param groupBy the group: {@code department}.
+     * @param request a {@link ServerHttpRequest} request, whose {@code sum}, {@code avg}, {@code min} and {@code max}
+     *                parameters name the aggregated properties: {@code salary}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count and the aggregated values of each group
+     *         in body, or with status {@code 400 (Bad Request)} if the group or an aggregated property is invalid.
      */
-    @GetMapping("/employees/salarygreaterthan/{salary}")
-    public Mono<ResponseEntity<List<EmployeeDTO>>> getEmployeesSalaryGreaterThan(@PathVariable Long salary) {
-        log.debug("REST request to get the Employees of a Department");
+    @GetMapping("/employees/aggregate")
+    public Mono<ResponseEntity<List<Map<String, Object>>>> aggregateEmployees(
+        @RequestParam(AggregationUtil.GROUP_BY_PARAMETER) String groupBy,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to aggregate Employees by : {}", groupBy);
+        String property = AggregationUtil.parseGroupBy(groupBy, AGGREGATE_GROUPS, ENTITY_NAME);
+        List<Aggregate> aggregates = AggregationUtil.parseAggregates(request.getQueryParams(), AGGREGATE_PROPERTIES, ENTITY_NAME);
+        return aggregationService.aggregate(Employee.class, groupBy, property, aggregates).map(ResponseEntity::ok);
+    }
 
-        return employeeService
-            .salaryGreaterThan(salary)
-            .collectList()
-            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-            .map(
-                response ->
-                    ResponseEntity.ok().headers(HeaderUtil.createAlert(applicationName, ENTITY_NAME, applicationName)).body(response)
+    /**
+     * {@code GET /employees/salary-stats} : get the distribution of the salaries.
+     *
+     * @param departmentId the department of the employees, or none for all the employees.
+     * @param percentiles the percentiles to estimate, between 0 and 100.
+     * @param bins the number of intervals of the histogram, at most {@value #MAX_HISTOGRAM_BINS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the statistics in body, or with status
+     *         {@code 400 (Bad Request)} if a percentile or the number of intervals is out of range, or with status
+     *         {@code 503 (Service Unavailable)} while the statistics are being built after a start.
+     */
+    @GetMapping("/employees/salary-stats")
+    public Mono<ResponseEntity<SalaryStatsDTO>> getSalaryStatistics(
+        @RequestParam(required = false) Long departmentId,
+        @RequestParam(defaultValue = "50,75,90,95,99") List<Double> percentiles,
+        @RequestParam(defaultValue = "10") int bins
+    ) {
+        log.debug("REST request to get the salary statistics of the Department : {}", departmentId);
+        if (percentiles.stream().anyMatch(percentile -> percentile == null || percentile < 0 || percentile > 100)) {
+            throw new BadRequestAlertException("Percentiles must be between 0 and 100", ENTITY_NAME, "percentileinvalid");
+        }
+        if (bins < 1 || bins > MAX_HISTOGRAM_BINS) {
+            throw new BadRequestAlertException("Invalid number of histogram bins", ENTITY_NAME, "binsinvalid");
+        }
+        return salaryStatistics
+            .getStatistics(departmentId, percentiles, bins)
+            .map(ResponseEntity::ok)
+            .switchIfEmpty(
+                Mono.error(new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "The salary statistics aren't built yet"))
             );
     }
 
@@ -297,44 +631,100 @@ public class EmployeeResource {
      * {@code GET /employees/search/{search}} : get the "searchString".
      *
      * @param search for employees that match with search
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
-     *         the list of employeeDTO that match the search, or with status
-     *         {@code 404 (Not Found)}.
+     * @param pageable the pagination information, only applied when the {@code page} or {@code size} parameter is given.
+     * @param request  a {@link ServerHttpRequest} request.
+     * @param response the response, which provides the buffers.
+     * @return status {@code 200 (OK)} and the list of employeeDTO that match the search in body, streamed as a JSON
+     *         array, as NDJSON or as Smile values.
      */
-    @GetMapping("/employees/search/{search}")
-    public Mono<ResponseEntity<List<EmployeeDTO>>> searchEmployeesByString(@PathVariable String search) {
+    @GetMapping(
+        value = "/employees/search/{search}",
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, JacksonConfiguration.APPLICATION_STREAM_SMILE_VALUE }
+    )
+    public Flux<DataBuffer> searchEmployeesByString(
+        @PathVariable String search,
+        Pageable pageable,
+        ServerHttpRequest request,
+        ServerHttpResponse response
+    ) {
         log.debug("REST request to search Employee : {}", search);
-
-        return employeeService
-            .searchString(search)
-            .collectList()
-            .doOnNext(
-                element -> {
-                    //Solo de prueba
-                    log.debug(element.toString());
-                }
-            )
-            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-            .map(response -> ResponseEntity.ok().headers(HeaderUtil.createAlert(applicationName, ENTITY_NAME, ENTITY_NAME)).body(response));
+        Flux<EmployeeDTO> employees = employeeService.searchString(search, getPageable(pageable, request));
+        return streamEmployees(employees, request, response, ENTITY_NAME);
     }
 
     /**
-     * {@code GET /employees/withoutDepartments/} : .
+     * {@code GET /employees/suggest} : suggest the employees whose name or email starts with the typed prefix.
      *
+     * @param prefix the typed prefix, the case is ignored.
+     * @param limit the maximum number of suggestions, at most {@value #MAX_SUGGESTIONS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the suggested employees in body, in the
+     *         alphabetical order of their matching name.
+     */
+    @GetMapping("/employees/suggest")
+    public Mono<ResponseEntity<List<EmployeeSuggestionDTO>>> suggestEmployees(
+        @RequestParam String prefix,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.debug("REST request to suggest Employees for : {}", prefix);
+        return Mono.fromSupplier(() -> ResponseEntity.ok(employeeSuggester.suggest(prefix, Math.min(limit, MAX_SUGGESTIONS))));
+    }
+
+    /**
+     * {@code GET /employees/withoutdepartments/} : get the employees without department.
      *
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body
-     *         the list of employeeDTO that match the search, or with status
-     *         {@code 404 (Not Found)}.
+     * @param pageable the pagination information, only applied when the {@code page} or {@code size} parameter is given.
+     * @param request  a {@link ServerHttpRequest} request.
+     * @param response the response, which provides the buffers.
+     * @return status {@code 200 (OK)} and the list of employeeDTO in body, streamed as a JSON array, as NDJSON or as Smile values.
      */
-    @GetMapping("/employees/withoutdepartments/")
-    public Mono<ResponseEntity<List<EmployeeDTO>>> employeesWithoutDepartments() {
+    @GetMapping(
+        value = "/employees/withoutdepartments/",
+        produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE, JacksonConfiguration.APPLICATION_STREAM_SMILE_VALUE }
+    )
+    public Flux<DataBuffer> employeesWithoutDepartments(Pageable pageable, ServerHttpRequest request, ServerHttpResponse response) {
         log.debug("REST request to search Employee without Department.");
+        Flux<EmployeeDTO> employees = employeeService.findAllWhereDepartmentIsNull(getPageable(pageable, request));
+        return streamEmployees(employees, request, response, ENTITY_NAME);
+    }
 
-        return employeeService
-            .findAllWhereDepartmentIsNull()
-            .collectList()
-            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-            .map(response -> ResponseEntity.ok().headers(HeaderUtil.createAlert(applicationName, ENTITY_NAME, ENTITY_NAME)).body(response));
+    /**
+     * The reports return all the matching employees, unless the client asks for a page.
+     */
+    private static Pageable getPageable(Pageable pageable, ServerHttpRequest request) {
+        MultiValueMap<String, String> parameters = request.getQueryParams();
+        return parameters.containsKey("page") || parameters.containsKey("size") ? pageable : Pageable.unpaged();
+    }
+
+    /**
+     * Writes the employees as they are read from the database, as NDJSON when the client prefers it, and as a JSON array
+     * otherwise, so the response doesn't wait for, nor holds, the whole list. A client preferring a binary format gets
+     * Smile values, streamed with {@code application/stream+x-jackson-smile}, see {@link CodecUtil}.
+     */
+    private Flux<DataBuffer> streamEmployees(
+        Flux<EmployeeDTO> employees,
+        ServerHttpRequest request,
+        ServerHttpResponse response,
+        String alertParam
+    ) {
+        response.getHeaders().addAll(HeaderUtil.createAlert(applicationName, ENTITY_NAME, alertParam));
+        List<MediaType> acceptableTypes = new ArrayList<>(request.getHeaders().getAccept());
+        MediaType.sortBySpecificityAndQuality(acceptableTypes);
+        for (MediaType acceptable : acceptableTypes) {
+            if (acceptable.isCompatibleWith(MediaType.APPLICATION_NDJSON) && !acceptable.isWildcardSubtype()) {
+                response.getHeaders().setContentType(MediaType.APPLICATION_NDJSON);
+                return exportService.exportAll(employees, DataFormat.NDJSON, List.of(), response.bufferFactory());
+            }
+            if (acceptable.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                break;
+            }
+            HttpMessageEncoder<?> encoder = CodecUtil.findStreamingEncoder(codecConfigurer, EmployeeDTO.class, acceptable);
+            if (encoder != null) {
+                response.getHeaders().setContentType(acceptable);
+                return CodecUtil.encode(employees, EmployeeDTO.class, encoder, acceptable, response.bufferFactory());
+            }
+        }
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        return exportService.exportJsonArray(employees, response.bufferFactory());
     }
 
     /**
@@ -353,7 +743,7 @@ public class EmployeeResource {
          */
 
         Flux<EmployeeDTO> Temp = employeeService
-            .findAllByDepartment(1L)
+            .findAllByDepartment(1L, Pageable.unpaged())
             .doOnNext(
                 emp -> {
                     emp.setLastName("Valek");
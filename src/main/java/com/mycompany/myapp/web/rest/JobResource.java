@@ -1,26 +1,49 @@
 package com.mycompany.myapp.web.rest;
 
+import com.mycompany.myapp.config.JacksonConfiguration;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.repository.Fieldset;
 import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.service.AggregationService;
+import com.mycompany.myapp.service.ChangeCounters;
+import com.mycompany.myapp.service.DataFormat;
+import com.mycompany.myapp.service.EntityManager.Aggregate;
+import com.mycompany.myapp.service.ExportService;
+import com.mycompany.myapp.service.ImportService;
 import com.mycompany.myapp.service.JobService;
+import com.mycompany.myapp.service.dto.BulkItemDTO;
+import com.mycompany.myapp.service.dto.ImportChunkDTO;
 import com.mycompany.myapp.service.dto.JobDTO;
 import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import com.mycompany.myapp.web.rest.util.AggregationUtil;
+import com.mycompany.myapp.web.rest.util.BulkUtil;
+import com.mycompany.myapp.web.rest.util.ETagUtil;
+import com.mycompany.myapp.web.rest.util.FieldsUtil;
+import com.mycompany.myapp.web.rest.util.KeysetPaginationUtil;
+import com.mycompany.myapp.web.rest.util.SlicePaginationUtil;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -28,7 +51,6 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
-import tech.jhipster.web.util.reactive.ResponseUtil;
 
 /**
  * REST controller for managing {@link com.mycompany.myapp.domain.Job}.
@@ -41,6 +63,16 @@ public class JobResource {
 
     private static final String ENTITY_NAME = "job";
 
+    private static final List<String> EXPORT_COLUMNS = List.of("id", "jobTitle", "jobDescription", "jobHours", "employee.id");
+
+    private static final Map<String, String> AGGREGATE_GROUPS = Map.of("employee", "employeeId", "jobTitle", "jobTitle");
+
+    private static final Set<String> AGGREGATE_PROPERTIES = Set.of("jobHours");
+
+    private static final Set<String> FIELDS = Set.of("id", "jobTitle", "jobDescription", "jobHours", "employee.id");
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "jobTitle", "jobDescription", "jobHours");
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
@@ -48,9 +80,28 @@ public class JobResource {
 
     private final JobRepository jobRepository;
 
-    public JobResource(JobService jobService, JobRepository jobRepository) {
+    private final ImportService importService;
+
+    private final ExportService exportService;
+
+    private final AggregationService aggregationService;
+
+    private final ChangeCounters changeCounters;
+
+    public JobResource(
+        JobService jobService,
+        JobRepository jobRepository,
+        ImportService importService,
+        ExportService exportService,
+        AggregationService aggregationService,
+        ChangeCounters changeCounters
+    ) {
         this.jobService = jobService;
         this.jobRepository = jobRepository;
+        this.importService = importService;
+        this.exportService = exportService;
+        this.aggregationService = aggregationService;
+        this.changeCounters = changeCounters;
     }
 
     /**
@@ -82,10 +133,34 @@ public class JobResource {
             );
     }
 
+    /**
+     * {@code POST  /jobs/import} : Create new jobs from a streamed NDJSON or CSV body.
+     * <p>
+     * The rows are saved in chunks, each chunk in its own transaction, and the progress is streamed back as the chunks are saved.
+     *
+     * @param request the request, with an {@code application/x-ndjson} or {@code text/csv} body.
+     * @return the outcome of each chunk, with the rejected rows.
+     */
+    @PostMapping(
+        value = "/jobs/import",
+        consumes = { MediaType.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE },
+        produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public Flux<ImportChunkDTO> importJobs(ServerHttpRequest request) {
+        log.debug("REST request to import Jobs");
+        DataFormat format = DataFormat.of(request.getHeaders().getContentType());
+        return importService.importAll(request.getBody(), format, JobDTO.class, jobService::saveAll);
+    }
+
     /**
      * {@code PUT  /jobs/:id} : Updates an existing job.
+     * <p>
+     * The update only applies to the version given by the {@code If-Match} header, or else by the body, and the new
+     * version is returned as the ETag: a {@code 412 (Precondition Failed)} tells the job was updated since it was read,
+     * a {@code 404 (Not Found)} that it doesn't exist.
      *
      * @param id the id of the jobDTO to save.
+     * @param ifMatch the ETag of the version to update, taking precedence over the version of the body; any version when absent.
      * @param jobDTO the jobDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated jobDTO,
      * or with status {@code 400 (Bad Request)} if the jobDTO is not valid,
@@ -93,8 +168,11 @@ public class JobResource {
      * @throws URISyntaxException if the Location URI syntax is incorrect.
      */
     @PutMapping("/jobs/{id}")
-    public Mono<ResponseEntity<JobDTO>> updateJob(@PathVariable(value = "id", required = false) final Long id, @RequestBody JobDTO jobDTO)
-        throws URISyntaxException {
+    public Mono<ResponseEntity<JobDTO>> updateJob(
+        @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody JobDTO jobDTO
+    ) throws URISyntaxException {
         log.debug("REST request to update Job : {}, {}", id, jobDTO);
         if (jobDTO.getId() == null) {
             throw new BadRequestAlertException("Invalid id", ENTITY_NAME, "idnull");
@@ -103,34 +181,34 @@ public class JobResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return jobRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    return jobService
-                        .save(jobDTO)
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            result ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString())
-                                    )
-                                    .body(result)
-                        );
-                }
+        Long version = ETagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            jobDTO.setVersion(version);
+        }
+        return jobService
+            .save(jobDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                result ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(ETagUtil.eTag(result.getVersion()))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, result.getId().toString()))
+                        .body(result)
             );
     }
 
     /**
      * {@code PATCH  /jobs/:id} : Partial updates given fields of an existing job, field will ignore if it is null
+     * <p>
+     * The columns of the given fields are written with a single update, which also reads back the updated row when the
+     * database allows it.
+     * The update only applies to the version given by the {@code If-Match} header, or else by the body, and the new
+     * version is returned as the ETag: a {@code 412 (Precondition Failed)} tells the job was updated since it was read,
+     * a {@code 404 (Not Found)} that it doesn't exist.
      *
      * @param id the id of the jobDTO to save.
+     * @param ifMatch the ETag of the version to update, taking precedence over the version of the body; any version when absent.
      * @param jobDTO the jobDTO to update.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the updated jobDTO,
      * or with status {@code 400 (Bad Request)} if the jobDTO is not valid,
@@ -141,6 +219,7 @@ public class JobResource {
     @PatchMapping(value = "/jobs/{id}", consumes = "application/merge-patch+json")
     public Mono<ResponseEntity<JobDTO>> partialUpdateJob(
         @PathVariable(value = "id", required = false) final Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @RequestBody JobDTO jobDTO
     ) throws URISyntaxException {
         log.debug("REST request to partial update Job partially : {}, {}", id, jobDTO);
@@ -151,61 +230,159 @@ public class JobResource {
             throw new BadRequestAlertException("Invalid ID", ENTITY_NAME, "idinvalid");
         }
 
-        return jobRepository
-            .existsById(id)
-            .flatMap(
-                exists -> {
-                    if (!exists) {
-                        return Mono.error(new BadRequestAlertException("Entity not found", ENTITY_NAME, "idnotfound"));
-                    }
-
-                    Mono<JobDTO> result = jobService.partialUpdate(jobDTO);
-
-                    return result
-                        .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
-                        .map(
-                            res ->
-                                ResponseEntity
-                                    .ok()
-                                    .headers(
-                                        HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString())
-                                    )
-                                    .body(res)
-                        );
-                }
+        Long version = ETagUtil.parseIfMatch(ifMatch);
+        if (version != null) {
+            jobDTO.setVersion(version);
+        }
+        return jobService
+            .partialUpdate(jobDTO)
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)))
+            .map(
+                res ->
+                    ResponseEntity
+                        .ok()
+                        .eTag(ETagUtil.eTag(res.getVersion()))
+                        .headers(HeaderUtil.createEntityUpdateAlert(applicationName, false, ENTITY_NAME, res.getId().toString()))
+                        .body(res)
             );
     }
 
     /**
      * {@code GET  /jobs} : get all the jobs.
+     * <p>
+     * The page and the total count are read with a single query. With {@code total=false}, the total isn't computed and
+     * only the links to the surrounding pages are returned, see {@link SlicePaginationUtil}. With {@code fields}, e.g.
+     * {@code ?fields=jobTitle,employee.id}, only the columns of the requested properties are read, without joining the
+     * employee, and only those properties and the id are returned.
+     * <p>
+     * The weak ETag changes with each write of a job. A request whose {@code If-None-Match} header matches it is answered with
+     * {@code 304 (Not Modified)}, without reading the database.
      *
      * @param pageable the pagination information.
+     * @param after the cursor of the last job of the previous page, to switch to keyset pagination; empty for the first page.
+     * @param total whether to compute the total count, {@code false} for the clients which don't need it.
+     * @param fields the properties to return, among {@code id}, {@code jobTitle}, {@code jobDescription}, {@code jobHours}
+     *               and {@code employee.id}; all of them when absent.
      * @param request a {@link ServerHttpRequest} request.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of jobs in body, or with status
+     *         {@code 400 (Bad Request)} if a requested property is invalid.
      */
     @GetMapping("/jobs")
-    public Mono<ResponseEntity<List<JobDTO>>> getAllJobs(Pageable pageable, ServerHttpRequest request) {
+    public Mono<ResponseEntity<MappingJacksonValue>> getAllJobs(
+        Pageable pageable,
+        @RequestParam(value = KeysetPaginationUtil.AFTER_PARAMETER, required = false) String after,
+        @RequestParam(value = SlicePaginationUtil.TOTAL_PARAMETER, defaultValue = "true") boolean total,
+        @RequestParam(value = FieldsUtil.FIELDS_PARAMETER, required = false) List<String> fields,
+        ServerHttpRequest request
+    ) {
         log.debug("REST request to get a page of Jobs");
+        Fieldset fieldset = FieldsUtil.parseFields(fields, FIELDS, ENTITY_NAME);
+        String eTag = ETagUtil.weakETag(changeCounters.version(Job.class));
+        Mono<ResponseEntity<MappingJacksonValue>> response;
+        if (after != null) {
+            response = getAllJobsAfter(pageable, after, fieldset, request);
+        } else if (!total) {
+            response =
+                jobService
+                    .findSlice(pageable, fieldset)
+                    .map(
+                        slice ->
+                            ResponseEntity
+                                .ok()
+                                .headers(SlicePaginationUtil.generateSliceHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), slice))
+                                .body(FieldsUtil.body(slice.getContent(), fieldset))
+                    );
+        } else {
+            response =
+                jobService
+                    .findPage(pageable, fieldset)
+                    .map(
+                        page ->
+                            ResponseEntity
+                                .ok()
+                                .headers(PaginationUtil.generatePaginationHttpHeaders(UriComponentsBuilder.fromHttpRequest(request), page))
+                                .body(FieldsUtil.body(page.getContent(), fieldset))
+                    );
+        }
+        return ETagUtil.ifNoneMatch(request, eTag, changeCounters.readLatest(response, Job.class));
+    }
+
+    /**
+     * {@code GET  /jobs?after=} : get a page of jobs after the given cursor, without computing the total count.
+     * The {@code next} link of the response points to the following page.
+     */
+    private Mono<ResponseEntity<MappingJacksonValue>> getAllJobsAfter(
+        Pageable pageable,
+        String after,
+        Fieldset fieldset,
+        ServerHttpRequest request
+    ) {
+        KeysetCursor cursor = KeysetPaginationUtil.parseCursor(after, pageable, SORT_PROPERTIES, ENTITY_NAME);
         return jobService
-            .countAll()
-            .zipWith(jobService.findAll(pageable).collectList())
+            .findAll(pageable, cursor, fieldset)
+            .collectList()
             .map(
-                countWithEntities -> {
-                    return ResponseEntity
+                entities ->
+                    ResponseEntity
                         .ok()
                         .headers(
-                            PaginationUtil.generatePaginationHttpHeaders(
+                            KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
                                 UriComponentsBuilder.fromHttpRequest(request),
-                                new PageImpl<>(countWithEntities.getT2(), pageable, countWithEntities.getT1())
+                                pageable,
+                                entities,
+                                ENTITY_NAME
                             )
                         )
-                        .body(countWithEntities.getT2());
-                }
+                        .body(FieldsUtil.body(entities, fieldset))
             );
     }
 
+    /**
+     * {@code GET  /jobs/aggregate} : aggregate the jobs by employee or by title, e.g.
+     * {@code ?groupBy=employee&sum=jobHours} for the workload of each employee.
+     * <p>
+     * The aggregation is computed by the database, only one row per group is read.
+     *
+     * @param groupBy the group: {@code employee} or {@code jobTitle}.
+     * @param request a {@link ServerHttpRequest} request, whose {@code sum}, {@code avg}, {@code min} and {@code max}
+     *                parameters name the aggregated properties: {@code jobHours}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the count and the aggregated values of each group
+     *         in body, or with status {@code 400 (Bad Request)} if the group or an aggregated property is invalid.
+     */
+    @GetMapping("/jobs/aggregate")
+    public Mono<ResponseEntity<List<Map<String, Object>>>> aggregateJobs(
+        @RequestParam(AggregationUtil.GROUP_BY_PARAMETER) String groupBy,
+        ServerHttpRequest request
+    ) {
+        log.debug("REST request to aggregate Jobs by : {}", groupBy);
+        String property = AggregationUtil.parseGroupBy(groupBy, AGGREGATE_GROUPS, ENTITY_NAME);
+        List<Aggregate> aggregates = AggregationUtil.parseAggregates(request.getQueryParams(), AGGREGATE_PROPERTIES, ENTITY_NAME);
+        return aggregationService.aggregate(Job.class, groupBy, property, aggregates).map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code GET  /jobs/export} : export all the jobs, as NDJSON or as CSV depending on the {@code Accept} header.
+     * <p>
+     * The rows are streamed from the database to the client as it reads them, without loading the whole table in memory.
+     *
+     * @param request  a {@link ServerHttpRequest} request.
+     * @param response the response, which provides the buffers.
+     * @return the jobs, one per line.
+     */
+    @GetMapping(value = "/jobs/export", produces = { MediaType.APPLICATION_NDJSON_VALUE, DataFormat.TEXT_CSV_VALUE })
+    public Flux<DataBuffer> exportJobs(ServerHttpRequest request, ServerHttpResponse response) {
+        log.debug("REST request to export Jobs");
+        DataFormat format = DataFormat.of(request.getHeaders().getAccept());
+        if (format == DataFormat.CSV) {
+            response.getHeaders().setContentDisposition(ContentDisposition.attachment().filename("jobs.csv").build());
+        }
+        return exportService.exportAll(jobService.streamAll(), format, EXPORT_COLUMNS, response.bufferFactory());
+    }
+
     /**
      * {@code GET  /jobs/:id} : get the "id" job.
+     * <p>
+     * The version of the job is returned as the ETag, for the {@code If-Match} header of its updates.
      *
      * @param id the id of the jobDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the jobDTO, or with status {@code 404 (Not Found)}.
@@ -214,7 +391,7 @@ public class JobResource {
     public Mono<ResponseEntity<JobDTO>> getJob(@PathVariable Long id) {
         log.debug("REST request to get Job : {}", id);
         Mono<JobDTO> jobDTO = jobService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(jobDTO);
+        return ETagUtil.wrapOrNotFound(jobDTO, JobDTO::getVersion);
     }
 
     /**
@@ -237,4 +414,58 @@ public class JobResource {
                         .build()
             );
     }
+
+    /**
+     * {@code GET  /jobs?ids=} : get the jobs with the given ids.
+     * <p>
+     * The jobs are read with a select for a batch of ids, instead of a request per job.
+     *
+     * @param ids the ids of the jobs, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome for each distinct id in body:
+     *         {@code FOUND} with the job, or {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if there are
+     *         too many ids.
+     */
+    @GetMapping(value = "/jobs", params = BulkUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<BulkItemDTO<JobDTO>>>> getJobsById(@RequestParam(BulkUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to get Jobs : {}", ids);
+        return jobService.findAllById(BulkUtil.parseIds(ids, ENTITY_NAME)).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code PATCH  /jobs} : Partial updates given fields of existing jobs, as {@code PATCH  /jobs/:id} does for each of
+     * them.
+     * <p>
+     * The jobs are updated in a single transaction, with a batched update for the jobs whose given fields are the same.
+     * The update of a job only applies to its version, when given in the body.
+     *
+     * @param jobDTOs the jobDTOs to update, with distinct ids, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome of each update in body, in the
+     *         same order: {@code UPDATED} with the updated job, {@code VERSION_CONFLICT} with the current job, or
+     *         {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if an id is missing or repeated, or if there
+     *         are too many jobs.
+     */
+    @PatchMapping(
+        value = "/jobs",
+        consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, JacksonConfiguration.APPLICATION_SMILE_VALUE }
+    )
+    public Mono<ResponseEntity<List<BulkItemDTO<JobDTO>>>> partialUpdateJobs(@RequestBody List<JobDTO> jobDTOs) {
+        log.debug("REST request to partial update {} Jobs", jobDTOs.size());
+        BulkUtil.checkEntities(jobDTOs, JobDTO::getId, ENTITY_NAME);
+        return jobService.partialUpdateAll(jobDTOs).collectList().map(ResponseEntity::ok);
+    }
+
+    /**
+     * {@code DELETE  /jobs?ids=} : delete the jobs with the given ids.
+     * <p>
+     * The jobs are deleted in a single transaction, with a delete for a batch of ids.
+     *
+     * @param ids the ids of the jobs, at most {@value BulkUtil#MAX_ITEMS}.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the outcome for each distinct id in body:
+     *         {@code DELETED}, or {@code NOT_FOUND}; or with status {@code 400 (Bad Request)} if there are too many ids.
+     */
+    @DeleteMapping(value = "/jobs", params = BulkUtil.IDS_PARAMETER)
+    public Mono<ResponseEntity<List<BulkItemDTO<JobDTO>>>> deleteJobs(@RequestParam(BulkUtil.IDS_PARAMETER) List<Long> ids) {
+        log.debug("REST request to delete Jobs : {}", ids);
+        return jobService.deleteAll(BulkUtil.parseIds(ids, ENTITY_NAME)).collectList().map(ResponseEntity::ok);
+    }
 }
@@ -0,0 +1,78 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.service.EntityManager.Aggregate;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.util.MultiValueMap;
+
+/**
+ * Utility class for reading the aggregation requests, e.g. {@code ?groupBy=employee&sum=jobHours&max=jobHours}.
+ * <p>
+ * The group and the aggregated properties are checked against the whitelists of the resource, so only the properties
+ * it exposes for aggregation reach the SQL.
+ */
+public final class AggregationUtil {
+
+    public static final String GROUP_BY_PARAMETER = "groupBy";
+
+    private static final List<Aggregate.Function> FUNCTIONS = List.of(
+        Aggregate.Function.SUM,
+        Aggregate.Function.AVG,
+        Aggregate.Function.MIN,
+        Aggregate.Function.MAX
+    );
+
+    private AggregationUtil() {}
+
+    /**
+     * Resolves the {@code groupBy} request parameter.
+     * @param groupBy the {@code groupBy} request parameter.
+     * @param groups the property grouping the rows, by the name of the group in the request.
+     * @param entityName the name of the entity, used in the error message.
+     * @return the property grouping the rows.
+     * @throws BadRequestAlertException if the group isn't whitelisted.
+     */
+    public static String parseGroupBy(String groupBy, Map<String, String> groups, String entityName) {
+        String property = groups.get(groupBy);
+        if (property == null) {
+            throw new BadRequestAlertException("Invalid group, expected one of " + groups.keySet(), entityName, "groupbyinvalid");
+        }
+        return property;
+    }
+
+    /**
+     * Reads the {@code sum}, {@code avg}, {@code min} and {@code max} request parameters, each one naming the aggregated
+     * properties, repeated or separated by commas.
+     * @param queryParams the request parameters.
+     * @param properties the numeric properties which can be aggregated.
+     * @param entityName the name of the entity, used in the error message.
+     * @return the requested aggregates, without duplicates.
+     * @throws BadRequestAlertException if a property isn't whitelisted.
+     */
+    public static List<Aggregate> parseAggregates(MultiValueMap<String, String> queryParams, Set<String> properties, String entityName) {
+        List<Aggregate> aggregates = new ArrayList<>();
+        for (Aggregate.Function function : FUNCTIONS) {
+            for (String value : queryParams.getOrDefault(function.name().toLowerCase(Locale.ROOT), List.of())) {
+                for (String property : value.split(",")) {
+                    String trimmed = property.trim();
+                    if (!properties.contains(trimmed)) {
+                        throw new BadRequestAlertException(
+                            "Invalid aggregated property, expected one of " + properties,
+                            entityName,
+                            "aggregateinvalid"
+                        );
+                    }
+                    Aggregate aggregate = Aggregate.of(function, trimmed);
+                    if (!aggregates.contains(aggregate)) {
+                        aggregates.add(aggregate);
+                    }
+                }
+            }
+        }
+        return aggregates;
+    }
+}
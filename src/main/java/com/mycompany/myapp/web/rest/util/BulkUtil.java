@@ -0,0 +1,69 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Utility class for the bulk requests, e.g. {@code GET /api/employees?ids=1,2,3}, which read, update or delete many
+ * entities with a few statements, instead of one request per entity.
+ */
+public final class BulkUtil {
+
+    public static final String IDS_PARAMETER = "ids";
+
+    /**
+     * Maximum number of entities of a bulk request.
+     */
+    public static final int MAX_ITEMS = 1000;
+
+    private BulkUtil() {}
+
+    /**
+     * Reads the ids of a bulk read or delete.
+     * @param ids the {@code ids} request parameter, repeated or separated by commas.
+     * @param entityName the name of the entity, used in the error message.
+     * @return the distinct ids, in the requested order.
+     * @throws BadRequestAlertException if an id is empty, or if there are more than {@value #MAX_ITEMS} ids.
+     */
+    public static List<Long> parseIds(List<Long> ids, String entityName) {
+        if (ids.contains(null)) {
+            throw new BadRequestAlertException("Invalid id", entityName, "idnull");
+        }
+        List<Long> distinctIds = ids.stream().distinct().collect(Collectors.toList());
+        checkSize(distinctIds, entityName);
+        return distinctIds;
+    }
+
+    /**
+     * Checks the entities of a bulk update.
+     * @param <T> the type of the entities.
+     * @param entities the entities, each one with its id.
+     * @param id reads the id of an entity.
+     * @param entityName the name of the entity, used in the error message.
+     * @throws BadRequestAlertException if an id is missing or repeated, or if there are more than {@value #MAX_ITEMS}
+     *         entities.
+     */
+    public static <T> void checkEntities(List<T> entities, Function<T, Long> id, String entityName) {
+        checkSize(entities, entityName);
+        Set<Long> ids = new HashSet<>();
+        for (T entity : entities) {
+            Long entityId = entity != null ? id.apply(entity) : null;
+            if (entityId == null) {
+                throw new BadRequestAlertException("Invalid id", entityName, "idnull");
+            }
+            if (!ids.add(entityId)) {
+                throw new BadRequestAlertException("Duplicate id " + entityId, entityName, "idduplicate");
+            }
+        }
+    }
+
+    private static void checkSize(List<?> items, String entityName) {
+        if (items.size() > MAX_ITEMS) {
+            throw new BadRequestAlertException("At most " + MAX_ITEMS + " entities per request", entityName, "bulktoolarge");
+        }
+    }
+}
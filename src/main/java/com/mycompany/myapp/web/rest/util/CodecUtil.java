@@ -0,0 +1,79 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.config.JacksonConfiguration;
+import java.util.List;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.CodecConfigurer;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageEncoder;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+
+/**
+ * Utility class for the responses written as buffers, e.g. the streamed reports, in the binary formats of the API, see
+ * {@link JacksonConfiguration#binaryCodecsCustomizer}.
+ * <p>
+ * Only the streaming media types apply, e.g. {@code application/stream+x-jackson-smile}: the other binary types have no
+ * streaming array, so they would hold the whole list. The endpoints writing buffers don't produce them.
+ */
+public final class CodecUtil {
+
+    /**
+     * The binary streaming media types, which the endpoints writing buffers have to list among the types they produce.
+     */
+    public static final List<MediaType> BINARY_STREAMING_MEDIA_TYPES = List.of(
+        MediaType.parseMediaType(JacksonConfiguration.APPLICATION_STREAM_SMILE_VALUE)
+    );
+
+    private CodecUtil() {}
+
+    /**
+     * Finds the encoder of a binary streaming media type.
+     * @param codecs the codecs of the server.
+     * @param type the type of the values.
+     * @param mediaType an acceptable media type.
+     * @return the encoder, or {@code null} if the media type isn't one of the {@link #BINARY_STREAMING_MEDIA_TYPES}.
+     */
+    @Nullable
+    public static HttpMessageEncoder<?> findStreamingEncoder(CodecConfigurer codecs, Class<?> type, MediaType mediaType) {
+        if (BINARY_STREAMING_MEDIA_TYPES.stream().noneMatch(streaming -> streaming.equalsTypeAndSubtype(mediaType))) {
+            return null;
+        }
+        ResolvableType elementType = ResolvableType.forClass(type);
+        for (HttpMessageWriter<?> writer : codecs.getWriters()) {
+            if (writer instanceof EncoderHttpMessageWriter) {
+                Encoder<?> encoder = ((EncoderHttpMessageWriter<?>) writer).getEncoder();
+                if (encoder instanceof HttpMessageEncoder && encoder.canEncode(elementType, mediaType)) {
+                    return (HttpMessageEncoder<?>) encoder;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Encodes values as they come.
+     * @param <T> the type of the values.
+     * @param values the values.
+     * @param type the type of the values.
+     * @param encoder the encoder, see {@link #findStreamingEncoder}.
+     * @param mediaType the media type of the response.
+     * @param bufferFactory the factory of the buffers.
+     * @return the buffers.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Flux<DataBuffer> encode(
+        Flux<T> values,
+        Class<T> type,
+        HttpMessageEncoder<?> encoder,
+        MediaType mediaType,
+        DataBufferFactory bufferFactory
+    ) {
+        return ((HttpMessageEncoder<Object>) encoder).encode(values, bufferFactory, ResolvableType.forClass(type), mediaType, null);
+    }
+}
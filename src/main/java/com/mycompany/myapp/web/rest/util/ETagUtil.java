@@ -0,0 +1,155 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.util.List;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.lang.Nullable;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Utility class for the ETag of the versioned entities, which is their quoted version, e.g. {@code "3"}, and for the
+ * {@code If-Match} precondition of their updates.
+ * <p>
+ * The ETag of a collection is the version of its entities, see
+ * {@link com.mycompany.myapp.service.ChangeCounters#version(Class[])}, and so is the version of the entities included
+ * along a single entity, after its own version, e.g. {@code "3-k3x9b2-40"}. A {@code GET} whose {@code If-None-Match}
+ * header matches the ETag is answered with {@code 304 (Not Modified)}.
+ * <p>
+ * The ETag of a collection is weak, e.g. {@code W/"k3x9b2"}, and sent with {@code Vary: Accept}: the version is the same
+ * for all the representations of the collection (JSON, CBOR or Smile), which aren't byte for byte the same.
+ */
+public final class ETagUtil {
+
+    private ETagUtil() {}
+
+    /**
+     * @param version the version of an entity.
+     * @return the ETag of the version.
+     */
+    public static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param version the version of a collection.
+     * @return the weak ETag of the collection.
+     */
+    public static String weakETag(String version) {
+        return "W/" + eTag(version);
+    }
+
+    private static String eTag(String version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * @param version the version of an entity.
+     * @param includedVersion the version of the entities included along, or {@code null}.
+     * @return the ETag of the entity and of the included entities.
+     */
+    public static String eTag(long version, @Nullable String includedVersion) {
+        return includedVersion != null ? eTag(version + "-" + includedVersion) : eTag(version);
+    }
+
+    /**
+     * Reads the version an update requires.
+     * @param ifMatch the {@code If-Match} request header, {@code null} when absent.
+     * @return the version, or {@code null} if any version matches. The version of the included entities, if any, is
+     *         ignored.
+     * @throws ResponseStatusException with status {@code 412 (Precondition Failed)} if the header isn't the ETag of a
+     *         version, e.g. a weak ETag, which never matches an {@code If-Match}.
+     */
+    @Nullable
+    public static Long parseIfMatch(@Nullable String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.length() > 2 && eTag.startsWith("\"") && eTag.endsWith("\"")) {
+            try {
+                String version = eTag.substring(1, eTag.length() - 1);
+                int included = version.indexOf('-');
+                return Long.valueOf(included > 0 ? version.substring(0, included) : version);
+            } catch (NumberFormatException e) {
+                // Not one of our ETags
+            }
+        }
+        throw new ResponseStatusException(HttpStatus.PRECONDITION_FAILED, "If-Match doesn't match the version: " + ifMatch);
+    }
+
+    /**
+     * Wraps a versioned entity into a {@link ResponseEntity} with its ETag, or a {@code 404 (Not Found)} if it's empty.
+     * @param <X> the type of the entity.
+     * @param maybeResponse the entity, or empty.
+     * @param version reads the version of the entity.
+     * @return the response.
+     */
+    public static <X> Mono<ResponseEntity<X>> wrapOrNotFound(Mono<X> maybeResponse, Function<X, Long> version) {
+        return wrapOrNotFound(maybeResponse, version, null);
+    }
+
+    /**
+     * Wraps a versioned entity into a {@link ResponseEntity} with its ETag, or a {@code 404 (Not Found)} if it's empty.
+     * @param <X> the type of the entity.
+     * @param maybeResponse the entity, or empty.
+     * @param version reads the version of the entity.
+     * @param includedVersion the version of the entities included along, to be read before them, or {@code null}.
+     * @return the response.
+     */
+    public static <X> Mono<ResponseEntity<X>> wrapOrNotFound(
+        Mono<X> maybeResponse,
+        Function<X, Long> version,
+        @Nullable String includedVersion
+    ) {
+        return maybeResponse
+            .map(response -> ResponseEntity.ok().eTag(eTag(version.apply(response), includedVersion)).body(response))
+            .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    /**
+     * Answers a {@code GET} of a collection with {@code 304 (Not Modified)} if its {@code If-None-Match} header matches the
+     * ETag, without subscribing to the response, so without reading the database. Otherwise adds the ETag to the
+     * response. Both vary with the {@code Accept} header.
+     * @param <X> the type of the body.
+     * @param request the request.
+     * @param eTag the current weak ETag of the collection, to be computed before its response, see {@link #weakETag}.
+     * @param response the response, when it's modified.
+     * @return the response.
+     */
+    public static <X> Mono<ResponseEntity<X>> ifNoneMatch(ServerHttpRequest request, String eTag, Mono<ResponseEntity<X>> response) {
+        if (matches(request.getHeaders().getIfNoneMatch(), eTag)) {
+            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build());
+        }
+        return response.map(
+            entity ->
+                ResponseEntity
+                    .status(entity.getStatusCode())
+                    .headers(entity.getHeaders())
+                    .eTag(eTag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .body(entity.getBody())
+        );
+    }
+
+    /**
+     * Compares the ETags of an {@code If-None-Match} header with the weak comparison, which ignores the {@code W/} prefix.
+     */
+    private static boolean matches(List<String> ifNoneMatch, String eTag) {
+        String opaqueTag = opaqueTag(eTag);
+        for (String candidate : ifNoneMatch) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || opaqueTag(tag).equals(opaqueTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaqueTag(String eTag) {
+        return eTag.startsWith("W/") ? eTag.substring(2) : eTag;
+    }
+}
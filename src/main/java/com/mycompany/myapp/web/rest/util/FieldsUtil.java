@@ -0,0 +1,128 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.mycompany.myapp.repository.Fieldset;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.lang.Nullable;
+
+/**
+ * Utility class for reading the {@code fields} request parameter, e.g. {@code ?fields=id,jobTitle,employee.id}, which
+ * selects the properties of the entities to return, and for writing only those properties in the response.
+ * <p>
+ * The requested properties are checked against the whitelist of the resource, so only the properties it exposes reach
+ * the SQL.
+ */
+public final class FieldsUtil {
+
+    public static final String FIELDS_PARAMETER = "fields";
+
+    private FieldsUtil() {}
+
+    /**
+     * Reads the {@code fields} request parameter.
+     * @param fields the {@code fields} request parameter, repeated or separated by commas; {@code null} when absent.
+     * @param properties the properties which can be requested, nested properties written with a dot.
+     * @param entityName the name of the entity, used in the error message.
+     * @return the requested properties, the id always being one of them; {@code null} for all of them.
+     * @throws BadRequestAlertException if a property isn't whitelisted.
+     */
+    @Nullable
+    public static Fieldset parseFields(@Nullable List<String> fields, Set<String> properties, String entityName) {
+        if (fields == null) {
+            return null;
+        }
+        List<String> paths = new ArrayList<>();
+        for (String value : fields) {
+            for (String path : value.split(",")) {
+                String trimmed = path.trim();
+                if (!properties.contains(trimmed)) {
+                    throw new BadRequestAlertException("Invalid field, expected one of " + properties, entityName, "fieldsinvalid");
+                }
+                paths.add(trimmed);
+            }
+        }
+        return Fieldset.of(paths);
+    }
+
+    /**
+     * Wraps a response body so only the requested properties of its DTOs are serialized.
+     * @param body the response body.
+     * @param fields the requested properties, or {@code null} for all of them.
+     * @param included the relationships requested with the {@code include} parameter, serialized as a whole.
+     * @return the body to return.
+     */
+    public static MappingJacksonValue body(Object body, @Nullable Fieldset fields, String... included) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        if (fields != null) {
+            Set<String> paths = new HashSet<>(fields.getPaths());
+            paths.addAll(List.of(included));
+            value.setFilters(new SimpleFilterProvider().addFilter(Fieldset.FILTER, new PathFilter(paths)));
+        }
+        return value;
+    }
+
+    /**
+     * Writes the properties whose path, from the root of the body, is requested: the requested properties, the objects
+     * holding them, and everything below them.
+     */
+    private static final class PathFilter extends SimpleBeanPropertyFilter {
+
+        private final Set<String> paths;
+
+        private final Set<String> parents = new HashSet<>();
+
+        PathFilter(Set<String> paths) {
+            this.paths = paths;
+            for (String path : paths) {
+                for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+                    parents.add(path.substring(0, dot));
+                }
+            }
+        }
+
+        @Override
+        public void serializeAsField(Object pojo, JsonGenerator jgen, SerializerProvider provider, PropertyWriter writer)
+            throws Exception {
+            if (isWritten(path(jgen.getOutputContext(), writer.getName()))) {
+                writer.serializeAsField(pojo, jgen, provider);
+            } else if (!jgen.canOmitFields()) {
+                writer.serializeAsOmittedField(pojo, jgen, provider);
+            }
+        }
+
+        private boolean isWritten(String path) {
+            if (paths.contains(path) || parents.contains(path)) {
+                return true;
+            }
+            for (int dot = path.indexOf('.'); dot >= 0; dot = path.indexOf('.', dot + 1)) {
+                if (paths.contains(path.substring(0, dot))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The path of a property: the names of the enclosing properties, skipping the arrays.
+         */
+        private static String path(JsonStreamContext context, String name) {
+            StringBuilder path = new StringBuilder(name);
+            for (JsonStreamContext parent = context.getParent(); parent != null; parent = parent.getParent()) {
+                if (parent.inObject() && parent.getCurrentName() != null) {
+                    path.insert(0, '.').insert(0, parent.getCurrentName());
+                }
+            }
+            return path.toString();
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.util.List;
+
+/**
+ * Utility class for reading the {@code include} request parameter, e.g. {@code ?include=jobs}, which asks for the
+ * relationships to load along with the entities.
+ * <p>
+ * The related entities of a whole page are loaded with a single query, instead of one request per entity.
+ */
+public final class IncludeUtil {
+
+    public static final String INCLUDE_PARAMETER = "include";
+
+    private IncludeUtil() {}
+
+    /**
+     * Tells if a relationship is requested.
+     * @param include the {@code include} request parameter, repeated or separated by commas; {@code null} when absent.
+     * @param relationship the relationship which can be included.
+     * @param entityName the name of the entity, used in the error message.
+     * @return whether the relationship is requested.
+     * @throws BadRequestAlertException if another relationship is requested.
+     */
+    public static boolean includes(List<String> include, String relationship, String entityName) {
+        if (include == null) {
+            return false;
+        }
+        boolean included = false;
+        for (String value : include) {
+            if (!relationship.equals(value.trim())) {
+                throw new BadRequestAlertException("Invalid include, expected " + relationship, entityName, "includeinvalid");
+            }
+            included = true;
+        }
+        return included;
+    }
+}
@@ -0,0 +1,91 @@
+package com.mycompany.myapp.web.rest.util;
+
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.web.rest.errors.BadRequestAlertException;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.Set;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (cursor) pagination.
+ * <p>
+ * The client asks for the first page with an empty {@code after} parameter, and then follows the {@code next} link,
+ * which carries the opaque cursor of the last returned row. Unlike the offset based pagination, no total count is computed.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String AFTER_PARAMETER = "after";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Decodes the {@code after} request parameter, and checks that the sort can be used for keyset pagination.
+     * @param after the {@code after} request parameter, empty for the first page.
+     * @param pageable the pagination information.
+     * @param sortProperties the properties the entities can be sorted by.
+     * @param entityName the name of the entity, used in the error message.
+     * @return the decoded cursor, or {@code null} for the first page.
+     * @throws BadRequestAlertException if the cursor is malformed or was created for another sort, or the sort has more
+     *                                  than one property or a property which can't be sorted by.
+     */
+    public static KeysetCursor parseCursor(String after, Pageable pageable, Set<String> sortProperties, String entityName) {
+        if (pageable.getSort().stream().count() > 1) {
+            throw new BadRequestAlertException("Keyset pagination supports a single sort property", entityName, "sortinvalid");
+        }
+        Sort.Order order = KeysetCursor.orderOf(pageable.getSort());
+        if (!sortProperties.contains(order.getProperty())) {
+            throw new BadRequestAlertException("Invalid sort property, expected one of " + sortProperties, entityName, "sortinvalid");
+        }
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.decode(after);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", entityName, "cursorinvalid");
+        }
+        if (cursor != null && !cursor.matches(order)) {
+            throw new BadRequestAlertException("The cursor was created for another sort", entityName, "cursorinvalid");
+        }
+        return cursor;
+    }
+
+    /**
+     * Generate the {@code next} link header for a keyset page, pointing after the last element of the page.
+     * No link is generated when the page isn't full, as it was the last one.
+     * @param uriBuilder the URI of the current request.
+     * @param pageable the pagination information.
+     * @param content the elements of the current page.
+     * @param entityName the name of the entity, used in the error message.
+     * @param <T> the type of the elements.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Pageable pageable,
+        List<T> content,
+        String entityName
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (content.isEmpty() || content.size() < pageable.getPageSize()) {
+            return headers;
+        }
+        KeysetCursor next;
+        try {
+            next = KeysetCursor.of(content.get(content.size() - 1), pageable.getSort());
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid sort property for keyset pagination", entityName, "sortinvalid");
+        }
+        String link = uriBuilder
+            .replaceQueryParam("page")
+            .replaceQueryParam(AFTER_PARAMETER, next.encode())
+            .replaceQueryParam("size", pageable.getPageSize())
+            .toUriString();
+        headers.add(HttpHeaders.LINK, MessageFormat.format(HEADER_LINK_FORMAT, link, "next"));
+        return headers;
+    }
+}
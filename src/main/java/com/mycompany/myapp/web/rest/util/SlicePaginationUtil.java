@@ -0,0 +1,50 @@
+package com.mycompany.myapp.web.rest.util;
+
+import java.text.MessageFormat;
+import java.util.StringJoiner;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling offset pagination without a total count, for the clients which only scroll to the next page.
+ * <p>
+ * The client asks for it with {@code total=false}: no {@code X-Total-Count} header and no {@code last} link are
+ * generated, and the {@code next} link is only present when there is a next page.
+ */
+public final class SlicePaginationUtil {
+
+    public static final String TOTAL_PARAMETER = "total";
+
+    private static final String HEADER_LINK_FORMAT = "<{0}>; rel=\"{1}\"";
+
+    private SlicePaginationUtil() {}
+
+    /**
+     * Generate the {@code next}, {@code prev} and {@code first} link headers of a slice.
+     * @param uriBuilder the URI of the current request.
+     * @param slice the current page.
+     * @param <T> the type of the elements.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generateSliceHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice) {
+        int page = slice.getNumber();
+        int size = slice.getSize();
+        StringJoiner link = new StringJoiner(",");
+        if (slice.hasNext()) {
+            link.add(prepareLink(uriBuilder, page + 1, size, "next"));
+        }
+        if (slice.hasPrevious()) {
+            link.add(prepareLink(uriBuilder, page - 1, size, "prev"));
+        }
+        link.add(prepareLink(uriBuilder, 0, size, "first"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.LINK, link.toString());
+        return headers;
+    }
+
+    private static String prepareLink(UriComponentsBuilder uriBuilder, int page, int size, String relType) {
+        String uri = uriBuilder.replaceQueryParam("page", page).replaceQueryParam("size", size).toUriString();
+        return MessageFormat.format(HEADER_LINK_FORMAT, uri, relType);
+    }
+}
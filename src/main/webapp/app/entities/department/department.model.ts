@@ -2,12 +2,13 @@ import { IEmployee } from 'app/entities/employee/employee.model';
 
 export interface IDepartment {
   id?: number;
+  version?: number;
   departmentName?: string;
   employees?: IEmployee[] | null;
 }
 
 export class Department implements IDepartment {
-  constructor(public id?: number, public departmentName?: string, public employees?: IEmployee[] | null) {}
+  constructor(public id?: number, public departmentName?: string, public employees?: IEmployee[] | null, public version?: number) {}
 }
 
 export function getDepartmentIdentifier(department: IDepartment): number | undefined {
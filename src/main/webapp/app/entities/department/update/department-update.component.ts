@@ -17,6 +17,7 @@ export class DepartmentUpdateComponent implements OnInit {
 
   editForm = this.fb.group({
     id: [],
+    version: [],
     departmentName: [null, [Validators.required]],
   });
 
@@ -64,6 +65,7 @@ export class DepartmentUpdateComponent implements OnInit {
   protected updateForm(department: IDepartment): void {
     this.editForm.patchValue({
       id: department.id,
+      version: department.version,
       departmentName: department.departmentName,
     });
   }
@@ -72,6 +74,7 @@ export class DepartmentUpdateComponent implements OnInit {
     return {
       ...new Department(),
       id: this.editForm.get(['id'])!.value,
+      version: this.editForm.get(['version'])!.value,
       departmentName: this.editForm.get(['departmentName'])!.value,
     };
   }
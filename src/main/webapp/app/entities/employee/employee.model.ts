@@ -3,6 +3,7 @@ import { IDepartment } from 'app/entities/department/department.model';
 
 export interface IEmployee {
   id?: number;
+  version?: number;
   firstName?: string | null;
   lastName?: string | null;
   email?: string | null;
@@ -21,7 +22,8 @@ export class Employee implements IEmployee {
     public phoneNumber?: string | null,
     public salary?: number | null,
     public jobs?: IJob[] | null,
-    public department?: IDepartment | null
+    public department?: IDepartment | null,
+    public version?: number
   ) {}
 }
 
@@ -40,13 +40,13 @@ describe('Component Tests', () => {
     });
 
     describe('ngOnInit', () => {
-      it('Should call Department query and add missing value', () => {
+      it('Should call Department findAll and add missing value', () => {
         const employee: IEmployee = { id: 456 };
         const department: IDepartment = { id: 35363 };
         employee.department = department;
 
         const departmentCollection: IDepartment[] = [{ id: 78278 }];
-        jest.spyOn(departmentService, 'query').mockReturnValue(of(new HttpResponse({ body: departmentCollection })));
+        jest.spyOn(departmentService, 'findAll').mockReturnValue(of(new HttpResponse({ body: departmentCollection })));
         const additionalDepartments = [department];
         const expectedCollection: IDepartment[] = [...additionalDepartments, ...departmentCollection];
         jest.spyOn(departmentService, 'addDepartmentToCollectionIfMissing').mockReturnValue(expectedCollection);
@@ -54,7 +54,7 @@ describe('Component Tests', () => {
         activatedRoute.data = of({ employee });
         comp.ngOnInit();
 
-        expect(departmentService.query).toHaveBeenCalled();
+        expect(departmentService.findAll).toHaveBeenCalled();
         expect(departmentService.addDepartmentToCollectionIfMissing).toHaveBeenCalledWith(departmentCollection, ...additionalDepartments);
         expect(comp.departmentsSharedCollection).toEqual(expectedCollection);
       });
@@ -21,6 +21,7 @@ export class EmployeeUpdateComponent implements OnInit {
 
   editForm = this.fb.group({
     id: [],
+    version: [],
     firstName: [],
     lastName: [],
     email: [],
@@ -84,6 +85,7 @@ export class EmployeeUpdateComponent implements OnInit {
   protected updateForm(employee: IEmployee): void {
     this.editForm.patchValue({
       id: employee.id,
+      version: employee.version,
       firstName: employee.firstName,
       lastName: employee.lastName,
       email: employee.email,
@@ -100,7 +102,7 @@ export class EmployeeUpdateComponent implements OnInit {
 
   protected loadRelationshipsOptions(): void {
     this.departmentService
-      .query()
+      .findAll()
       .pipe(map((res: HttpResponse<IDepartment[]>) => res.body ?? []))
       .pipe(
         map((departments: IDepartment[]) =>
@@ -114,6 +116,7 @@ export class EmployeeUpdateComponent implements OnInit {
     return {
       ...new Employee(),
       id: this.editForm.get(['id'])!.value,
+      version: this.editForm.get(['version'])!.value,
       firstName: this.editForm.get(['firstName'])!.value,
       lastName: this.editForm.get(['lastName'])!.value,
       email: this.editForm.get(['email'])!.value,
@@ -2,6 +2,7 @@ import { IEmployee } from 'app/entities/employee/employee.model';
 
 export interface IJob {
   id?: number;
+  version?: number;
   jobTitle?: string | null;
   jobDescription?: string | null;
   jobHours?: number | null;
@@ -14,7 +15,8 @@ export class Job implements IJob {
     public jobTitle?: string | null,
     public jobDescription?: string | null,
     public jobHours?: number | null,
-    public employee?: IEmployee | null
+    public employee?: IEmployee | null,
+    public version?: number
   ) {}
 }
 
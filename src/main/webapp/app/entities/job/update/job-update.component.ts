@@ -21,6 +21,7 @@ export class JobUpdateComponent implements OnInit {
 
   editForm = this.fb.group({
     id: [],
+    version: [],
     jobTitle: [],
     jobDescription: [],
     jobHours: [],
@@ -82,6 +83,7 @@ export class JobUpdateComponent implements OnInit {
   protected updateForm(job: IJob): void {
     this.editForm.patchValue({
       id: job.id,
+      version: job.version,
       jobTitle: job.jobTitle,
       jobDescription: job.jobDescription,
       jobHours: job.jobHours,
@@ -107,6 +109,7 @@ export class JobUpdateComponent implements OnInit {
     return {
       ...new Job(),
       id: this.editForm.get(['id'])!.value,
+      version: this.editForm.get(['version'])!.value,
       jobTitle: this.editForm.get(['jobTitle'])!.value,
       jobDescription: this.editForm.get(['jobDescription'])!.value,
       jobHours: this.editForm.get(['jobHours'])!.value,
@@ -0,0 +1,216 @@
+package com.mycompany.myapp.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Publisher;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Mono;
+
+class ReplicaRoutingConnectionFactoryTest {
+
+    private final ConnectionFactory primary = database("routing-primary");
+
+    private final ConnectionFactory replica = database("routing-replica");
+
+    private final ApplicationProperties.Replicas properties = new ApplicationProperties.Replicas();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ReplicaRoutingConnectionFactory routingConnectionFactory;
+
+    @BeforeEach
+    void init() {
+        node(primary, "primary");
+        node(replica, "replica");
+        execute(replica, "CREATE TABLE IF NOT EXISTS replica_lag(seconds INT)");
+        execute(replica, "DELETE FROM replica_lag");
+        execute(replica, "INSERT INTO replica_lag VALUES (2)");
+        properties.setLagQuery("SELECT seconds FROM replica_lag");
+        properties.setMaxLag(Duration.ofSeconds(10));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void dispose() {
+        if (routingConnectionFactory != null) {
+            routingConnectionFactory.dispose();
+        }
+    }
+
+    @Test
+    void readOnlyTransactionsGoToAnEligibleReplica() {
+        routingConnectionFactory = routingConnectionFactory(Map.of("replica-0", replica));
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(true)).isEqualTo("replica");
+        assertThat(connections("replica-0", true)).isEqualTo(1);
+        assertThat(meterRegistry.get("r2dbc.routing.replica.eligible").tag("route", "replica-0").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("r2dbc.routing.replica.lag").tag("route", "replica-0").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void otherConnectionsGoToThePrimary() {
+        routingConnectionFactory = routingConnectionFactory(Map.of("replica-0", replica));
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(false)).isEqualTo("primary");
+        assertThat(DatabaseClient.create(routingConnectionFactory).sql("SELECT name FROM node").map(row -> row.get(0)).one().block())
+            .isEqualTo("primary");
+        assertThat(connections("primary", false)).isEqualTo(2);
+        assertThat(connections("replica-0", true)).isZero();
+    }
+
+    @Test
+    void readOnlyTransactionsOfAReadOnThePrimaryGoToThePrimary() {
+        routingConnectionFactory = routingConnectionFactory(Map.of("replica-0", replica));
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(ReplicaRoutingConnectionFactory.onPrimary(readingNode(true)).block()).isEqualTo("primary");
+        assertThat(readNode(true)).isEqualTo("replica");
+        assertThat(connections("primary", true)).isEqualTo(1);
+        assertThat(connections("replica-0", true)).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToThePrimaryBeforeTheFirstCheck() {
+        routingConnectionFactory = routingConnectionFactory(Map.of("replica-0", replica));
+
+        assertThat(readNode(true)).isEqualTo("primary");
+        assertThat(connections("primary", true)).isEqualTo(1);
+    }
+
+    @Test
+    void readOnlyTransactionsGoToThePrimaryWhenTheReplicaLags() {
+        routingConnectionFactory = routingConnectionFactory(Map.of("replica-0", replica));
+        routingConnectionFactory.checkReplicas().block();
+        execute(replica, "UPDATE replica_lag SET seconds = 60");
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(true)).isEqualTo("primary");
+        assertThat(meterRegistry.get("r2dbc.routing.replica.eligible").tag("route", "replica-0").gauge().value()).isZero();
+        assertThat(meterRegistry.get("r2dbc.routing.replica.lag").tag("route", "replica-0").gauge().value()).isEqualTo(60);
+
+        execute(replica, "UPDATE replica_lag SET seconds = 0");
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(true)).isEqualTo("replica");
+    }
+
+    @Test
+    void readOnlyTransactionsGoToThePrimaryWhenTheReplicationIsStopped() {
+        routingConnectionFactory = routingConnectionFactory(Map.of("replica-0", replica));
+        execute(replica, "UPDATE replica_lag SET seconds = NULL");
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(true)).isEqualTo("primary");
+    }
+
+    @Test
+    void unreachableReplicasAreSkipped() {
+        Map<String, ConnectionFactory> replicas = new LinkedHashMap<>();
+        replicas.put("replica-0", unreachable());
+        replicas.put("replica-1", replica);
+        routingConnectionFactory = routingConnectionFactory(replicas);
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(true)).isEqualTo("replica");
+        assertThat(readNode(true)).isEqualTo("replica");
+        assertThat(connections("replica-0", true)).isZero();
+        assertThat(connections("replica-1", true)).isEqualTo(2);
+    }
+
+    @Test
+    void withoutLagQueryReachableReplicasAreEligible() {
+        properties.setLagQuery(null);
+        routingConnectionFactory = routingConnectionFactory(Map.of("replica-0", replica));
+        execute(replica, "UPDATE replica_lag SET seconds = 60");
+        routingConnectionFactory.checkReplicas().block();
+
+        assertThat(readNode(true)).isEqualTo("replica");
+        assertThat(meterRegistry.get("r2dbc.routing.replica.lag").tag("route", "replica-0").gauge().value()).isNaN();
+    }
+
+    private ReplicaRoutingConnectionFactory routingConnectionFactory(Map<String, ConnectionFactory> replicas) {
+        ReplicaRoutingConnectionFactory routingConnectionFactory = new ReplicaRoutingConnectionFactory(
+            primary,
+            replicas,
+            properties,
+            meterRegistry
+        );
+        routingConnectionFactory.afterPropertiesSet();
+        return routingConnectionFactory;
+    }
+
+    /**
+     * Reads the name of the database of a transaction, through the routing connection factory.
+     */
+    private Object readNode(boolean readOnly) {
+        return readingNode(readOnly).block();
+    }
+
+    private Mono<Object> readingNode(boolean readOnly) {
+        DefaultTransactionDefinition definition = new DefaultTransactionDefinition(TransactionDefinition.PROPAGATION_REQUIRED);
+        definition.setReadOnly(readOnly);
+        TransactionalOperator transactionalOperator = TransactionalOperator.create(
+            new ReplicaRoutingConnectionFactory.ReadOnlyAwareTransactionManager(routingConnectionFactory),
+            definition
+        );
+        return DatabaseClient
+            .create(routingConnectionFactory)
+            .sql("SELECT name FROM node")
+            .map(row -> row.get(0))
+            .one()
+            .as(transactionalOperator::transactional);
+    }
+
+    private double connections(String route, boolean readOnly) {
+        return meterRegistry
+            .get("r2dbc.routing.connections")
+            .tag("route", route)
+            .tag("read.only", String.valueOf(readOnly))
+            .counter()
+            .count();
+    }
+
+    private static ConnectionFactory database(String name) {
+        return ConnectionFactories.get("r2dbc:h2:mem:///" + name + ";DB_CLOSE_DELAY=-1");
+    }
+
+    private static void node(ConnectionFactory connectionFactory, String name) {
+        execute(connectionFactory, "CREATE TABLE IF NOT EXISTS node(name VARCHAR(50))");
+        execute(connectionFactory, "DELETE FROM node");
+        execute(connectionFactory, "INSERT INTO node VALUES ('" + name + "')");
+    }
+
+    private static void execute(ConnectionFactory connectionFactory, String sql) {
+        DatabaseClient.create(connectionFactory).sql(sql).then().block();
+    }
+
+    private static ConnectionFactory unreachable() {
+        return new ConnectionFactory() {
+            @Override
+            public Publisher<? extends Connection> create() {
+                return Mono.error(new IllegalStateException("Connection refused"));
+            }
+
+            @Override
+            public ConnectionFactoryMetadata getMetadata() {
+                return () -> "unreachable";
+            }
+        };
+    }
+}
@@ -0,0 +1,126 @@
+package com.mycompany.myapp.config;
+
+import static io.r2dbc.spi.ConnectionFactoryOptions.USER;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.dto.JobDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests of the routing to a replica which hasn't replicated anything: the job table of the replica stays
+ * empty, whatever is written to the primary.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+@TestPropertySource(
+    properties = {
+        "application.database.replicas.urls=" + ReplicaRoutingIT.REPLICA_URL,
+        "application.database.replicas.lag-query=SELECT 0",
+        "application.database.replicas.max-lag=10s",
+    }
+)
+class ReplicaRoutingIT {
+
+    static final String REPLICA_URL = "r2dbc:h2:mem:///stale-replica;DB_CLOSE_DELAY=-1";
+
+    /**
+     * The user of {@code spring.r2dbc}, which the pool of the replica created the database with.
+     */
+    private static final String REPLICA_USERNAME = "r2dbc";
+
+    @Autowired
+    private ConnectionFactory connectionFactory;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void initReplica() {
+        DatabaseClient
+            .create(ConnectionFactories.get(ConnectionFactoryOptions.parse(REPLICA_URL).mutate().option(USER, REPLICA_USERNAME).build()))
+            .sql(
+                "CREATE TABLE IF NOT EXISTS job(id BIGINT PRIMARY KEY, job_title VARCHAR(255), job_description VARCHAR(255), " +
+                "job_hours BIGINT, employee_id BIGINT, version BIGINT)"
+            )
+            .then()
+            .block();
+        ((ReplicaRoutingConnectionFactory) connectionFactory).checkReplicas().block();
+        em.deleteAll(Job.class).block();
+    }
+
+    @AfterEach
+    void cleanup() {
+        em.deleteAll(Job.class).block();
+    }
+
+    @Test
+    void listReadAfterAWriteIsReadFromThePrimary() {
+        double replicaReads = routed("replica-0");
+        String staleETag = webTestClient
+            .get()
+            .uri("/api/jobs?sort=id,desc")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$")
+            .isEmpty()
+            .returnResult()
+            .getResponseHeaders()
+            .getETag();
+        assertThat(routed("replica-0")).isEqualTo(replicaReads + 1);
+
+        JobDTO job = new JobDTO();
+        job.setJobTitle("Replicated later");
+        webTestClient.post().uri("/api/jobs").contentType(MediaType.APPLICATION_JSON).bodyValue(job).exchange().expectStatus().isCreated();
+
+        // The replica still has no job, but the list changed: it's read from the primary, under the new ETag
+        double primaryReads = routed("primary");
+        String eTag = webTestClient
+            .get()
+            .uri("/api/jobs?sort=id,desc")
+            .header(HttpHeaders.IF_NONE_MATCH, staleETag)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].jobTitle")
+            .value(hasItem("Replicated later"))
+            .returnResult()
+            .getResponseHeaders()
+            .getETag();
+        assertThat(eTag).isNotEqualTo(staleETag);
+        assertThat(routed("primary")).isGreaterThan(primaryReads);
+
+        webTestClient.get().uri("/api/jobs?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag).exchange().expectStatus().isNotModified();
+    }
+
+    private double routed(String route) {
+        return meterRegistry.get("r2dbc.routing.connections").tag("route", route).tag("read.only", "true").counter().count();
+    }
+}
@@ -0,0 +1,67 @@
+package com.mycompany.myapp.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+class KeysetCursorTest {
+
+    private static final Sort.Order BY_LAST_NAME = Sort.Order.desc("lastName");
+
+    @Test
+    void encodeAndDecode() {
+        KeysetCursor cursor = new KeysetCursor(BY_LAST_NAME, 42L, "Smith:Jr");
+        assertThat(KeysetCursor.decode(cursor.encode())).isEqualTo(cursor);
+        assertThat(KeysetCursor.decode(cursor.encode()).getOrder()).isEqualTo(BY_LAST_NAME);
+
+        KeysetCursor withoutValue = new KeysetCursor(BY_LAST_NAME, 42L, null);
+        assertThat(KeysetCursor.decode(withoutValue.encode())).isEqualTo(withoutValue);
+
+        KeysetCursor emptyValue = new KeysetCursor(BY_LAST_NAME, 42L, "");
+        assertThat(KeysetCursor.decode(emptyValue.encode())).isEqualTo(emptyValue);
+    }
+
+    @Test
+    void emptyCursorIsFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isNull();
+        assertThat(KeysetCursor.decode("")).isNull();
+    }
+
+    @Test
+    void malformedCursor() {
+        assertThatThrownBy(() -> KeysetCursor.decode("!!!")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(new KeysetCursor(BY_LAST_NAME, 1L, "x").encode().substring(1)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("lastName:SIDEWAYS:1"))).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(encode("42"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void matchesTheOrderOfItsPage() {
+        KeysetCursor cursor = new KeysetCursor(BY_LAST_NAME, 1L, "Smith");
+
+        assertThat(cursor.matches(Sort.Order.desc("lastName"))).isTrue();
+        assertThat(cursor.matches(Sort.Order.asc("lastName"))).isFalse();
+        assertThat(cursor.matches(Sort.Order.desc("firstName"))).isFalse();
+    }
+
+    @Test
+    void ofElement() {
+        EmployeeDTO employee = new EmployeeDTO();
+        employee.setId(7L);
+        employee.setSalary(1000L);
+
+        assertThat(KeysetCursor.of(employee, Sort.by("salary"))).isEqualTo(new KeysetCursor(Sort.Order.asc("salary"), 7L, "1000"));
+        assertThat(KeysetCursor.of(employee, Sort.unsorted())).isEqualTo(new KeysetCursor(Sort.Order.asc("id"), 7L, null));
+        assertThatThrownBy(() -> KeysetCursor.of(employee, Sort.by("unknown"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
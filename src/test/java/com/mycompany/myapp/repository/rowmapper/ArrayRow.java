@@ -0,0 +1,84 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A {@link Row} holding its values in an array, which reads them by index without allocating, unlike a mock.
+ */
+final class ArrayRow implements Row {
+
+    private final Object[] values;
+
+    ArrayRow(Object... values) {
+        this.values = values;
+    }
+
+    @Override
+    public <T> T get(int index, Class<T> type) {
+        return type.cast(values[index]);
+    }
+
+    @Override
+    public <T> T get(String name, Class<T> type) {
+        throw new UnsupportedOperationException("The columns are read by index");
+    }
+
+    /**
+     * @param columns the columns of the rows, in the order of the select.
+     * @return the metadata of the rows.
+     */
+    static RowMetadata metadata(ColumnMetadata... columns) {
+        List<ColumnMetadata> columnMetadatas = List.of(columns);
+        return new RowMetadata() {
+            @Override
+            public ColumnMetadata getColumnMetadata(int index) {
+                return columnMetadatas.get(index);
+            }
+
+            @Override
+            public ColumnMetadata getColumnMetadata(String name) {
+                return columnMetadatas
+                    .stream()
+                    .filter(column -> column.getName().equalsIgnoreCase(name))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException(name));
+            }
+
+            @Override
+            public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+                return columnMetadatas;
+            }
+
+            @Override
+            public Collection<String> getColumnNames() {
+                List<String> names = new ArrayList<>();
+                columnMetadatas.forEach(column -> names.add(column.getName()));
+                return names;
+            }
+        };
+    }
+
+    /**
+     * @param name the name of the column, in upper case like the drivers return it.
+     * @param javaType the type the driver decodes the column to.
+     * @return the metadata of the column.
+     */
+    static ColumnMetadata column(String name, Class<?> javaType) {
+        return new ColumnMetadata() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public Class<?> getJavaType() {
+                return javaType;
+            }
+        };
+    }
+}
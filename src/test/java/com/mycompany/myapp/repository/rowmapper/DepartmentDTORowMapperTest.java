@@ -0,0 +1,58 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import static com.mycompany.myapp.repository.rowmapper.ArrayRow.column;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.DatabaseConfiguration.InstantReadConverter;
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
+import io.r2dbc.spi.RowMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class DepartmentDTORowMapperTest {
+
+    private final RowMetadata metadata = ArrayRow.metadata(
+        column("D_ID", Long.class),
+        column("D_DEPARTMENT_NAME", String.class),
+        column("D_VERSION", Long.class)
+    );
+
+    private DepartmentDTORowMapper mapper;
+
+    @BeforeEach
+    void init() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE, InstantReadConverter.INSTANCE);
+        ColumnConverter converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        mapper = new DepartmentDTORowMapper(converter);
+    }
+
+    @Test
+    void applyReadsTheColumns() {
+        DepartmentDTO department = mapper.apply(new ArrayRow(1L, "Research", 3L), metadata, "d");
+
+        assertThat(department.getId()).isEqualTo(1L);
+        assertThat(department.getDepartmentName()).isEqualTo("Research");
+        assertThat(department.getVersion()).isEqualTo(3L);
+        assertThat(department.getEmployees()).isNull();
+    }
+
+    @Test
+    void applyReadsTheColumnsOfEachPrefix() {
+        RowMetadata joined = ArrayRow.metadata(
+            column("E_ID", Long.class),
+            column("D_ID", Long.class),
+            column("D_DEPARTMENT_NAME", String.class),
+            column("D_VERSION", Long.class)
+        );
+
+        DepartmentDTO department = mapper.apply(new ArrayRow(7L, 1L, "Research", 3L), joined, "d");
+
+        assertThat(department.getId()).isEqualTo(1L);
+        assertThat(department.getDepartmentName()).isEqualTo("Research");
+    }
+}
@@ -0,0 +1,99 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import static com.mycompany.myapp.repository.rowmapper.ArrayRow.column;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import com.mycompany.myapp.config.DatabaseConfiguration.InstantReadConverter;
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import io.r2dbc.spi.RowMetadata;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class EmployeeDTORowMapperTest {
+
+    private static final int ROWS = 20_000;
+
+    /**
+     * The bytes a row may allocate: the employee and its department, nothing per column.
+     */
+    private static final long ALLOCATION_BUDGET = 160;
+
+    private final RowMetadata metadata = ArrayRow.metadata(
+        column("E_ID", Long.class),
+        column("E_FIRST_NAME", String.class),
+        column("E_LAST_NAME", String.class),
+        column("E_EMAIL", String.class),
+        column("E_PHONE_NUMBER", String.class),
+        column("E_SALARY", Long.class),
+        column("E_DEPARTMENT_ID", Long.class),
+        column("E_VERSION", Long.class)
+    );
+
+    private EmployeeDTORowMapper mapper;
+
+    @BeforeEach
+    void init() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE, InstantReadConverter.INSTANCE);
+        ColumnConverter converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        mapper = new EmployeeDTORowMapper(converter);
+    }
+
+    @Test
+    void applyReadsTheColumnsAndReferencesTheDepartmentById() {
+        ArrayRow row = new ArrayRow(1L, "Grace", "Hopper", "grace@example.com", "555", 5000L, 2L, 3L);
+
+        EmployeeDTO employee = mapper.apply(row, metadata, "e");
+
+        assertThat(employee.getId()).isEqualTo(1L);
+        assertThat(employee.getFirstName()).isEqualTo("Grace");
+        assertThat(employee.getLastName()).isEqualTo("Hopper");
+        assertThat(employee.getEmail()).isEqualTo("grace@example.com");
+        assertThat(employee.getPhoneNumber()).isEqualTo("555");
+        assertThat(employee.getSalary()).isEqualTo(5000L);
+        assertThat(employee.getDepartment().getId()).isEqualTo(2L);
+        assertThat(employee.getDepartment().getDepartmentName()).isNull();
+        assertThat(employee.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void applyWithoutDepartmentGivesNoDepartment() {
+        EmployeeDTO employee = mapper.apply(new ArrayRow(1L, "Grace", null, null, null, null, null, 0L), metadata, "e");
+
+        assertThat(employee.getDepartment()).isNull();
+    }
+
+    @Test
+    void applyAllocatesOnlyTheDTOs() {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+        ArrayRow row = new ArrayRow(1L, "Grace", "Hopper", "grace@example.com", "555", 5000L, 2L, 3L);
+        // Resolves the layout, and lets the JIT compile the mapper
+        long ids = map(row);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        ids += map(row);
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertThat(ids).isEqualTo(2L * ROWS);
+        assertThat(allocated / ROWS).isLessThanOrEqualTo(ALLOCATION_BUDGET);
+    }
+
+    /**
+     * Maps the row {@link #ROWS} times, using the DTOs so they aren't optimized away.
+     */
+    private long map(ArrayRow row) {
+        long ids = 0;
+        for (int i = 0; i < ROWS; i++) {
+            ids += mapper.apply(row, metadata, "e").getId();
+        }
+        return ids;
+    }
+}
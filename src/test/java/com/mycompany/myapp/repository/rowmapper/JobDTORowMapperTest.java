@@ -0,0 +1,67 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import static com.mycompany.myapp.repository.rowmapper.ArrayRow.column;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.DatabaseConfiguration.InstantReadConverter;
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.dto.JobDTO;
+import io.r2dbc.spi.RowMetadata;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class JobDTORowMapperTest {
+
+    private final RowMetadata metadata = ArrayRow.metadata(
+        column("J_ID", Long.class),
+        column("J_JOB_TITLE", String.class),
+        column("J_JOB_DESCRIPTION", String.class),
+        column("J_JOB_HOURS", Long.class),
+        column("J_EMPLOYEE_ID", Long.class),
+        column("J_VERSION", Long.class)
+    );
+
+    private JobDTORowMapper mapper;
+
+    @BeforeEach
+    void init() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE, InstantReadConverter.INSTANCE);
+        ColumnConverter converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        mapper = new JobDTORowMapper(converter);
+    }
+
+    @Test
+    void applyReadsTheColumnsAndReferencesTheEmployeeById() {
+        JobDTO job = mapper.apply(new ArrayRow(1L, "Engineer", "Builds", 40L, 2L, 3L), metadata, "j");
+
+        assertThat(job.getId()).isEqualTo(1L);
+        assertThat(job.getJobTitle()).isEqualTo("Engineer");
+        assertThat(job.getJobDescription()).isEqualTo("Builds");
+        assertThat(job.getJobHours()).isEqualTo(40L);
+        assertThat(job.getEmployee().getId()).isEqualTo(2L);
+        assertThat(job.getEmployee().getFirstName()).isNull();
+        assertThat(job.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void applyWithoutEmployeeGivesNoEmployee() {
+        JobDTO job = mapper.apply(new ArrayRow(1L, "Engineer", null, null, null, 0L), metadata, "j");
+
+        assertThat(job.getEmployee()).isNull();
+    }
+
+    @Test
+    void applyReadsAColumnLeftOutOfTheSelectAsNull() {
+        RowMetadata fieldset = ArrayRow.metadata(column("J_ID", Long.class), column("J_JOB_TITLE", String.class));
+
+        JobDTO job = mapper.apply(new ArrayRow(1L, "Engineer"), fieldset, "j");
+
+        assertThat(job.getJobTitle()).isEqualTo("Engineer");
+        assertThat(job.getJobHours()).isNull();
+        assertThat(job.getEmployee()).isNull();
+    }
+}
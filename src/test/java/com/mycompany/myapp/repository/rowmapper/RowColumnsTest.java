@@ -0,0 +1,139 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import static com.mycompany.myapp.repository.rowmapper.RowColumns.column;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.DatabaseConfiguration.InstantReadConverter;
+import com.mycompany.myapp.service.ColumnConverter;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class RowColumnsTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2021, 6, 1, 12, 0);
+
+    private ColumnConverter converter;
+
+    private RowColumns columns;
+
+    private RowMetadata metadata;
+
+    private Row row;
+
+    @BeforeEach
+    void init() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(H2Dialect.INSTANCE, InstantReadConverter.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        columns = RowColumns.of(converter, "e", List.of(column("id", Long.class), column("created_date", Instant.class)));
+        // the drivers return the names in upper case, and the columns in the order of the select
+        List<ColumnMetadata> columnMetadatas = List.of(
+            columnMetadata("E_CREATED_DATE", LocalDateTime.class),
+            columnMetadata("E_NAME", String.class),
+            columnMetadata("E_ID", Long.class)
+        );
+        metadata = mock(RowMetadata.class);
+        when(metadata.getColumnMetadatas()).thenAnswer(invocation -> columnMetadatas);
+        row = mock(Row.class);
+        when(row.get(2, Long.class)).thenReturn(1L);
+        when(row.get(0)).thenReturn(CREATED);
+    }
+
+    @Test
+    void getReadsTheColumnsByIndex() {
+        RowColumns.Layout layout = columns.layout(metadata);
+
+        Long id = layout.get(row, 0);
+        Instant createdDate = layout.get(row, 1);
+
+        assertThat(id).isEqualTo(1L);
+        assertThat(createdDate).isEqualTo(CREATED.toInstant(ZoneOffset.UTC));
+        verify(row, never()).get(anyString());
+        verify(row, never()).get(anyString(), eq(Long.class));
+        verify(row, never()).get(anyString(), eq(Instant.class));
+    }
+
+    @Test
+    void getConvertsOnlyTheColumnsTheDriverDoesNotDecode() {
+        RowColumns.Layout layout = columns.layout(metadata);
+
+        layout.get(row, 0);
+        layout.get(row, 1);
+
+        verify(row, never()).get(0, Instant.class);
+        assertThat(converter.conversionFor(LocalDateTime.class, Instant.class).getCount()).isEqualTo(1);
+        assertThat(converter.getConversions()).noneMatch(conversion -> conversion.getSourceType() == Long.class);
+    }
+
+    @Test
+    void layoutIsResolvedOncePerResult() {
+        RowColumns.Layout layout = columns.layout(metadata);
+
+        assertThat(columns.layout(metadata)).isSameAs(layout);
+        verify(metadata, times(1)).getColumnMetadatas();
+
+        RowMetadata next = mock(RowMetadata.class);
+        when(next.getColumnMetadatas()).thenAnswer(invocation -> metadata.getColumnMetadatas());
+        assertThat(columns.layout(next)).isNotSameAs(layout);
+    }
+
+    @Test
+    void layoutsOfInterleavedResultsAreKept() {
+        RowMetadata other = mock(RowMetadata.class);
+        when(other.getColumnMetadatas()).thenAnswer(invocation -> List.of(columnMetadata("E_ID", Long.class)));
+        RowColumns.Layout layout = columns.layout(metadata);
+        RowColumns.Layout otherLayout = columns.layout(other);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(columns.layout(metadata)).isSameAs(layout);
+            assertThat(columns.layout(other)).isSameAs(otherLayout);
+        }
+        verify(metadata, times(1)).getColumnMetadatas();
+        verify(other, times(1)).getColumnMetadatas();
+    }
+
+    @Test
+    void getReadsTheColumnsByNameWithoutMetadata() {
+        when(row.get("e_id")).thenReturn(1L);
+
+        Long id = columns.layout(null).get(row, 0);
+
+        assertThat(id).isEqualTo(1L);
+    }
+
+    @Test
+    void getReadsAColumnWhichIsNotSelectedAsNull() {
+        RowColumns other = RowColumns.of(converter, "e", List.of(column("id", Long.class), column("salary", Long.class)));
+        RowColumns.Layout layout = other.layout(metadata);
+
+        Long id = layout.get(row, 0);
+        Long salary = layout.get(row, 1);
+
+        assertThat(id).isEqualTo(1L);
+        assertThat(salary).isNull();
+    }
+
+    private static ColumnMetadata columnMetadata(String name, Class<?> javaType) {
+        ColumnMetadata columnMetadata = mock(ColumnMetadata.class);
+        when(columnMetadata.getName()).thenReturn(name);
+        when(columnMetadata.getJavaType()).thenAnswer(invocation -> javaType);
+        return columnMetadata;
+    }
+}
@@ -0,0 +1,45 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.service.EntityManager.Aggregate;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class AggregationServiceTest {
+
+    @Test
+    void aggregateReturnsTheCachedRowsUnmodifiable() {
+        EntityManager entityManager = mock(EntityManager.class);
+        when(entityManager.aggregate(eq(Employee.class), any(), anyList()))
+            .thenReturn(Flux.just(new Object[] { 1L, 2L, 4000L }, new Object[] { null, 1L, 500L }));
+        AggregationService aggregationService = new AggregationService(entityManager, new ApplicationProperties());
+        List<Aggregate> aggregates = List.of(Aggregate.of(Aggregate.Function.SUM, "salary"));
+
+        List<Map<String, Object>> rows = aggregationService.aggregate(Employee.class, "department", "departmentId", aggregates).block();
+
+        assertThat(rows).hasSize(2);
+        assertThat(rows.get(1)).containsEntry("department", null).containsEntry("count", 1L);
+        assertThatThrownBy(() -> rows.remove(0)).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> rows.get(0).put("count", 0L)).isInstanceOf(UnsupportedOperationException.class);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> sum = (Map<String, Object>) rows.get(0).get("sum");
+        assertThatThrownBy(() -> sum.put("salary", 0L)).isInstanceOf(UnsupportedOperationException.class);
+
+        // The next call reads the same rows from the cache
+        assertThat(aggregationService.aggregate(Employee.class, "department", "departmentId", aggregates).block()).isSameAs(rows);
+        verify(entityManager, times(1)).aggregate(eq(Employee.class), any(), anyList());
+    }
+}
@@ -0,0 +1,68 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.config.DatabaseConfiguration.InstantReadConverter;
+import com.mycompany.myapp.config.DatabaseConfiguration.InstantWriteConverter;
+import com.mycompany.myapp.service.ColumnConverter.Conversion;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.H2Dialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+class ColumnConverterTest {
+
+    private ColumnConverter converter;
+
+    @BeforeEach
+    void init() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(
+            H2Dialect.INSTANCE,
+            InstantReadConverter.INSTANCE,
+            InstantWriteConverter.INSTANCE
+        );
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+    }
+
+    @Test
+    void theReadingConvertersAreResolvedAtStartup() {
+        assertThat(converter.getConversions())
+            .anyMatch(
+                conversion ->
+                    conversion.getSourceType() == LocalDateTime.class &&
+                    conversion.getTargetType() == Instant.class &&
+                    conversion.getKind() == Conversion.Kind.CUSTOM
+            );
+    }
+
+    @Test
+    void convertResolvesEachPairOnce() {
+        LocalDateTime createdDate = LocalDateTime.of(2021, 6, 1, 12, 0);
+
+        assertThat(converter.convert(createdDate, Instant.class)).isEqualTo(createdDate.toInstant(ZoneOffset.UTC));
+        assertThat(converter.convert(createdDate.plusDays(1), Instant.class)).isEqualTo(createdDate.plusDays(1).toInstant(ZoneOffset.UTC));
+
+        Conversion conversion = converter.conversionFor(LocalDateTime.class, Instant.class);
+        assertThat(conversion.getCount()).isEqualTo(2);
+        assertThat(converter.conversionFor(LocalDateTime.class, Instant.class)).isSameAs(conversion);
+    }
+
+    @Test
+    void convertResolvesTheOtherKinds() {
+        assertThat(converter.convert(1L, Long.class)).isEqualTo(1L);
+        assertThat(converter.convert(BigInteger.valueOf(4000), Long.class)).isEqualTo(4000L);
+        assertThat(converter.convert("DAYS", ChronoUnit.class)).isEqualTo(ChronoUnit.DAYS);
+        assertThat(converter.convert(null, Long.class)).isNull();
+
+        assertThat(converter.conversionFor(Long.class, Long.class).getKind()).isEqualTo(Conversion.Kind.ASSIGNABLE);
+        assertThat(converter.conversionFor(BigInteger.class, Long.class).getKind()).isEqualTo(Conversion.Kind.GENERIC);
+        assertThat(converter.conversionFor(String.class, ChronoUnit.class).getKind()).isEqualTo(Conversion.Kind.ENUM);
+    }
+}
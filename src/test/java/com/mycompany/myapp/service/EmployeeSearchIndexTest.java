@@ -0,0 +1,110 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.mycompany.myapp.domain.Employee;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class EmployeeSearchIndexTest {
+
+    private MeterRegistry meterRegistry;
+
+    private EmployeeSearchIndex searchIndex;
+
+    @BeforeEach
+    void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        searchIndex = new EmployeeSearchIndex(null, meterRegistry);
+        searchIndex.index(employee(1L, "Grace", "Hopper", "grace@navy.mil"));
+        searchIndex.index(employee(2L, "Alan", "Turing", "alan@bletchley.uk"));
+        searchIndex.index(employee(3L, "Ada", "Lovelace", "ada@analytical.uk"));
+    }
+
+    @Test
+    void searchIgnoresTheCase() {
+        assertThat(search("HOPP")).containsExactly(1L);
+        assertThat(search(".UK")).containsExactly(2L, 3L);
+        assertThat(search("xyz")).isEmpty();
+    }
+
+    @Test
+    void searchChecksTheWholeString() {
+        // "rac" and "ace" are both trigrams of "Tracy Pace", but "race" isn't a substring of it
+        searchIndex.index(employee(4L, "Tracy", "Pace", null));
+
+        assertThat(search("race")).containsExactly(1L);
+    }
+
+    @Test
+    void shortStringsAreNotSearched() {
+        assertThat(search("a")).isEmpty();
+        assertThat(search("tu")).isEmpty();
+    }
+
+    @Test
+    void searchRanksTheBestMatchesFirst() {
+        searchIndex.index(employee(4L, "Adam", "Smith", "smith@example.com"));
+        searchIndex.index(employee(5L, "Ada", "Byron", "byron@example.com"));
+
+        // The whole first name, then its start, then the email
+        assertThat(search("ada")).containsExactly(3L, 5L, 4L);
+    }
+
+    @Test
+    void searchKeepsTheBestMatchesWithinTheLimit() {
+        searchIndex.index(employee(4L, "Adam", "Smith", "smith@example.com"));
+        searchIndex.index(employee(5L, "Ada", "Byron", "byron@example.com"));
+
+        assertThat(searchIndex.search("ada", 2).block()).containsExactly(3L, 5L);
+        assertThat(searchIndex.search("ada", 0).block()).isEmpty();
+    }
+
+    @Test
+    void updateReplacesTheIndexedFields() {
+        searchIndex.index(employee(1L, "Grace", "Brewster", "grace@navy.mil"));
+
+        assertThat(search("hopper")).isEmpty();
+        assertThat(search("brewster")).containsExactly(1L);
+    }
+
+    @Test
+    void removeDropsTheEmployee() {
+        searchIndex.remove(2L);
+        searchIndex.remove(42L);
+
+        assertThat(search(".uk")).containsExactly(3L);
+        assertThat(meterRegistry.get(EmployeeSearchIndex.METRIC_PREFIX + ".documents").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void matchesChecksTheReadRows() {
+        assertThat(EmployeeSearchIndex.matches(employee(6L, "Grace", null, null), "RAC")).isTrue();
+        assertThat(EmployeeSearchIndex.matches(employee(6L, "Grace", null, null), "hopper")).isFalse();
+    }
+
+    @Test
+    void postingListStaysSorted() {
+        EmployeeSearchIndex.PostingList posting = new EmployeeSearchIndex.PostingList();
+        for (long id : new long[] { 5, 1, 9, 3, 7, 3 }) {
+            posting.add(id);
+        }
+        assertThat(posting.size).isEqualTo(5);
+        assertThat(posting.remove(9)).isTrue();
+        assertThat(posting.remove(2)).isFalse();
+        assertThat(Arrays.copyOf(posting.ids, posting.size)).containsExactly(1, 3, 5, 7);
+    }
+
+    private long[] search(String search) {
+        return searchIndex.search(search, Integer.MAX_VALUE).block();
+    }
+
+    private static Employee employee(Long id, String firstName, String lastName, String email) {
+        Employee employee = new Employee().firstName(firstName).lastName(lastName).email(email);
+        employee.setId(id);
+        return employee;
+    }
+}
@@ -0,0 +1,102 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.service.dto.EmployeeSuggestionDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class EmployeeSuggesterTest {
+
+    private EmployeeRepository employeeRepository;
+
+    private EmployeeSuggester suggester;
+
+    @BeforeEach
+    void init() {
+        employeeRepository = mock(EmployeeRepository.class);
+        when(employeeRepository.streamAll())
+            .thenReturn(
+                Flux.just(
+                    employee(1L, "Grace", "Hopper", "grace@navy.mil"),
+                    employee(2L, "Alan", "Turing", "alan@bletchley.uk"),
+                    employee(3L, "Ada", "Lovelace", "ada@analytical.uk")
+                )
+            );
+        suggester = new EmployeeSuggester(employeeRepository, new SimpleMeterRegistry());
+        suggester.rebuild().block();
+    }
+
+    @Test
+    void suggestMatchesThePrefixIgnoringTheCase() {
+        assertThat(suggester.isReady()).isTrue();
+        assertThat(ids(suggester.suggest("A", 10))).containsExactly(3L, 2L);
+        assertThat(ids(suggester.suggest("lov", 10))).containsExactly(3L);
+        assertThat(ids(suggester.suggest("grace h", 10))).containsExactly(1L);
+        assertThat(ids(suggester.suggest("urin", 10))).isEmpty();
+        assertThat(suggester.suggest(" ", 10)).isEmpty();
+    }
+
+    @Test
+    void suggestStopsAtTheLimit() {
+        assertThat(ids(suggester.suggest("a", 1))).containsExactly(3L);
+    }
+
+    @Test
+    void suggestListsAnEmployeeOnce() {
+        // "ada", "ada lovelace" and "ada@analytical.uk" all start with "ada"
+        assertThat(ids(suggester.suggest("ada", 10))).containsExactly(3L);
+    }
+
+    @Test
+    void suggestMergesTheWritesSinceTheSnapshot() {
+        suggester.index(employee(4L, "Adele", "Goldberg", "adele@parc.com"));
+        suggester.index(employee(1L, "Grace", "Brewster", "grace@navy.mil"));
+        suggester.remove(2L);
+
+        assertThat(ids(suggester.suggest("a", 10))).containsExactly(3L, 4L);
+        assertThat(ids(suggester.suggest("hopper", 10))).isEmpty();
+        assertThat(suggester.suggest("brew", 10)).extracting(EmployeeSuggestionDTO::getLastName).containsExactly("Brewster");
+    }
+
+    @Test
+    void suggestAfterCompaction() {
+        for (long id = 10; id < 10 + EmployeeSuggester.COMPACTION_THRESHOLD; id++) {
+            suggester.index(employee(id, "Name" + id, "Smith", null));
+        }
+        suggester.remove(10L);
+
+        assertThat(suggester.suggest("smith", 2000)).hasSize(EmployeeSuggester.COMPACTION_THRESHOLD - 1);
+        assertThat(ids(suggester.suggest("name10", 3))).containsExactly(100L, 1000L, 1001L);
+    }
+
+    @Test
+    void snapshotFindsTheLowerBound() {
+        EmployeeSuggester.Snapshot snapshot = EmployeeSuggester.Snapshot.build(
+            List.of(new EmployeeSuggestionDTO(1L, "Bo", null, null), new EmployeeSuggestionDTO(2L, "Bob", null, null))
+        );
+
+        assertThat(snapshot.lowerBound("a")).isZero();
+        assertThat(snapshot.lowerBound("bo")).isZero();
+        assertThat(snapshot.lowerBound("boa")).isEqualTo(1);
+        assertThat(snapshot.lowerBound("c")).isEqualTo(2);
+        assertThat(snapshot.startsWith(1, "bo")).isTrue();
+        assertThat(snapshot.startsWith(0, "bob")).isFalse();
+    }
+
+    private static List<Long> ids(List<EmployeeSuggestionDTO> suggestions) {
+        return suggestions.stream().map(EmployeeSuggestionDTO::getId).collect(Collectors.toList());
+    }
+
+    private static Employee employee(Long id, String firstName, String lastName, String email) {
+        return new Employee().id(id).firstName(firstName).lastName(lastName).email(email);
+    }
+}
@@ -0,0 +1,252 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.Constants;
+import com.mycompany.myapp.domain.Authority;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.User;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.security.AuthoritiesConstants;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Integration tests for the cached selects, the batched writes, the partial updates and the bulk deletes of {@link EntityManager}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = "application.database.batch-size=2")
+class EntityManagerIT {
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void init() {
+        employeeRepository.deleteAll().block();
+        for (long salary = 1; salary <= 5; salary++) {
+            employeeRepository.save(new Employee().firstName("employee" + salary).salary(salary)).block();
+        }
+    }
+
+    @AfterEach
+    public void cleanup() {
+        employeeRepository.deleteAll().block();
+    }
+
+    @Test
+    void criteriaShapeIgnoresValues() {
+        assertThat(EntityManager.createCriteriaShape(where("salary").greaterThan(1L)))
+            .isEqualTo(EntityManager.createCriteriaShape(where("salary").greaterThan(2L)));
+        assertThat(EntityManager.createCriteriaShape(where("salary").greaterThan(1L)))
+            .isNotEqualTo(EntityManager.createCriteriaShape(where("salary").lessThan(1L)));
+        assertThat(EntityManager.createCriteriaShape(where("salary").in(1L, 2L)))
+            .isNotEqualTo(EntityManager.createCriteriaShape(where("salary").in(1L, 2L, 3L)));
+        assertThat(EntityManager.createCriteriaShape(where("salary").is(1L).and("firstName").is("a")))
+            .isNotEqualTo(EntityManager.createCriteriaShape(where("salary").is(1L).or("firstName").is("a")));
+    }
+
+    @Test
+    void sameShapeReusesTheRenderedSelect() {
+        PageRequest page = PageRequest.of(0, 2, Sort.by("salary"));
+        employeeRepository.findAllBy(page, where("salary").greaterThan(1L)).collectList().block();
+        double hits = cacheGets("hit");
+        double misses = cacheGets("miss");
+
+        List<Employee> employees = employeeRepository.findAllBy(page, where("salary").greaterThan(3L)).collectList().block();
+        assertThat(employees).extracting(Employee::getSalary).containsExactly(4L, 5L);
+        employees = employeeRepository.findAllBy(page.next(), where("salary").greaterThan(0L)).collectList().block();
+        assertThat(employees).extracting(Employee::getSalary).containsExactly(3L, 4L);
+
+        assertThat(cacheGets("hit")).isEqualTo(hits + 2);
+        assertThat(cacheGets("miss")).isEqualTo(misses);
+    }
+
+    @Test
+    void differentShapeRendersAnotherSelect() {
+        employeeRepository.findAllBy(null, where("salary").in(1L, 2L)).collectList().block();
+        double misses = cacheGets("miss");
+
+        List<Employee> employees = employeeRepository.findAllBy(null, where("salary").in(1L, 2L, 3L)).collectList().block();
+
+        assertThat(employees).hasSize(3);
+        assertThat(cacheGets("miss")).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void saveAllInsertsInBatches() {
+        List<Employee> employees = new ArrayList<>();
+        for (long salary = 6; salary <= 10; salary++) {
+            employees.add(new Employee().firstName("employee" + salary).salary(salary));
+        }
+
+        List<Employee> saved = employeeRepository.saveAll(employees).collectList().block();
+
+        assertThat(saved).containsExactlyElementsOf(employees);
+        assertThat(saved).extracting(Employee::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (Employee employee : saved) {
+            assertThat(employeeRepository.findById(employee.getId()).block().getSalary()).isEqualTo(employee.getSalary());
+        }
+    }
+
+    @Test
+    void saveAllUpdatesInBatches() {
+        List<Employee> employees = employeeRepository.findAll().collectList().block();
+        employees.forEach(employee -> employee.setSalary(employee.getSalary() * 100));
+
+        employeeRepository.saveAll(employees).blockLast();
+
+        assertThat(employeeRepository.findAll().collectList().block())
+            .extracting(Employee::getSalary)
+            .containsExactlyInAnyOrder(100L, 200L, 300L, 400L, 500L);
+    }
+
+    @Test
+    void saveAllChecksAndIncrementsTheVersions() {
+        List<Employee> employees = employeeRepository.findAll().collectList().block();
+        employees.get(0).setVersion(null);
+
+        employeeRepository.saveAll(employees).blockLast();
+
+        for (Employee employee : employees) {
+            assertThat(employee.getVersion()).isEqualTo(1L).isEqualTo(employeeRepository.findById(employee.getId()).block().getVersion());
+        }
+    }
+
+    @Test
+    void saveAllOfAStaleEntityFails() {
+        List<Employee> employees = employeeRepository.findAll().collectList().block();
+        employeeRepository.save(employeeRepository.findById(employees.get(1).getId()).block().salary(42L)).block();
+        employees.forEach(employee -> employee.setSalary(employee.getSalary() * 100));
+
+        assertThatThrownBy(() -> employeeRepository.saveAll(employees).blockLast())
+            .isInstanceOf(OptimisticLockingFailureException.class);
+        assertThat(employeeRepository.findById(employees.get(1).getId()).block().getSalary()).isEqualTo(42L);
+    }
+
+    @Test
+    void saveAllOfAMissingEntityFails() {
+        List<Employee> employees = employeeRepository.findAll().collectList().block();
+        employees.get(1).setId(Long.MAX_VALUE);
+
+        assertThatThrownBy(() -> employeeRepository.saveAll(employees).blockLast())
+            .isInstanceOf(TransientDataAccessResourceException.class);
+    }
+
+    @Test
+    void updateNonNullOnlyWritesTheGivenColumns() {
+        Employee employee = employeeRepository.findAll().blockFirst();
+        Employee patch = new Employee().lastName("patched");
+        patch.setId(employee.getId());
+
+        Employee updated = em.updateNonNull(patch).block();
+
+        assertThat(updated.getLastName()).isEqualTo("patched");
+        assertThat(updated.getFirstName()).isEqualTo(employee.getFirstName());
+        assertThat(updated.getSalary()).isEqualTo(employee.getSalary());
+        assertThat(employeeRepository.findById(employee.getId()).block().getLastName()).isEqualTo("patched");
+    }
+
+    @Test
+    void updateNonNullOfAMissingEntityIsEmpty() {
+        Employee patch = new Employee().lastName("patched");
+        patch.setId(Long.MAX_VALUE);
+
+        assertThat(em.updateNonNull(patch).blockOptional()).isEmpty();
+    }
+
+    @Test
+    void updateAllNonNullReportsTheRowsUpdatedInOrder() {
+        List<Employee> employees = employeeRepository.findAll().collectList().block();
+        List<Employee> patches = new ArrayList<>();
+        for (Employee employee : employees) {
+            Employee patch = new Employee().salary(employee.getSalary() * 100);
+            patch.setId(employee.getId());
+            patches.add(patch);
+        }
+        patches.get(1).setSalary(null);
+        patches.get(1).setLastName("patched");
+        patches.get(3).setVersion(employees.get(3).getVersion() + 1);
+        Employee missing = new Employee().salary(1L);
+        missing.setId(Long.MAX_VALUE);
+        patches.add(missing);
+
+        List<Integer> rowsUpdated = em.updateAllNonNull(patches).block();
+
+        assertThat(rowsUpdated).containsExactly(1, 1, 1, 0, 1, 0);
+        assertThat(employeeRepository.findById(employees.get(1).getId()).block())
+            .extracting(Employee::getLastName, Employee::getSalary)
+            .containsExactly("patched", employees.get(1).getSalary());
+        assertThat(employeeRepository.findById(employees.get(3).getId()).block().getSalary()).isEqualTo(employees.get(3).getSalary());
+        assertThat(employeeRepository.findById(employees.get(4).getId()).block().getSalary()).isEqualTo(employees.get(4).getSalary() * 100);
+    }
+
+    @Test
+    void deleteAllByIdReturnsTheDeletedIds() {
+        List<Long> ids = employeeRepository.findAll().map(Employee::getId).collectList().block();
+
+        List<Long> deleted = em
+            .deleteAllById(Employee.class, List.of(ids.get(0), Long.MAX_VALUE, ids.get(1), ids.get(2), ids.get(0)))
+            .collectList()
+            .block();
+
+        assertThat(deleted).containsExactlyInAnyOrder(ids.get(0), ids.get(1), ids.get(2));
+        assertThat(employeeRepository.count().block()).isEqualTo(2);
+    }
+
+    @Test
+    void insertIntoLinkTableInBatches() {
+        User user = new User();
+        user.setLogin("batch-user");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail("batch-user@localhost");
+        user.setCreatedBy(Constants.SYSTEM);
+        user = userRepository.save(user).block();
+        EntityManager.LinkTable link = new EntityManager.LinkTable("jhi_user_authority", "user_id", "authority_name");
+
+        Stream<String> authorities = Stream.of(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+        Integer inserted = em.insertIntoLinkTable(link, user.getId(), authorities).block();
+
+        assertThat(inserted).isEqualTo(2);
+        assertThat(userRepository.findOneWithAuthoritiesByLogin("batch-user").block().getAuthorities())
+            .extracting(Authority::getName)
+            .containsExactlyInAnyOrder(AuthoritiesConstants.ADMIN, AuthoritiesConstants.USER);
+
+        userRepository.delete(user).block();
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry
+            .get("cache.gets")
+            .tag("cache", EntityManager.SELECT_CACHE_NAME)
+            .tag("result", result)
+            .functionCounter()
+            .count();
+    }
+}
@@ -0,0 +1,49 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+class ExportServiceTest {
+
+    @Test
+    void exportJsonArray() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getDatabase().setFetchSize(2);
+        ExportService exportService = new ExportService(new ObjectMapper(), applicationProperties);
+
+        assertThat(exportJsonArray(exportService, Flux.just(1, 2, 3))).isEqualTo("[1,2,3]");
+        assertThat(exportJsonArray(exportService, Flux.empty())).isEqualTo("[]");
+    }
+
+    private static String exportJsonArray(ExportService exportService, Flux<Integer> rows) {
+        return DataBufferUtils
+            .join(exportService.exportJsonArray(rows, new DefaultDataBufferFactory()))
+            .map(buffer -> buffer.toString(StandardCharsets.UTF_8))
+            .block();
+    }
+
+    @Test
+    void formatCsvLine() {
+        assertThat(ExportService.formatCsvLine(Arrays.asList("a", 1L, null))).isEqualTo("a,1,\n");
+    }
+
+    @Test
+    void formatQuotedCsvLine() {
+        assertThat(ExportService.formatCsvLine(Arrays.asList("a,b", "say \"hi\"", " a ")))
+            .isEqualTo("\"a,b\",\"say \"\"hi\"\"\",\" a \"\n");
+    }
+
+    @Test
+    void formattedCsvLineCanBeParsed() {
+        String line = ExportService.formatCsvLine(Arrays.asList("Doe, \"Jr\"", "", " a "));
+        assertThat(ImportService.parseCsvLine(line.trim())).containsExactly("Doe, \"Jr\"", "", " a ");
+    }
+}
@@ -0,0 +1,89 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mycompany.myapp.config.ApplicationProperties;
+import com.mycompany.myapp.service.dto.ImportChunkDTO;
+import com.mycompany.myapp.service.dto.ImportRejectDTO;
+import com.mycompany.myapp.service.dto.JobDTO;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.validation.Validation;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import reactor.core.publisher.Flux;
+
+class ImportServiceTest {
+
+    @Test
+    void importAllRejectsANullJsonRow() {
+        ImportService importService = new ImportService(
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ApplicationProperties()
+        );
+        String body = "{\"jobTitle\":\"first\"}\nnull\n{\"jobTitle\":\"third\"}\n";
+        DataBuffer buffer = new DefaultDataBufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+
+        ImportChunkDTO result = importService.importAll(Flux.just(buffer), DataFormat.NDJSON, JobDTO.class, Flux::fromIterable).blockLast();
+
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getRejects())
+            .extracting(ImportRejectDTO::getLine, ImportRejectDTO::getMessage)
+            .containsExactly(tuple(2L, "Empty row"));
+    }
+
+    @Test
+    void importAllJoinsTheLinesOfAQuotedCsvValue() {
+        ImportService importService = new ImportService(
+            new ObjectMapper(),
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new ApplicationProperties()
+        );
+        String body =
+            ExportService.formatCsvLine(List.of("jobTitle", "jobHours")) +
+            ExportService.formatCsvLine(List.of("first\n\nline", 10)) +
+            "second,20\n" +
+            "\"unclosed,30\n" +
+            "third,40\n";
+        DataBuffer buffer = new DefaultDataBufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        List<JobDTO> saved = new ArrayList<>();
+
+        ImportChunkDTO result = importService
+            .importAll(
+                Flux.just(buffer),
+                DataFormat.CSV,
+                JobDTO.class,
+                jobs -> {
+                    saved.addAll(jobs);
+                    return Flux.fromIterable(jobs);
+                }
+            )
+            .blockLast();
+
+        assertThat(saved).extracting(JobDTO::getJobTitle).containsExactly("first\n\nline", "second");
+        // The unclosed quote runs to the end of the body, read as one record
+        assertThat(result.getRejects())
+            .extracting(ImportRejectDTO::getLine, ImportRejectDTO::getMessage)
+            .containsExactly(tuple(6L, "Expected 2 values but found 1"));
+    }
+
+    @Test
+    void parseCsvLine() {
+        assertThat(ImportService.parseCsvLine("a,b,c")).containsExactly("a", "b", "c");
+        assertThat(ImportService.parseCsvLine("a,,")).containsExactly("a", "", "");
+        assertThat(ImportService.parseCsvLine(" a , b ")).containsExactly("a", "b");
+    }
+
+    @Test
+    void parseQuotedCsvLine() {
+        assertThat(ImportService.parseCsvLine("\"a,b\",c")).containsExactly("a,b", "c");
+        assertThat(ImportService.parseCsvLine("\"say \"\"hi\"\"\",c")).containsExactly("say \"hi\"", "c");
+        assertThat(ImportService.parseCsvLine("\"\",c")).containsExactly("", "c");
+        assertThat(ImportService.parseCsvLine("\" a \",c")).containsExactly(" a ", "c");
+    }
+}
@@ -0,0 +1,285 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.data.relational.core.query.Criteria.where;
+
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.repository.AuthorityRepository;
+import com.mycompany.myapp.repository.DepartmentRepository;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.Fieldset;
+import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.repository.KeysetCursor;
+import com.mycompany.myapp.repository.UserRepository;
+import com.mycompany.myapp.service.EntityManager.Aggregate;
+import com.mycompany.myapp.service.EntityManager.Aggregate.Function;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.relational.core.query.Criteria;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * Query plan regression tests: every repository query filtering rows has to find them through an index, instead of
+ * scanning its table. The plans are read with {@code EXPLAIN} from the embedded H2 database, which marks the scans with
+ * a {@code tableScan} comment, and the index lookups with their condition.
+ * <p>
+ * The statements checked are the ones the queries run, as recorded by the query statistics of H2, which are cleared
+ * before each test.
+ */
+@IntegrationTest
+class QueryPlanIT {
+
+    /**
+     * The comment H2 writes after each table of the plan, naming the index read and its condition, or {@code tableScan}.
+     */
+    private static final Pattern TABLE_ACCESS = Pattern.compile("/\\* (\\w+\\.\\w+[^*]*) \\*/");
+
+    private static final Pattern NAMED_PARAMETER = Pattern.compile(":\\w+");
+
+    private static final int MAX_STATEMENTS = 1000;
+
+    private static final List<Class<?>> REPOSITORIES = List.of(
+        AuthorityRepository.class,
+        DepartmentRepository.class,
+        EmployeeRepository.class,
+        JobRepository.class,
+        UserRepository.class
+    );
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private DepartmentService departmentService;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void startStatistics() {
+        execute("SET QUERY_STATISTICS_MAX_ENTRIES " + MAX_STATEMENTS);
+        resetStatistics();
+    }
+
+    @AfterEach
+    void stopStatistics() {
+        execute("SET QUERY_STATISTICS FALSE");
+    }
+
+    @Test
+    void serviceAndRepositorySelectsUseAnIndex() {
+        // The search of the strings too short for the search index is the only select allowed to scan: a LIKE can't use an index
+        List<String> search = selectsOf(() -> employeeService.searchString("ab", PageRequest.of(0, 20)).blockLast());
+        assertThat(search).singleElement().asString().contains(" LIKE ");
+
+        List<String> selects = selectsOf(
+            () -> {
+                runServiceQueries();
+                runEmployeeQueries();
+                runJobQueries();
+                runDepartmentQueries();
+                employeeService.searchString("ab", PageRequest.of(0, 20)).blockLast();
+            }
+        );
+
+        assertThat(selects).containsAll(search);
+        selects.stream().filter(sql -> !search.contains(sql)).forEach(this::assertUsesIndexes);
+    }
+
+    @Test
+    void derivedQueriesUseAnIndex() {
+        // The clean up of the users who never activated their account runs once a day, and is allowed to scan
+        List<String> selects = selectsOf(
+            () -> {
+                userRepository.findOneByLogin("user").block();
+                userRepository.findOneByActivationKey("activation").block();
+                userRepository.findOneByResetKey("reset").block();
+            }
+        );
+
+        assertThat(selects).hasSize(3);
+        selects.forEach(this::assertUsesIndexes);
+    }
+
+    @Test
+    void annotatedQueriesUseAnIndex() {
+        List<String> queries = new ArrayList<>();
+        for (Class<?> repository : REPOSITORIES) {
+            for (Method method : repository.getMethods()) {
+                Query query = AnnotationUtils.findAnnotation(method, Query.class);
+                if (query != null && !query.value().trim().toUpperCase(Locale.ROOT).startsWith("INSERT")) {
+                    queries.add(query.value());
+                }
+            }
+        }
+
+        assertThat(queries).isNotEmpty();
+        queries.forEach(query -> assertUsesIndexes(toPositionalParameters(query)));
+    }
+
+    /**
+     * Checks the plan of the given statement: a filtered table has to be read through an index lookup, and so do the
+     * joined tables. Only an unfiltered statement may read its whole table.
+     */
+    private void assertUsesIndexes(String sql) {
+        String plan = explain(sql);
+        List<String> accesses = new ArrayList<>();
+        Matcher access = TABLE_ACCESS.matcher(plan);
+        while (access.find()) {
+            accesses.add(access.group(1));
+        }
+        assertThat(accesses).as("Plan of %s%n%s", sql, plan).isNotEmpty();
+        String normalized = sql.toUpperCase(Locale.ROOT);
+        boolean filtered = normalized.contains(" WHERE ");
+        for (int i = 0; i < accesses.size(); i++) {
+            if (i > 0 || filtered) {
+                assertThat(accesses.get(i)).as("Plan of %s%n%s", sql, plan).doesNotContain("tableScan").contains(":");
+            }
+        }
+    }
+
+    private void runServiceQueries() {
+        employeeService.findOne(1L).block();
+        employeeService.findAllByDepartment(1L, PageRequest.of(0, 20)).blockLast();
+        employeeService.findAllWhereDepartmentIsNull(PageRequest.of(0, 20)).blockLast();
+        employeeService.salaryGreaterThan(1L, PageRequest.of(0, 20)).blockLast();
+        jobService.findOne(1L).block();
+        departmentService.findOne(1L).block();
+        employeeService.fetchJobs(List.of(employee(1L))).block();
+        departmentService.fetchEmployees(List.of(department(1L))).block();
+        departmentService.findTree(1L).block();
+    }
+
+    /**
+     * Runs the page (with its {@code COUNT(*) OVER ()} column, and its count query when the page is empty), slice,
+     * keyset and stream selects of the employee DTOs, with all their columns and with a sparse fieldset, and the
+     * aggregate select.
+     */
+    private void runEmployeeQueries() {
+        Criteria byDepartment = where("departmentId").is(1L);
+        Fieldset fields = Fieldset.of(List.of("firstName"));
+        PageRequest page = PageRequest.of(1, 20);
+        PageRequest byId = PageRequest.of(0, 20, Sort.by("id"));
+        KeysetCursor after = new KeysetCursor(Sort.Order.asc("id"), 1L, null);
+        employeeRepository.findAllDtoBy(page, byDepartment).blockLast();
+        employeeRepository.findDtoPage(page, byDepartment, null).block();
+        employeeRepository.findDtoPage(page, byDepartment, fields).block();
+        employeeRepository.findDtoSlice(page, byDepartment, null).block();
+        employeeRepository.findDtoSlice(page, byDepartment, fields).block();
+        employeeRepository.findAllDtoAfter(byId, after, null).blockLast();
+        employeeRepository.findAllDtoAfter(byId, after, fields).blockLast();
+        employeeRepository.streamAllDtoBy(Sort.by("id"), byDepartment).blockLast();
+        em.aggregate(Employee.class, "departmentId", List.of(Aggregate.count(), Aggregate.of(Function.SUM, "salary"))).blockLast();
+    }
+
+    private void runJobQueries() {
+        Criteria byEmployee = where("employeeId").is(1L);
+        Fieldset fields = Fieldset.of(List.of("jobTitle"));
+        PageRequest page = PageRequest.of(1, 20);
+        PageRequest byId = PageRequest.of(0, 20, Sort.by("id"));
+        KeysetCursor after = new KeysetCursor(Sort.Order.asc("id"), 1L, null);
+        jobRepository.findAllDtoBy(page, byEmployee).blockLast();
+        jobRepository.findDtoPage(page, byEmployee, null).block();
+        jobRepository.findDtoPage(page, byEmployee, fields).block();
+        jobRepository.findDtoSlice(page, byEmployee, null).block();
+        jobRepository.findDtoSlice(page, byEmployee, fields).block();
+        jobRepository.findAllDtoAfter(byId, after, null).blockLast();
+        jobRepository.findAllDtoAfter(byId, after, fields).blockLast();
+        jobRepository.streamAllDtoBy(Sort.by("id"), byEmployee).blockLast();
+        em.aggregate(Job.class, "employeeId", List.of(Aggregate.count(), Aggregate.of(Function.SUM, "jobHours"))).blockLast();
+    }
+
+    private void runDepartmentQueries() {
+        Criteria byIds = where("id").in(1L, 2L);
+        PageRequest page = PageRequest.of(1, 20);
+        PageRequest byId = PageRequest.of(0, 20, Sort.by("id"));
+        KeysetCursor after = new KeysetCursor(Sort.Order.asc("id"), 1L, null);
+        departmentRepository.findAllDtoBy(page, byIds).blockLast();
+        departmentRepository.findDtoPage(page, byIds).block();
+        departmentRepository.findDtoSlice(page, byIds).block();
+        departmentRepository.findAllDtoAfter(byId, after).blockLast();
+    }
+
+    /**
+     * Runs some queries, and returns the selects they ran.
+     */
+    private List<String> selectsOf(Runnable queries) {
+        resetStatistics();
+        queries.run();
+        return databaseClient
+            .sql("SELECT SQL_STATEMENT FROM INFORMATION_SCHEMA.QUERY_STATISTICS")
+            .map(row -> row.get(0, String.class))
+            .all()
+            .filter(sql -> sql.startsWith("SELECT ") && sql.contains(" FROM ") && !sql.contains("INFORMATION_SCHEMA"))
+            .collectList()
+            .block();
+    }
+
+    /**
+     * Turning the query statistics off clears them.
+     */
+    private void resetStatistics() {
+        execute("SET QUERY_STATISTICS FALSE");
+        execute("SET QUERY_STATISTICS TRUE");
+    }
+
+    private void execute(String sql) {
+        databaseClient.sql(sql).then().block();
+    }
+
+    private String explain(String sql) {
+        return databaseClient.sql("EXPLAIN " + sql).map(row -> row.get(0, String.class)).one().block();
+    }
+
+    private static EmployeeDTO employee(Long id) {
+        EmployeeDTO employee = new EmployeeDTO();
+        employee.setId(id);
+        return employee;
+    }
+
+    private static DepartmentDTO department(Long id) {
+        DepartmentDTO department = new DepartmentDTO();
+        department.setId(id);
+        return department;
+    }
+
+    private static String toPositionalParameters(String query) {
+        AtomicInteger index = new AtomicInteger();
+        return NAMED_PARAMETER.matcher(query).replaceAll(parameter -> "\\$" + index.incrementAndGet());
+    }
+}
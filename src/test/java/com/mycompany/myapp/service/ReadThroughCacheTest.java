@@ -0,0 +1,150 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class ReadThroughCacheTest {
+
+    private final Map<Long, String> rows = new HashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ReadThroughCache<Long, String> cache;
+
+    @BeforeEach
+    void init() {
+        rows.put(1L, "one");
+        rows.put(2L, "two");
+        rows.put(3L, "three");
+        meterRegistry = new SimpleMeterRegistry();
+        cache = cache(2, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void getLoadsAMissingKeyOnce() {
+        assertThat(cache.get(1L).block()).isEqualTo("one");
+        assertThat(cache.get(1L).block()).isEqualTo("one");
+
+        assertThat(loads).hasValue(1);
+        assertThat(cacheGets("hit")).isEqualTo(1);
+        assertThat(cacheGets("miss")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.load").tag("result", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentReadsShareTheLoad() {
+        Sinks.One<String> row = Sinks.one();
+        cache = pendingCache(row);
+        List<String> values = new ArrayList<>();
+
+        cache.get(1L).subscribe(values::add);
+        cache.get(1L).subscribe(values::add);
+        row.tryEmitValue("one");
+
+        assertThat(values).containsExactly("one", "one");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void emptyValuesAndFailuresAreNotCached() {
+        assertThat(cache.get(4L).blockOptional()).isEmpty();
+        assertThat(cache.get(4L).blockOptional()).isEmpty();
+        assertThat(loads).hasValue(2);
+
+        ReadThroughCache<Long, String> failing = new ReadThroughCache<>(
+            "failing",
+            2,
+            Duration.ofMinutes(1),
+            id -> Mono.error(new IllegalStateException("down")),
+            meterRegistry
+        );
+        assertThat(failing.get(1L).onErrorReturn("error").block()).isEqualTo("error");
+        assertThat(failing.get(1L).onErrorReturn("error").block()).isEqualTo("error");
+        assertThat(meterRegistry.get("cache.load").tag("cache", "failing").tag("result", "failure").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void invalidateReloadsTheKey() {
+        cache.get(1L).block();
+        rows.put(1L, "uno");
+
+        cache.invalidate(1L);
+
+        assertThat(cache.get(1L).block()).isEqualTo("uno");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void aLoadStartedBeforeAnInvalidationIsNotKept() {
+        Sinks.One<String> row = Sinks.one();
+        cache = pendingCache(row);
+        cache.get(1L).subscribe();
+
+        cache.invalidateAll();
+        row.tryEmitValue("stale");
+
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isZero();
+    }
+
+    @Test
+    void expiredEntriesAreReloaded() {
+        cache = cache(2, Duration.ZERO);
+
+        cache.get(1L).block();
+        cache.get(1L).block();
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void theLeastRecentlyReadEntryIsEvicted() {
+        cache.get(1L).block();
+        cache.get(2L).block();
+        cache.get(1L).block();
+
+        cache.get(3L).block();
+        cache.get(1L).block();
+
+        assertThat(loads).hasValue(3);
+        assertThat(meterRegistry.get("cache.evictions").functionCounter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.size").gauge().value()).isEqualTo(2);
+    }
+
+    private ReadThroughCache<Long, String> cache(int maximumSize, Duration ttl) {
+        return new ReadThroughCache<>(
+            "test",
+            maximumSize,
+            ttl,
+            id -> Mono.fromCallable(() -> rows.get(id)).doOnSubscribe(s -> loads.incrementAndGet()),
+            meterRegistry
+        );
+    }
+
+    private ReadThroughCache<Long, String> pendingCache(Sinks.One<String> row) {
+        return new ReadThroughCache<>(
+            "test",
+            2,
+            Duration.ofMinutes(1),
+            id -> row.asMono().doOnSubscribe(s -> loads.incrementAndGet()),
+            meterRegistry
+        );
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "test").tag("result", result).functionCounter().count();
+    }
+}
@@ -0,0 +1,73 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.assertj.core.data.Percentage;
+import org.junit.jupiter.api.Test;
+
+class SalarySketchTest {
+
+    @Test
+    void quantilesAreWithinTheRelativeAccuracy() {
+        Random random = new Random(42);
+        long[] salaries = new long[10_000];
+        SalarySketch sketch = new SalarySketch();
+        for (int i = 0; i < salaries.length; i++) {
+            salaries[i] = 20_000 + (long) (random.nextGaussian() * 5_000 + 40_000 * random.nextDouble());
+            sketch.add(salaries[i]);
+        }
+        Arrays.sort(salaries);
+
+        for (double quantile : new double[] { 0, 0.25, 0.5, 0.9, 0.99, 1 }) {
+            long exact = salaries[(int) (quantile * (salaries.length - 1))];
+            assertThat(sketch.quantile(quantile)).isCloseTo(exact, Percentage.withPercentage(100 * SalarySketch.RELATIVE_ACCURACY));
+        }
+        assertThat(sketch.getCount()).isEqualTo(salaries.length);
+        assertThat(sketch.getMean()).isCloseTo(Arrays.stream(salaries).average().getAsDouble(), within(0.001));
+        assertThat(sketch.estimateMemory()).isLessThan(8 * 1024);
+    }
+
+    @Test
+    void removeUndoesAdd() {
+        SalarySketch sketch = new SalarySketch();
+        sketch.add(1000);
+        sketch.add(2000);
+        sketch.add(90_000);
+        sketch.remove(90_000);
+
+        assertThat(sketch.getCount()).isEqualTo(2);
+        assertThat(sketch.getMean()).isEqualTo(1500);
+        assertThat(sketch.getMax()).isCloseTo(2000, Percentage.withPercentage(1));
+    }
+
+    @Test
+    void mergeAddsTheCounts() {
+        SalarySketch first = new SalarySketch();
+        first.add(10);
+        first.add(0);
+        SalarySketch second = new SalarySketch();
+        second.add(1_000_000);
+
+        first.merge(second);
+
+        assertThat(first.getCount()).isEqualTo(3);
+        assertThat(first.getMin()).isZero();
+        assertThat(first.quantile(0.5)).isEqualTo(10);
+        assertThat(first.getMax()).isCloseTo(1_000_000, Percentage.withPercentage(1));
+        assertThat(second.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void histogramCountsEverySalary() {
+        SalarySketch sketch = new SalarySketch();
+        for (long salary : new long[] { 100, 110, 120, 990, 1000 }) {
+            sketch.add(salary);
+        }
+
+        assertThat(sketch.histogram(3)).containsExactly(3, 0, 2);
+        assertThat(new SalarySketch().histogram(3)).containsOnly(0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.mycompany.myapp.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.service.dto.SalaryStatsDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+
+class SalaryStatisticsTest {
+
+    private EmployeeRepository employeeRepository;
+
+    private SalaryStatistics statistics;
+
+    @BeforeEach
+    void init() {
+        employeeRepository = mock(EmployeeRepository.class);
+        statistics = new SalaryStatistics(employeeRepository, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void getStatisticsIsEmptyUntilBuilt() {
+        when(employeeRepository.streamAll()).thenReturn(Flux.just(employee(1L, 10L, 1000L)));
+
+        assertThat(statistics.getStatistics(null, List.of(), 1).blockOptional()).isEmpty();
+
+        statistics.rebuild().block();
+        assertThat(statistics.isReady()).isTrue();
+        assertThat(statistics.getStatistics(null, List.of(), 1).block().getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void indexReplacesThePreviousSalary() {
+        Employee first = employee(1L, 10L, 1000L);
+        Employee second = employee(2L, null, 3000L);
+        when(employeeRepository.streamAll()).thenReturn(Flux.just(first, second));
+        statistics.rebuild().block();
+
+        // Move the first employee to another department, with a raise
+        Employee moved = employee(1L, 20L, 2000L);
+        statistics.index(first, moved);
+
+        assertThat(statistics(10L).getCount()).isZero();
+        assertThat(statistics(20L).getCount()).isEqualTo(1);
+        assertThat(statistics(20L).getMean()).isEqualTo(2000.0);
+        assertThat(statistics(null).getCount()).isEqualTo(2);
+        assertThat(statistics(null).getMean()).isEqualTo(2500.0);
+
+        statistics.remove(second);
+        statistics.index(null, employee(3L, 20L, 4000L));
+
+        assertThat(statistics(20L).getCount()).isEqualTo(2);
+        assertThat(statistics(null).getCount()).isEqualTo(2);
+        assertThat(statistics(null).getMean()).isEqualTo(3000.0);
+    }
+
+    @Test
+    void rebuildReplacesTheStreamedSalariesWrittenMeanwhile() {
+        Employee first = employee(1L, 10L, 1000L);
+        Employee second = employee(2L, 10L, 3000L);
+        Employee raised = employee(1L, 10L, 5000L);
+        // The first employee is raised once streamed, and the second one is deleted before being streamed
+        when(employeeRepository.streamAll())
+            .thenReturn(
+                Flux
+                    .just(first)
+                    .doOnComplete(
+                        () -> {
+                            statistics.index(first, raised);
+                            statistics.remove(second);
+                        }
+                    )
+            );
+
+        statistics.rebuild().block();
+
+        assertThat(statistics(10L).getCount()).isEqualTo(1);
+        assertThat(statistics(10L).getMean()).isEqualTo(5000.0);
+    }
+
+    private SalaryStatsDTO statistics(Long departmentId) {
+        return statistics.getStatistics(departmentId, List.of(), 1).block();
+    }
+
+    private static Employee employee(Long id, Long departmentId, Long salary) {
+        Employee employee = new Employee().salary(salary);
+        employee.setId(id);
+        employee.setDepartmentId(departmentId);
+        return employee;
+    }
+}
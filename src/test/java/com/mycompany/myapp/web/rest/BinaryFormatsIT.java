@@ -0,0 +1,211 @@
+package com.mycompany.myapp.web.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.config.JacksonConfiguration;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import com.mycompany.myapp.service.dto.JobDTO;
+import java.io.IOException;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * Integration tests of the negotiation of the binary formats of the REST API, CBOR and Smile, for the requests and the
+ * responses.
+ */
+@IntegrationTest
+@AutoConfigureWebTestClient
+@WithMockUser
+class BinaryFormatsIT {
+
+    private static final MediaType APPLICATION_STREAM_SMILE = MediaType.parseMediaType(JacksonConfiguration.APPLICATION_STREAM_SMILE_VALUE);
+
+    private static final ObjectMapper CBOR_MAPPER = mapper(new CBORFactory());
+
+    private static final ObjectMapper SMILE_MAPPER = mapper(new SmileFactory());
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @AfterEach
+    void cleanup() {
+        em.deleteAll(Job.class).block();
+        em.deleteAll(Employee.class).block();
+    }
+
+    @Test
+    void createJobInCbor() throws IOException {
+        JobDTO jobDTO = new JobDTO();
+        jobDTO.setJobTitle("Engineer");
+        jobDTO.setJobHours(40L);
+
+        byte[] body = webTestClient
+            .post()
+            .uri("/api/jobs")
+            .contentType(MediaType.APPLICATION_CBOR)
+            .accept(MediaType.APPLICATION_CBOR)
+            .bodyValue(CBOR_MAPPER.writeValueAsBytes(jobDTO))
+            .exchange()
+            .expectStatus()
+            .isCreated()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_CBOR)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+        JsonNode created = CBOR_MAPPER.readTree(body);
+        assertThat(created.get("jobTitle").asText()).isEqualTo("Engineer");
+        assertThat(jobRepository.findById(created.get("id").asLong()).block().getJobHours()).isEqualTo(40L);
+    }
+
+    @Test
+    void getEmployeesInSmile() throws IOException {
+        employeeRepository.save(new Employee().firstName("Grace").lastName("Hopper")).block();
+
+        byte[] body = webTestClient
+            .get()
+            .uri("/api/employees?sort=id,asc&fields=firstName")
+            .accept(JacksonConfiguration.APPLICATION_SMILE)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(JacksonConfiguration.APPLICATION_SMILE)
+            .expectBody(byte[].class)
+            .returnResult()
+            .getResponseBody();
+
+        // The sparse fieldsets apply to the binary formats too
+        JsonNode found = SMILE_MAPPER.readTree(body).get(0);
+        assertThat(found.get("firstName").asText()).isEqualTo("Grace");
+        assertThat(found.has("lastName")).isFalse();
+    }
+
+    @Test
+    void listETagIsWeakAndVariesWithTheFormat() {
+        employeeRepository.save(new Employee().firstName("Grace")).block();
+
+        String eTag = webTestClient
+            .get()
+            .uri("/api/employees?sort=id,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+            .returnResult(byte[].class)
+            .getResponseHeaders()
+            .getETag();
+        assertThat(eTag).startsWith("W/\"");
+
+        // The CBOR representation has the same version, but isn't the same bytes: the ETag only matches weakly
+        webTestClient
+            .get()
+            .uri("/api/employees?sort=id,asc")
+            .accept(MediaType.APPLICATION_CBOR)
+            .ifNoneMatch(eTag)
+            .exchange()
+            .expectStatus()
+            .isNotModified()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, eTag)
+            .expectHeader()
+            .valueEquals(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+
+    @Test
+    void patchJobsInSmile() throws IOException {
+        Job job = jobRepository.save(new Job().jobTitle("Engineer")).block();
+        JobDTO patch = new JobDTO();
+        patch.setId(job.getId());
+        patch.setJobTitle("Architect");
+
+        webTestClient
+            .patch()
+            .uri("/api/jobs")
+            .contentType(JacksonConfiguration.APPLICATION_SMILE)
+            .accept(MediaType.APPLICATION_JSON)
+            .bodyValue(SMILE_MAPPER.writeValueAsBytes(List.of(patch)))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$[0].result")
+            .isEqualTo("UPDATED");
+
+        assertThat(jobRepository.findById(job.getId()).block().getJobTitle()).isEqualTo("Architect");
+    }
+
+    @Test
+    void streamEmployeesInSmile() {
+        employeeRepository.save(new Employee().firstName("Grace")).block();
+        employeeRepository.save(new Employee().firstName("Alan")).block();
+
+        List<EmployeeDTO> employees = webTestClient
+            .get()
+            .uri("/api/employees/withoutdepartments/")
+            .accept(APPLICATION_STREAM_SMILE)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(APPLICATION_STREAM_SMILE)
+            .returnResult(EmployeeDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(employees).extracting(EmployeeDTO::getFirstName).containsExactly("Grace", "Alan");
+    }
+
+    @Test
+    void streamingEndpointsDontBufferInCborNorSmile() {
+        // Neither format has a streaming array, the whole list would be held
+        for (MediaType mediaType : List.of(MediaType.APPLICATION_CBOR, JacksonConfiguration.APPLICATION_SMILE)) {
+            webTestClient
+                .get()
+                .uri("/api/employees/salarygreaterthan/{salary}", 0)
+                .accept(mediaType)
+                .exchange()
+                .expectStatus()
+                .isEqualTo(HttpStatus.NOT_ACCEPTABLE);
+        }
+    }
+
+    private static ObjectMapper mapper(JsonFactory factory) {
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        return mapper;
+    }
+}
@@ -1,16 +1,24 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.repository.DepartmentRepository;
+import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.service.DataFormat;
 import com.mycompany.myapp.service.EntityManager;
 import com.mycompany.myapp.service.dto.DepartmentDTO;
 import com.mycompany.myapp.service.mapper.DepartmentMapper;
+import com.mycompany.myapp.web.rest.util.ETagUtil;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
@@ -22,6 +30,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
@@ -49,6 +58,12 @@ class DepartmentResourceIT {
     @Autowired
     private DepartmentMapper departmentMapper;
 
+    @Autowired
+    private EmployeeRepository employeeRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
     @Autowired
     private EntityManager em;
 
@@ -164,6 +179,30 @@ class DepartmentResourceIT {
         assertThat(departmentList).hasSize(databaseSizeBeforeTest);
     }
 
+    @Test
+    void exportDepartmentsAsCsv() {
+        // Initialize the database
+        department.setDepartmentName("Sales, \"North\"");
+        departmentRepository.save(department).block();
+
+        String exported = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/export")
+            .accept(DataFormat.TEXT_CSV)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(DataFormat.TEXT_CSV)
+            .expectHeader()
+            .valueMatches(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"departments.csv\"")
+            .expectBody(String.class)
+            .returnResult()
+            .getResponseBody();
+
+        assertThat(exported).startsWith("id,departmentName\n").contains(department.getId() + ",\"Sales, \"\"North\"\"\"\n");
+    }
+
     @Test
     void getAllDepartments() {
         // Initialize the database
@@ -208,6 +247,224 @@ class DepartmentResourceIT {
             .value(is(DEFAULT_DEPARTMENT_NAME));
     }
 
+    @Test
+    void getCachedDepartmentAfterAnUpdate() throws Exception {
+        // Initialize the database, and cache the department and the list of all the departments
+        departmentRepository.save(department).block();
+        webTestClient.get().uri(ENTITY_API_URL_ID, department.getId()).exchange().expectStatus().isOk();
+        webTestClient.get().uri(ENTITY_API_URL + "/all").exchange().expectStatus().isOk();
+
+        // Update the department through the API, which invalidates the caches
+        Department partialUpdatedDepartment = new Department();
+        partialUpdatedDepartment.setId(department.getId());
+        partialUpdatedDepartment.departmentName(UPDATED_DEPARTMENT_NAME);
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedDepartment.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedDepartment))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, department.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.departmentName")
+            .value(is(UPDATED_DEPARTMENT_NAME));
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/all")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].departmentName")
+            .value(hasItem(UPDATED_DEPARTMENT_NAME));
+    }
+
+    @Test
+    void getAllDepartmentsIsNotModifiedUntilAWrite() throws Exception {
+        // Initialize the database
+        departmentRepository.save(department).block();
+
+        String eTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/all")
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(DepartmentDTO.class)
+            .getResponseHeaders()
+            .getETag();
+        assertThat(eTag).isNotNull();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/all")
+            .ifNoneMatch(eTag)
+            .exchange()
+            .expectStatus()
+            .isNotModified()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, eTag)
+            .expectBody()
+            .isEmpty();
+
+        // Update the department through the API, which changes the ETag
+        Department partialUpdatedDepartment = new Department();
+        partialUpdatedDepartment.setId(department.getId());
+        partialUpdatedDepartment.departmentName(UPDATED_DEPARTMENT_NAME);
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, partialUpdatedDepartment.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(partialUpdatedDepartment))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/all")
+            .ifNoneMatch(eTag)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].departmentName")
+            .value(hasItem(UPDATED_DEPARTMENT_NAME));
+    }
+
+    @Test
+    void getDepartmentIsNotModified() {
+        // Initialize the database
+        departmentRepository.save(department).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, department.getId())
+            .ifNoneMatch(ETagUtil.eTag(department.getVersion()))
+            .exchange()
+            .expectStatus()
+            .isNotModified();
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "?include=employees", department.getId())
+            .ifNoneMatch(ETagUtil.eTag(department.getVersion()))
+            .exchange()
+            .expectStatus()
+            .isOk();
+    }
+
+    @Test
+    void getAllDepartmentsWithEmployees() {
+        // Initialize the database
+        departmentRepository.save(department).block();
+        Department empty = departmentRepository.save(createUpdatedEntity(em)).block();
+        for (String firstName : new String[] { "Grace", "Alan" }) {
+            Employee employee = EmployeeResourceIT.createEntity(em).firstName(firstName);
+            employee.setDepartmentId(department.getId());
+            employeeRepository.save(employee).block();
+        }
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?sort=id,asc&include=employees")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[0].employees[*].firstName")
+                .value(contains("Grace", "Alan"))
+                .jsonPath("$[1].id")
+                .isEqualTo(empty.getId().intValue())
+                .jsonPath("$[1].employees")
+                .isEmpty();
+
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL_ID + "?include=employees", department.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.employees[*].department.id")
+                .value(contains(department.getId().intValue(), department.getId().intValue()));
+        } finally {
+            EmployeeResourceIT.deleteEntities(em);
+        }
+    }
+
+    @Test
+    void getDepartmentTree() {
+        // Initialize the database
+        departmentRepository.save(department).block();
+        List<Employee> employees = new ArrayList<>();
+        for (String firstName : new String[] { "Grace", "Alan" }) {
+            Employee employee = EmployeeResourceIT.createEntity(em).firstName(firstName);
+            employee.setDepartmentId(department.getId());
+            employees.add(employeeRepository.save(employee).block());
+        }
+        for (String title : new String[] { "Developer", "Tester" }) {
+            Job job = JobResourceIT.createEntity(em).jobTitle(title);
+            job.setEmployeeId(employees.get(0).getId());
+            jobRepository.save(job).block();
+        }
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL_ID + "/tree", department.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.id")
+                .isEqualTo(department.getId().intValue())
+                .jsonPath("$.departmentName")
+                .isEqualTo(DEFAULT_DEPARTMENT_NAME)
+                .jsonPath("$.employees[*].firstName")
+                .value(contains("Grace", "Alan"))
+                .jsonPath("$.employees[0].jobs[*].jobTitle")
+                .value(contains("Developer", "Tester"))
+                .jsonPath("$.employees[1].jobs")
+                .isEmpty();
+
+            webTestClient.get().uri(ENTITY_API_URL_ID + "/tree", Long.MAX_VALUE).exchange().expectStatus().isNotFound();
+        } finally {
+            JobResourceIT.deleteEntities(em);
+            EmployeeResourceIT.deleteEntities(em);
+        }
+    }
+
+    @Test
+    void getEmptyDepartmentTree() {
+        // Initialize the database
+        departmentRepository.save(department).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID + "/tree", department.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.id")
+            .isEqualTo(department.getId().intValue())
+            .jsonPath("$.employees")
+            .isEmpty();
+    }
+
     @Test
     void getNonExistingDepartment() {
         // Get the department
@@ -256,7 +513,7 @@ class DepartmentResourceIT {
         // Create the Department
         DepartmentDTO departmentDTO = departmentMapper.toDto(department);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // An entity which doesn't exist can't be updated
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, departmentDTO.getId())
@@ -264,7 +521,7 @@ class DepartmentResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(departmentDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Department in the database
         List<Department> departmentList = departmentRepository.findAll().collectList().block();
@@ -381,7 +638,7 @@ class DepartmentResourceIT {
         // Create the Department
         DepartmentDTO departmentDTO = departmentMapper.toDto(department);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // An entity which doesn't exist can't be updated
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, departmentDTO.getId())
@@ -389,7 +646,7 @@ class DepartmentResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(departmentDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Department in the database
         List<Department> departmentList = departmentRepository.findAll().collectList().block();
@@ -427,7 +684,7 @@ class DepartmentResourceIT {
         // Create the Department
         DepartmentDTO departmentDTO = departmentMapper.toDto(department);
 
-        // If url ID doesn't match entity ID, it will throw BadRequestAlertException
+        // The collection only accepts the bulk updates, as an array
         webTestClient
             .patch()
             .uri(ENTITY_API_URL)
@@ -435,7 +692,7 @@ class DepartmentResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(departmentDTO))
             .exchange()
             .expectStatus()
-            .isEqualTo(405);
+            .isEqualTo(415);
 
         // Validate the Department in the database
         List<Department> departmentList = departmentRepository.findAll().collectList().block();
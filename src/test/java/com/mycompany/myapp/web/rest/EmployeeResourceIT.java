@@ -1,14 +1,27 @@
 package com.mycompany.myapp.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.is;
 
 import com.mycompany.myapp.IntegrationTest;
+import com.mycompany.myapp.domain.Department;
 import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.domain.Job;
+import com.mycompany.myapp.repository.DepartmentRepository;
 import com.mycompany.myapp.repository.EmployeeRepository;
+import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.service.DataFormat;
+import com.mycompany.myapp.service.EmployeeSearchIndex;
+import com.mycompany.myapp.service.EmployeeService;
+import com.mycompany.myapp.service.EmployeeSuggester;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.SalaryStatistics;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
 import com.mycompany.myapp.service.dto.EmployeeDTO;
+import com.mycompany.myapp.service.dto.ImportChunkDTO;
+import com.mycompany.myapp.service.dto.ImportRejectDTO;
 import com.mycompany.myapp.service.mapper.EmployeeMapper;
 import java.time.Duration;
 import java.util.List;
@@ -22,9 +35,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Mono;
 
 /**
  * Integration tests for the {@link EmployeeResource} REST controller.
@@ -61,9 +80,30 @@ class EmployeeResourceIT {
     @Autowired
     private EmployeeMapper employeeMapper;
 
+    @Autowired
+    private DepartmentRepository departmentRepository;
+
+    @Autowired
+    private JobRepository jobRepository;
+
+    @Autowired
+    private EmployeeService employeeService;
+
+    @Autowired
+    private EmployeeSearchIndex employeeSearchIndex;
+
+    @Autowired
+    private EmployeeSuggester employeeSuggester;
+
+    @Autowired
+    private SalaryStatistics salaryStatistics;
+
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -168,6 +208,447 @@ class EmployeeResourceIT {
         assertThat(employeeList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void importEmployeesFromNdjson() throws Exception {
+        int databaseSizeBeforeCreate = employeeRepository.findAll().collectList().block().size();
+        String body =
+            "{\"firstName\":\"" + DEFAULT_FIRST_NAME + "\",\"salary\":" + DEFAULT_SALARY + "}\n" +
+            "{\"firstName\":\"" + UPDATED_FIRST_NAME + "\",\"salary\":" + UPDATED_SALARY + "}\n" +
+            "\n" +
+            "not json\n" +
+            "{\"id\":1,\"firstName\":\"" + DEFAULT_FIRST_NAME + "\"}\n";
+
+        List<ImportChunkDTO> chunks = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(ImportChunkDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        ImportChunkDTO last = chunks.get(chunks.size() - 1);
+        assertThat(last.getTotalImported()).isEqualTo(2);
+        assertThat(last.getTotalRejected()).isEqualTo(2);
+        assertThat(chunks.stream().flatMap(chunk -> chunk.getRejects().stream()).map(ImportRejectDTO::getLine)).containsExactly(4L, 5L);
+        List<Employee> employeeList = employeeRepository.findAll().collectList().block();
+        assertThat(employeeList).hasSize(databaseSizeBeforeCreate + 2);
+        assertThat(employeeList).extracting(Employee::getSalary).contains(DEFAULT_SALARY, UPDATED_SALARY);
+    }
+
+    @Test
+    void importEmployeesFromCsv() throws Exception {
+        int databaseSizeBeforeCreate = employeeRepository.findAll().collectList().block().size();
+        String body =
+            "firstName,lastName,salary\n" +
+            DEFAULT_FIRST_NAME + ",\"Doe, \"\"Jr\"\"\"," + DEFAULT_SALARY + "\n" +
+            UPDATED_FIRST_NAME + ",,not a number\n" +
+            UPDATED_FIRST_NAME + "\n";
+
+        List<ImportChunkDTO> chunks = webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(DataFormat.TEXT_CSV)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(ImportChunkDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        ImportChunkDTO last = chunks.get(chunks.size() - 1);
+        assertThat(last.getTotalImported()).isEqualTo(1);
+        assertThat(chunks.stream().flatMap(chunk -> chunk.getRejects().stream()).map(ImportRejectDTO::getLine)).containsExactly(3L, 4L);
+        List<Employee> employeeList = employeeRepository.findAll().collectList().block();
+        assertThat(employeeList).hasSize(databaseSizeBeforeCreate + 1);
+        Employee testEmployee = employeeList.get(employeeList.size() - 1);
+        assertThat(testEmployee.getFirstName()).isEqualTo(DEFAULT_FIRST_NAME);
+        assertThat(testEmployee.getLastName()).isEqualTo("Doe, \"Jr\"");
+        assertThat(testEmployee.getSalary()).isEqualTo(DEFAULT_SALARY);
+    }
+
+    @Test
+    void exportEmployeesAsNdjson() {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+
+        List<EmployeeDTO> exported = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/export")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+            .returnResult(EmployeeDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(exported).extracting(EmployeeDTO::getId).contains(employee.getId());
+        EmployeeDTO testEmployee = exported.stream().filter(dto -> dto.getId().equals(employee.getId())).findFirst().get();
+        assertThat(testEmployee.getFirstName()).isEqualTo(DEFAULT_FIRST_NAME);
+        assertThat(testEmployee.getSalary()).isEqualTo(DEFAULT_SALARY);
+    }
+
+    @Test
+    void getEmployeesByDepartmentAndWithoutDepartment() {
+        // Initialize the database
+        Department department = departmentRepository.save(DepartmentResourceIT.createEntity(em)).block();
+        employee.setDepartmentId(department.getId());
+        employeeRepository.save(employee).block();
+        Employee withoutDepartment = employeeRepository.save(createUpdatedEntity(em)).block();
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/report/{id}", department.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectHeader()
+                .contentType(MediaType.APPLICATION_JSON)
+                .expectBody()
+                .jsonPath("$.length()")
+                .isEqualTo(1)
+                .jsonPath("$.[0].id")
+                .isEqualTo(employee.getId().intValue())
+                .jsonPath("$.[0].department.id")
+                .isEqualTo(department.getId().intValue());
+
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/withoutdepartments/")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.[*].id")
+                .isEqualTo(withoutDepartment.getId().intValue())
+                .jsonPath("$.[0].department")
+                .doesNotExist();
+        } finally {
+            deleteEntities(em);
+            departmentRepository.delete(department).block();
+        }
+    }
+
+    @Test
+    void getEmployeesSalaryGreaterThanByPage() {
+        // Initialize the database
+        for (long salary = 1; salary <= 3; salary++) {
+            employeeRepository.save(createEntity(em).salary(salary)).block();
+        }
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/salarygreaterthan/1?page=1&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].salary")
+            .isEqualTo(3);
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/salarygreaterthan/1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].salary")
+            .value(contains(2, 3));
+    }
+
+    @Test
+    void getSalaryStatisticsFollowsTheUpdates() throws Exception {
+        // Initialize the database
+        Department department = departmentRepository.save(DepartmentResourceIT.createEntity(em)).block();
+        for (long salary : new long[] { 1000L, 3000L }) {
+            Employee inDepartment = new Employee().salary(salary);
+            inDepartment.setDepartmentId(department.getId());
+            employeeRepository.save(inDepartment).block();
+        }
+        employeeRepository.save(employee.salary(50_000L)).block();
+        salaryStatistics.rebuild().block();
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/salary-stats?departmentId={id}&percentiles=50&bins=2", department.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.departmentId")
+                .isEqualTo(department.getId().intValue())
+                .jsonPath("$.count")
+                .isEqualTo(2)
+                .jsonPath("$.mean")
+                .isEqualTo(2000.0)
+                .jsonPath("$.percentiles.p50")
+                .isNumber()
+                .jsonPath("$.histogram[*].count")
+                .value(contains(1, 1));
+
+            // Raise a salary through the API, which updates the statistics
+            EmployeeDTO employeeDTO = employeeMapper.toDto(employee);
+            employeeDTO.setSalary(60_000L);
+            webTestClient
+                .put()
+                .uri(ENTITY_API_URL_ID, employee.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(employeeDTO))
+                .exchange()
+                .expectStatus()
+                .isOk();
+
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/salary-stats")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.count")
+                .isEqualTo(3)
+                .jsonPath("$.mean")
+                .isEqualTo(64_000 / 3.0)
+                .jsonPath("$.histogram.length()")
+                .isEqualTo(10);
+
+            // Delete the employee through the API, which removes its salary
+            webTestClient.delete().uri(ENTITY_API_URL_ID, employee.getId()).exchange().expectStatus().isNoContent();
+
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/salary-stats")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.count")
+                .isEqualTo(2)
+                .jsonPath("$.mean")
+                .isEqualTo(2000.0);
+
+            webTestClient.get().uri(ENTITY_API_URL + "/salary-stats?percentiles=101").exchange().expectStatus().isBadRequest();
+        } finally {
+            deleteEntities(em);
+            departmentRepository.delete(department).block();
+        }
+    }
+
+    @Test
+    void aggregateEmployeesByDepartment() throws Exception {
+        // Initialize the database
+        Department department = departmentRepository.save(DepartmentResourceIT.createEntity(em)).block();
+        for (long salary : new long[] { 1000L, 3000L }) {
+            Employee inDepartment = new Employee().salary(salary);
+            inDepartment.setDepartmentId(department.getId());
+            employeeRepository.save(inDepartment).block();
+        }
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/aggregate?groupBy=department&sum=salary,salary&min=salary")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[?(@.department == %d)].count", department.getId())
+                .value(contains(2.0))
+                .jsonPath("$[?(@.department == %d)].sum.salary", department.getId())
+                .value(contains(4000.0))
+                .jsonPath("$[?(@.department == %d)].min.salary", department.getId())
+                .value(contains(1000.0));
+
+            // Create an employee through the API, which evicts the cached aggregation
+            EmployeeDTO employeeDTO = employeeMapper.toDto(employee.salary(2000L));
+            employeeDTO.setDepartment(new DepartmentDTO());
+            employeeDTO.getDepartment().setId(department.getId());
+            webTestClient
+                .post()
+                .uri(ENTITY_API_URL)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(TestUtil.convertObjectToJsonBytes(employeeDTO))
+                .exchange()
+                .expectStatus()
+                .isCreated();
+
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "/aggregate?groupBy=department&sum=salary")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[?(@.department == %d)].count", department.getId())
+                .value(contains(3.0))
+                .jsonPath("$[?(@.department == %d)].sum.salary", department.getId())
+                .value(contains(6000.0));
+
+            webTestClient.get().uri(ENTITY_API_URL + "/aggregate?groupBy=firstName").exchange().expectStatus().isBadRequest();
+        } finally {
+            deleteEntities(em);
+            departmentRepository.delete(department).block();
+        }
+    }
+
+    @Test
+    void searchEmployeesAsNdjson() {
+        // Initialize the database
+        employeeRepository.save(employee.firstName("Grace")).block();
+        employeeRepository.save(createUpdatedEntity(em)).block();
+        employeeSearchIndex.rebuild().block();
+
+        List<EmployeeDTO> found = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/search/RAC")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .returnResult(EmployeeDTO.class)
+            .getResponseBody()
+            .collectList()
+            .block();
+
+        assertThat(found).extracting(EmployeeDTO::getId).containsExactly(employee.getId());
+    }
+
+    @Test
+    void searchEmployeesFollowsTheUpdates() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+        employeeSearchIndex.rebuild().block();
+
+        // Rename the employee through the API, which updates the search index
+        EmployeeDTO employeeDTO = employeeMapper.toDto(employee);
+        employeeDTO.setLastName("Lovelace");
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, employee.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(employeeDTO))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/search/lovelace?page=0&size=5")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(employee.getId().intValue());
+
+        // Delete it through the API
+        webTestClient.delete().uri(ENTITY_API_URL_ID, employee.getId()).exchange().expectStatus().isNoContent();
+        assertThat(employeeSearchIndex.search("lovelace", 1).block()).isEmpty();
+    }
+
+    @Test
+    void searchEmployeesFillsThePagesWithoutTheStaleRows() {
+        // Initialize the database
+        employeeRepository.save(employee.firstName("Grace")).block();
+        Employee other = employeeRepository.save(createUpdatedEntity(em).firstName("Gracey")).block();
+        employeeSearchIndex.rebuild().block();
+
+        // Rename the best match without the service, which leaves it in the index
+        employeeRepository.save(employee.firstName("Alan")).block();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/search/grac?page=0&size=1")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(other.getId().intValue());
+    }
+
+    @Test
+    void searchEmployeesIgnoresTheRolledBackWrites() {
+        employeeSearchIndex.rebuild().block();
+
+        EmployeeDTO employeeDTO = employeeMapper.toDto(employee.firstName("Grace"));
+        TransactionalOperator
+            .create(transactionManager)
+            .transactional(employeeService.save(employeeDTO).then(Mono.error(new IllegalStateException("Rolled back"))))
+            .onErrorResume(IllegalStateException.class, e -> Mono.empty())
+            .block();
+
+        assertThat(employeeSearchIndex.search("grace", 1).block()).isEmpty();
+
+        employeeService.save(employeeDTO).block();
+
+        assertThat(employeeSearchIndex.search("grace", 1).block()).hasSize(1);
+    }
+
+    @Test
+    void suggestEmployeesFollowsTheUpdates() throws Exception {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+        employeeSuggester.rebuild().block();
+
+        // Rename the employee through the API, which updates the suggestions
+        EmployeeDTO employeeDTO = employeeMapper.toDto(employee);
+        employeeDTO.setLastName("Lovelace");
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, employee.getId())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(employeeDTO))
+            .exchange()
+            .expectStatus()
+            .isOk();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/suggest?prefix=LOVE&limit=5")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .isEqualTo(employee.getId().intValue())
+            .jsonPath("$.[*].lastName")
+            .isEqualTo("Lovelace");
+
+        // Delete it through the API
+        webTestClient.delete().uri(ENTITY_API_URL_ID, employee.getId()).exchange().expectStatus().isNoContent();
+        assertThat(employeeSuggester.suggest("love", 5)).isEmpty();
+    }
+
     @Test
     void getAllEmployees() {
         // Initialize the database
@@ -198,6 +679,272 @@ class EmployeeResourceIT {
             .value(hasItem(DEFAULT_SALARY.intValue()));
     }
 
+    @Test
+    void getAllEmployeesWithTotalCount() {
+        // Initialize the database
+        for (long salary = 1; salary <= 3; salary++) {
+            employeeRepository.save(createEntity(em).salary(salary)).block();
+        }
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?page=1&size=2&sort=salary,asc")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "3")
+            .expectBody()
+            .jsonPath("$.[*].salary")
+            .isEqualTo(3);
+
+        // A page past the end still gets the total
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?page=5&size=2")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals("X-Total-Count", "3")
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(0);
+    }
+
+    @Test
+    void getAllEmployeesWithoutTotalCount() {
+        // Initialize the database
+        for (long salary = 1; salary <= 3; salary++) {
+            employeeRepository.save(createEntity(em).salary(salary)).block();
+        }
+
+        EntityExchangeResult<List<EmployeeDTO>> firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&sort=salary,asc&total=false")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBodyList(EmployeeDTO.class)
+            .returnResult();
+        assertThat(firstPage.getResponseBody()).extracting(EmployeeDTO::getSalary).containsExactly(1L, 2L);
+        assertThat(firstPage.getResponseHeaders().getFirst(HttpHeaders.LINK)).contains("page=1").contains("rel=\"next\"");
+
+        EntityExchangeResult<List<EmployeeDTO>> lastPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?page=1&size=2&sort=salary,asc&total=false")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(EmployeeDTO.class)
+            .returnResult();
+        assertThat(lastPage.getResponseBody()).extracting(EmployeeDTO::getSalary).containsExactly(3L);
+        assertThat(lastPage.getResponseHeaders().getFirst(HttpHeaders.LINK)).doesNotContain("rel=\"next\"").contains("rel=\"prev\"");
+    }
+
+    @Test
+    void getAllEmployeesWithCursor() {
+        // Initialize the database
+        employeeRepository.save(createEntity(em).salary(3L)).block();
+        employeeRepository.save(createEntity(em).salary(1L)).block();
+        employeeRepository.save(createEntity(em).salary(2L)).block();
+
+        // Get the first page, sorted by salary
+        EntityExchangeResult<List<EmployeeDTO>> firstPage = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&sort=salary,asc&after=")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist("X-Total-Count")
+            .expectBodyList(EmployeeDTO.class)
+            .returnResult();
+        assertThat(firstPage.getResponseBody()).extracting(EmployeeDTO::getSalary).containsExactly(1L, 2L);
+        String link = firstPage.getResponseHeaders().getFirst(HttpHeaders.LINK);
+        assertThat(link).endsWith("rel=\"next\"");
+        String after = UriComponentsBuilder.fromUriString(link.substring(1, link.indexOf('>'))).build().getQueryParams().getFirst("after");
+
+        // Follow the cursor to the last page
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=2&sort=salary,asc&after=" + after)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .doesNotExist(HttpHeaders.LINK)
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$[0].salary")
+            .isEqualTo(3);
+    }
+
+    @Test
+    void getAllEmployeesWithInvalidCursor() {
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=salary,asc&after=!!!")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllEmployeesWithCursorOfAnotherSort() {
+        // Initialize the database
+        employeeRepository.save(createEntity(em).salary(1L)).block();
+        employeeRepository.save(createEntity(em).salary(2L)).block();
+        String link = webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&sort=salary,asc&after=")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .returnResult(EmployeeDTO.class)
+            .getResponseHeaders()
+            .getFirst(HttpHeaders.LINK);
+        String after = UriComponentsBuilder.fromUriString(link.substring(1, link.indexOf('>'))).build().getQueryParams().getFirst("after");
+
+        // The cursor of a page sorted by salary can't be used for the other sorts
+        for (String sort : List.of("salary,desc", "lastName,asc", "id,asc")) {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?size=1&sort=" + sort + "&after=" + after)
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody()
+                .jsonPath("$.message")
+                .isEqualTo("error.cursorinvalid");
+        }
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?size=1&after=" + after)
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void getAllEmployeesWithCursorAndUnknownSortProperty() {
+        for (String sort : List.of("unknown,asc", "departmentId,asc", "version,asc")) {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?sort=" + sort + "&after=")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isBadRequest()
+                .expectBody()
+                .jsonPath("$.message")
+                .isEqualTo("error.sortinvalid");
+        }
+    }
+
+    @Test
+    void getAllEmployeesWithFields() {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+        Job job = JobResourceIT.createEntity(em).jobTitle("Developer");
+        job.setEmployeeId(employee.getId());
+        jobRepository.save(job).block();
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?sort=id,asc&fields=lastName&include=jobs")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[0].id")
+                .isEqualTo(employee.getId().intValue())
+                .jsonPath("$[0].lastName")
+                .isEqualTo(DEFAULT_LAST_NAME)
+                .jsonPath("$[0].firstName")
+                .doesNotExist()
+                .jsonPath("$[0].salary")
+                .doesNotExist()
+                .jsonPath("$[0].jobs[0].jobTitle")
+                .isEqualTo("Developer");
+        } finally {
+            JobResourceIT.deleteEntities(em);
+        }
+    }
+
+    @Test
+    void getAllEmployeesWithJobs() {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+        Employee withoutJobs = employeeRepository.save(createUpdatedEntity(em)).block();
+        for (String title : new String[] { "Developer", "Tester" }) {
+            Job job = JobResourceIT.createEntity(em).jobTitle(title);
+            job.setEmployeeId(employee.getId());
+            jobRepository.save(job).block();
+        }
+
+        try {
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL + "?sort=id,asc&include=jobs")
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$[0].id")
+                .isEqualTo(employee.getId().intValue())
+                .jsonPath("$[0].jobs[*].jobTitle")
+                .value(contains("Developer", "Tester"))
+                .jsonPath("$[1].id")
+                .isEqualTo(withoutJobs.getId().intValue())
+                .jsonPath("$[1].jobs")
+                .isEmpty();
+
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL_ID + "?include=jobs", employee.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.jobs.length()")
+                .isEqualTo(2);
+
+            // The jobs are only loaded on request
+            webTestClient
+                .get()
+                .uri(ENTITY_API_URL_ID, employee.getId())
+                .accept(MediaType.APPLICATION_JSON)
+                .exchange()
+                .expectStatus()
+                .isOk()
+                .expectBody()
+                .jsonPath("$.jobs")
+                .doesNotExist();
+
+            webTestClient.get().uri(ENTITY_API_URL + "?include=department").exchange().expectStatus().isBadRequest();
+        } finally {
+            JobResourceIT.deleteEntities(em);
+        }
+    }
+
     @Test
     void getEmployee() {
         // Initialize the database
@@ -285,7 +1032,7 @@ class EmployeeResourceIT {
         // Create the Employee
         EmployeeDTO employeeDTO = employeeMapper.toDto(employee);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // An entity which doesn't exist can't be updated
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, employeeDTO.getId())
@@ -293,7 +1040,7 @@ class EmployeeResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(employeeDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Employee in the database
         List<Employee> employeeList = employeeRepository.findAll().collectList().block();
@@ -425,7 +1172,7 @@ class EmployeeResourceIT {
         // Create the Employee
         EmployeeDTO employeeDTO = employeeMapper.toDto(employee);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // An entity which doesn't exist can't be updated
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, employeeDTO.getId())
@@ -433,7 +1180,7 @@ class EmployeeResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(employeeDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Employee in the database
         List<Employee> employeeList = employeeRepository.findAll().collectList().block();
@@ -471,7 +1218,7 @@ class EmployeeResourceIT {
         // Create the Employee
         EmployeeDTO employeeDTO = employeeMapper.toDto(employee);
 
-        // If url ID doesn't match entity ID, it will throw BadRequestAlertException
+        // The collection only accepts the bulk updates, as an array
         webTestClient
             .patch()
             .uri(ENTITY_API_URL)
@@ -479,7 +1226,7 @@ class EmployeeResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(employeeDTO))
             .exchange()
             .expectStatus()
-            .isEqualTo(405);
+            .isEqualTo(415);
 
         // Validate the Employee in the database
         List<Employee> employeeList = employeeRepository.findAll().collectList().block();
@@ -506,4 +1253,116 @@ class EmployeeResourceIT {
         List<Employee> employeeList = employeeRepository.findAll().collectList().block();
         assertThat(employeeList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    void getEmployeesById() {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+        Employee other = employeeRepository.save(createEntity(em).firstName(UPDATED_FIRST_NAME)).block();
+        long missingId = count.incrementAndGet();
+
+        // Get the employees, the repeated id being ignored
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?ids={ids}", other.getId() + "," + missingId + "," + employee.getId() + "," + other.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(3)
+            .jsonPath("$.[*].result")
+            .value(contains("FOUND", "NOT_FOUND", "FOUND"))
+            .jsonPath("$.[0].id")
+            .isEqualTo(other.getId())
+            .jsonPath("$.[1].id")
+            .isEqualTo(missingId)
+            .jsonPath("$.[2].id")
+            .isEqualTo(employee.getId())
+            .jsonPath("$.[0].entity.firstName")
+            .isEqualTo(UPDATED_FIRST_NAME)
+            .jsonPath("$.[1].entity")
+            .doesNotExist();
+    }
+
+    @Test
+    void partialUpdateEmployees() {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+        Employee other = employeeRepository.save(createEntity(em)).block();
+        Employee stale = employeeRepository.save(createEntity(em)).block();
+        long missingId = count.incrementAndGet();
+
+        EmployeeDTO salary = new EmployeeDTO();
+        salary.setId(employee.getId());
+        salary.setSalary(UPDATED_SALARY);
+        EmployeeDTO otherSalary = new EmployeeDTO();
+        otherSalary.setId(other.getId());
+        otherSalary.setSalary(UPDATED_SALARY + 1);
+        otherSalary.setVersion(other.getVersion());
+        EmployeeDTO staleName = new EmployeeDTO();
+        staleName.setId(stale.getId());
+        staleName.setLastName(UPDATED_LAST_NAME);
+        staleName.setVersion(stale.getVersion() + 1);
+        EmployeeDTO missing = new EmployeeDTO();
+        missing.setId(missingId);
+        missing.setLastName(UPDATED_LAST_NAME);
+
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of(salary, otherSalary, staleName, missing))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].result")
+            .value(contains("UPDATED", "UPDATED", "VERSION_CONFLICT", "NOT_FOUND"))
+            .jsonPath("$.[0].entity.salary")
+            .isEqualTo(UPDATED_SALARY.intValue())
+            .jsonPath("$.[0].entity.lastName")
+            .isEqualTo(DEFAULT_LAST_NAME)
+            .jsonPath("$.[1].entity.version")
+            .isEqualTo(other.getVersion().intValue() + 1)
+            .jsonPath("$.[2].entity.lastName")
+            .isEqualTo(DEFAULT_LAST_NAME);
+
+        assertThat(employeeRepository.findById(employee.getId()).block().getSalary()).isEqualTo(UPDATED_SALARY);
+        assertThat(employeeRepository.findById(other.getId()).block().getSalary()).isEqualTo(UPDATED_SALARY + 1);
+        assertThat(employeeRepository.findById(stale.getId()).block().getLastName()).isEqualTo(DEFAULT_LAST_NAME);
+
+        // A repeated id is rejected
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(List.of(salary, salary))
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void deleteEmployees() {
+        // Initialize the database
+        employeeRepository.save(employee).block();
+        Employee other = employeeRepository.save(createEntity(em)).block();
+        Employee kept = employeeRepository.save(createEntity(em)).block();
+        long missingId = count.incrementAndGet();
+
+        webTestClient
+            .delete()
+            .uri(ENTITY_API_URL + "?ids={ids}", employee.getId() + "," + missingId + "," + other.getId())
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].result")
+            .value(contains("DELETED", "NOT_FOUND", "DELETED"));
+
+        assertThat(employeeRepository.findAll().collectList().block()).extracting(Employee::getId).containsExactly(kept.getId());
+    }
 }
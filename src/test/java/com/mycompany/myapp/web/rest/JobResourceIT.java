@@ -7,11 +7,17 @@ import static org.hamcrest.Matchers.is;
 import com.mycompany.myapp.IntegrationTest;
 import com.mycompany.myapp.domain.Job;
 import com.mycompany.myapp.repository.JobRepository;
+import com.mycompany.myapp.service.AggregationService;
+import com.mycompany.myapp.service.DataFormat;
 import com.mycompany.myapp.service.EntityManager;
+import com.mycompany.myapp.service.EntityManager.Aggregate;
+import com.mycompany.myapp.service.JobService;
+import com.mycompany.myapp.service.dto.ImportChunkDTO;
 import com.mycompany.myapp.service.dto.JobDTO;
 import com.mycompany.myapp.service.mapper.JobMapper;
 import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.AfterEach;
@@ -22,9 +28,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
 
 /**
  * Integration tests for the {@link JobResource} REST controller.
@@ -58,6 +70,15 @@ class JobResourceIT {
     @Autowired
     private EntityManager em;
 
+    @Autowired
+    private AggregationService aggregationService;
+
+    @Autowired
+    private JobService jobService;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
     @Autowired
     private WebTestClient webTestClient;
 
@@ -150,6 +171,55 @@ class JobResourceIT {
         assertThat(jobList).hasSize(databaseSizeBeforeCreate);
     }
 
+    @Test
+    void importJobs() throws Exception {
+        int databaseSizeBeforeCreate = jobRepository.findAll().collectList().block().size();
+        String body =
+            "jobTitle,jobHours\n" + DEFAULT_JOB_TITLE + "," + DEFAULT_JOB_HOURS + "\n" + UPDATED_JOB_TITLE + "," + UPDATED_JOB_HOURS + "\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(DataFormat.TEXT_CSV)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(ImportChunkDTO.class)
+            .value(chunks -> assertThat(chunks.get(chunks.size() - 1).getTotalImported()).isEqualTo(2));
+
+        assertThat(jobRepository.findAll().collectList().block()).hasSize(databaseSizeBeforeCreate + 2);
+    }
+
+    @Test
+    void importJobsRollsBackTheChunk() throws Exception {
+        int databaseSizeBeforeCreate = jobRepository.findAll().collectList().block().size();
+        String body =
+            "{\"jobTitle\":\"" + DEFAULT_JOB_TITLE + "\"}\n" +
+            "{\"jobTitle\":\"" + UPDATED_JOB_TITLE + "\",\"employee\":{\"id\":" + Long.MAX_VALUE + "}}\n";
+
+        webTestClient
+            .post()
+            .uri(ENTITY_API_URL + "/import")
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .bodyValue(body)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBodyList(ImportChunkDTO.class)
+            .value(
+                chunks -> {
+                    assertThat(chunks).hasSize(1);
+                    assertThat(chunks.get(0).getImported()).isZero();
+                    assertThat(chunks.get(0).getRejects()).hasSize(2);
+                }
+            );
+
+        assertThat(jobRepository.findAll().collectList().block()).hasSize(databaseSizeBeforeCreate);
+    }
+
     @Test
     void getAllJobs() {
         // Initialize the database
@@ -176,6 +246,115 @@ class JobResourceIT {
             .value(hasItem(DEFAULT_JOB_HOURS.intValue()));
     }
 
+    @Test
+    void getAllJobsWithFields() {
+        // Initialize the database
+        jobRepository.save(job).block();
+
+        // Get the requested properties of the jobList
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?sort=id,desc&fields=jobTitle,employee.id")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.[*].id")
+            .value(hasItem(job.getId().intValue()))
+            .jsonPath("$.[*].jobTitle")
+            .value(hasItem(DEFAULT_JOB_TITLE))
+            .jsonPath("$.[0].jobDescription")
+            .doesNotExist()
+            .jsonPath("$.[0].jobHours")
+            .doesNotExist();
+
+        // A property which isn't exposed can't be requested
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "?fields=jobTitle,secret")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isBadRequest();
+    }
+
+    @Test
+    void aggregateJobsReadBeforeTheCommitOfAWriteIsNotCached() {
+        // Initialize the database
+        jobRepository.save(job.jobTitle("Developer").jobHours(10L)).block();
+        aggregationService.evict(Job.class);
+        List<Aggregate> aggregates = List.of(Aggregate.of(Aggregate.Function.SUM, "jobHours"));
+        JobDTO jobDTO = jobMapper.toDto(createEntity(em).jobTitle("Developer").jobHours(30L));
+
+        // Aggregate the jobs in another transaction, once the write is done but before it commits
+        Mono<List<Map<String, Object>>> concurrentRead = Mono
+            .delay(Duration.ofMillis(100))
+            .then(Mono.defer(() -> aggregationService.aggregate(Job.class, "jobTitle", "jobTitle", aggregates)))
+            .contextWrite(context -> Context.empty());
+        List<Map<String, Object>> rows = TransactionalOperator
+            .create(transactionManager)
+            .transactional(jobService.save(jobDTO).then(concurrentRead))
+            .block();
+        assertThat(rows).singleElement().extracting(row -> ((Number) row.get("count")).longValue()).isEqualTo(1L);
+
+        rows = aggregationService.aggregate(Job.class, "jobTitle", "jobTitle", aggregates).block();
+        assertThat(rows).singleElement().extracting(row -> ((Number) row.get("count")).longValue()).isEqualTo(2L);
+    }
+
+    @Test
+    void aggregateJobsFollowsTheWrites() {
+        // Initialize the database
+        jobRepository.save(job.jobTitle("Developer").jobHours(10L)).block();
+        jobRepository.save(createEntity(em).jobTitle("Developer").jobHours(30L)).block();
+        Job tester = jobRepository.save(createEntity(em).jobTitle("Tester").jobHours(5L)).block();
+        aggregationService.evict(Job.class);
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/aggregate?groupBy=jobTitle&sum=jobHours&max=jobHours")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(2)
+            .jsonPath("$[0].jobTitle")
+            .isEqualTo("Developer")
+            .jsonPath("$[0].count")
+            .isEqualTo(2)
+            .jsonPath("$[0].sum.jobHours")
+            .isEqualTo(40)
+            .jsonPath("$[0].max.jobHours")
+            .isEqualTo(30)
+            .jsonPath("$[1].jobTitle")
+            .isEqualTo("Tester")
+            .jsonPath("$[1].sum.jobHours")
+            .isEqualTo(5);
+
+        // Delete a job through the API, which evicts the cached aggregation
+        webTestClient.delete().uri(ENTITY_API_URL_ID, tester.getId()).exchange().expectStatus().isNoContent();
+
+        webTestClient
+            .get()
+            .uri(ENTITY_API_URL + "/aggregate?groupBy=employee&avg=jobHours")
+            .accept(MediaType.APPLICATION_JSON)
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectBody()
+            .jsonPath("$.length()")
+            .isEqualTo(1)
+            .jsonPath("$[0].count")
+            .isEqualTo(2)
+            .jsonPath("$[0].avg.jobHours")
+            .isEqualTo(20.0);
+
+        webTestClient.get().uri(ENTITY_API_URL + "/aggregate?groupBy=jobDescription").exchange().expectStatus().isBadRequest();
+        webTestClient.get().uri(ENTITY_API_URL + "/aggregate?groupBy=jobTitle&sum=jobTitle").exchange().expectStatus().isBadRequest();
+    }
+
     @Test
     void getJob() {
         // Initialize the database
@@ -244,6 +423,79 @@ class JobResourceIT {
         assertThat(testJob.getJobHours()).isEqualTo(UPDATED_JOB_HOURS);
     }
 
+    @Test
+    void putJobIfMatch() throws Exception {
+        // Initialize the database
+        jobRepository.save(job).block();
+
+        String eTag = webTestClient
+            .get()
+            .uri(ENTITY_API_URL_ID, job.getId())
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"0\"")
+            .returnResult(JobDTO.class)
+            .getResponseHeaders()
+            .getETag();
+
+        // The first update applies to the version read
+        JobDTO jobDTO = jobMapper.toDto(job.jobTitle(UPDATED_JOB_TITLE));
+        jobDTO.setVersion(null);
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, jobDTO.getId())
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(jobDTO))
+            .exchange()
+            .expectStatus()
+            .isOk()
+            .expectHeader()
+            .valueEquals(HttpHeaders.ETAG, "\"1\"")
+            .expectBody()
+            .jsonPath("$.version")
+            .isEqualTo(1);
+
+        // The second one was read before the first one, with the If-Match header or the version of the body
+        jobDTO.setJobDescription(UPDATED_JOB_DESCRIPTION);
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, jobDTO.getId())
+            .header(HttpHeaders.IF_MATCH, eTag)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(jobDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        jobDTO.setVersion(0L);
+        webTestClient
+            .patch()
+            .uri(ENTITY_API_URL_ID, jobDTO.getId())
+            .contentType(MediaType.valueOf("application/merge-patch+json"))
+            .bodyValue(TestUtil.convertObjectToJsonBytes(jobDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+
+        Job testJob = jobRepository.findById(job.getId()).block();
+        assertThat(testJob.getJobTitle()).isEqualTo(UPDATED_JOB_TITLE);
+        assertThat(testJob.getJobDescription()).isEqualTo(DEFAULT_JOB_DESCRIPTION);
+        assertThat(testJob.getVersion()).isEqualTo(1L);
+
+        // A weak ETag never matches
+        webTestClient
+            .put()
+            .uri(ENTITY_API_URL_ID, jobDTO.getId())
+            .header(HttpHeaders.IF_MATCH, "W/\"1\"")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(TestUtil.convertObjectToJsonBytes(jobDTO))
+            .exchange()
+            .expectStatus()
+            .isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
     @Test
     void putNonExistingJob() throws Exception {
         int databaseSizeBeforeUpdate = jobRepository.findAll().collectList().block().size();
@@ -252,7 +504,7 @@ class JobResourceIT {
         // Create the Job
         JobDTO jobDTO = jobMapper.toDto(job);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // An entity which doesn't exist can't be updated
         webTestClient
             .put()
             .uri(ENTITY_API_URL_ID, jobDTO.getId())
@@ -260,7 +512,7 @@ class JobResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(jobDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Job in the database
         List<Job> jobList = jobRepository.findAll().collectList().block();
@@ -383,7 +635,7 @@ class JobResourceIT {
         // Create the Job
         JobDTO jobDTO = jobMapper.toDto(job);
 
-        // If the entity doesn't have an ID, it will throw BadRequestAlertException
+        // An entity which doesn't exist can't be updated
         webTestClient
             .patch()
             .uri(ENTITY_API_URL_ID, jobDTO.getId())
@@ -391,7 +643,7 @@ class JobResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(jobDTO))
             .exchange()
             .expectStatus()
-            .isBadRequest();
+            .isNotFound();
 
         // Validate the Job in the database
         List<Job> jobList = jobRepository.findAll().collectList().block();
@@ -429,7 +681,7 @@ class JobResourceIT {
         // Create the Job
         JobDTO jobDTO = jobMapper.toDto(job);
 
-        // If url ID doesn't match entity ID, it will throw BadRequestAlertException
+        // The collection only accepts the bulk updates, as an array
         webTestClient
             .patch()
             .uri(ENTITY_API_URL)
@@ -437,7 +689,7 @@ class JobResourceIT {
             .bodyValue(TestUtil.convertObjectToJsonBytes(jobDTO))
             .exchange()
             .expectStatus()
-            .isEqualTo(405);
+            .isEqualTo(415);
 
         // Validate the Job in the database
         List<Job> jobList = jobRepository.findAll().collectList().block();
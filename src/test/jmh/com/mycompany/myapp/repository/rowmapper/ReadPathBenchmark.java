@@ -0,0 +1,133 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.service.ColumnConverter;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import com.mycompany.myapp.service.mapper.DepartmentMapperImpl;
+import com.mycompany.myapp.service.mapper.EmployeeMapper;
+import com.mycompany.myapp.service.mapper.EmployeeMapperImpl;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Compares the read paths of an employee row: through the entity, with its department, and the MapStruct mapper, as the
+ * writes read it, and straight to the DTO with {@link EmployeeDTORowMapper}, as the read-only service methods read it.
+ * <p>
+ * The main method runs the benchmarks with the GC profiler, and fails if a path allocates more bytes per row than its
+ * budget in {@link #ALLOCATION_BUDGETS}: run with {@code ./mvnw -Pbenchmark test-compile exec:exec
+ * -Djmh.main=com.mycompany.myapp.repository.rowmapper.ReadPathBenchmark}. The budgets leave room for about one
+ * more small object per row over what was measured, 320 bytes through the entity and 104 bytes straight to the DTO on
+ * Java 11 with compressed oops: raise them only along with the change which needs it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    /**
+     * The bytes each benchmark may allocate per row, as reported by the {@code gc.alloc.rate.norm} metric.
+     */
+    static final Map<String, Double> ALLOCATION_BUDGETS = Map.of("throughEntity", 352.0, "straightToDto", 128.0);
+
+    private EmployeeRowMapper employeeMapper;
+
+    private DepartmentRowMapper departmentMapper;
+
+    private EmployeeMapper employeeDtoMapper;
+
+    private EmployeeDTORowMapper employeeDtoRowMapper;
+
+    private RowMetadata metadata;
+
+    private Row row;
+
+    @Setup
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(MySqlDialect.INSTANCE);
+        ColumnConverter converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        employeeMapper = new EmployeeRowMapper(converter);
+        departmentMapper = new DepartmentRowMapper(converter);
+        employeeDtoMapper = new EmployeeMapperImpl();
+        ReflectionTestUtils.setField(employeeDtoMapper, "departmentMapper", new DepartmentMapperImpl());
+        employeeDtoRowMapper = new EmployeeDTORowMapper(converter);
+        // The row of the joined select: the DTO path ignores the columns of the department
+        Object[] values = { 1L, "Grace", "Hopper", "grace@navy.mil", "555-0100", BigInteger.valueOf(120_000), 2L, 2L, "Research" };
+        metadata = new RowMapperBenchmark.StubRowMetadata(values);
+        row = new RowMapperBenchmark.StubRow(values);
+    }
+
+    @Benchmark
+    public EmployeeDTO throughEntity() {
+        Employee entity = employeeMapper.apply(row, metadata, "e");
+        entity.setDepartment(departmentMapper.apply(row, metadata, "department"));
+        return employeeDtoMapper.toDto(entity);
+    }
+
+    @Benchmark
+    public EmployeeDTO straightToDto() {
+        return employeeDtoRowMapper.apply(row, metadata, "e");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder().include(ReadPathBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build();
+        List<String> overBudget = new ArrayList<>();
+        for (RunResult result : new Runner(options).run()) {
+            String benchmark = result.getParams().getBenchmark();
+            benchmark = benchmark.substring(benchmark.lastIndexOf('.') + 1);
+            Double budget = ALLOCATION_BUDGETS.get(benchmark);
+            Double allocated = allocatedPerRow(result);
+            if (budget != null && allocated != null && allocated > budget) {
+                overBudget.add(
+                    String.format(Locale.ROOT, "%s allocates %.1f bytes per row, over its budget of %.0f", benchmark, allocated, budget)
+                );
+            }
+        }
+        if (!overBudget.isEmpty()) {
+            throw new IllegalStateException(String.join("\n", overBudget));
+        }
+    }
+
+    /**
+     * The {@code gc.alloc.rate.norm} metric of the GC profiler, whose label is prefixed with a middle dot by the JMH
+     * versions before 1.35.
+     */
+    private static Double allocatedPerRow(RunResult result) {
+        for (Map.Entry<String, Result> secondary : result.getSecondaryResults().entrySet()) {
+            if (secondary.getKey().endsWith("gc.alloc.rate.norm")) {
+                return secondary.getValue().getScore();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,202 @@
+package com.mycompany.myapp.repository.rowmapper;
+
+import com.mycompany.myapp.domain.Department;
+import com.mycompany.myapp.domain.Employee;
+import com.mycompany.myapp.service.ColumnConverter;
+import io.r2dbc.spi.ColumnMetadata;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.RowMetadata;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.r2dbc.convert.MappingR2dbcConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.MySqlDialect;
+import org.springframework.data.r2dbc.mapping.R2dbcMappingContext;
+
+/**
+ * Compares the mapping of an employee row joined to its department, as the list endpoints read it, by name with the
+ * exception driven fallback of the previous row mappers, and by index with {@link RowColumns}.
+ * <p>
+ * The rows mimic the MySQL driver: the salary, a {@code BIGINT UNSIGNED}, is decoded as a {@link BigInteger}, so reading
+ * it as a {@code Long} takes the conversion path. Run with
+ * {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.benchmarks=RowMapperBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    private static final String[] COLUMNS = {
+        "e_id",
+        "e_first_name",
+        "e_last_name",
+        "e_email",
+        "e_phone_number",
+        "e_salary",
+        "e_department_id",
+        "department_id",
+        "department_department_name",
+    };
+
+    private ColumnConverter converter;
+
+    private EmployeeRowMapper employeeMapper;
+
+    private DepartmentRowMapper departmentMapper;
+
+    private RowMetadata metadata;
+
+    private Row row;
+
+    @Setup
+    public void setup() {
+        R2dbcCustomConversions conversions = R2dbcCustomConversions.of(MySqlDialect.INSTANCE);
+        converter = new ColumnConverter(conversions, new MappingR2dbcConverter(new R2dbcMappingContext(), conversions));
+        employeeMapper = new EmployeeRowMapper(converter);
+        departmentMapper = new DepartmentRowMapper(converter);
+        Object[] values = { 1L, "Grace", "Hopper", "grace@navy.mil", "555-0100", BigInteger.valueOf(120_000), 2L, 2L, "Research" };
+        metadata = new StubRowMetadata(values);
+        row = new StubRow(values);
+    }
+
+    @Benchmark
+    public Employee byNameWithFallback() {
+        Employee entity = new Employee();
+        String prefix = "e";
+        entity.setId(fromRowWithFallback(row, prefix + "_id", Long.class));
+        entity.setFirstName(fromRowWithFallback(row, prefix + "_first_name", String.class));
+        entity.setLastName(fromRowWithFallback(row, prefix + "_last_name", String.class));
+        entity.setEmail(fromRowWithFallback(row, prefix + "_email", String.class));
+        entity.setPhoneNumber(fromRowWithFallback(row, prefix + "_phone_number", String.class));
+        entity.setSalary(fromRowWithFallback(row, prefix + "_salary", Long.class));
+        entity.setDepartmentId(fromRowWithFallback(row, prefix + "_department_id", Long.class));
+        Department department = new Department();
+        prefix = "department";
+        department.setId(fromRowWithFallback(row, prefix + "_id", Long.class));
+        department.setDepartmentName(fromRowWithFallback(row, prefix + "_department_name", String.class));
+        entity.setDepartment(department);
+        return entity;
+    }
+
+    @Benchmark
+    public Employee byIndex() {
+        Employee entity = employeeMapper.apply(row, metadata, "e");
+        entity.setDepartment(departmentMapper.apply(row, metadata, "department"));
+        return entity;
+    }
+
+    /**
+     * The previous {@code ColumnConverter.fromRow}: asks the driver for the target type, and converts the value when it
+     * throws.
+     */
+    private <T> T fromRowWithFallback(Row row, String columnName, Class<T> target) {
+        try {
+            return row.get(columnName, target);
+        } catch (Exception e) {
+            return converter.convert(row.get(columnName), target);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RowMapperBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * A row which, like the drivers, looks its columns up by name in a map, and rejects the types it doesn't decode to.
+     */
+    static final class StubRow implements Row {
+
+        private final Object[] values;
+
+        private final Map<String, Integer> indexes = new HashMap<>();
+
+        StubRow(Object[] values) {
+            this.values = values;
+            for (int i = 0; i < COLUMNS.length; i++) {
+                indexes.put(COLUMNS[i].toUpperCase(Locale.ROOT), i);
+            }
+        }
+
+        @Override
+        public <T> T get(int index, Class<T> type) {
+            Object value = values[index];
+            if (value != null && !type.isInstance(value)) {
+                throw new IllegalArgumentException("Cannot decode " + value.getClass() + " as " + type);
+            }
+            return type.cast(value);
+        }
+
+        @Override
+        public <T> T get(String name, Class<T> type) {
+            return get(indexes.get(name.toUpperCase(Locale.ROOT)), type);
+        }
+    }
+
+    static final class StubRowMetadata implements RowMetadata {
+
+        private final List<ColumnMetadata> columns = new ArrayList<>();
+
+        StubRowMetadata(Object[] values) {
+            for (int i = 0; i < COLUMNS.length; i++) {
+                String name = COLUMNS[i];
+                Class<?> javaType = values[i].getClass();
+                columns.add(
+                    new ColumnMetadata() {
+                        @Override
+                        public String getName() {
+                            return name;
+                        }
+
+                        @Override
+                        public Class<?> getJavaType() {
+                            return javaType;
+                        }
+                    }
+                );
+            }
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(int index) {
+            return columns.get(index);
+        }
+
+        @Override
+        public ColumnMetadata getColumnMetadata(String name) {
+            return columns.get(Arrays.asList(COLUMNS).indexOf(name));
+        }
+
+        @Override
+        public Iterable<? extends ColumnMetadata> getColumnMetadatas() {
+            return columns;
+        }
+
+        @Override
+        public Collection<String> getColumnNames() {
+            return Arrays.asList(COLUMNS);
+        }
+    }
+}
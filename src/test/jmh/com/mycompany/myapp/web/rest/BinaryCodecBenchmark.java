@@ -0,0 +1,121 @@
+package com.mycompany.myapp.web.rest;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.mycompany.myapp.service.dto.DepartmentDTO;
+import com.mycompany.myapp.service.dto.EmployeeDTO;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the serialization and the deserialization of a page of 1,000 employees, with their department, as JSON, CBOR
+ * and Smile, configured like the codecs of the REST API. The size of the payload is printed before the benchmarks of
+ * each format.
+ * <p>
+ * Run with {@code ./mvnw -Pbenchmark test-compile exec:exec -Djmh.benchmarks=BinaryCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BinaryCodecBenchmark {
+
+    private static final int PAGE_SIZE = 1000;
+
+    private static final TypeReference<List<EmployeeDTO>> EMPLOYEES = new TypeReference<>() {};
+
+    @Param({ "json", "cbor", "smile" })
+    public String format;
+
+    private ObjectMapper mapper;
+
+    private List<EmployeeDTO> page;
+
+    private byte[] payload;
+
+    @Setup
+    public void setup() throws IOException {
+        mapper = mapper(format);
+        page = page();
+        payload = mapper.writeValueAsBytes(page);
+        System.out.printf(Locale.ROOT, "%n%s payload of %d employees: %,d bytes%n", format, PAGE_SIZE, payload.length);
+    }
+
+    @Benchmark
+    public byte[] write() throws IOException {
+        return mapper.writeValueAsBytes(page);
+    }
+
+    @Benchmark
+    public List<EmployeeDTO> read() throws IOException {
+        return mapper.readValue(payload, EMPLOYEES);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BinaryCodecBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    /**
+     * The object mapper of a format, with the fieldset filter of the DTOs, like the ones of {@code JacksonConfiguration}.
+     */
+    private static ObjectMapper mapper(String format) {
+        JsonFactory factory;
+        switch (format) {
+            case "cbor":
+                factory = new CBORFactory();
+                break;
+            case "smile":
+                factory = new SmileFactory();
+                break;
+            default:
+                factory = new JsonFactory();
+        }
+        ObjectMapper mapper = new ObjectMapper(factory);
+        mapper.setFilterProvider(new SimpleFilterProvider().setFailOnUnknownId(false));
+        return mapper;
+    }
+
+    private static List<EmployeeDTO> page() {
+        List<EmployeeDTO> page = new ArrayList<>(PAGE_SIZE);
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            DepartmentDTO department = new DepartmentDTO();
+            department.setId(id % 20);
+            department.setDepartmentName("Department " + (id % 20));
+            department.setVersion(0L);
+            EmployeeDTO employee = new EmployeeDTO();
+            employee.setId(id);
+            employee.setFirstName("First" + id);
+            employee.setLastName("Last" + id);
+            employee.setEmail("employee" + id + "@example.com");
+            employee.setPhoneNumber("555-" + (1000 + id));
+            employee.setSalary(30_000 + id * 10);
+            employee.setDepartment(department);
+            employee.setVersion(id % 5);
+            page.add(employee);
+        }
+        return page;
+    }
+}